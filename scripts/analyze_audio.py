@@ -5,13 +5,29 @@
 
 输入：音频文件路径，可选的参考音频路径
 输出：JSON 格式的分析结果
+
+常驻模式（--server）：由 Java 端进程池启动，预热完成后输出 {"ready": true}，
+之后从 stdin 逐行读取 JSON 请求 {"request_id", "audio_path", "reference_path", "stream", "features", "pcm_path",
+"reference_features_path"}，每个请求向 stdout 输出一行带 request_id 的 JSON 结果
+
+共享 PCM（常驻模式请求中 "pcm_path"，或命令行加 --pcm path）：Java 端已把音频解码为 22050 Hz 单声道
+f32le 原始文件，脚本直接内存映射，不再调用 librosa.load；不提供时脚本自己解码一次，所有特征共用
+
+按需分析（常驻模式请求中 "features": ["pitch", "rhythm"]，或命令行加 --features pitch,rhythm）：
+只运行列出的特征提取，综合评分按选中维度的权重重新归一化，未选中的维度分数为 null
+
+参考音频特征（常驻模式请求中 "reference_features_path"，或命令行加 --reference-features path）：
+歌曲上传时用 --precompute-reference <音频> <输出> [--pcm path] 预先计算参考音频的 MFCC、音高曲线和起音强度包络，
+对比时直接内存映射 MFCC，不再解码参考音频；文件失效（源文件大小或修改时间变化）时回退为解码参考音频
+
+增量输出（常驻模式请求中 "stream": true，或命令行加 --stream）：每完成一项特征先输出一行
+{"event": "feature", "name": "pitch", "value": {...}}（常驻模式带 request_id），最后一行仍是完整结果
 """
 
 import sys
 import json
 import os
-import tempfile
-import subprocess
+import struct
 import warnings
 
 # 禁用所有警告信息，确保输出只有纯净的 JSON
@@ -23,39 +39,30 @@ import parselmouth
 from parselmouth.praat import call
 
 
-def convert_to_wav(input_path):
-    """将音频文件转换为 WAV 格式（用于 Parselmouth 分析）"""
-    if input_path.lower().endswith('.wav'):
-        return input_path, False
-    
-    temp_wav = tempfile.NamedTemporaryFile(suffix='.wav', delete=False)
-    temp_wav.close()
-    
-    try:
-        result = subprocess.run(
-            ['ffmpeg', '-y', '-i', input_path, '-ar', '22050', '-ac', '1', temp_wav.name],
-            capture_output=True,
-            text=True,
-            timeout=60
-        )
-        if result.returncode == 0:
-            return temp_wav.name, True
-        else:
-            os.unlink(temp_wav.name)
-            return None, False
-    except FileNotFoundError:
-        os.unlink(temp_wav.name)
-        return None, False
-    except Exception:
-        if os.path.exists(temp_wav.name):
-            os.unlink(temp_wav.name)
-        return None, False
+SAMPLE_RATE = 22050
+
+# 参考音频特征文件：文件头之后依次是 float32 的 MFCC（n_mfcc × frames）、音高曲线和起音强度包络（各 frames）
+REFERENCE_MAGIC = b"VCRF"
+REFERENCE_VERSION = 1
+REFERENCE_HEADER = struct.Struct("<4s5iqq")
+REFERENCE_N_MFCC = 13
+REFERENCE_HOP = 512
+
 
+def load_audio(audio_path, pcm_path=None):
+    """解码一次音频，所有特征提取共用同一份 22050 Hz 单声道 float32 PCM。
+    pcm_path 为 Java 端已解码好的 f32le 文件（通常在 /dev/shm），直接内存映射，不再解码和重采样"""
+    if pcm_path:
+        if os.path.getsize(pcm_path) == 0:
+            return np.zeros(0, dtype=np.float32), SAMPLE_RATE
+        # 写时复制映射：提取过程不会改动共享文件
+        return np.memmap(pcm_path, dtype="<f4", mode="c"), SAMPLE_RATE
+    y, sr = librosa.load(audio_path, sr=SAMPLE_RATE)
+    return y, sr
 
-def extract_pitch_features(audio_path):
+
+def extract_pitch_features(y, sr):
     """提取音高特征"""
-    y, sr = librosa.load(audio_path, sr=22050)
-    
     pitches, magnitudes = librosa.piptrack(y=y, sr=sr, fmin=50, fmax=2000)
     
     pitch_values = []
@@ -83,10 +90,8 @@ def extract_pitch_features(audio_path):
     }
 
 
-def extract_rhythm_features(audio_path):
+def extract_rhythm_features(y, sr):
     """提取节奏特征"""
-    y, sr = librosa.load(audio_path, sr=22050)
-    
     tempo, beat_frames = librosa.beat.beat_track(y=y, sr=sr)
     beat_times = librosa.frames_to_time(beat_frames, sr=sr)
     
@@ -111,78 +116,58 @@ def extract_rhythm_features(audio_path):
     }
 
 
-def extract_voice_features(audio_path):
-    """使用 Parselmouth 提取嗓音特征"""
-    wav_path, is_temp = convert_to_wav(audio_path)
-    if wav_path is None:
-        return {
-            "jitter": 0.02,
-            "shimmer": 0.05,
-            "hnr": 15.0,
-            "jitter_score": 60,
-            "shimmer_score": 75,
-            "hnr_score": 60,
-            "voice_score": 65,
-            "voice_quality": "良好",
-            "note": "无法转换音频格式（需要安装 ffmpeg），使用默认值"
-        }
+def extract_voice_features(y, sr):
+    """使用 Parselmouth 提取嗓音特征，直接用已解码的 PCM 构造 Sound，不再经 ffmpeg 转 WAV"""
+    sound = parselmouth.Sound(np.asarray(y, dtype=np.float64), sampling_frequency=sr)
+    
+    pitch = call(sound, "To Pitch", 0.0, 75, 600)
+    
+    point_process = call(sound, "To PointProcess (periodic, cc)", 75, 600)
     
     try:
-        sound = parselmouth.Sound(wav_path)
-        
-        pitch = call(sound, "To Pitch", 0.0, 75, 600)
-        
-        point_process = call(sound, "To PointProcess (periodic, cc)", 75, 600)
-        
-        try:
-            jitter = call(point_process, "Get jitter (local)", 0, 0, 0.0001, 0.02, 1.3)
-        except:
-            jitter = 0.02
-        
-        try:
-            shimmer = call([sound, point_process], "Get shimmer (local)", 0, 0, 0.0001, 0.02, 1.3, 1.6)
-        except:
-            shimmer = 0.05
-        
-        try:
-            harmonicity = call(sound, "To Harmonicity (cc)", 0.01, 75, 0.1, 1.0)
-            hnr = call(harmonicity, "Get mean", 0, 0)
-        except:
-            hnr = 15.0
-        
-        jitter_score = max(0, min(100, 100 - jitter * 2000))
-        shimmer_score = max(0, min(100, 100 - shimmer * 500))
-        hnr_score = max(0, min(100, hnr * 4))
-        
-        voice_score = (jitter_score * 0.3 + shimmer_score * 0.3 + hnr_score * 0.4)
-        
-        voice_quality = "优秀"
-        if voice_score < 60:
-            voice_quality = "需要改进"
-        elif voice_score < 75:
-            voice_quality = "良好"
-        elif voice_score < 90:
-            voice_quality = "很好"
-        
-        return {
-            "jitter": float(jitter),
-            "shimmer": float(shimmer),
-            "hnr": float(hnr) if not np.isnan(hnr) else 15.0,
-            "jitter_score": jitter_score,
-            "shimmer_score": shimmer_score,
-            "hnr_score": hnr_score,
-            "voice_score": voice_score,
-            "voice_quality": voice_quality
-        }
-    finally:
-        if is_temp and wav_path and os.path.exists(wav_path):
-            os.unlink(wav_path)
+        jitter = call(point_process, "Get jitter (local)", 0, 0, 0.0001, 0.02, 1.3)
+    except:
+        jitter = 0.02
+    
+    try:
+        shimmer = call([sound, point_process], "Get shimmer (local)", 0, 0, 0.0001, 0.02, 1.3, 1.6)
+    except:
+        shimmer = 0.05
+    
+    try:
+        harmonicity = call(sound, "To Harmonicity (cc)", 0.01, 75, 0.1, 1.0)
+        hnr = call(harmonicity, "Get mean", 0, 0)
+    except:
+        hnr = 15.0
+    
+    jitter_score = max(0, min(100, 100 - jitter * 2000))
+    shimmer_score = max(0, min(100, 100 - shimmer * 500))
+    hnr_score = max(0, min(100, hnr * 4))
+    
+    voice_score = (jitter_score * 0.3 + shimmer_score * 0.3 + hnr_score * 0.4)
+    
+    voice_quality = "优秀"
+    if voice_score < 60:
+        voice_quality = "需要改进"
+    elif voice_score < 75:
+        voice_quality = "良好"
+    elif voice_score < 90:
+        voice_quality = "很好"
+    
+    return {
+        "jitter": float(jitter),
+        "shimmer": float(shimmer),
+        "hnr": float(hnr) if not np.isnan(hnr) else 15.0,
+        "jitter_score": jitter_score,
+        "shimmer_score": shimmer_score,
+        "hnr_score": hnr_score,
+        "voice_score": voice_score,
+        "voice_quality": voice_quality
+    }
 
 
-def extract_timbre_features(audio_path):
+def extract_timbre_features(y, sr):
     """提取音色特征"""
-    y, sr = librosa.load(audio_path, sr=22050)
-    
     mfccs = librosa.feature.mfcc(y=y, sr=sr, n_mfcc=13)
     mfcc_mean = np.mean(mfccs, axis=1).tolist()
     
@@ -202,10 +187,8 @@ def extract_timbre_features(audio_path):
     }
 
 
-def extract_energy_features(audio_path):
+def extract_energy_features(y, sr):
     """提取能量/气息特征"""
-    y, sr = librosa.load(audio_path, sr=22050)
-    
     rms = librosa.feature.rms(y=y)
     rms_mean = float(np.mean(rms))
     rms_std = float(np.std(rms))
@@ -222,13 +205,66 @@ def extract_energy_features(audio_path):
     }
 
 
-def compare_with_reference(user_audio_path, reference_audio_path):
+def compute_reference_features(audio_path, pcm_path=None):
+    """计算参考音频的 MFCC、逐帧音高（无声帧为 0）和起音强度包络，三者帧数对齐"""
+    y, sr = load_audio(audio_path, pcm_path)
+    mfcc = librosa.feature.mfcc(y=y, sr=sr, n_mfcc=REFERENCE_N_MFCC, hop_length=REFERENCE_HOP)
+    pitches, magnitudes = librosa.piptrack(y=y, sr=sr, hop_length=REFERENCE_HOP)
+    if pitches.shape[1] > 0:
+        pitch = pitches[magnitudes.argmax(axis=0), np.arange(pitches.shape[1])]
+    else:
+        pitch = np.zeros(0)
+    onset = librosa.onset.onset_strength(y=y, sr=sr, hop_length=REFERENCE_HOP)
+
+    frames = min(mfcc.shape[1], len(pitch), len(onset))
+    return mfcc[:, :frames], pitch[:frames], onset[:frames]
+
+
+def write_reference_features(audio_path, out_path, pcm_path=None):
+    """预计算参考音频特征并写入 out_path，先写临时文件再替换，读取方不会看到写了一半的文件"""
+    stat = os.stat(audio_path)
+    mfcc, pitch, onset = compute_reference_features(audio_path, pcm_path)
+    frames = mfcc.shape[1]
+    header = REFERENCE_HEADER.pack(REFERENCE_MAGIC, REFERENCE_VERSION, SAMPLE_RATE, REFERENCE_HOP,
+                                   REFERENCE_N_MFCC, frames, stat.st_size, stat.st_mtime_ns // 1000000)
+
+    tmp_path = out_path + ".tmp"
+    with open(tmp_path, "wb") as f:
+        f.write(header)
+        for array in (mfcc, pitch, onset):
+            f.write(np.ascontiguousarray(array, dtype="<f4").tobytes())
+    os.replace(tmp_path, out_path)
+    return frames
+
+
+def load_reference_mfcc(features_path, reference_path):
+    """内存映射预计算的参考 MFCC；文件损坏、版本不符或与参考音频对不上时返回 None"""
+    try:
+        stat = os.stat(reference_path)
+        with open(features_path, "rb") as f:
+            header = f.read(REFERENCE_HEADER.size)
+        magic, version, sr, hop, n_mfcc, frames, size, mtime_ms = REFERENCE_HEADER.unpack(header)
+    except (OSError, struct.error):
+        return None
+    expected_length = REFERENCE_HEADER.size + 4 * frames * (n_mfcc + 2)
+    if (magic != REFERENCE_MAGIC or version != REFERENCE_VERSION or sr != SAMPLE_RATE
+            or n_mfcc != REFERENCE_N_MFCC or frames <= 0
+            or size != stat.st_size or mtime_ms != stat.st_mtime_ns // 1000000
+            or os.path.getsize(features_path) != expected_length):
+        return None
+    return np.memmap(features_path, dtype="<f4", mode="c", offset=REFERENCE_HEADER.size, shape=(n_mfcc, frames))
+
+
+def compare_with_reference(y_user, sr, reference_audio_path, reference_features_path=None):
     """与参考音频对比（DTW 对齐）"""
-    y_user, sr = librosa.load(user_audio_path, sr=22050)
-    y_ref, sr = librosa.load(reference_audio_path, sr=22050)
+    mfcc_ref = None
+    if reference_features_path:
+        mfcc_ref = load_reference_mfcc(reference_features_path, reference_audio_path)
+    if mfcc_ref is None:
+        y_ref, _ = librosa.load(reference_audio_path, sr=sr)
+        mfcc_ref = librosa.feature.mfcc(y=y_ref, sr=sr, n_mfcc=REFERENCE_N_MFCC)
     
-    mfcc_user = librosa.feature.mfcc(y=y_user, sr=sr, n_mfcc=13)
-    mfcc_ref = librosa.feature.mfcc(y=y_ref, sr=sr, n_mfcc=13)
+    mfcc_user = librosa.feature.mfcc(y=y_user, sr=sr, n_mfcc=REFERENCE_N_MFCC)
     
     D, wp = librosa.sequence.dtw(mfcc_user, mfcc_ref, subseq=True)
     
@@ -243,86 +279,209 @@ def compare_with_reference(user_audio_path, reference_audio_path):
     }
 
 
-def analyze_audio(audio_path, reference_path=None):
-    """主分析函数"""
+FEATURE_EXTRACTORS = [
+    ("pitch", extract_pitch_features),
+    ("rhythm", extract_rhythm_features),
+    ("voice", extract_voice_features),
+    ("timbre", extract_timbre_features),
+    ("energy", extract_energy_features),
+]
+
+FEATURE_NAMES = [name for name, _ in FEATURE_EXTRACTORS] + ["comparison"]
+
+# 评分维度：(分数名, 特征名, 特征中的分数字段, 权重)
+SCORE_DIMENSIONS = [
+    ("pitch", "pitch", "pitch_stability", 0.3),
+    ("rhythm", "rhythm", "rhythm_score", 0.25),
+    ("voice", "voice", "voice_score", 0.25),
+    ("breath", "energy", "breath_control_score", 0.2),
+]
+
+
+def select_features(features):
+    """校验请求的特征列表，为空时返回 None 表示全部"""
+    if not features:
+        return None
+    selected = set()
+    for name in features:
+        if name not in FEATURE_NAMES:
+            raise ValueError("不支持的特征: " + str(name))
+        selected.add(name)
+    return selected
+
+
+def analyze_audio(audio_path, reference_path=None, on_feature=None, features=None, pcm_path=None,
+                  reference_features_path=None):
+    """主分析函数，on_feature(name, value) 在每项特征完成后调用，features 为空时提取全部特征"""
+    selected = select_features(features)
+    y, sr = load_audio(audio_path, pcm_path)
     result = {
         "success": True,
         "audio_path": audio_path,
         "features": {}
     }
     
-    try:
-        result["features"]["pitch"] = extract_pitch_features(audio_path)
-    except Exception as e:
-        result["features"]["pitch"] = {"error": str(e)}
-    
-    try:
-        result["features"]["rhythm"] = extract_rhythm_features(audio_path)
-    except Exception as e:
-        result["features"]["rhythm"] = {"error": str(e)}
-    
-    try:
-        result["features"]["voice"] = extract_voice_features(audio_path)
-    except Exception as e:
-        result["features"]["voice"] = {"error": str(e)}
-    
-    try:
-        result["features"]["timbre"] = extract_timbre_features(audio_path)
-    except Exception as e:
-        result["features"]["timbre"] = {"error": str(e)}
-    
-    try:
-        result["features"]["energy"] = extract_energy_features(audio_path)
-    except Exception as e:
-        result["features"]["energy"] = {"error": str(e)}
-    
-    if reference_path:
+    for name, extractor in FEATURE_EXTRACTORS:
+        if selected is not None and name not in selected:
+            continue
         try:
-            result["features"]["comparison"] = compare_with_reference(audio_path, reference_path)
+            result["features"][name] = extractor(y, sr)
         except Exception as e:
-            result["features"]["comparison"] = {"error": str(e), "has_reference": False}
-    else:
-        result["features"]["comparison"] = {"has_reference": False}
+            result["features"][name] = {"error": str(e)}
+        if on_feature:
+            on_feature(name, result["features"][name])
+    
+    if selected is None or "comparison" in selected:
+        if reference_path:
+            try:
+                result["features"]["comparison"] = compare_with_reference(y, sr, reference_path,
+                                                                              reference_features_path)
+            except Exception as e:
+                result["features"]["comparison"] = {"error": str(e), "has_reference": False}
+        else:
+            result["features"]["comparison"] = {"has_reference": False}
+        if on_feature:
+            on_feature("comparison", result["features"]["comparison"])
     
-    scores = calculate_overall_scores(result["features"])
+    scores = calculate_overall_scores(result["features"], selected)
     result["scores"] = scores
     
     return result
 
 
-def calculate_overall_scores(features):
-    """计算综合评分"""
-    pitch_score = features.get("pitch", {}).get("pitch_stability", 70)
-    rhythm_score = features.get("rhythm", {}).get("rhythm_score", 70)
-    voice_score = features.get("voice", {}).get("voice_score", 70)
-    breath_score = features.get("energy", {}).get("breath_control_score", 70)
-    
-    pitch_score = min(100, max(0, pitch_score))
-    rhythm_score = min(100, max(0, rhythm_score))
-    voice_score = min(100, max(0, voice_score))
-    breath_score = min(100, max(0, breath_score))
-    
-    overall = pitch_score * 0.3 + rhythm_score * 0.25 + voice_score * 0.25 + breath_score * 0.2
+def calculate_overall_scores(features, selected=None):
+    """计算综合评分，selected 不为空时只对选中的维度评分，权重按选中维度重新归一化"""
+    scores = {}
+    weighted = 0
+    total_weight = 0
+    for score_name, feature_name, field, weight in SCORE_DIMENSIONS:
+        if selected is not None and feature_name not in selected:
+            scores[score_name] = None
+            continue
+        score = min(100, max(0, features.get(feature_name, {}).get(field, 70)))
+        scores[score_name] = round(score, 1)
+        weighted += score * weight
+        total_weight += weight
+    
+    overall = round(weighted / total_weight, 1) if total_weight > 0 else None
     
     return {
-        "overall": round(overall, 1),
-        "pitch": round(pitch_score, 1),
-        "rhythm": round(rhythm_score, 1),
-        "voice": round(voice_score, 1),
-        "breath": round(breath_score, 1)
+        "overall": overall,
+        "pitch": scores["pitch"],
+        "rhythm": scores["rhythm"],
+        "voice": scores["voice"],
+        "breath": scores["breath"]
     }
 
 
+def warm_up():
+    """预热 librosa / numba 的 JIT 编译，避免首个请求承担编译耗时"""
+    sr = 22050
+    t = np.linspace(0, 1.0, sr, endpoint=False)
+    y = (0.5 * np.sin(2 * np.pi * 220 * t)).astype(np.float32)
+    librosa.piptrack(y=y, sr=sr, fmin=50, fmax=2000)
+    librosa.beat.beat_track(y=y, sr=sr)
+    librosa.feature.mfcc(y=y, sr=sr, n_mfcc=13)
+    librosa.feature.spectral_centroid(y=y, sr=sr)
+    librosa.feature.spectral_rolloff(y=y, sr=sr)
+    librosa.feature.rms(y=y)
+
+
+def feature_event_writer(out, request_id=None):
+    """返回一个把特征事件写成一行 JSON 并立即 flush 的回调"""
+    def write(name, value):
+        event = {"event": "feature", "name": name, "value": value}
+        if request_id is not None:
+            event["request_id"] = request_id
+        out.write(json.dumps(event, ensure_ascii=False) + "\n")
+        out.flush()
+    return write
+
+
+def pop_option(args, name):
+    """从参数列表中取出 name value 形式的选项，不存在时返回 None"""
+    if name not in args:
+        return None
+    index = args.index(name)
+    value = args[index + 1] if index + 1 < len(args) else None
+    del args[index:index + 2]
+    return value
+
+
+def serve():
+    """常驻模式：逐行读取请求，逐行输出结果"""
+    out = sys.stdout
+    # 第三方库的零散输出重定向到 stderr，保证 stdout 只有协议数据
+    sys.stdout = sys.stderr
+
+    try:
+        warm_up()
+    except Exception:
+        pass
+
+    out.write(json.dumps({"ready": True}) + "\n")
+    out.flush()
+
+    for line in sys.stdin:
+        line = line.strip()
+        if not line:
+            continue
+
+        request_id = None
+        try:
+            request = json.loads(line)
+            request_id = request.get("request_id")
+            on_feature = feature_event_writer(out, request_id) if request.get("stream") else None
+            response = analyze_audio(request["audio_path"], request.get("reference_path"), on_feature,
+                                     request.get("features"), request.get("pcm_path"),
+                                     request.get("reference_features_path"))
+        except Exception as e:
+            response = {"success": False, "error": str(e)}
+
+        response["request_id"] = request_id
+        out.write(json.dumps(response, ensure_ascii=False) + "\n")
+        out.flush()
+
+
 if __name__ == "__main__":
-    if len(sys.argv) < 2:
+    if len(sys.argv) > 1 and sys.argv[1] == "--server":
+        serve()
+        sys.exit(0)
+
+    if len(sys.argv) > 1 and sys.argv[1] == "--precompute-reference":
+        args = sys.argv[2:]
+        pcm_path = pop_option(args, "--pcm")
+        if len(args) < 2:
+            print(json.dumps({"success": False, "error": "请提供参考音频路径和输出路径"}))
+            sys.exit(1)
+        try:
+            frames = write_reference_features(args[0], args[1], pcm_path)
+            print(json.dumps({"success": True, "frames": frames}))
+        except Exception as e:
+            print(json.dumps({"success": False, "error": str(e)}))
+            sys.exit(1)
+        sys.exit(0)
+
+    args = sys.argv[1:]
+    stream = "--stream" in args
+    args = [arg for arg in args if arg != "--stream"]
+    features = pop_option(args, "--features")
+    if features is not None:
+        features = [name.strip() for name in features.split(",") if name.strip()]
+    pcm_path = pop_option(args, "--pcm")
+    reference_features_path = pop_option(args, "--reference-features")
+
+    if len(args) < 1:
         print(json.dumps({"success": False, "error": "请提供音频文件路径"}))
         sys.exit(1)
     
-    audio_path = sys.argv[1]
-    reference_path = sys.argv[2] if len(sys.argv) > 2 else None
+    audio_path = args[0]
+    reference_path = args[1] if len(args) > 1 else None
     
     try:
-        result = analyze_audio(audio_path, reference_path)
+        result = analyze_audio(audio_path, reference_path,
+                               feature_event_writer(sys.stdout) if stream else None, features, pcm_path,
+                               reference_features_path)
         print(json.dumps(result, ensure_ascii=False))
     except Exception as e:
         print(json.dumps({"success": False, "error": str(e)}))
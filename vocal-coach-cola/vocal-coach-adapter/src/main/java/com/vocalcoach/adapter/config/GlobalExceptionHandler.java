@@ -1,7 +1,10 @@
 package com.vocalcoach.adapter.config;
 
 import com.alibaba.cola.dto.Response;
+import com.vocalcoach.client.exception.AnalysisRejectedException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -28,6 +31,13 @@ public class GlobalExceptionHandler {
         return Response.buildFailure("BAD_REQUEST", e.getMessage());
     }
 
+    @ExceptionHandler(AnalysisRejectedException.class)
+    public ResponseEntity<Response> handleAnalysisRejectedException(AnalysisRejectedException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Response.buildFailure("ANALYSIS_REJECTED", e.getMessage()));
+    }
+
     @ExceptionHandler(Exception.class)
     @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
     public Response handleException(Exception e) {
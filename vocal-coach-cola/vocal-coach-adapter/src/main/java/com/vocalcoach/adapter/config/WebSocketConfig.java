@@ -0,0 +1,50 @@
+package com.vocalcoach.adapter.config;
+
+import com.vocalcoach.adapter.web.PitchFeedbackWebSocketHandler;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistration;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.standard.ServletServerContainerFactoryBean;
+
+import javax.annotation.Resource;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    @Resource
+    private PitchFeedbackWebSocketHandler pitchFeedbackWebSocketHandler;
+
+    // 容器为每个连接按此大小分配接收缓冲区，超过的消息会被拒绝
+    @Value("${training.pitch-feedback.max-message-bytes:16384}")
+    private int maxMessageBytes;
+
+    @Value("${training.pitch-feedback.idle-timeout-seconds:30}")
+    private long idleTimeoutSeconds;
+
+    // 允许跨域连接的来源（支持通配模式），为空时只接受与服务同源的页面
+    @Value("${training.pitch-feedback.allowed-origins:}")
+    private String[] allowedOrigins;
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        WebSocketHandlerRegistration registration = registry.addHandler(pitchFeedbackWebSocketHandler,
+                "/ws/training/pitch");
+        if (allowedOrigins.length > 0) {
+            registration.setAllowedOriginPatterns(allowedOrigins);
+        }
+    }
+
+    @Bean
+    public ServletServerContainerFactoryBean createWebSocketContainer() {
+        ServletServerContainerFactoryBean container = new ServletServerContainerFactoryBean();
+        container.setMaxBinaryMessageBufferSize(maxMessageBytes);
+        container.setMaxTextMessageBufferSize(1024);
+        container.setMaxSessionIdleTimeout(idleTimeoutSeconds * 1000);
+        return container;
+    }
+}
@@ -1,14 +1,19 @@
 package com.vocalcoach.adapter.web;
 
-import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.Response;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.client.api.EvaluationServiceI;
 import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.client.dto.CursorPageResponse;
+import com.vocalcoach.client.dto.EvaluationJobDTO;
 import com.vocalcoach.client.dto.EvaluationResultDTO;
 import com.vocalcoach.client.dto.cmd.AnalyzeAudioCmd;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
+import com.vocalcoach.client.exception.AnalysisRejectedException;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.Resource;
 import java.io.File;
@@ -27,6 +32,7 @@ import java.util.Map;
 public class EvaluationController {
 
     private static final String AUDIO_DIR = "data/audios";
+    private static final long JOB_EVENTS_TIMEOUT_MILLIS = 10 * 60 * 1000L;
 
     @Resource
     private EvaluationServiceI evaluationService;
@@ -76,14 +82,56 @@ public class EvaluationController {
             }
 
             return evaluationService.evaluate(cmd);
+        } catch (AnalysisRejectedException e) {
+            // 交给全局异常处理返回 429
+            throw e;
         } catch (Exception e) {
             return SingleResponse.buildFailure("500", "音频分析失败: " + e.getMessage());
         }
     }
 
+    @PostMapping("/jobs")
+    public SingleResponse<EvaluationJobDTO> submitEvaluation(@RequestBody AnalyzeAudioCmd cmd) {
+        if (cmd.getAudioFilePath() == null || cmd.getAudioFilePath().isEmpty()) {
+            return SingleResponse.buildFailure("400", "音频文件路径不能为空");
+        }
+        return evaluationService.submitEvaluation(cmd);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public SingleResponse<EvaluationJobDTO> getEvaluationJob(@PathVariable String jobId) {
+        return evaluationService.getEvaluationJob(jobId);
+    }
+
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribeEvaluationJob(@PathVariable String jobId) throws IOException {
+        SseEmitter emitter = new SseEmitter(JOB_EVENTS_TIMEOUT_MILLIS);
+        boolean found = evaluationService.subscribeEvaluationJob(jobId, job -> {
+            try {
+                emitter.send(SseEmitter.event()
+                        .name(job.getStage().name().toLowerCase())
+                        .data(job, MediaType.APPLICATION_JSON));
+                if (Boolean.TRUE.equals(job.getFinished())) {
+                    emitter.complete();
+                }
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+                throw new IllegalStateException(e);
+            }
+        });
+
+        if (!found) {
+            emitter.send(SseEmitter.event()
+                    .name("error")
+                    .data(Response.buildFailure("EVALUATION_JOB_NOT_FOUND", "评测任务不存在"), MediaType.APPLICATION_JSON));
+            emitter.complete();
+        }
+        return emitter;
+    }
+
     @GetMapping("/list")
-    public MultiResponse<EvaluationResultDTO> listEvaluations() {
-        return evaluationService.listEvaluations();
+    public CursorPageResponse<EvaluationResultDTO> listEvaluations(CursorPageQuery query) {
+        return evaluationService.listEvaluations(query);
     }
 
     @GetMapping("/{id}")
@@ -0,0 +1,92 @@
+package com.vocalcoach.adapter.web;
+
+import com.alibaba.cola.dto.SingleResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.vocalcoach.client.api.PitchFeedbackSession;
+import com.vocalcoach.client.api.TrainingServiceI;
+import com.vocalcoach.client.dto.PitchFeedbackDTO;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+
+/**
+ * 训练练习的实时音高反馈：ws://.../ws/training/pitch?courseId=xx&exerciseId=xx&sampleRate=48000。
+ * 客户端以二进制消息发送单声道 float32 小端 PCM，每条消息里有新的音高帧时回复一条 PitchFeedbackDTO 的 JSON 文本消息。
+ */
+@Component
+public class PitchFeedbackWebSocketHandler extends BinaryWebSocketHandler {
+
+    private static final String SESSION_ATTRIBUTE = "pitchFeedbackSession";
+    private static final int CHUNK_SAMPLES = 4096;
+    // 解码缓冲区按线程复用，不随连接数增长
+    private static final ThreadLocal<float[]> CHUNK = ThreadLocal.withInitial(() -> new float[CHUNK_SAMPLES]);
+
+    @Resource
+    private TrainingServiceI trainingService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws IOException {
+        MultiValueMap<String, String> params = UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+        int sampleRate;
+        try {
+            sampleRate = Integer.parseInt(params.getFirst("sampleRate"));
+        } catch (NumberFormatException e) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(
+                    SingleResponse.buildFailure("INVALID_SAMPLE_RATE", "缺少或无效的采样率"))));
+            session.close(CloseStatus.BAD_DATA);
+            return;
+        }
+
+        SingleResponse<PitchFeedbackSession> response = trainingService.openPitchFeedback(
+                params.getFirst("courseId"), params.getFirst("exerciseId"), sampleRate);
+        if (!response.isSuccess()) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(response)));
+            session.close(CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+        session.getAttributes().put(SESSION_ATTRIBUTE, response.getData());
+    }
+
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) throws IOException {
+        PitchFeedbackSession feedbackSession = (PitchFeedbackSession) session.getAttributes().get(SESSION_ATTRIBUTE);
+        if (feedbackSession == null) {
+            return;
+        }
+        FloatBuffer samples = message.getPayload().order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+        float[] chunk = CHUNK.get();
+        PitchFeedbackDTO latest = null;
+        while (samples.hasRemaining()) {
+            int length = Math.min(chunk.length, samples.remaining());
+            samples.get(chunk, 0, length);
+            PitchFeedbackDTO feedback = feedbackSession.feed(chunk, length);
+            if (feedback != null) {
+                latest = feedback;
+            }
+        }
+        if (latest != null) {
+            session.sendMessage(new TextMessage(objectMapper.writeValueAsString(latest)));
+        }
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        PitchFeedbackSession feedbackSession = (PitchFeedbackSession) session.getAttributes().remove(SESSION_ATTRIBUTE);
+        if (feedbackSession != null) {
+            feedbackSession.close();
+        }
+    }
+}
@@ -1,12 +1,13 @@
 package com.vocalcoach.adapter.web;
 
-import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.Response;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.client.api.ReportServiceI;
+import com.vocalcoach.client.dto.CursorPageResponse;
 import com.vocalcoach.client.dto.ReportDTO;
 import com.vocalcoach.client.dto.StatisticsDTO;
 import com.vocalcoach.client.dto.cmd.SaveReportCmd;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
@@ -25,8 +26,8 @@ public class ReportController {
     }
 
     @GetMapping
-    public MultiResponse<ReportDTO> listReports() {
-        return reportService.listReports();
+    public CursorPageResponse<ReportDTO> listReports(CursorPageQuery query) {
+        return reportService.listReports(query);
     }
 
     @GetMapping("/{id}")
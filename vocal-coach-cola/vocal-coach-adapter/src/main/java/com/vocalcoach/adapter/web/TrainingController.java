@@ -4,8 +4,10 @@ import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.client.api.TrainingServiceI;
 import com.vocalcoach.client.dto.CourseDTO;
+import com.vocalcoach.client.dto.ExerciseScoreDTO;
 import com.vocalcoach.client.dto.TrainingProgressDTO;
 import com.vocalcoach.client.dto.cmd.SaveProgressCmd;
+import com.vocalcoach.client.dto.cmd.ScoreExerciseCmd;
 import org.springframework.web.bind.annotation.*;
 
 import javax.annotation.Resource;
@@ -34,6 +36,11 @@ public class TrainingController {
         return trainingService.saveProgress(cmd);
     }
 
+    @PostMapping("/score")
+    public SingleResponse<ExerciseScoreDTO> scoreExercise(@Valid @RequestBody ScoreExerciseCmd cmd) {
+        return trainingService.scoreExercise(cmd);
+    }
+
     @GetMapping("/overall-progress")
     public SingleResponse<Integer> getOverallProgress() {
         return trainingService.getOverallProgress();
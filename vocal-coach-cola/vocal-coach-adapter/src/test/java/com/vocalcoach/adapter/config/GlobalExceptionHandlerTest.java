@@ -0,0 +1,31 @@
+package com.vocalcoach.adapter.config;
+
+import com.alibaba.cola.dto.Response;
+import com.vocalcoach.client.exception.AnalysisRejectedException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 分析被拒绝时返回 429，并通过 Retry-After 告诉调用方多久后重试。
+ */
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void mapsAnalysisRejectionToTooManyRequests() {
+        ResponseEntity<Response> response = handler.handleAnalysisRejectedException(
+                new AnalysisRejectedException("分析任务过多，请稍后再试", 45));
+
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("45", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertFalse(response.getBody().isSuccess());
+        assertEquals("ANALYSIS_REJECTED", response.getBody().getErrCode());
+        assertEquals("分析任务过多，请稍后再试", response.getBody().getErrMessage());
+    }
+}
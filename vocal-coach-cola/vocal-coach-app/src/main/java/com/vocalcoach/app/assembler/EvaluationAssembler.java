@@ -21,6 +21,9 @@ public class EvaluationAssembler {
         dto.setAudioPath(evaluation.getAudioPath());
         dto.setEvaluatedAt(evaluation.getEvaluatedAt());
         dto.setAiEvaluation(evaluation.getAiEvaluation());
+        if (evaluation.getAiStatus() != null) {
+            dto.setAiStatus(evaluation.getAiStatus().name());
+        }
 
         if (evaluation.getScores() != null) {
             dto.setScores(convertScores(evaluation.getScores()));
@@ -115,6 +118,8 @@ public class EvaluationAssembler {
         dto.setTempo(rhythm.getTempo());
         dto.setBeatRegularity(rhythm.getBeatRegularity());
         dto.setRhythmScore(rhythm.getRhythmScore());
+        dto.setTargetBpm(rhythm.getTargetBpm());
+        dto.setTempoScore(rhythm.getTempoScore());
         return dto;
     }
 
@@ -1,8 +1,10 @@
 package com.vocalcoach.app.assembler;
 
 import com.vocalcoach.client.dto.CourseDTO;
+import com.vocalcoach.client.dto.ExerciseScoreDTO;
 import com.vocalcoach.client.dto.TrainingProgressDTO;
 import com.vocalcoach.domain.training.Course;
+import com.vocalcoach.domain.training.ExerciseScore;
 import com.vocalcoach.domain.training.TrainingProgress;
 import org.springframework.stereotype.Component;
 
@@ -44,6 +46,34 @@ public class TrainingAssembler {
         return dto;
     }
 
+    public ExerciseScoreDTO toDTO(ExerciseScore score) {
+        if (score == null) {
+            return null;
+        }
+        ExerciseScoreDTO dto = new ExerciseScoreDTO();
+        dto.setScore(score.getScore());
+        dto.setPassingScore(score.getPassingScore());
+        dto.setPassed(score.getPassed());
+        dto.setStartTime(score.getStartTime());
+        if (score.getNotes() != null) {
+            dto.setNotes(score.getNotes().stream()
+                    .map(this::toNoteScoreDTO)
+                    .collect(Collectors.toList()));
+        }
+        return dto;
+    }
+
+    private ExerciseScoreDTO.NoteScoreDTO toNoteScoreDTO(ExerciseScore.NoteScore note) {
+        ExerciseScoreDTO.NoteScoreDTO dto = new ExerciseScoreDTO.NoteScoreDTO();
+        dto.setIndex(note.getIndex());
+        dto.setTargetNote(note.getTargetNote());
+        dto.setSung(note.getSung());
+        dto.setCentsError(note.getCentsError());
+        dto.setTimingError(note.getTimingError());
+        dto.setScore(note.getScore());
+        return dto;
+    }
+
     private CourseDTO.ExerciseDTO toExerciseDTO(Course.Exercise exercise) {
         CourseDTO.ExerciseDTO dto = new CourseDTO.ExerciseDTO();
         dto.setId(exercise.getId());
@@ -0,0 +1,288 @@
+package com.vocalcoach.app.job;
+
+import com.alibaba.cola.dto.SingleResponse;
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.client.dto.EvaluationJobDTO;
+import com.vocalcoach.client.dto.EvaluationResultDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+@Component
+public class EvaluationJobManager {
+
+    @Value("${evaluation.job.workers:4}")
+    private int workers;
+
+    @Value("${evaluation.job.queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${evaluation.job.retention-minutes:30}")
+    private long retentionMinutes;
+
+    private final Map<String, EvaluationJob> jobs = new ConcurrentHashMap<>();
+    private ThreadPoolExecutor executor;
+    private ScheduledExecutorService janitor;
+    // 推送任务状态给订阅方（SSE 发送是阻塞 I/O），慢客户端只占用推送线程，不拖住评测线程和特征回调
+    private ExecutorService notifier;
+
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreadFactory("evaluation-job"));
+        janitor = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("evaluation-job-janitor"));
+        notifier = Executors.newCachedThreadPool(namedThreadFactory("evaluation-job-notifier"));
+        janitor.scheduleWithFixedDelay(this::evictExpiredJobs, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        janitor.shutdownNow();
+        notifier.shutdownNow();
+    }
+
+    public Optional<EvaluationJobDTO> submit(
+            Function<EvaluationProgress, CompletableFuture<SingleResponse<EvaluationResultDTO>>> task) {
+        EvaluationJob job = new EvaluationJob(UUID.randomUUID().toString(), notifier);
+        jobs.put(job.jobId, job);
+
+        try {
+            executor.execute(() -> run(job, task));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.jobId);
+            return Optional.empty();
+        }
+        return Optional.of(job.snapshot());
+    }
+
+    public Optional<EvaluationJobDTO> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(EvaluationJob::snapshot);
+    }
+
+    public boolean subscribe(String jobId, Consumer<EvaluationJobDTO> listener) {
+        EvaluationJob job = jobs.get(jobId);
+        if (job == null) {
+            return false;
+        }
+        job.subscribe(listener);
+        return true;
+    }
+
+    private void run(EvaluationJob job,
+                     Function<EvaluationProgress, CompletableFuture<SingleResponse<EvaluationResultDTO>>> task) {
+        CompletableFuture<SingleResponse<EvaluationResultDTO>> future;
+        try {
+            future = task.apply(job);
+        } catch (Exception e) {
+            job.fail("评测任务执行失败: " + e.getMessage());
+            return;
+        }
+        // 后台阶段（如 AI 评价）不占用任务线程，完成时再结束任务
+        future.whenComplete((response, error) -> {
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error;
+                job.fail("评测任务执行失败: " + cause.getMessage());
+            } else if (response.isSuccess()) {
+                job.succeed(response.getData());
+            } else {
+                job.fail(response.getErrMessage());
+            }
+        });
+    }
+
+    private void evictExpiredJobs() {
+        LocalDateTime expireBefore = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.isExpired(expireBefore));
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private static class EvaluationJob implements EvaluationProgress {
+        private final String jobId;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final List<Consumer<EvaluationJobDTO>> listeners = new CopyOnWriteArrayList<>();
+        // 在锁内按状态变化的顺序入队，锁外由 notifier 逐个送出；同一时刻每个任务至多一个线程在推送，保证顺序
+        private final Queue<Delivery> deliveries = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean delivering = new AtomicBoolean();
+        // 推送失败（连接已断开）的订阅方，队列中已有的后续事件也不再发给它
+        private final Set<Consumer<EvaluationJobDTO>> dropped = ConcurrentHashMap.newKeySet();
+        private final Executor notifier;
+        private EvaluationJobDTO.Stage stage = EvaluationJobDTO.Stage.QUEUED;
+        private boolean finished;
+        private EvaluationResultDTO result;
+        private AudioAnalysisDTO.Features partialFeatures;
+        private String lastFeature;
+        private String errorMessage;
+        private LocalDateTime updatedAt = createdAt;
+
+        EvaluationJob(String jobId, Executor notifier) {
+            this.jobId = jobId;
+            this.notifier = notifier;
+        }
+
+        @Override
+        public synchronized void advance(EvaluationJobDTO.Stage newStage) {
+            stage = newStage;
+            publish();
+        }
+
+        @Override
+        public synchronized void publish(EvaluationJobDTO.Stage newStage, EvaluationResultDTO partialResult) {
+            stage = newStage;
+            result = partialResult;
+            publish();
+        }
+
+        @Override
+        public synchronized void publishFeature(String featureName, AudioAnalysisDTO.Features features) {
+            lastFeature = featureName;
+            partialFeatures = features;
+            publish();
+        }
+
+        synchronized void succeed(EvaluationResultDTO evaluationResult) {
+            stage = EvaluationJobDTO.Stage.SAVED;
+            result = evaluationResult;
+            finished = true;
+            publish();
+        }
+
+        synchronized void fail(String message) {
+            stage = EvaluationJobDTO.Stage.FAILED;
+            errorMessage = message;
+            finished = true;
+            publish();
+        }
+
+        synchronized void subscribe(Consumer<EvaluationJobDTO> listener) {
+            if (!finished) {
+                listeners.add(listener);
+            }
+            // 当前状态先于之后的变化入队，新订阅方收到的事件仍按顺序
+            enqueue(snapshot(), Collections.singletonList(listener));
+        }
+
+        synchronized boolean isExpired(LocalDateTime expireBefore) {
+            return finished && updatedAt.isBefore(expireBefore);
+        }
+
+        synchronized EvaluationJobDTO snapshot() {
+            EvaluationJobDTO dto = new EvaluationJobDTO();
+            dto.setJobId(jobId);
+            dto.setStage(stage);
+            dto.setFinished(finished);
+            dto.setResult(result);
+            dto.setPartialFeatures(partialFeatures);
+            dto.setLastFeature(lastFeature);
+            dto.setErrorMessage(errorMessage);
+            dto.setCreatedAt(createdAt);
+            dto.setUpdatedAt(updatedAt);
+            return dto;
+        }
+
+        // 调用方持有任务锁，这里只取快照入队
+        private void publish() {
+            updatedAt = LocalDateTime.now();
+            enqueue(snapshot(), new ArrayList<>(listeners));
+            if (finished) {
+                listeners.clear();
+            }
+        }
+
+        private void enqueue(EvaluationJobDTO dto, List<Consumer<EvaluationJobDTO>> targets) {
+            if (targets.isEmpty()) {
+                return;
+            }
+            deliveries.add(new Delivery(dto, targets));
+            scheduleDelivery();
+        }
+
+        private void scheduleDelivery() {
+            if (!delivering.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                notifier.execute(this::drain);
+            } catch (RejectedExecutionException e) {
+                // 已关闭
+                deliveries.clear();
+                delivering.set(false);
+            }
+        }
+
+        private void drain() {
+            Delivery delivery;
+            while ((delivery = deliveries.poll()) != null) {
+                for (Consumer<EvaluationJobDTO> listener : delivery.targets) {
+                    if (!dropped.contains(listener) && !notify(listener, delivery.dto)) {
+                        dropped.add(listener);
+                        listeners.remove(listener);
+                    }
+                }
+            }
+            delivering.set(false);
+            // 释放标记前后可能有新入队的事件
+            if (!deliveries.isEmpty()) {
+                scheduleDelivery();
+            }
+        }
+
+        private boolean notify(Consumer<EvaluationJobDTO> listener, EvaluationJobDTO dto) {
+            try {
+                listener.accept(dto);
+                return true;
+            } catch (RuntimeException e) {
+                // 订阅方已断开（例如 SSE 连接关闭），移除即可
+                return false;
+            }
+        }
+    }
+
+    private static class Delivery {
+        private final EvaluationJobDTO dto;
+        private final List<Consumer<EvaluationJobDTO>> targets;
+
+        Delivery(EvaluationJobDTO dto, List<Consumer<EvaluationJobDTO>> targets) {
+            this.dto = dto;
+            this.targets = targets;
+        }
+    }
+}
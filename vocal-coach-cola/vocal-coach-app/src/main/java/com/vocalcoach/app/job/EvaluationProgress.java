@@ -0,0 +1,19 @@
+package com.vocalcoach.app.job;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.client.dto.EvaluationJobDTO;
+import com.vocalcoach.client.dto.EvaluationResultDTO;
+
+public interface EvaluationProgress {
+
+    void advance(EvaluationJobDTO.Stage stage);
+
+    // 阶段性结果（例如分数已保存、AI 评价未完成），任务尚未结束
+    default void publish(EvaluationJobDTO.Stage stage, EvaluationResultDTO partialResult) {
+        advance(stage);
+    }
+
+    // 分析阶段每完成一项特征调用一次
+    default void publishFeature(String featureName, AudioAnalysisDTO.Features features) {
+    }
+}
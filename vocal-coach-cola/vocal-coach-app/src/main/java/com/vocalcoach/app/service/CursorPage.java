@@ -0,0 +1,144 @@
+package com.vocalcoach.app.service;
+
+import com.vocalcoach.client.dto.CursorPageResponse;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 评测记录和报告共用的游标分页参数。游标是上一页最后一条的排序字段、方向、排序键和 ID，Base64 编码后对客户端不透明；
+ * 查询时多取一条判断是否还有下一页。
+ */
+final class CursorPage {
+
+    static final int DEFAULT_LIMIT = 20;
+    static final int MAX_LIMIT = 100;
+    private static final String SEPARATOR = "|";
+
+    enum Sort {
+        TIME, SCORE, ID
+    }
+
+    private final Sort sort;
+    private final boolean descending;
+    private final int limit;
+    private final Object afterKey;
+    private final Long afterId;
+
+    private CursorPage(Sort sort, boolean descending, int limit, Object afterKey, Long afterId) {
+        this.sort = sort;
+        this.descending = descending;
+        this.limit = limit;
+        this.afterKey = afterKey;
+        this.afterId = afterId;
+    }
+
+    /**
+     * 参数不合法时抛出 IllegalArgumentException，消息可直接返回给客户端。
+     */
+    static CursorPage of(CursorPageQuery query) {
+        Sort sort = parseSort(query.getSort());
+        boolean descending = parseDescending(query.getOrder());
+        int limit = query.getLimit() == null ? DEFAULT_LIMIT : query.getLimit();
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("每页条数需在 1 到 " + MAX_LIMIT + " 之间");
+        }
+        if (query.getCursor() == null || query.getCursor().isEmpty()) {
+            return new CursorPage(sort, descending, limit, null, null);
+        }
+
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(query.getCursor()), StandardCharsets.UTF_8)
+                    .split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        if (parts.length != 4 || !parts[0].equals(sort.name()) || !parts[1].equals(descending ? "desc" : "asc")) {
+            throw new IllegalArgumentException("分页游标与排序方式不一致");
+        }
+        try {
+            Object key = null;
+            if (!parts[2].isEmpty()) {
+                key = sort == Sort.TIME ? LocalDateTime.parse(parts[2]) : Integer.valueOf(parts[2]);
+            }
+            return new CursorPage(sort, descending, limit, key, Long.valueOf(parts[3]));
+        } catch (NumberFormatException | DateTimeParseException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+    }
+
+    private static Sort parseSort(String sort) {
+        if (sort == null || sort.isEmpty()) {
+            return Sort.TIME;
+        }
+        switch (sort.toLowerCase()) {
+            case "time":
+                return Sort.TIME;
+            case "score":
+                return Sort.SCORE;
+            case "id":
+                return Sort.ID;
+            default:
+                throw new IllegalArgumentException("不支持的排序字段: " + sort);
+        }
+    }
+
+    private static boolean parseDescending(String order) {
+        if (order == null || order.isEmpty() || "desc".equalsIgnoreCase(order)) {
+            return true;
+        }
+        if ("asc".equalsIgnoreCase(order)) {
+            return false;
+        }
+        throw new IllegalArgumentException("不支持的排序方向: " + order);
+    }
+
+    Sort getSort() {
+        return sort;
+    }
+
+    boolean isDescending() {
+        return descending;
+    }
+
+    int fetchSize() {
+        return limit + 1;
+    }
+
+    Long getAfterId() {
+        return afterId;
+    }
+
+    LocalDateTime getAfterTime() {
+        return (LocalDateTime) afterKey;
+    }
+
+    Integer getAfterScore() {
+        return (Integer) afterKey;
+    }
+
+    /**
+     * @param rows 按 fetchSize() 查出的记录
+     * @param keyOf 记录在当前排序字段上的键（按 ID 排序时不使用）
+     */
+    <E, D> CursorPageResponse<D> toResponse(List<E> rows, Function<E, D> mapper, Function<E, Object> keyOf,
+                                            Function<E, Long> idOf, long totalCount) {
+        List<E> page = rows.size() > limit ? rows.subList(0, limit) : rows;
+        String nextCursor = null;
+        if (rows.size() > limit) {
+            E last = page.get(page.size() - 1);
+            Object key = sort == Sort.ID ? null : keyOf.apply(last);
+            String raw = sort.name() + SEPARATOR + (descending ? "desc" : "asc") + SEPARATOR
+                    + (key == null ? "" : key) + SEPARATOR + idOf.apply(last);
+            nextCursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+        return CursorPageResponse.of(page.stream().map(mapper).collect(Collectors.toList()), nextCursor, totalCount);
+    }
+}
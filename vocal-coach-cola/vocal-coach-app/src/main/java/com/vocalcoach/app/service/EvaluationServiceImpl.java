@@ -1,27 +1,44 @@
 package com.vocalcoach.app.service;
 
-import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.app.assembler.EvaluationAssembler;
+import com.vocalcoach.app.job.EvaluationJobManager;
+import com.vocalcoach.app.job.EvaluationProgress;
 import com.vocalcoach.client.api.EvaluationServiceI;
 import com.vocalcoach.client.dto.cmd.AnalyzeAudioCmd;
 import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.client.dto.CursorPageResponse;
+import com.vocalcoach.client.dto.EvaluationJobDTO;
 import com.vocalcoach.client.dto.EvaluationResultDTO;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
 import com.vocalcoach.domain.evaluation.Evaluation;
 import com.vocalcoach.domain.evaluation.gateway.EvaluationGateway;
-import com.vocalcoach.infrastructure.evaluation.PythonAudioAnalyzer;
+import com.vocalcoach.infrastructure.audio.AnalysisFeatures;
+import com.vocalcoach.infrastructure.audio.AnalysisScoreCalculator;
+import com.vocalcoach.infrastructure.audio.RhythmTracker;
+import com.vocalcoach.infrastructure.evaluation.AudioAnalyzer;
+import com.vocalcoach.infrastructure.evaluation.AudioAnalyzerRouter;
 import com.vocalcoach.infrastructure.ai.ClaudeApiClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 public class EvaluationServiceImpl implements EvaluationServiceI {
 
+    private static final int MIN_TARGET_BPM = 20;
+    private static final int MAX_TARGET_BPM = 400;
+
     @Autowired
-    private PythonAudioAnalyzer pythonAudioAnalyzer;
+    private AudioAnalyzerRouter audioAnalyzerRouter;
 
     @Autowired
     private EvaluationGateway evaluationGateway;
@@ -32,18 +49,97 @@ public class EvaluationServiceImpl implements EvaluationServiceI {
     @Autowired
     private ClaudeApiClient claudeApiClient;
 
+    @Autowired
+    private EvaluationJobManager evaluationJobManager;
+
+    @Value("${evaluation.ai.deferred:false}")
+    private boolean aiDeferredByDefault;
+
     @Override
     public SingleResponse<AudioAnalysisDTO> analyzeAudio(String audioFilePath, String referenceAudioPath) {
-        AudioAnalysisDTO analysisResult = pythonAudioAnalyzer.analyze(audioFilePath, referenceAudioPath);
+        AudioAnalysisDTO analysisResult = audioAnalyzerRouter.getDefault().analyze(audioFilePath, referenceAudioPath);
         return SingleResponse.of(analysisResult);
     }
 
     @Override
     public SingleResponse<EvaluationResultDTO> evaluate(AnalyzeAudioCmd cmd) {
-        AudioAnalysisDTO analysisResult = pythonAudioAnalyzer.analyze(cmd.getAudioFilePath(), cmd.getReferenceAudioPath());
+        EvaluationRequest request = resolve(cmd);
+        if (request.isInvalid()) {
+            return request.failure();
+        }
+        AtomicReference<EvaluationResultDTO> scored = new AtomicReference<>();
+        CompletableFuture<SingleResponse<EvaluationResultDTO>> result = evaluate(cmd, request, new EvaluationProgress() {
+            @Override
+            public void advance(EvaluationJobDTO.Stage stage) {
+                // 同步调用不关心阶段变化
+            }
+
+            @Override
+            public void publish(EvaluationJobDTO.Stage stage, EvaluationResultDTO partialResult) {
+                scored.set(partialResult);
+            }
+        });
+        // 延迟模式下分数保存后立即返回，AI 评价在后台补全
+        return scored.get() != null ? SingleResponse.of(scored.get()) : result.join();
+    }
+
+    @Override
+    public SingleResponse<EvaluationJobDTO> submitEvaluation(AnalyzeAudioCmd cmd) {
+        EvaluationRequest request = resolve(cmd);
+        if (request.isInvalid()) {
+            return request.failure();
+        }
+        return evaluationJobManager.submit(progress -> evaluate(cmd, request, progress))
+                .map(SingleResponse::of)
+                .orElse(SingleResponse.buildFailure("EVALUATION_QUEUE_FULL", "评测任务过多，请稍后再试"));
+    }
+
+    @Override
+    public SingleResponse<EvaluationJobDTO> getEvaluationJob(String jobId) {
+        return evaluationJobManager.getJob(jobId)
+                .map(SingleResponse::of)
+                .orElse(SingleResponse.buildFailure("EVALUATION_JOB_NOT_FOUND", "评测任务不存在"));
+    }
+
+    @Override
+    public boolean subscribeEvaluationJob(String jobId, Consumer<EvaluationJobDTO> listener) {
+        return evaluationJobManager.subscribe(jobId, listener);
+    }
+
+    // 同步评测和异步任务共用的参数校验，入队前完成，参数错误不占用任务名额
+    private EvaluationRequest resolve(AnalyzeAudioCmd cmd) {
+        Set<String> features;
+        try {
+            features = AnalysisFeatures.of(cmd.getFeatures());
+        } catch (IllegalArgumentException e) {
+            return EvaluationRequest.invalid("INVALID_FEATURES", e.getMessage());
+        }
+        if (!isValidTargetBpm(cmd.getTargetBpm())) {
+            return EvaluationRequest.invalid("INVALID_TARGET_BPM",
+                    "目标速度需在 " + MIN_TARGET_BPM + " 到 " + MAX_TARGET_BPM + " bpm 之间");
+        }
+        try {
+            return new EvaluationRequest(features, audioAnalyzerRouter.select(cmd.getBackend()), null, null);
+        } catch (IllegalArgumentException e) {
+            return EvaluationRequest.invalid("INVALID_BACKEND", e.getMessage());
+        }
+    }
+
+    private CompletableFuture<SingleResponse<EvaluationResultDTO>> evaluate(AnalyzeAudioCmd cmd,
+                                                                           EvaluationRequest request,
+                                                                           EvaluationProgress progress) {
+        Set<String> features = request.features;
+        AudioAnalyzer analyzer = request.analyzer;
+        progress.advance(EvaluationJobDTO.Stage.ANALYZING);
+        AudioAnalysisDTO analysisResult = analyzer.analyze(cmd.getAudioFilePath(),
+                cmd.getReferenceAudioPath(), features, progress::publishFeature);
 
         if (!analysisResult.isSuccess()) {
-            return SingleResponse.buildFailure("AUDIO_ANALYSIS_FAILED", "音频分析失败");
+            return CompletableFuture.completedFuture(
+                    SingleResponse.buildFailure("AUDIO_ANALYSIS_FAILED", "音频分析失败"));
+        }
+        if (cmd.getTargetBpm() != null) {
+            analysisResult = withTargetTempo(analysisResult, cmd.getTargetBpm(), features);
         }
 
         Evaluation evaluation = new Evaluation();
@@ -67,12 +163,80 @@ public class EvaluationServiceImpl implements EvaluationServiceI {
             evaluation.setFeatures(convertFeatures(analysisResult.getFeatures()));
         }
 
+        boolean deferred = cmd.getDeferAi() != null ? cmd.getDeferAi() : aiDeferredByDefault;
+        if (deferred) {
+            evaluation.setAiStatus(Evaluation.AiStatus.PENDING);
+            Evaluation pendingEvaluation = evaluationGateway.save(evaluation);
+            progress.publish(EvaluationJobDTO.Stage.SCORED, evaluationAssembler.toDTO(pendingEvaluation));
+            progress.advance(EvaluationJobDTO.Stage.AI_COMMENTARY);
+            Long evaluationId = pendingEvaluation.getId();
+            // AI 调用失败时记录标记为 FAILED，不用本地评价冒充
+            return claudeApiClient.requestEvaluationAsync(
+                            analysisResult.getScores(),
+                            analysisResult.getFeatures(),
+                            cmd.getSongName())
+                    .thenApply(aiResult -> enrichEvaluation(evaluationId, aiResult))
+                    .exceptionally(e -> markAiFailed(evaluationId));
+        }
+
+        progress.advance(EvaluationJobDTO.Stage.AI_COMMENTARY);
         ClaudeApiClient.EvaluationResult aiResult = claudeApiClient.generateEvaluation(
                 analysisResult.getScores(),
                 analysisResult.getFeatures(),
                 cmd.getSongName()
         );
+        applyAiResult(evaluation, aiResult);
+
+        Evaluation savedEvaluation = evaluationGateway.save(evaluation);
+        EvaluationResultDTO resultDTO = evaluationAssembler.toDTO(savedEvaluation);
 
+        return CompletableFuture.completedFuture(SingleResponse.of(resultDTO));
+    }
+
+    private static boolean isValidTargetBpm(Integer targetBpm) {
+        return targetBpm == null || (targetBpm >= MIN_TARGET_BPM && targetBpm <= MAX_TARGET_BPM);
+    }
+
+    // 分析结果可能来自缓存，复制一份再替换节奏特征并重新计算评分
+    private AudioAnalysisDTO withTargetTempo(AudioAnalysisDTO analysisResult, int targetBpm, Set<String> features) {
+        AudioAnalysisDTO.Features source = analysisResult.getFeatures();
+        if (source == null || source.getRhythm() == null) {
+            return analysisResult;
+        }
+        AudioAnalysisDTO.Features scoredFeatures = new AudioAnalysisDTO.Features();
+        scoredFeatures.setPitch(source.getPitch());
+        scoredFeatures.setRhythm(RhythmTracker.withTargetTempo(source.getRhythm(), targetBpm));
+        scoredFeatures.setVoice(source.getVoice());
+        scoredFeatures.setTimbre(source.getTimbre());
+        scoredFeatures.setEnergy(source.getEnergy());
+        scoredFeatures.setComparison(source.getComparison());
+
+        AudioAnalysisDTO scored = new AudioAnalysisDTO();
+        scored.setSuccess(true);
+        scored.setAudioPath(analysisResult.getAudioPath());
+        scored.setFeatures(scoredFeatures);
+        scored.setScores(AnalysisScoreCalculator.calculate(scoredFeatures, features));
+        return scored;
+    }
+
+    // 回调在 HTTP 客户端线程上执行；生成期间记录可能已被删除，由网关在锁内判断，已删除的不再写回
+    private SingleResponse<EvaluationResultDTO> enrichEvaluation(Long evaluationId,
+                                                                 ClaudeApiClient.EvaluationResult aiResult) {
+        return evaluationGateway.updateIfPresent(evaluationId, evaluation -> applyAiResult(evaluation, aiResult))
+                .map(evaluation -> SingleResponse.of(evaluationAssembler.toDTO(evaluation)))
+                .orElse(SingleResponse.buildFailure("EVALUATION_NOT_FOUND", "评估记录不存在"));
+    }
+
+    // 分数已经保存并以 SCORED 发布，AI 失败只体现在 aiStatus 上，任务仍以 SAVED 结束
+    private SingleResponse<EvaluationResultDTO> markAiFailed(Long evaluationId) {
+        return evaluationGateway.updateIfPresent(evaluationId,
+                        evaluation -> evaluation.setAiStatus(Evaluation.AiStatus.FAILED))
+                .map(evaluation -> SingleResponse.of(evaluationAssembler.toDTO(evaluation)))
+                .orElse(SingleResponse.buildFailure("EVALUATION_NOT_FOUND", "评估记录不存在"));
+    }
+
+    private void applyAiResult(Evaluation evaluation, ClaudeApiClient.EvaluationResult aiResult) {
+        evaluation.setAiStatus(Evaluation.AiStatus.COMPLETED);
         if (aiResult != null) {
             evaluation.setAiEvaluation(aiResult.getOverallComment());
             if (aiResult.getStyleScore() != null && evaluation.getScores() != null) {
@@ -132,21 +296,36 @@ public class EvaluationServiceImpl implements EvaluationServiceI {
                         .collect(Collectors.toList()));
             }
         }
-
-        Evaluation savedEvaluation = evaluationGateway.save(evaluation);
-        EvaluationResultDTO resultDTO = evaluationAssembler.toDTO(savedEvaluation);
-
-        return SingleResponse.of(resultDTO);
     }
 
     @Override
-    public MultiResponse<EvaluationResultDTO> listEvaluations() {
-        return MultiResponse.of(
-                evaluationGateway.findAll()
-                        .stream()
-                        .map(evaluationAssembler::toDTO)
-                        .collect(Collectors.toList())
-        );
+    public CursorPageResponse<EvaluationResultDTO> listEvaluations(CursorPageQuery query) {
+        CursorPage page;
+        try {
+            page = CursorPage.of(query);
+        } catch (IllegalArgumentException e) {
+            return CursorPageResponse.buildPageFailure("INVALID_PAGE_QUERY", e.getMessage());
+        }
+
+        List<Evaluation> rows;
+        switch (page.getSort()) {
+            case SCORE:
+                rows = evaluationGateway.findPageByOverallScore(page.getAfterScore(), page.getAfterId(),
+                        page.fetchSize(), page.isDescending());
+                break;
+            case ID:
+                rows = evaluationGateway.findPageById(page.getAfterId(), page.fetchSize(), page.isDescending());
+                break;
+            default:
+                rows = evaluationGateway.findPageByEvaluatedAt(page.getAfterTime(), page.getAfterId(),
+                        page.fetchSize(), page.isDescending());
+                break;
+        }
+        return page.toResponse(rows, evaluationAssembler::toDTO,
+                evaluation -> page.getSort() == CursorPage.Sort.SCORE
+                        ? (evaluation.getScores() == null ? null : evaluation.getScores().getOverall())
+                        : evaluation.getEvaluatedAt(),
+                Evaluation::getId, evaluationGateway.count());
     }
 
     @Override
@@ -158,8 +337,9 @@ public class EvaluationServiceImpl implements EvaluationServiceI {
     }
 
     private Integer convertScore(Double score) {
+        // 只分析部分维度时，未分析的维度保持为空
         if (score == null) {
-            return 0;
+            return null;
         }
         return (int) Math.round(score);
     }
@@ -180,6 +360,8 @@ public class EvaluationServiceImpl implements EvaluationServiceI {
             rhythm.setTempo(features.getRhythm().getTempo());
             rhythm.setBeatRegularity(features.getRhythm().getBeatRegularity());
             rhythm.setRhythmScore(features.getRhythm().getRhythmScore());
+            rhythm.setTargetBpm(features.getRhythm().getTargetBpm());
+            rhythm.setTempoScore(features.getRhythm().getTempoScore());
             audioFeatures.setRhythm(rhythm);
         }
 
@@ -211,4 +393,34 @@ public class EvaluationServiceImpl implements EvaluationServiceI {
 
         return audioFeatures;
     }
-}
\ No newline at end of file
+
+    /**
+     * 校验后的评测参数：要分析的维度和选中的分析后端；参数不合法时只带错误码和消息。
+     */
+    private static final class EvaluationRequest {
+        private final Set<String> features;
+        private final AudioAnalyzer analyzer;
+        private final String errCode;
+        private final String errMessage;
+
+        private EvaluationRequest(Set<String> features, AudioAnalyzer analyzer, String errCode, String errMessage) {
+            this.features = features;
+            this.analyzer = analyzer;
+            this.errCode = errCode;
+            this.errMessage = errMessage;
+        }
+
+        static EvaluationRequest invalid(String errCode, String errMessage) {
+            return new EvaluationRequest(null, null, errCode, errMessage);
+        }
+
+        boolean isInvalid() {
+            return errCode != null;
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> SingleResponse<T> failure() {
+            return SingleResponse.buildFailure(errCode, errMessage);
+        }
+    }
+}
@@ -1,13 +1,14 @@
 package com.vocalcoach.app.service;
 
-import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.Response;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.app.assembler.ReportAssembler;
 import com.vocalcoach.client.api.ReportServiceI;
+import com.vocalcoach.client.dto.CursorPageResponse;
 import com.vocalcoach.client.dto.ReportDTO;
 import com.vocalcoach.client.dto.StatisticsDTO;
 import com.vocalcoach.client.dto.cmd.SaveReportCmd;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
 import com.vocalcoach.domain.report.Report;
 import com.vocalcoach.domain.report.gateway.ReportGateway;
 import org.springframework.stereotype.Service;
@@ -16,7 +17,6 @@ import org.springframework.transaction.annotation.Transactional;
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportServiceImpl implements ReportServiceI {
@@ -37,12 +37,31 @@ public class ReportServiceImpl implements ReportServiceI {
     }
 
     @Override
-    public MultiResponse<ReportDTO> listReports() {
-        List<Report> reports = reportGateway.findAll();
-        List<ReportDTO> dtoList = reports.stream()
-                .map(reportAssembler::toDTO)
-                .collect(Collectors.toList());
-        return MultiResponse.of(dtoList);
+    public CursorPageResponse<ReportDTO> listReports(CursorPageQuery query) {
+        CursorPage page;
+        try {
+            page = CursorPage.of(query);
+        } catch (IllegalArgumentException e) {
+            return CursorPageResponse.buildPageFailure("INVALID_PAGE_QUERY", e.getMessage());
+        }
+
+        List<Report> rows;
+        switch (page.getSort()) {
+            case SCORE:
+                rows = reportGateway.findPageByOverallScore(page.getAfterScore(), page.getAfterId(),
+                        page.fetchSize(), page.isDescending());
+                break;
+            case ID:
+                rows = reportGateway.findPageById(page.getAfterId(), page.fetchSize(), page.isDescending());
+                break;
+            default:
+                rows = reportGateway.findPageByTimestamp(page.getAfterTime(), page.getAfterId(),
+                        page.fetchSize(), page.isDescending());
+                break;
+        }
+        return page.toResponse(rows, reportAssembler::toDTO,
+                report -> page.getSort() == CursorPage.Sort.SCORE ? report.getOverallScore() : report.getTimestamp(),
+                Report::getId, reportGateway.count());
     }
 
     @Override
@@ -7,6 +7,7 @@ import com.vocalcoach.client.api.SongServiceI;
 import com.vocalcoach.client.dto.SongDTO;
 import com.vocalcoach.domain.song.Song;
 import com.vocalcoach.domain.song.gateway.SongGateway;
+import com.vocalcoach.infrastructure.evaluation.ReferenceFeatureStore;
 import org.springframework.stereotype.Service;
 
 import javax.annotation.Resource;
@@ -22,6 +23,9 @@ public class SongServiceImpl implements SongServiceI {
     @Resource
     private SongAssembler songAssembler;
 
+    @Resource
+    private ReferenceFeatureStore referenceFeatureStore;
+
     @Override
     public MultiResponse<SongDTO> listSongs(String category) {
         List<Song> songs;
@@ -55,8 +59,11 @@ public class SongServiceImpl implements SongServiceI {
     @Override
     public SingleResponse<SongDTO> createSong(SongDTO songDTO) {
         Song song = songAssembler.toEntity(songDTO);
-        song.setId(songGateway.count() + 1);
+        // ID 由存储在写锁内分配，忽略请求里带的 id，避免覆盖已有歌曲
+        song.setId(null);
         Song savedSong = songGateway.save(song);
+        // 原唱作为对比的参考音频，上传后在后台预先计算特征
+        referenceFeatureStore.precomputeAsync(savedSong.getAudioPath());
         return SingleResponse.of(songAssembler.toDTO(savedSong));
     }
 }
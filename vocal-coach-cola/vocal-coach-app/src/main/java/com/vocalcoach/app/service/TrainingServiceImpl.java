@@ -1,8 +1,10 @@
 package com.vocalcoach.app.service;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 import javax.annotation.Resource;
@@ -11,13 +13,22 @@ import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.SingleResponse;
 
 import com.vocalcoach.app.assembler.TrainingAssembler;
+import com.vocalcoach.app.training.PitchFeedbackManager;
+import com.vocalcoach.client.api.PitchFeedbackSession;
 import com.vocalcoach.client.api.TrainingServiceI;
 import com.vocalcoach.client.dto.CourseDTO;
+import com.vocalcoach.client.dto.ExerciseScoreDTO;
 import com.vocalcoach.client.dto.TrainingProgressDTO;
 import com.vocalcoach.client.dto.cmd.SaveProgressCmd;
+import com.vocalcoach.client.dto.cmd.ScoreExerciseCmd;
 import com.vocalcoach.domain.training.Course;
+import com.vocalcoach.domain.training.ExerciseScore;
+import com.vocalcoach.domain.training.ExerciseScorer;
 import com.vocalcoach.domain.training.TrainingProgress;
 import com.vocalcoach.domain.training.gateway.TrainingGateway;
+import com.vocalcoach.infrastructure.audio.AudioPcmLoader;
+import com.vocalcoach.infrastructure.audio.JvmFeatureExtractor;
+import com.vocalcoach.infrastructure.evaluation.AnalysisScheduler;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -30,6 +41,18 @@ public class TrainingServiceImpl implements TrainingServiceI {
     @Resource
     private TrainingAssembler trainingAssembler;
 
+    @Resource
+    private PitchFeedbackManager pitchFeedbackManager;
+
+    @Resource
+    private AudioPcmLoader audioPcmLoader;
+
+    @Resource
+    private JvmFeatureExtractor jvmFeatureExtractor;
+
+    @Resource
+    private AnalysisScheduler analysisScheduler;
+
     @Override
     public MultiResponse<CourseDTO> listCourses() {
         List<Course> courses = trainingGateway.findAllCourses();
@@ -58,20 +81,96 @@ public class TrainingServiceImpl implements TrainingServiceI {
     @Override
     @Transactional
     public SingleResponse<TrainingProgressDTO> saveProgress(SaveProgressCmd cmd) {
-        TrainingProgress progress = trainingGateway
-            .findProgress(cmd.getCourseId(), cmd.getExerciseId())
-            .orElseGet(() -> {
-                TrainingProgress newProgress = new TrainingProgress();
-                newProgress.setCourseId(cmd.getCourseId());
-                newProgress.setExerciseId(cmd.getExerciseId());
-                newProgress.setAttempts(0);
-                newProgress.setCompleted(false);
-                return newProgress;
+        Optional<Course.Exercise> exercise = findExercise(cmd.getCourseId(), cmd.getExerciseId());
+        if (!exercise.isPresent()) {
+            return SingleResponse.buildFailure("EXERCISE_NOT_FOUND", "练习不存在");
+        }
+        if (cmd.getScore() == null || cmd.getScore() < 0 || cmd.getScore() > 100) {
+            return SingleResponse.buildFailure("INVALID_SCORE", "分数需在 0 到 100 之间");
+        }
+        boolean scorable = ExerciseScorer.isScorable(exercise.get());
+        int passingScore = ExerciseScorer.passingScore(exercise.get());
+        TrainingProgress savedProgress = trainingGateway.updateProgress(cmd.getCourseId(), cmd.getExerciseId(),
+                progress -> {
+                    if (scorable) {
+                        // 有目标音高的练习由服务端打分（scoreExercise），客户端上报的分数只记一次练习
+                        progress.recordAttempt();
+                    } else {
+                        progress.updateProgress(cmd.getScore(), passingScore);
+                    }
+                });
+        return SingleResponse.of(trainingAssembler.toDTO(savedProgress));
+    }
+
+    @Override
+    @Transactional
+    public SingleResponse<ExerciseScoreDTO> scoreExercise(ScoreExerciseCmd cmd) {
+        Optional<Course.Exercise> exercise = findExercise(cmd.getCourseId(), cmd.getExerciseId());
+        if (!exercise.isPresent()) {
+            return SingleResponse.buildFailure("EXERCISE_NOT_FOUND", "练习不存在");
+        }
+        if (!ExerciseScorer.isScorable(exercise.get())) {
+            return SingleResponse.buildFailure("NO_TARGET_NOTES", "该练习没有目标音高");
+        }
+
+        float[] f0;
+        double frameSeconds;
+        if (cmd.getPitchContour() != null && !cmd.getPitchContour().isEmpty()) {
+            Double step = cmd.getFrameSeconds();
+            if (step == null || !(step >= ExerciseScorer.MIN_FRAME_SECONDS && step <= ExerciseScorer.MAX_FRAME_SECONDS)) {
+                return SingleResponse.buildFailure("INVALID_PITCH_CONTOUR", "音高曲线的帧间隔需在 "
+                        + ExerciseScorer.MIN_FRAME_SECONDS + " 到 " + ExerciseScorer.MAX_FRAME_SECONDS + " 秒之间");
+            }
+            List<Double> contour = cmd.getPitchContour();
+            if (contour.size() * step > ExerciseScorer.MAX_DURATION_SECONDS) {
+                return SingleResponse.buildFailure("INVALID_PITCH_CONTOUR",
+                        "音高曲线不能超过 " + (int) ExerciseScorer.MAX_DURATION_SECONDS + " 秒");
+            }
+            f0 = new float[contour.size()];
+            for (int i = 0; i < f0.length; i++) {
+                Double value = contour.get(i);
+                f0[i] = value == null || value.isNaN() ? 0 : value.floatValue();
+            }
+            frameSeconds = cmd.getFrameSeconds();
+        } else if (cmd.getAudioFilePath() != null && !cmd.getAudioFilePath().isEmpty()) {
+            // 解码和基频提取与整曲分析共用准入控制，排满时抛出 AnalysisRejectedException；
+            // 解码失败不算分析异常，不影响自适应并发上限
+            String audioFilePath = cmd.getAudioFilePath();
+            IOException[] decodeError = new IOException[1];
+            f0 = analysisScheduler.execute(() -> {
+                try {
+                    return jvmFeatureExtractor.trackPitch(audioPcmLoader.load(audioFilePath));
+                } catch (IOException e) {
+                    decodeError[0] = e;
+                    return null;
+                }
             });
+            if (f0 == null) {
+                return SingleResponse.buildFailure("AUDIO_DECODE_FAILED", "音频解码失败: " + decodeError[0].getMessage());
+            }
+            frameSeconds = jvmFeatureExtractor.getPitchFrameSeconds();
+        } else {
+            return SingleResponse.buildFailure("NO_PERFORMANCE", "缺少录音或音高曲线");
+        }
 
-        progress.updateProgress(cmd.getScore());
-        TrainingProgress savedProgress = trainingGateway.saveProgress(progress);
-        return SingleResponse.of(trainingAssembler.toDTO(savedProgress));
+        if (f0.length * frameSeconds > ExerciseScorer.MAX_DURATION_SECONDS) {
+            return SingleResponse.buildFailure("PERFORMANCE_TOO_LONG",
+                    "演唱时长不能超过 " + (int) ExerciseScorer.MAX_DURATION_SECONDS + " 秒");
+        }
+        ExerciseScore score = ExerciseScorer.score(exercise.get(), f0, frameSeconds);
+        TrainingProgress savedProgress = trainingGateway.updateProgress(cmd.getCourseId(), cmd.getExerciseId(),
+                progress -> progress.updateProgress(score.getScore(), score.getPassingScore()));
+
+        ExerciseScoreDTO dto = trainingAssembler.toDTO(score);
+        dto.setCourseId(cmd.getCourseId());
+        dto.setExerciseId(cmd.getExerciseId());
+        dto.setProgress(trainingAssembler.toDTO(savedProgress));
+        return SingleResponse.of(dto);
+    }
+
+    private Optional<Course.Exercise> findExercise(String courseId, String exerciseId) {
+        return trainingGateway.findCourseById(courseId)
+            .flatMap(course -> course.findExercise(exerciseId));
     }
 
     @Override
@@ -87,4 +186,9 @@ public class TrainingServiceImpl implements TrainingServiceI {
         int count = trainingGateway.countCompletedExercises();
         return SingleResponse.of(count);
     }
+
+    @Override
+    public SingleResponse<PitchFeedbackSession> openPitchFeedback(String courseId, String exerciseId, int sampleRate) {
+        return pitchFeedbackManager.open(courseId, exerciseId, sampleRate);
+    }
 }
@@ -0,0 +1,129 @@
+package com.vocalcoach.app.training;
+
+import com.alibaba.cola.dto.SingleResponse;
+import com.vocalcoach.client.api.PitchFeedbackSession;
+import com.vocalcoach.client.dto.PitchFeedbackDTO;
+import com.vocalcoach.domain.training.Course;
+import com.vocalcoach.domain.training.ExerciseScorer;
+import com.vocalcoach.domain.training.gateway.TrainingGateway;
+import com.vocalcoach.infrastructure.audio.StreamingPitchTracker;
+import com.vocalcoach.infrastructure.audio.YinPitchTracker;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 训练练习的实时音高反馈。练习按 bpm 每拍一个目标音，逐帧给出当前应唱的音和音高偏差；
+ * 同时打开的会话数有上限，每个会话只持有固定大小的缓冲区。
+ */
+@Component
+public class PitchFeedbackManager {
+
+    private static final int MIN_SAMPLE_RATE = 8000;
+    private static final int MAX_SAMPLE_RATE = 192000;
+
+    @Resource
+    private TrainingGateway trainingGateway;
+
+    @Value("${training.pitch-feedback.max-sessions:5000}")
+    private int maxSessions;
+
+    @Value("${training.pitch-feedback.frame-length:512}")
+    private int frameLength;
+
+    @Value("${training.pitch-feedback.hop-length:256}")
+    private int hopLength;
+
+    @Value("${training.pitch-feedback.fmin:65}")
+    private double fmin;
+
+    @Value("${training.pitch-feedback.fmax:1500}")
+    private double fmax;
+
+    @Value("${training.pitch-feedback.threshold:0.15}")
+    private double threshold;
+
+    private final AtomicInteger activeSessions = new AtomicInteger();
+    private YinPitchTracker pitchTracker;
+
+    @PostConstruct
+    public void init() {
+        pitchTracker = new YinPitchTracker(StreamingPitchTracker.SAMPLE_RATE, frameLength, hopLength,
+                fmin, fmax, threshold);
+    }
+
+    public SingleResponse<PitchFeedbackSession> open(String courseId, String exerciseId, int sampleRate) {
+        if (sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE) {
+            return SingleResponse.buildFailure("INVALID_SAMPLE_RATE", "不支持的采样率: " + sampleRate);
+        }
+        Optional<Course.Exercise> exercise = trainingGateway.findCourseById(courseId)
+                .flatMap(course -> course.findExercise(exerciseId));
+        if (!exercise.isPresent()) {
+            return SingleResponse.buildFailure("EXERCISE_NOT_FOUND", "练习不存在");
+        }
+        List<Integer> notes = exercise.get().getNotes();
+        Integer bpm = exercise.get().getBpm();
+        if (notes == null || notes.isEmpty() || bpm == null || bpm <= 0) {
+            return SingleResponse.buildFailure("NO_TARGET_NOTES", "该练习没有目标音高");
+        }
+        if (activeSessions.incrementAndGet() > maxSessions) {
+            activeSessions.decrementAndGet();
+            return SingleResponse.buildFailure("TOO_MANY_SESSIONS", "实时反馈人数已满，请稍后再试");
+        }
+        return SingleResponse.of(new Session(notes, 60.0 / bpm, new StreamingPitchTracker(pitchTracker, sampleRate)));
+    }
+
+    public int getActiveSessions() {
+        return activeSessions.get();
+    }
+
+    private class Session implements PitchFeedbackSession {
+        private final List<Integer> notes;
+        private final double beatSeconds;
+        private final StreamingPitchTracker tracker;
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        Session(List<Integer> notes, double beatSeconds, StreamingPitchTracker tracker) {
+            this.notes = notes;
+            this.beatSeconds = beatSeconds;
+            this.tracker = tracker;
+        }
+
+        @Override
+        public PitchFeedbackDTO feed(float[] samples, int length) {
+            if (closed.get() || tracker.feed(samples, length) == 0) {
+                return null;
+            }
+            double time = tracker.getLastFrameTime();
+            int beat = (int) (time / beatSeconds);
+            int index = Math.min(beat, notes.size() - 1);
+            int target = notes.get(index);
+
+            PitchFeedbackDTO feedback = new PitchFeedbackDTO();
+            feedback.setTime(Math.round(time * 1000) / 1000.0);
+            feedback.setNoteIndex(index);
+            feedback.setTargetNote(target);
+            feedback.setFinished(beat >= notes.size());
+            double frequency = tracker.getLastPitch();
+            if (frequency > 0) {
+                double cents = ExerciseScorer.cents(frequency, target);
+                feedback.setFrequency(Math.round(frequency * 100) / 100.0);
+                feedback.setCents(Math.round(cents * 10) / 10.0);
+            }
+            return feedback;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                activeSessions.decrementAndGet();
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.vocalcoach.app.job;
+
+import com.alibaba.cola.dto.SingleResponse;
+import com.vocalcoach.client.dto.EvaluationJobDTO;
+import com.vocalcoach.client.dto.EvaluationResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 订阅方在锁外按顺序收到状态变化：慢订阅方不拖住评测任务，抛异常的订阅方被移除而不影响其他订阅方。
+ */
+class EvaluationJobManagerTest {
+
+    private EvaluationJobManager manager;
+
+    @BeforeEach
+    void setUp() {
+        manager = new EvaluationJobManager();
+        ReflectionTestUtils.setField(manager, "workers", 1);
+        ReflectionTestUtils.setField(manager, "queueCapacity", 10);
+        ReflectionTestUtils.setField(manager, "retentionMinutes", 30L);
+        manager.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        manager.shutdown();
+    }
+
+    @Test
+    void slowListenerDoesNotBlockJob() throws InterruptedException {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<EvaluationJobDTO.Stage> received = new CopyOnWriteArrayList<>();
+
+        String jobId = manager.submit(progress -> {
+            await(subscribed);
+            progress.advance(EvaluationJobDTO.Stage.ANALYZING);
+            progress.advance(EvaluationJobDTO.Stage.AI_COMMENTARY);
+            return CompletableFuture.completedFuture(SingleResponse.of(new EvaluationResultDTO()));
+        }).get().getJobId();
+        manager.subscribe(jobId, job -> {
+            await(release);
+            received.add(job.getStage());
+            if (Boolean.TRUE.equals(job.getFinished())) {
+                done.countDown();
+            }
+        });
+        subscribed.countDown();
+
+        // 订阅方仍阻塞在第一个事件上，任务照常结束
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!manager.getJob(jobId).get().getFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(EvaluationJobDTO.Stage.SAVED, manager.getJob(jobId).get().getStage());
+        assertTrue(received.isEmpty());
+
+        release.countDown();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(EvaluationJobDTO.Stage.QUEUED, EvaluationJobDTO.Stage.ANALYZING,
+                EvaluationJobDTO.Stage.AI_COMMENTARY, EvaluationJobDTO.Stage.SAVED), received);
+    }
+
+    @Test
+    void failingListenerIsDroppedWithoutAffectingOthers() throws InterruptedException {
+        CountDownLatch subscribed = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        List<EvaluationJobDTO.Stage> healthy = new CopyOnWriteArrayList<>();
+        List<EvaluationJobDTO.Stage> broken = new CopyOnWriteArrayList<>();
+
+        String jobId = manager.submit(progress -> {
+            await(subscribed);
+            progress.advance(EvaluationJobDTO.Stage.ANALYZING);
+            SingleResponse<EvaluationResultDTO> failure =
+                    SingleResponse.buildFailure("AUDIO_ANALYSIS_FAILED", "音频分析失败");
+            return CompletableFuture.completedFuture(failure);
+        }).get().getJobId();
+        manager.subscribe(jobId, job -> {
+            broken.add(job.getStage());
+            throw new IllegalStateException("连接已关闭");
+        });
+        manager.subscribe(jobId, job -> {
+            healthy.add(job.getStage());
+            if (Boolean.TRUE.equals(job.getFinished())) {
+                done.countDown();
+            }
+        });
+        subscribed.countDown();
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(EvaluationJobDTO.Stage.QUEUED, EvaluationJobDTO.Stage.ANALYZING,
+                EvaluationJobDTO.Stage.FAILED), healthy);
+        assertEquals(Arrays.asList(EvaluationJobDTO.Stage.QUEUED), broken);
+        assertEquals("音频分析失败", manager.getJob(jobId).get().getErrorMessage());
+    }
+
+    @Test
+    void lateSubscriberReceivesFinalState() throws InterruptedException {
+        String jobId = manager.submit(progress ->
+                CompletableFuture.completedFuture(SingleResponse.of(new EvaluationResultDTO()))).get().getJobId();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!manager.getJob(jobId).get().getFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        CountDownLatch received = new CountDownLatch(1);
+        List<EvaluationJobDTO.Stage> stages = new CopyOnWriteArrayList<>();
+        manager.subscribe(jobId, job -> {
+            stages.add(job.getStage());
+            received.countDown();
+        });
+        assertTrue(received.await(5, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(EvaluationJobDTO.Stage.SAVED), stages);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.vocalcoach.app.service;
+
+import com.vocalcoach.app.assembler.ReportAssembler;
+import com.vocalcoach.client.dto.CursorPageResponse;
+import com.vocalcoach.client.dto.ReportDTO;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
+import com.vocalcoach.domain.evaluation.Evaluation;
+import com.vocalcoach.domain.report.Report;
+import com.vocalcoach.infrastructure.evaluation.gateway.EvaluationGatewayImpl;
+import com.vocalcoach.infrastructure.report.gateway.ReportGatewayImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 游标的编码与解析、参数校验，以及通过网关的键集查询逐页读取：不漏条、不重复，顺序与全量排序一致。
+ */
+class CursorPageTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 3, 1, 9, 30, 15, 123_000_000);
+
+    @TempDir
+    Path dataDir;
+
+    @Test
+    void defaultsToNewestFirstByTime() {
+        CursorPage page = CursorPage.of(new CursorPageQuery());
+        assertEquals(CursorPage.Sort.TIME, page.getSort());
+        assertTrue(page.isDescending());
+        assertEquals(CursorPage.DEFAULT_LIMIT + 1, page.fetchSize());
+        assertNull(page.getAfterId());
+        assertNull(page.getAfterTime());
+    }
+
+    @Test
+    void rejectsLimitOutOfRange() {
+        assertEquals(2, CursorPage.of(query(null, "time", "desc", 1)).fetchSize());
+        assertEquals(CursorPage.MAX_LIMIT + 1, CursorPage.of(query(null, "time", "desc", CursorPage.MAX_LIMIT)).fetchSize());
+        for (int limit : new int[]{0, -1, CursorPage.MAX_LIMIT + 1}) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> CursorPage.of(query(null, "time", "desc", limit)));
+            assertEquals("每页条数需在 1 到 " + CursorPage.MAX_LIMIT + " 之间", e.getMessage());
+        }
+    }
+
+    @Test
+    void rejectsUnknownSortAndOrder() {
+        assertEquals("不支持的排序字段: name", assertThrows(IllegalArgumentException.class,
+                () -> CursorPage.of(query(null, "name", null, null))).getMessage());
+        assertEquals("不支持的排序方向: up", assertThrows(IllegalArgumentException.class,
+                () -> CursorPage.of(query(null, null, "up", null))).getMessage());
+        assertEquals(CursorPage.Sort.SCORE, CursorPage.of(query(null, "SCORE", "ASC", null)).getSort());
+    }
+
+    @Test
+    void cursorRoundTripsKeyAndId() {
+        String timeCursor = nextCursor(query(null, "time", "asc", 1), BASE_TIME, 42L);
+        CursorPage timePage = CursorPage.of(query(timeCursor, "time", "asc", 1));
+        assertEquals(BASE_TIME, timePage.getAfterTime());
+        assertEquals(Long.valueOf(42), timePage.getAfterId());
+        assertFalse(timePage.isDescending());
+
+        String scoreCursor = nextCursor(query(null, "score", "desc", 1), 87, 7L);
+        CursorPage scorePage = CursorPage.of(query(scoreCursor, "score", "desc", 1));
+        assertEquals(Integer.valueOf(87), scorePage.getAfterScore());
+        assertEquals(Long.valueOf(7), scorePage.getAfterId());
+
+        // 按 ID 排序时游标不带排序键
+        String idCursor = nextCursor(query(null, "id", "desc", 1), "ignored", 9L);
+        assertEquals("ID|desc||9", decode(idCursor));
+        assertEquals(Long.valueOf(9), CursorPage.of(query(idCursor, "id", "desc", 1)).getAfterId());
+    }
+
+    @Test
+    void timeCursorKeepsNullTimestamp() {
+        String cursor = nextCursor(query(null, "time", "desc", 1), null, 5L);
+        assertEquals("TIME|desc||5", decode(cursor));
+        CursorPage page = CursorPage.of(query(cursor, "time", "desc", 1));
+        assertNull(page.getAfterTime());
+        assertEquals(Long.valueOf(5), page.getAfterId());
+
+        String scoreCursor = nextCursor(query(null, "score", "asc", 1), null, 6L);
+        assertNull(CursorPage.of(query(scoreCursor, "score", "asc", 1)).getAfterScore());
+    }
+
+    @Test
+    void rejectsCursorFromAnotherSortOrDirection() {
+        String cursor = nextCursor(query(null, "time", "desc", 1), BASE_TIME, 1L);
+        for (CursorPageQuery mismatched : Arrays.asList(query(cursor, "score", "desc", 1),
+                query(cursor, "time", "asc", 1), query(cursor, "id", null, 1))) {
+            assertEquals("分页游标与排序方式不一致", assertThrows(IllegalArgumentException.class,
+                    () -> CursorPage.of(mismatched)).getMessage());
+        }
+        // 换每页条数不影响游标
+        assertEquals(Long.valueOf(1), CursorPage.of(query(cursor, "time", "desc", 50)).getAfterId());
+    }
+
+    @Test
+    void rejectsMalformedCursor() {
+        for (String raw : Arrays.asList("TIME|desc|not-a-time|1", "SCORE|desc|high|1", "SCORE|desc|80|x")) {
+            String cursor = Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+            String sort = raw.substring(0, raw.indexOf('|'));
+            assertEquals("无效的分页游标", assertThrows(IllegalArgumentException.class,
+                    () -> CursorPage.of(query(cursor, sort, "desc", 1))).getMessage(), raw);
+        }
+        assertEquals("无效的分页游标", assertThrows(IllegalArgumentException.class,
+                () -> CursorPage.of(query("!!not base64!!", null, null, 1))).getMessage());
+    }
+
+    @Test
+    void lastPageHasNoCursor() {
+        CursorPage page = CursorPage.of(query(null, "id", "asc", 3));
+        CursorPageResponse<Long> response = page.toResponse(Arrays.asList(1L, 2L, 3L), Function.identity(),
+                id -> null, Function.identity(), 3);
+        assertEquals(Arrays.asList(1L, 2L, 3L), response.getData());
+        assertNull(response.getNextCursor());
+        assertFalse(response.isHasMore());
+        assertEquals(3, response.getTotalCount());
+    }
+
+    @Test
+    void pagesReportsEndToEndWithoutGapsOrDuplicates() {
+        ReportGatewayImpl gateway = new ReportGatewayImpl();
+        ReflectionTestUtils.setField(gateway, "dataPath", dataDir.resolve("reports").toString());
+        gateway.init();
+        ReportServiceImpl service = new ReportServiceImpl();
+        ReflectionTestUtils.setField(service, "reportGateway", gateway);
+        ReflectionTestUtils.setField(service, "reportAssembler", new ReportAssembler());
+
+        Random random = new Random(7);
+        for (int i = 0; i < 47; i++) {
+            Report report = new Report();
+            report.setSongName("歌曲" + i);
+            // 少量取值制造同键，另有空键
+            report.setOverallScore(random.nextInt(8) == 0 ? null : 60 + random.nextInt(5) * 10);
+            report.setTimestamp(random.nextInt(8) == 0 ? null : BASE_TIME.plusMinutes(random.nextInt(6)));
+            gateway.save(report);
+        }
+        List<Report> all = gateway.findAll();
+
+        for (String sort : Arrays.asList("time", "score", "id")) {
+            for (String order : Arrays.asList("asc", "desc")) {
+                for (int limit : new int[]{1, 5, 47, 100}) {
+                    List<Long> paged = new ArrayList<>();
+                    String cursor = null;
+                    do {
+                        CursorPageResponse<ReportDTO> response = service.listReports(query(cursor, sort, order, limit));
+                        assertTrue(response.isSuccess(), response.getErrMessage());
+                        assertEquals(all.size(), response.getTotalCount());
+                        assertTrue(response.getData().size() <= limit);
+                        response.getData().forEach(dto -> paged.add(dto.getId()));
+                        cursor = response.getNextCursor();
+                    } while (cursor != null);
+
+                    String label = sort + " " + order + " " + limit;
+                    assertEquals(all.size(), new HashSet<>(paged).size(), label);
+                    assertEquals(expectedOrder(all, sort, order), paged, label);
+                }
+            }
+        }
+    }
+
+    @Test
+    void concurrentInsertsDoNotShiftEvaluationPages() {
+        EvaluationGatewayImpl gateway = new EvaluationGatewayImpl();
+        ReflectionTestUtils.setField(gateway, "dataPath", dataDir.resolve("evaluations").toString());
+        ReflectionTestUtils.setField(gateway, "compactThreshold", 1000);
+        gateway.init();
+        try {
+            for (int i = 0; i < 30; i++) {
+                gateway.save(evaluation(i % 4 == 0 ? null : 50 + i % 3 * 10, BASE_TIME.plusSeconds(i % 5)));
+            }
+            Set<Long> original = gateway.findAll().stream().map(Evaluation::getId).collect(Collectors.toSet());
+
+            // 翻页过程中插入新记录：已有记录不漏不重，这是游标分页相对偏移分页的意义
+            List<Long> paged = new ArrayList<>();
+            String cursor = null;
+            do {
+                CursorPage page = CursorPage.of(query(cursor, "score", "desc", 4));
+                List<Evaluation> rows = gateway.findPageByOverallScore(page.getAfterScore(), page.getAfterId(),
+                        page.fetchSize(), page.isDescending());
+                CursorPageResponse<Long> response = page.toResponse(rows, Evaluation::getId,
+                        evaluation -> evaluation.getScores().getOverall(), Evaluation::getId, gateway.count());
+                paged.addAll(response.getData());
+                cursor = response.getNextCursor();
+                gateway.save(evaluation(70, BASE_TIME));
+                gateway.save(evaluation(null, null));
+            } while (cursor != null);
+
+            List<Long> pagedOriginal = paged.stream().filter(original::contains).collect(Collectors.toList());
+            assertEquals(original.size(), pagedOriginal.size());
+            assertEquals(original, new HashSet<>(pagedOriginal));
+            assertEquals(paged.size(), new HashSet<>(paged).size());
+        } finally {
+            gateway.destroy();
+        }
+    }
+
+    private static List<Long> expectedOrder(List<Report> reports, String sort, String order) {
+        Comparator<Report> comparator;
+        switch (sort) {
+            case "score":
+                comparator = Comparator.comparing(Report::getOverallScore,
+                        Comparator.nullsFirst(Comparator.<Integer>naturalOrder())).thenComparing(Report::getId);
+                break;
+            case "time":
+                comparator = Comparator.comparing(Report::getTimestamp,
+                        Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder())).thenComparing(Report::getId);
+                break;
+            default:
+                comparator = Comparator.comparing(Report::getId);
+                break;
+        }
+        List<Report> sorted = new ArrayList<>(reports);
+        sorted.sort(comparator);
+        if ("desc".equals(order)) {
+            Collections.reverse(sorted);
+        }
+        return sorted.stream().map(Report::getId).collect(Collectors.toList());
+    }
+
+    private static String nextCursor(CursorPageQuery query, Object key, Long id) {
+        // 多取的一条触发生成游标，游标指向本页最后一条
+        CursorPage page = CursorPage.of(query);
+        List<Long> rows = new ArrayList<>();
+        for (int i = 0; i < page.fetchSize(); i++) {
+            rows.add(i == page.fetchSize() - 2 ? id : -1L);
+        }
+        return page.toResponse(rows, Function.identity(), row -> key, Function.identity(), rows.size())
+                .getNextCursor();
+    }
+
+    private static String decode(String cursor) {
+        return new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+    }
+
+    private static Evaluation evaluation(Integer overall, LocalDateTime evaluatedAt) {
+        Evaluation evaluation = new Evaluation();
+        evaluation.setSongName("测试");
+        evaluation.setEvaluatedAt(evaluatedAt);
+        Evaluation.Scores scores = new Evaluation.Scores();
+        scores.setOverall(overall);
+        evaluation.setScores(scores);
+        return evaluation;
+    }
+
+    private static CursorPageQuery query(String cursor, String sort, String order, Integer limit) {
+        CursorPageQuery query = new CursorPageQuery();
+        query.setCursor(cursor);
+        query.setSort(sort);
+        query.setOrder(order);
+        query.setLimit(limit);
+        return query;
+    }
+}
@@ -0,0 +1,184 @@
+package com.vocalcoach.app.training;
+
+import com.alibaba.cola.dto.SingleResponse;
+import com.vocalcoach.client.api.PitchFeedbackSession;
+import com.vocalcoach.client.dto.PitchFeedbackDTO;
+import com.vocalcoach.domain.training.Course;
+import com.vocalcoach.domain.training.TrainingProgress;
+import com.vocalcoach.domain.training.gateway.TrainingGateway;
+import com.vocalcoach.infrastructure.audio.StreamingPitchTracker;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 会话名额的占用与释放，以及 48 kHz 正弦分段输入时按拍切换目标音、相对目标音的音分偏差。
+ */
+class PitchFeedbackManagerTest {
+
+    private static final int INPUT_RATE = 48000;
+    private static final int HOP_LENGTH = 256;
+    // A3 = 220 Hz、C4、E4，120 bpm 每拍 0.5 秒
+    private static final List<Integer> NOTES = Arrays.asList(57, 60, 64);
+
+    private PitchFeedbackManager manager;
+
+    @BeforeEach
+    void setUp() {
+        Course.Exercise exercise = new Course.Exercise();
+        exercise.setId("e1");
+        exercise.setBpm(120);
+        exercise.setNotes(NOTES);
+        Course course = new Course();
+        course.setId("c1");
+        course.setExercises(Collections.singletonList(exercise));
+
+        manager = new PitchFeedbackManager();
+        ReflectionTestUtils.setField(manager, "trainingGateway", new StubTrainingGateway(course));
+        ReflectionTestUtils.setField(manager, "maxSessions", 2);
+        ReflectionTestUtils.setField(manager, "frameLength", 512);
+        ReflectionTestUtils.setField(manager, "hopLength", HOP_LENGTH);
+        ReflectionTestUtils.setField(manager, "fmin", 65.0);
+        ReflectionTestUtils.setField(manager, "fmax", 1500.0);
+        ReflectionTestUtils.setField(manager, "threshold", 0.15);
+        manager.init();
+    }
+
+    @Test
+    void sessionCapIsReleasedOnClose() {
+        PitchFeedbackSession first = manager.open("c1", "e1", INPUT_RATE).getData();
+        PitchFeedbackSession second = manager.open("c1", "e1", INPUT_RATE).getData();
+        SingleResponse<PitchFeedbackSession> rejected = manager.open("c1", "e1", INPUT_RATE);
+        assertFalse(rejected.isSuccess());
+        assertEquals("TOO_MANY_SESSIONS", rejected.getErrCode());
+        assertEquals(2, manager.getActiveSessions());
+
+        // 重复 close 只释放一次名额，关闭后的会话不再产出反馈
+        first.close();
+        first.close();
+        assertEquals(1, manager.getActiveSessions());
+        assertNull(first.feed(new float[INPUT_RATE], INPUT_RATE));
+        assertTrue(manager.open("c1", "e1", INPUT_RATE).isSuccess());
+        assertEquals(2, manager.getActiveSessions());
+        second.close();
+    }
+
+    @Test
+    void rejectedOpenDoesNotTakeSlot() {
+        SingleResponse<PitchFeedbackSession> badRate = manager.open("c1", "e1", 4000);
+        assertEquals("INVALID_SAMPLE_RATE", badRate.getErrCode());
+        SingleResponse<PitchFeedbackSession> missing = manager.open("c1", "missing", INPUT_RATE);
+        assertEquals("EXERCISE_NOT_FOUND", missing.getErrCode());
+        assertEquals(0, manager.getActiveSessions());
+    }
+
+    @Test
+    void followsBeatsWhileSingingSineInChunks() {
+        PitchFeedbackSession session = manager.open("c1", "e1", INPUT_RATE).getData();
+        float[] samples = sine(220, INPUT_RATE, 2.0);
+        // 10 ms 一段，短于一个 hop，每帧都有一次反馈
+        List<PitchFeedbackDTO> feedback = new ArrayList<>();
+        for (int offset = 0; offset < samples.length; offset += 480) {
+            float[] chunk = Arrays.copyOfRange(samples, offset, offset + 480);
+            PitchFeedbackDTO dto = session.feed(chunk, chunk.length);
+            if (dto != null) {
+                feedback.add(dto);
+            }
+        }
+        session.close();
+
+        for (int i = 0; i < feedback.size(); i++) {
+            PitchFeedbackDTO dto = feedback.get(i);
+            // 第 i 帧中心在降采样后的第 (i + 1) * hop 个采样
+            double time = (i + 1) * HOP_LENGTH / (double) StreamingPitchTracker.SAMPLE_RATE;
+            int beat = (int) (time / 0.5);
+            int index = Math.min(beat, NOTES.size() - 1);
+            assertEquals(Math.round(time * 1000) / 1000.0, dto.getTime(), 1e-9);
+            assertEquals(index, dto.getNoteIndex(), "第 " + i + " 帧");
+            assertEquals(NOTES.get(index), dto.getTargetNote());
+            assertEquals(beat >= NOTES.size(), dto.getFinished());
+            if (i >= 3) {
+                // 唱的一直是 A3：第一拍偏差约 0，之后相对 C4、E4 分别低 300、700 音分
+                double expectedCents = 100 * (57 - NOTES.get(index));
+                assertEquals(220, dto.getFrequency(), 220 * 0.003);
+                assertEquals(expectedCents, dto.getCents(), 5, "第 " + i + " 帧");
+            }
+        }
+
+        // 拍子边界：0.5 秒落在第 21、22 帧之间，1.5 秒落在第 64、65 帧之间
+        assertEquals(0, feedback.get(20).getNoteIndex());
+        assertEquals(1, feedback.get(21).getNoteIndex());
+        assertFalse(feedback.get(63).getFinished());
+        assertTrue(feedback.get(64).getFinished());
+        assertEquals(2, feedback.get(64).getNoteIndex());
+    }
+
+    private static float[] sine(double frequency, int sampleRate, double seconds) {
+        float[] samples = new float[(int) (seconds * sampleRate)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return samples;
+    }
+
+    private static class StubTrainingGateway implements TrainingGateway {
+        private final Course course;
+
+        StubTrainingGateway(Course course) {
+            this.course = course;
+        }
+
+        @Override
+        public List<Course> findAllCourses() {
+            return Collections.singletonList(course);
+        }
+
+        @Override
+        public Optional<Course> findCourseById(String courseId) {
+            return course.getId().equals(courseId) ? Optional.of(course) : Optional.empty();
+        }
+
+        @Override
+        public List<TrainingProgress> findAllProgress() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public Optional<TrainingProgress> findProgress(String courseId, String exerciseId) {
+            return Optional.empty();
+        }
+
+        @Override
+        public TrainingProgress saveProgress(TrainingProgress progress) {
+            return progress;
+        }
+
+        @Override
+        public TrainingProgress updateProgress(String courseId, String exerciseId,
+                                               Consumer<TrainingProgress> updater) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public int countCompletedExercises() {
+            return 0;
+        }
+
+        @Override
+        public int countTotalExercises() {
+            return 1;
+        }
+    }
+}
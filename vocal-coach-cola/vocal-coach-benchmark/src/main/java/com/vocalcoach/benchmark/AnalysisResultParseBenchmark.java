@@ -0,0 +1,43 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.evaluation.PythonAudioAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 解析 analyze_audio.py 的一行 JSON 输出。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AnalysisResultParseBenchmark {
+
+    private PythonAudioAnalyzer analyzer;
+    private String output;
+
+    @Setup
+    public void setup() {
+        analyzer = new PythonAudioAnalyzer();
+        output = BenchmarkData.analyzerOutput(new Random(BenchmarkData.SEED));
+    }
+
+    @Benchmark
+    public AudioAnalysisDTO parseAnalysisResult() {
+        return analyzer.parseAnalysisResult(output);
+    }
+}
@@ -0,0 +1,99 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.client.exception.AnalysisRejectedException;
+import com.vocalcoach.infrastructure.evaluation.AnalysisScheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用模拟分析器比较固定上限与自适应上限的吞吐量。
+ * 模拟分析器有 capacity 个"核"：并发不超过 capacity 时耗时为 serviceMillis，超过后按比例变长。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(16)
+@Fork(1)
+public class AnalysisSchedulerBenchmark {
+
+    @Param({"fixed", "gradient"})
+    private String algorithm;
+
+    @Param({"20"})
+    private int serviceMillis;
+
+    @Param({"4"})
+    private int capacity;
+
+    @Param({"1.5"})
+    private double latencyTolerance;
+
+    private AnnotationConfigApplicationContext context;
+    private AnalysisScheduler scheduler;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    @Setup
+    public void setup() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("analysis.scheduler.limit-algorithm", algorithm);
+        properties.put("analysis.scheduler.max-concurrent", 2);
+        properties.put("analysis.scheduler.max-limit", 32);
+        properties.put("analysis.scheduler.queue-capacity", 64);
+        properties.put("analysis.scheduler.max-wait-seconds", 60);
+        properties.put("analysis.scheduler.latency-tolerance", latencyTolerance);
+        // 调度器只需要配置项和可选的 MeterRegistry，不需要数据目录
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.register(AnalysisScheduler.class);
+        context.refresh();
+        scheduler = context.getBean(AnalysisScheduler.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Integer analyze() {
+        try {
+            return scheduler.execute(this::stubAnalysis);
+        } catch (AnalysisRejectedException e) {
+            return null;
+        }
+    }
+
+    private Integer stubAnalysis() {
+        int concurrent = inFlight.incrementAndGet();
+        try {
+            double slowdown = Math.max(1.0, (double) concurrent / capacity);
+            Thread.sleep((long) (serviceMillis * slowdown));
+            return concurrent;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.infrastructure.audio.PcmAudio;
+import com.vocalcoach.infrastructure.audio.PolyphaseResampler;
+import com.vocalcoach.infrastructure.audio.WavDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 上传的 WAV 解码为 22050 Hz 单声道 PCM 的耗时：内存映射解析加多相重采样。
+ * 输入为立体声 16 位 PCM 的噪声加正弦，sourceRate 为源采样率，seconds 为时长。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AudioIngestBenchmark {
+
+    private static final int TARGET_SAMPLE_RATE = 22050;
+    private static final int CHANNELS = 2;
+
+    @Param({"44100", "48000"})
+    private int sourceRate;
+
+    @Param({"60", "240"})
+    private int seconds;
+
+    private File file;
+
+    @Setup
+    public void setup() throws IOException {
+        Random random = new Random(BenchmarkData.SEED);
+        int frames = seconds * sourceRate;
+        int dataLength = frames * CHANNELS * 2;
+        ByteBuffer wav = ByteBuffer.allocate(44 + dataLength).order(ByteOrder.LITTLE_ENDIAN);
+        wav.putInt(0x46464952).putInt(36 + dataLength).putInt(0x45564157);
+        wav.putInt(0x20746d66).putInt(16).putShort((short) 1).putShort((short) CHANNELS).putInt(sourceRate)
+                .putInt(sourceRate * CHANNELS * 2).putShort((short) (CHANNELS * 2)).putShort((short) 16);
+        wav.putInt(0x61746164).putInt(dataLength);
+        for (int n = 0; n < frames; n++) {
+            double value = 0.3 * Math.sin(2 * Math.PI * 220 * n / sourceRate) + 0.05 * random.nextGaussian();
+            short sample = (short) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, value * 32767));
+            wav.putShort(sample).putShort(sample);
+        }
+        file = File.createTempFile("ingest-benchmark", ".wav");
+        Files.write(file.toPath(), wav.array());
+    }
+
+    @TearDown
+    public void tearDown() {
+        file.delete();
+    }
+
+    @Benchmark
+    public float[] decode() throws IOException {
+        PcmAudio audio = WavDecoder.decode(file);
+        return PolyphaseResampler.of(audio.getSampleRate(), TARGET_SAMPLE_RATE).process(audio.getSamples());
+    }
+}
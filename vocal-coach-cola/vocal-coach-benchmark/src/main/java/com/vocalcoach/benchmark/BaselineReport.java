@@ -0,0 +1,83 @@
+package com.vocalcoach.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 对比两次 JMH 结果（-rf json 输出），任一基准退化超过阈值时以非零状态退出。
+ * <p>
+ * 用法: BaselineReport &lt;current.json&gt; &lt;baseline.json&gt; [阈值百分比，默认 10]
+ */
+public class BaselineReport {
+
+    private static final double DEFAULT_THRESHOLD_PERCENT = 10;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("用法: BaselineReport <current.json> <baseline.json> [threshold-percent]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : DEFAULT_THRESHOLD_PERCENT;
+        Map<String, JSONObject> current = load(args[0]);
+        Map<String, JSONObject> baseline = load(args[1]);
+
+        int regressions = 0;
+        for (Map.Entry<String, JSONObject> entry : current.entrySet()) {
+            JSONObject now = entry.getValue();
+            JSONObject before = baseline.get(entry.getKey());
+            double score = now.getJSONObject("primaryMetric").getDoubleValue("score");
+            String unit = now.getJSONObject("primaryMetric").getString("scoreUnit");
+            if (before == null) {
+                System.out.printf("NEW        %-70s %12.3f %s%n", entry.getKey(), score, unit);
+                continue;
+            }
+            double baseScore = before.getJSONObject("primaryMetric").getDoubleValue("score");
+            // 吞吐量越高越好，其余模式（耗时）越低越好
+            boolean higherIsBetter = "thrpt".equals(now.getString("mode"));
+            double change = baseScore == 0 ? 0 : (score - baseScore) / baseScore * 100;
+            double worse = higherIsBetter ? -change : change;
+            String status = worse > threshold ? "REGRESSION" : "OK";
+            if (worse > threshold) {
+                regressions++;
+            }
+            System.out.printf("%-10s %-70s %12.3f -> %12.3f %s (%+.1f%%)%n",
+                    status, entry.getKey(), baseScore, score, unit, change);
+        }
+        for (String key : baseline.keySet()) {
+            if (!current.containsKey(key)) {
+                System.out.printf("MISSING    %s%n", key);
+            }
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d 项基准退化超过 %.1f%%%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    // 以 "基准名[参数]" 作为键，同一基准不同 @Param 组合分别对比
+    private static Map<String, JSONObject> load(String path) throws IOException {
+        String content = new String(Files.readAllBytes(Paths.get(path)), StandardCharsets.UTF_8);
+        JSONArray results = JSON.parseArray(content);
+        Map<String, JSONObject> byKey = new LinkedHashMap<>();
+        for (int i = 0; i < results.size(); i++) {
+            JSONObject result = results.getJSONObject(i);
+            String key = result.getString("benchmark");
+            JSONObject params = result.getJSONObject("params");
+            if (params != null && !params.isEmpty()) {
+                key += new TreeMap<>(params.getInnerMap());
+            }
+            byKey.put(key, result);
+        }
+        return byKey;
+    }
+}
@@ -0,0 +1,291 @@
+package com.vocalcoach.benchmark;
+
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.vocalcoach.domain.evaluation.Evaluation;
+import com.vocalcoach.domain.report.Report;
+import com.vocalcoach.domain.song.Song;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准测试数据生成，固定随机种子保证每次运行的数据一致。
+ */
+public final class BenchmarkData {
+
+    public static final long SEED = 20240501L;
+
+    private static final String[] NAME_PARTS = {"月亮", "星空", "晴天", "稻香", "夜曲", "青花", "甜蜜", "海风",
+            "远方", "童话", "光年", "告白", "城市", "雨后", "旅行", "花海"};
+    private static final String[] ARTISTS = {"周杰伦", "邓丽君", "王菲", "陈奕迅", "林俊杰", "孙燕姿", "儿歌", "Adele",
+            "Taylor Swift", "Ed Sheeran"};
+    private static final String[] CATEGORIES = {"流行", "经典", "儿歌", "民谣", "摇滚", "美声"};
+    private static final String[] KEYS = {"C", "G", "F", "D", "Cm", "Am"};
+
+    private BenchmarkData() {
+    }
+
+    public static List<Song> songs(int count, Random random) {
+        List<Song> songs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Song song = new Song();
+            song.setId((long) i + 1);
+            song.setName(NAME_PARTS[random.nextInt(NAME_PARTS.length)] + NAME_PARTS[random.nextInt(NAME_PARTS.length)] + i);
+            song.setArtist(ARTISTS[random.nextInt(ARTISTS.length)]);
+            song.setDifficulty(1 + random.nextInt(5));
+            song.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            song.setBpm(60 + random.nextInt(80));
+            song.setKey(KEYS[random.nextInt(KEYS.length)]);
+            song.setTimeSignature("4/4");
+            List<Song.MelodyNote> notes = new ArrayList<>();
+            for (int n = 0; n < 4; n++) {
+                Song.MelodyNote note = new Song.MelodyNote();
+                note.setNote(55 + random.nextInt(20));
+                note.setDuration(1 + random.nextInt(2));
+                note.setLyric(NAME_PARTS[random.nextInt(NAME_PARTS.length)].substring(0, 1));
+                notes.add(note);
+            }
+            song.setMelodyPattern(notes);
+            songs.add(song);
+        }
+        return songs;
+    }
+
+    public static List<Report> reports(int count, Random random) {
+        List<Report> reports = new ArrayList<>(count);
+        LocalDateTime start = LocalDateTime.of(2024, 1, 1, 0, 0);
+        for (int i = 0; i < count; i++) {
+            Report report = new Report();
+            report.setId((long) i + 1);
+            report.setSongName(NAME_PARTS[random.nextInt(NAME_PARTS.length)]);
+            report.setOverallScore(40 + random.nextInt(60));
+            Report.Dimensions dimensions = new Report.Dimensions();
+            dimensions.setPitch(40 + random.nextInt(60));
+            dimensions.setRhythm(40 + random.nextInt(60));
+            dimensions.setBreath(random.nextInt(10) == 0 ? null : 40 + random.nextInt(60));
+            dimensions.setVoice(40 + random.nextInt(60));
+            report.setDimensions(dimensions);
+            report.setSuggestions(new ArrayList<>());
+            report.setTrainingRecommendations(new ArrayList<>());
+            report.setTimestamp(start.plusSeconds(random.nextInt(365 * 24 * 3600)));
+            reports.add(report);
+        }
+        return reports;
+    }
+
+    public static Evaluation evaluation(Random random) {
+        Evaluation evaluation = new Evaluation();
+        evaluation.setId(1L);
+        evaluation.setSongName("月亮代表我的心");
+        evaluation.setAudioPath("data/audios/sample.wav");
+        evaluation.setEvaluatedAt(LocalDateTime.now());
+
+        Evaluation.Scores scores = new Evaluation.Scores();
+        scores.setOverall(60 + random.nextInt(40));
+        scores.setPitch(60 + random.nextInt(40));
+        scores.setRhythm(60 + random.nextInt(40));
+        scores.setVoice(60 + random.nextInt(40));
+        scores.setBreath(60 + random.nextInt(40));
+        scores.setStyle(60 + random.nextInt(40));
+        evaluation.setScores(scores);
+
+        Evaluation.AudioFeatures features = new Evaluation.AudioFeatures();
+        Evaluation.PitchFeatures pitch = new Evaluation.PitchFeatures();
+        pitch.setMeanPitch(220 + random.nextDouble() * 100);
+        pitch.setPitchRange(150 + random.nextDouble() * 200);
+        pitch.setPitchStability(70 + random.nextDouble() * 30);
+        features.setPitch(pitch);
+        Evaluation.RhythmFeatures rhythm = new Evaluation.RhythmFeatures();
+        rhythm.setTempo(72 + random.nextDouble() * 40);
+        rhythm.setBeatRegularity(60 + random.nextDouble() * 40);
+        rhythm.setRhythmScore(60 + random.nextDouble() * 40);
+        features.setRhythm(rhythm);
+        Evaluation.VoiceFeatures voice = new Evaluation.VoiceFeatures();
+        voice.setJitter(random.nextDouble() * 0.02);
+        voice.setShimmer(random.nextDouble() * 0.1);
+        voice.setHnr(10 + random.nextDouble() * 15);
+        voice.setVoiceScore(60 + random.nextDouble() * 40);
+        voice.setVoiceQuality("良好");
+        features.setVoice(voice);
+        Evaluation.TimbreFeatures timbre = new Evaluation.TimbreFeatures();
+        timbre.setBrightness(1500 + random.nextDouble() * 1500);
+        timbre.setWarmth(random.nextDouble());
+        timbre.setBrightnessLevel("适中");
+        features.setTimbre(timbre);
+        Evaluation.EnergyFeatures energy = new Evaluation.EnergyFeatures();
+        energy.setEnergyMean(random.nextDouble() * 0.1);
+        energy.setEnergyStability(60 + random.nextDouble() * 40);
+        energy.setBreathControlScore(60 + random.nextDouble() * 40);
+        features.setEnergy(energy);
+        evaluation.setFeatures(features);
+
+        List<Evaluation.Strength> strengths = new ArrayList<>();
+        List<Evaluation.Weakness> weaknesses = new ArrayList<>();
+        List<Evaluation.Advice> advices = new ArrayList<>();
+        List<Evaluation.CourseRecommendation> courses = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Evaluation.Strength strength = new Evaluation.Strength();
+            strength.setDimension("音准");
+            strength.setTitle("音准把控良好");
+            strength.setDescription("您的音准表现稳定，能够准确把握歌曲的旋律走向。");
+            strength.setIcon("🎯");
+            strengths.add(strength);
+
+            Evaluation.Weakness weakness = new Evaluation.Weakness();
+            weakness.setDimension("气息");
+            weakness.setTitle("气息支撑不足");
+            weakness.setDescription("长音时气息不够稳定，建议加强腹式呼吸训练。");
+            weakness.setIcon("💨");
+            weaknesses.add(weakness);
+
+            Evaluation.Advice advice = new Evaluation.Advice();
+            advice.setDimension("综合");
+            advice.setTitle("坚持每日练习");
+            advice.setDescription("建议每天进行15-30分钟的声乐练习，包括发声练习和歌曲演唱。");
+            advice.setPriority(i + 1);
+            advices.add(advice);
+
+            Evaluation.CourseRecommendation course = new Evaluation.CourseRecommendation();
+            course.setCourseId("breath");
+            course.setCourseName("气息训练");
+            course.setCourseIcon("🌬️");
+            course.setReason("增强气息控制和呼吸稳定性");
+            course.setPriority(i + 1);
+            courses.add(course);
+        }
+        evaluation.setStrengths(strengths);
+        evaluation.setWeaknesses(weaknesses);
+        evaluation.setAdvices(advices);
+        evaluation.setCourseRecommendations(courses);
+        evaluation.setAiEvaluation("整体表现良好，继续保持练习，相信您会越唱越好！");
+        evaluation.setAiStatus(Evaluation.AiStatus.COMPLETED);
+        return evaluation;
+    }
+
+    /**
+     * 与 analyze_audio.py 输出结构一致的一行 JSON。
+     */
+    public static String analyzerOutput(Random random) {
+        JSONObject pitch = new JSONObject();
+        pitch.put("mean_pitch", 220 + random.nextDouble() * 100);
+        pitch.put("pitch_range", 150 + random.nextDouble() * 200);
+        pitch.put("pitch_stability", 70 + random.nextDouble() * 30);
+        JSONArray pitchValues = new JSONArray();
+        for (int i = 0; i < 100; i++) {
+            pitchValues.add(180 + random.nextDouble() * 200);
+        }
+        pitch.put("pitch_values", pitchValues);
+
+        JSONObject rhythm = new JSONObject();
+        rhythm.put("tempo", 72 + random.nextDouble() * 40);
+        rhythm.put("beat_regularity", 60 + random.nextDouble() * 40);
+        rhythm.put("rhythm_score", 60 + random.nextDouble() * 40);
+        rhythm.put("beat_count", 100 + random.nextInt(200));
+
+        JSONObject voice = new JSONObject();
+        voice.put("jitter", random.nextDouble() * 0.02);
+        voice.put("shimmer", random.nextDouble() * 0.1);
+        voice.put("hnr", 10 + random.nextDouble() * 15);
+        voice.put("jitter_score", 60 + random.nextDouble() * 40);
+        voice.put("shimmer_score", 60 + random.nextDouble() * 40);
+        voice.put("hnr_score", 60 + random.nextDouble() * 40);
+        voice.put("voice_score", 60 + random.nextDouble() * 40);
+        voice.put("voice_quality", "良好");
+
+        JSONObject timbre = new JSONObject();
+        timbre.put("brightness", 1500 + random.nextDouble() * 1500);
+        timbre.put("warmth", random.nextDouble());
+        timbre.put("brightness_level", "适中");
+        JSONArray mfcc = new JSONArray();
+        for (int i = 0; i < 13; i++) {
+            mfcc.add(random.nextGaussian() * 20);
+        }
+        timbre.put("mfcc_mean", mfcc);
+
+        JSONObject energy = new JSONObject();
+        energy.put("energy_mean", random.nextDouble() * 0.1);
+        energy.put("energy_stability", 60 + random.nextDouble() * 40);
+        energy.put("dynamic_range", random.nextDouble() * 0.3);
+        energy.put("breath_control_score", 60 + random.nextDouble() * 40);
+
+        JSONObject comparison = new JSONObject();
+        comparison.put("has_reference", true);
+        comparison.put("dtw_distance", random.nextDouble() * 500);
+        comparison.put("similarity_score", 50 + random.nextDouble() * 50);
+
+        JSONObject features = new JSONObject();
+        features.put("pitch", pitch);
+        features.put("rhythm", rhythm);
+        features.put("voice", voice);
+        features.put("timbre", timbre);
+        features.put("energy", energy);
+        features.put("comparison", comparison);
+
+        JSONObject scores = new JSONObject();
+        scores.put("overall", 60 + random.nextDouble() * 40);
+        scores.put("pitch", 60 + random.nextDouble() * 40);
+        scores.put("rhythm", 60 + random.nextDouble() * 40);
+        scores.put("voice", 60 + random.nextDouble() * 40);
+        scores.put("breath", 60 + random.nextDouble() * 40);
+
+        JSONObject output = new JSONObject(true);
+        output.put("success", true);
+        output.put("audio_path", "data/audios/sample.wav");
+        output.put("features", features);
+        output.put("scores", scores);
+        output.put("request_id", 1);
+        return output.toJSONString();
+    }
+
+    /**
+     * 模拟 Claude 返回的文本：说明文字包裹一段 JSON。
+     */
+    public static String claudeResponse() {
+        JSONObject json = new JSONObject(true);
+        JSONArray strengths = new JSONArray();
+        JSONArray weaknesses = new JSONArray();
+        JSONArray advices = new JSONArray();
+        JSONArray courses = new JSONArray();
+        for (int i = 0; i < 3; i++) {
+            JSONObject strength = new JSONObject(true);
+            strength.put("dimension", "音准");
+            strength.put("title", "音准把控良好");
+            strength.put("description", "您的音准表现稳定，能够准确把握歌曲的旋律走向，高音区也较为扎实。");
+            strength.put("icon", "🎯");
+            strengths.add(strength);
+
+            JSONObject weakness = new JSONObject(true);
+            weakness.put("dimension", "气息");
+            weakness.put("title", "气息支撑不足");
+            weakness.put("description", "长音时气息不够稳定，句尾容易出现音量衰减，建议加强腹式呼吸训练。");
+            weakness.put("icon", "💨");
+            weaknesses.add(weakness);
+
+            JSONObject advice = new JSONObject(true);
+            advice.put("dimension", "综合");
+            advice.put("title", "坚持每日练习");
+            advice.put("description", "建议每天进行15-30分钟的声乐练习，包括发声练习和歌曲演唱。");
+            advice.put("priority", i + 1);
+            advices.add(advice);
+
+            JSONObject course = new JSONObject(true);
+            course.put("courseId", "breath");
+            course.put("courseName", "气息训练");
+            course.put("courseIcon", "🌬️");
+            course.put("reason", "增强气息控制和呼吸稳定性");
+            course.put("priority", i + 1);
+            courses.add(course);
+        }
+        json.put("strengths", strengths);
+        json.put("weaknesses", weaknesses);
+        json.put("advices", advices);
+        json.put("courseRecommendations", courses);
+        json.put("overallComment", "整体表现良好，音准和节奏都比较稳定，气息控制还有提升空间。");
+        json.put("styleScore", 82);
+        return "以下是根据分析数据给出的评价：\n\n" + json.toString(com.alibaba.fastjson.serializer.SerializerFeature.PrettyFormat)
+                + "\n\n希望这些建议对您有帮助！";
+    }
+}
@@ -0,0 +1,52 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.ai.ClaudeApiClient;
+import com.vocalcoach.infrastructure.evaluation.PythonAudioAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Claude 提示词构造与响应解析，不发起网络请求。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClaudePromptBenchmark {
+
+    private ClaudeApiClient client;
+    private AudioAnalysisDTO analysis;
+    private String response;
+
+    @Setup
+    public void setup() {
+        client = new ClaudeApiClient();
+        analysis = new PythonAudioAnalyzer()
+                .parseAnalysisResult(BenchmarkData.analyzerOutput(new Random(BenchmarkData.SEED)));
+        response = BenchmarkData.claudeResponse();
+    }
+
+    @Benchmark
+    public String buildEvaluationPrompt() {
+        return client.buildEvaluationPrompt(analysis.getScores(), analysis.getFeatures(), "月亮代表我的心");
+    }
+
+    @Benchmark
+    public ClaudeApiClient.EvaluationResult parseEvaluationResponse() {
+        return client.parseEvaluationResponse(response, analysis.getScores());
+    }
+}
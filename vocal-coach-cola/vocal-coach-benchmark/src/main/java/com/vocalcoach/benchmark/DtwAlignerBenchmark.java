@@ -0,0 +1,72 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.infrastructure.audio.DtwAligner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参考对比中 MFCC 序列的 DTW 对齐耗时。frames 为双方帧数（22050 Hz、hop 512 时 2600 帧约 1 分钟，10300 帧约 4 分钟），
+ * 演唱序列是参考序列加噪声并做了局部拉伸。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DtwAlignerBenchmark {
+
+    private static final int COEFFICIENTS = 13;
+
+    @Param({"2600", "10300"})
+    private int frames;
+
+    @Param({"none", "sakoe-chiba", "itakura"})
+    private String band;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private double[][] user;
+    private double[][] reference;
+    private DtwAligner aligner;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        reference = new double[frames][COEFFICIENTS];
+        for (double[] frame : reference) {
+            for (int k = 0; k < COEFFICIENTS; k++) {
+                frame[k] = random.nextGaussian() * 20;
+            }
+        }
+        user = new double[frames][];
+        for (int i = 0; i < frames; i++) {
+            // 前半段唱慢、后半段唱快
+            double position = i < frames / 2 ? i * 0.95 : frames / 2 * 0.95 + (i - frames / 2) * 1.05;
+            int source = (int) Math.min(frames - 1, position);
+            user[i] = reference[source].clone();
+            for (int k = 0; k < COEFFICIENTS; k++) {
+                user[i][k] += random.nextGaussian() * 5;
+            }
+        }
+        aligner = new DtwAligner(DtwAligner.Band.of(band), 0.1, 2, true, parallel);
+    }
+
+    @Benchmark
+    public double align() {
+        return aligner.align(user, reference).getNormalizedDistance();
+    }
+}
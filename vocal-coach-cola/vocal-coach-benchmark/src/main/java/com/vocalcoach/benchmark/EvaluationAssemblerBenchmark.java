@@ -0,0 +1,44 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.app.assembler.EvaluationAssembler;
+import com.vocalcoach.client.dto.EvaluationResultDTO;
+import com.vocalcoach.domain.evaluation.Evaluation;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 评估结果领域对象到 DTO 的转换。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EvaluationAssemblerBenchmark {
+
+    private EvaluationAssembler assembler;
+    private Evaluation evaluation;
+
+    @Setup
+    public void setup() {
+        assembler = new EvaluationAssembler();
+        evaluation = BenchmarkData.evaluation(new Random(BenchmarkData.SEED));
+    }
+
+    @Benchmark
+    public EvaluationResultDTO toDTO() {
+        return assembler.toDTO(evaluation);
+    }
+}
@@ -0,0 +1,79 @@
+package com.vocalcoach.benchmark;
+
+import com.alibaba.fastjson.JSON;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 在临时目录中准备数据文件并启动只包含指定组件的 Spring 上下文，关闭时清理目录。
+ */
+public class GatewayFixture implements AutoCloseable {
+
+    private final Path dataDir;
+    private final Map<String, Object> properties = new HashMap<>();
+    private AnnotationConfigApplicationContext context;
+
+    public GatewayFixture() {
+        try {
+            this.dataDir = Files.createTempDirectory("vocal-coach-bench");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 以网关读取时的格式写入数据文件，需在 {@link #start} 之前调用。
+     */
+    public GatewayFixture writeJson(String fileName, Object data) {
+        try (OutputStream out = Files.newOutputStream(dataDir.resolve(fileName))) {
+            JSON.writeJSONString(out, data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return this;
+    }
+
+    public GatewayFixture withProperty(String key, Object value) {
+        properties.put(key, value);
+        return this;
+    }
+
+    public GatewayFixture start(Class<?>... components) {
+        properties.put("data.path", dataDir.toString());
+        context = new AnnotationConfigApplicationContext();
+        context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("benchmark", properties));
+        context.register(components);
+        context.refresh();
+        return this;
+    }
+
+    public <T> T get(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    public Path getDataDir() {
+        return dataDir;
+    }
+
+    @Override
+    public void close() {
+        if (context != null) {
+            context.close();
+        }
+        try (Stream<Path> paths = Files.walk(dataDir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        } catch (IOException e) {
+            // 临时目录清理失败不影响结果
+        }
+    }
+}
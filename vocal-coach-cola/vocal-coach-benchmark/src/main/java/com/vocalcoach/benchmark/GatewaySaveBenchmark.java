@@ -0,0 +1,88 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.domain.evaluation.Evaluation;
+import com.vocalcoach.domain.report.Report;
+import com.vocalcoach.domain.song.Song;
+import com.vocalcoach.infrastructure.evaluation.gateway.EvaluationGatewayImpl;
+import com.vocalcoach.infrastructure.report.gateway.ReportGatewayImpl;
+import com.vocalcoach.infrastructure.song.gateway.SongGatewayImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 网关保存吞吐量（含落盘）。每次更新已有记录，数据量在测试过程中保持不变。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GatewaySaveBenchmark {
+
+    private static final int RECORDS = 1000;
+
+    private GatewayFixture fixture;
+    private EvaluationGatewayImpl evaluationGateway;
+    private ReportGatewayImpl reportGateway;
+    private SongGatewayImpl songGateway;
+
+    private Evaluation[] evaluations;
+    private List<Report> reports;
+    private List<Song> songs;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        reports = BenchmarkData.reports(RECORDS, random);
+        songs = BenchmarkData.songs(RECORDS, random);
+        fixture = new GatewayFixture()
+                .writeJson("reports.json", reports)
+                .writeJson("songs.json", songs)
+                .start(EvaluationGatewayImpl.class, ReportGatewayImpl.class, SongGatewayImpl.class);
+        evaluationGateway = fixture.get(EvaluationGatewayImpl.class);
+        reportGateway = fixture.get(ReportGatewayImpl.class);
+        songGateway = fixture.get(SongGatewayImpl.class);
+
+        evaluations = new Evaluation[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            Evaluation evaluation = BenchmarkData.evaluation(random);
+            evaluation.setId(null);
+            evaluations[i] = evaluationGateway.save(evaluation);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public Evaluation saveEvaluation() {
+        return evaluationGateway.save(evaluations[cursor++ % RECORDS]);
+    }
+
+    @Benchmark
+    public Report saveReport() {
+        return reportGateway.save(reports.get(cursor++ % RECORDS));
+    }
+
+    @Benchmark
+    public Song saveSong() {
+        return songGateway.save(songs.get(cursor++ % RECORDS));
+    }
+}
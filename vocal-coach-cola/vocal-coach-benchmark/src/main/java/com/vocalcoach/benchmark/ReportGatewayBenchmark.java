@@ -0,0 +1,91 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.domain.report.Report;
+import com.vocalcoach.infrastructure.report.gateway.ReportGatewayImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 报告统计接口（/api/reports/statistics 依赖的聚合查询）和游标分页在不同数据量下的耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ReportGatewayBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    private int records;
+
+    private GatewayFixture fixture;
+    private ReportGatewayImpl gateway;
+    private long[] ids;
+    private int cursor;
+    private Report middle;
+
+    @Setup
+    public void setup() {
+        List<Report> reports = BenchmarkData.reports(records, new Random(BenchmarkData.SEED));
+        fixture = new GatewayFixture()
+                .writeJson("reports.json", reports)
+                .start(ReportGatewayImpl.class);
+        gateway = fixture.get(ReportGatewayImpl.class);
+        Random random = new Random(BenchmarkData.SEED);
+        ids = new long[1024];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = 1 + random.nextInt(records);
+        }
+        middle = gateway.findById((long) records / 2).orElseThrow(IllegalStateException::new);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public void statistics(Blackhole blackhole) {
+        blackhole.consume(gateway.count());
+        blackhole.consume(gateway.getAverageScore());
+        blackhole.consume(gateway.getBestScore());
+        blackhole.consume(gateway.getWorstScore());
+        blackhole.consume(gateway.getAveragePitchScore());
+        blackhole.consume(gateway.getAverageRhythmScore());
+        blackhole.consume(gateway.getAverageBreathScore());
+        blackhole.consume(gateway.getAverageVoiceScore());
+    }
+
+    @Benchmark
+    public List<Report> recentTop10() {
+        return gateway.findTop10ByOrderByTimestampDesc();
+    }
+
+    // 从中间位置翻页，耗时应与数据量无关
+    @Benchmark
+    public List<Report> pageByTimestamp() {
+        return gateway.findPageByTimestamp(middle.getTimestamp(), middle.getId(), 21, true);
+    }
+
+    @Benchmark
+    public Optional<Report> findById() {
+        return gateway.findById(ids[cursor++ & (ids.length - 1)]);
+    }
+}
@@ -0,0 +1,64 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.infrastructure.audio.RhythmTracker;
+import com.vocalcoach.infrastructure.audio.SpectralAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM 节奏特征（起音强度、速度估计、节拍跟踪）的耗时。输入为 22050 Hz 的节拍器录音，seconds 为时长。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RhythmTrackerBenchmark {
+
+    private static final int SAMPLE_RATE = 22050;
+    private static final double BPM = 96;
+
+    @Param({"60", "240"})
+    private int seconds;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private float[] samples;
+    private RhythmTracker tracker;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        samples = new float[seconds * SAMPLE_RATE];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (random.nextGaussian() * 0.001);
+        }
+        // 每拍一个 1 kHz 的衰减音，起音位置带少量抖动
+        for (double time = 0.5; time < seconds - 0.2; time += 60 / BPM) {
+            int start = (int) ((time + (random.nextDouble() - 0.5) * 0.02) * SAMPLE_RATE);
+            for (int n = 0; n < 2000 && start + n < samples.length; n++) {
+                samples[start + n] += (float) (0.5 * Math.exp(-n / 300.0) * Math.sin(2 * Math.PI * 1000 * n / SAMPLE_RATE));
+            }
+        }
+        tracker = new RhythmTracker(new SpectralAnalyzer(SAMPLE_RATE, 2048, 512, 128, 13));
+    }
+
+    @Benchmark
+    public double track() {
+        return tracker.track(samples, parallel).getTempo();
+    }
+}
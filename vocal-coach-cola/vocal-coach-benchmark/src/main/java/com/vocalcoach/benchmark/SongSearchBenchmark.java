@@ -0,0 +1,66 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.domain.song.Song;
+import com.vocalcoach.infrastructure.song.gateway.SongGatewayImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 歌曲关键字搜索与分类筛选在不同曲库规模下的耗时。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class SongSearchBenchmark {
+
+    private static final String[] KEYWORDS = {"月亮", "周杰伦", "稻香", "adele", "不存在的歌"};
+    private static final String[] CATEGORIES = {"流行", "经典", "儿歌"};
+
+    @Param({"1000", "100000", "1000000"})
+    private int songs;
+
+    private GatewayFixture fixture;
+    private SongGatewayImpl gateway;
+    private int cursor;
+
+    @Setup
+    public void setup() {
+        List<Song> data = BenchmarkData.songs(songs, new Random(BenchmarkData.SEED));
+        fixture = new GatewayFixture()
+                .writeJson("songs.json", data)
+                .start(SongGatewayImpl.class);
+        gateway = fixture.get(SongGatewayImpl.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        fixture.close();
+    }
+
+    @Benchmark
+    public List<Song> search() {
+        return gateway.search(KEYWORDS[cursor++ % KEYWORDS.length]);
+    }
+
+    @Benchmark
+    public List<Song> findByCategory() {
+        return gateway.findByCategory(CATEGORIES[cursor++ % CATEGORIES.length]);
+    }
+}
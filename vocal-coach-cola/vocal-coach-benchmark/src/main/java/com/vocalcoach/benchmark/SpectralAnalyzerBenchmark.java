@@ -0,0 +1,56 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.infrastructure.audio.SpectralAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 一次 STFT 得到梅尔谱、频谱质心、滚降点和 RMS，再求 MFCC 平均（音色特征）的耗时。
+ * 输入为 22050 Hz 的噪声加正弦，seconds 为时长。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpectralAnalyzerBenchmark {
+
+    private static final int SAMPLE_RATE = 22050;
+
+    @Param({"60", "240"})
+    private int seconds;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private float[] samples;
+    private SpectralAnalyzer analyzer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        samples = new float[seconds * SAMPLE_RATE];
+        for (int n = 0; n < samples.length; n++) {
+            samples[n] = (float) (0.3 * Math.sin(2 * Math.PI * 220 * n / SAMPLE_RATE) + 0.05 * random.nextGaussian());
+        }
+        analyzer = new SpectralAnalyzer(SAMPLE_RATE, 2048, 512, 128, 13);
+    }
+
+    @Benchmark
+    public double[] analyze() {
+        return analyzer.analyze(samples, parallel).mfccMean();
+    }
+}
@@ -0,0 +1,80 @@
+package com.vocalcoach.benchmark;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.audio.VoiceQualityAnalyzer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JVM 嗓音质量特征（声门脉冲、jitter、shimmer、HNR）的耗时。输入为 22050 Hz 的合成元音：
+ * 带周期和振幅扰动的脉冲串经两个共振峰滤波后加白噪声，seconds 为时长。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VoiceQualityBenchmark {
+
+    private static final int SAMPLE_RATE = 22050;
+    private static final double F0 = 200;
+    private static final double[][] FORMANTS = {{700, 100}, {1200, 120}};
+
+    @Param({"60", "240"})
+    private int seconds;
+
+    @Param({"false", "true"})
+    private boolean parallel;
+
+    private float[] samples;
+    private VoiceQualityAnalyzer analyzer;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(BenchmarkData.SEED);
+        double[] signal = new double[seconds * SAMPLE_RATE];
+        for (double position = 0; position < signal.length - 1; ) {
+            int index = (int) position;
+            double fraction = position - index;
+            double amplitude = 1 + 0.03 * random.nextGaussian();
+            signal[index] += amplitude * (1 - fraction);
+            signal[index + 1] += amplitude * fraction;
+            position += SAMPLE_RATE / F0 * (1 + 0.005 * random.nextGaussian());
+        }
+        for (double[] formant : FORMANTS) {
+            double radius = Math.exp(-Math.PI * formant[1] / SAMPLE_RATE);
+            double a1 = 2 * radius * Math.cos(2 * Math.PI * formant[0] / SAMPLE_RATE);
+            double a2 = -radius * radius;
+            for (int n = 2; n < signal.length; n++) {
+                signal[n] += a1 * signal[n - 1] + a2 * signal[n - 2];
+            }
+        }
+        double peak = 0;
+        for (double value : signal) {
+            peak = Math.max(peak, Math.abs(value));
+        }
+        samples = new float[signal.length];
+        for (int n = 0; n < signal.length; n++) {
+            samples[n] = (float) (0.5 * signal[n] / peak + 0.01 * random.nextGaussian());
+        }
+        analyzer = new VoiceQualityAnalyzer(SAMPLE_RATE);
+    }
+
+    @Benchmark
+    public AudioAnalysisDTO.VoiceFeatures analyze() {
+        return analyzer.analyze(samples, parallel);
+    }
+}
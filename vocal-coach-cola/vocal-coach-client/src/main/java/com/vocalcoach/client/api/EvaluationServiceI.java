@@ -1,10 +1,14 @@
 package com.vocalcoach.client.api;
 
-import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.client.dto.CursorPageResponse;
+import com.vocalcoach.client.dto.EvaluationJobDTO;
 import com.vocalcoach.client.dto.EvaluationResultDTO;
 import com.vocalcoach.client.dto.cmd.AnalyzeAudioCmd;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
+
+import java.util.function.Consumer;
 
 public interface EvaluationServiceI {
 
@@ -12,7 +16,13 @@ public interface EvaluationServiceI {
 
     SingleResponse<EvaluationResultDTO> evaluate(AnalyzeAudioCmd cmd);
 
-    MultiResponse<EvaluationResultDTO> listEvaluations();
+    CursorPageResponse<EvaluationResultDTO> listEvaluations(CursorPageQuery query);
 
     SingleResponse<EvaluationResultDTO> getEvaluation(Long id);
+
+    SingleResponse<EvaluationJobDTO> submitEvaluation(AnalyzeAudioCmd cmd);
+
+    SingleResponse<EvaluationJobDTO> getEvaluationJob(String jobId);
+
+    boolean subscribeEvaluationJob(String jobId, Consumer<EvaluationJobDTO> listener);
 }
@@ -0,0 +1,17 @@
+package com.vocalcoach.client.api;
+
+import com.vocalcoach.client.dto.PitchFeedbackDTO;
+
+/**
+ * 一次实时音高反馈会话，用完必须 close 以释放会话名额。
+ */
+public interface PitchFeedbackSession {
+
+    /**
+     * 输入 samples 的前 length 个采样（单声道，采样率为打开会话时指定的值），
+     * 其间有新的音高帧时返回最近一帧的反馈，否则返回 null。
+     */
+    PitchFeedbackDTO feed(float[] samples, int length);
+
+    void close();
+}
@@ -1,17 +1,18 @@
 package com.vocalcoach.client.api;
 
-import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.Response;
 import com.alibaba.cola.dto.SingleResponse;
+import com.vocalcoach.client.dto.CursorPageResponse;
 import com.vocalcoach.client.dto.ReportDTO;
 import com.vocalcoach.client.dto.StatisticsDTO;
 import com.vocalcoach.client.dto.cmd.SaveReportCmd;
+import com.vocalcoach.client.dto.query.CursorPageQuery;
 
 public interface ReportServiceI {
 
     SingleResponse<ReportDTO> saveReport(SaveReportCmd cmd);
 
-    MultiResponse<ReportDTO> listReports();
+    CursorPageResponse<ReportDTO> listReports(CursorPageQuery query);
 
     SingleResponse<ReportDTO> getReportById(Long id);
 
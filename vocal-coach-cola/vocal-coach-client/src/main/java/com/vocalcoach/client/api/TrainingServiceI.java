@@ -3,8 +3,10 @@ package com.vocalcoach.client.api;
 import com.alibaba.cola.dto.MultiResponse;
 import com.alibaba.cola.dto.SingleResponse;
 import com.vocalcoach.client.dto.CourseDTO;
+import com.vocalcoach.client.dto.ExerciseScoreDTO;
 import com.vocalcoach.client.dto.TrainingProgressDTO;
 import com.vocalcoach.client.dto.cmd.SaveProgressCmd;
+import com.vocalcoach.client.dto.cmd.ScoreExerciseCmd;
 
 import java.util.Map;
 
@@ -19,4 +21,8 @@ public interface TrainingServiceI {
     SingleResponse<Integer> getOverallProgress();
 
     SingleResponse<Integer> getCompletedCount();
+
+    SingleResponse<ExerciseScoreDTO> scoreExercise(ScoreExerciseCmd cmd);
+
+    SingleResponse<PitchFeedbackSession> openPitchFeedback(String courseId, String exerciseId, int sampleRate);
 }
@@ -39,6 +39,9 @@ public class AudioAnalysisDTO implements Serializable {
         private Double tempo;
         private Double beatRegularity;
         private Double rhythmScore;
+        // 请求给出目标速度时才有：目标 bpm 和检测速度与它的吻合度（0~100，倍速、半速视为吻合）
+        private Integer targetBpm;
+        private Double tempoScore;
     }
 
     @Data
@@ -78,6 +81,8 @@ public class AudioAnalysisDTO implements Serializable {
         private Double dtwDistance;
         private Double similarityScore;
         private Boolean hasReference;
+        // 距离确定会使相似度为 0 时提前结束对齐，此时 dtwDistance 为空
+        private Boolean dtwAbandoned;
     }
 
     @Data
@@ -0,0 +1,59 @@
+package com.vocalcoach.client.dto;
+
+import com.alibaba.cola.dto.MultiResponse;
+
+import java.util.List;
+
+/**
+ * 游标分页结果：data 为当前页，nextCursor 传给下一次查询，hasMore 为 false 时已到末尾。
+ */
+public class CursorPageResponse<T> extends MultiResponse<T> {
+    private static final long serialVersionUID = 1L;
+
+    private String nextCursor;
+    private boolean hasMore;
+    private long totalCount;
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public long getTotalCount() {
+        return totalCount;
+    }
+
+    public void setTotalCount(long totalCount) {
+        this.totalCount = totalCount;
+    }
+
+    public static <T> CursorPageResponse<T> of(List<T> data, String nextCursor, long totalCount) {
+        CursorPageResponse<T> response = new CursorPageResponse<>();
+        response.setSuccess(true);
+        response.setData(data);
+        response.setNextCursor(nextCursor);
+        response.setHasMore(nextCursor != null);
+        response.setTotalCount(totalCount);
+        return response;
+    }
+
+    // MultiResponse.buildFailure 返回原始类型，同名的泛型静态方法无法隐藏它，因此另起名字
+    public static <T> CursorPageResponse<T> buildPageFailure(String errCode, String errMessage) {
+        CursorPageResponse<T> response = new CursorPageResponse<>();
+        response.setSuccess(false);
+        response.setErrCode(errCode);
+        response.setErrMessage(errMessage);
+        return response;
+    }
+}
@@ -0,0 +1,30 @@
+package com.vocalcoach.client.dto;
+
+import lombok.Data;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+@Data
+public class EvaluationJobDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String jobId;
+    private Stage stage;
+    private Boolean finished;
+    private EvaluationResultDTO result;
+    // 分析阶段已完成的特征，lastFeature 为最近完成的一项
+    private AudioAnalysisDTO.Features partialFeatures;
+    private String lastFeature;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    public enum Stage {
+        QUEUED,
+        ANALYZING,
+        SCORED,
+        AI_COMMENTARY,
+        SAVED,
+        FAILED
+    }
+}
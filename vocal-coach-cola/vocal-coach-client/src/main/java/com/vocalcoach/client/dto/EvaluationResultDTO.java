@@ -23,6 +23,8 @@ public class EvaluationResultDTO implements Serializable {
     private List<CourseRecommendation> courseRecommendations;
 
     private String aiEvaluation;
+    // PENDING 表示 AI 评价仍在后台生成，完成后为 COMPLETED
+    private String aiStatus;
 
     @Data
     public static class Scores implements Serializable {
@@ -0,0 +1,32 @@
+package com.vocalcoach.client.dto;
+
+import lombok.Data;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class ExerciseScoreDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private String courseId;
+    private String exerciseId;
+    private Integer score;
+    private Integer passingScore;
+    private Boolean passed;
+    private Double startTime;
+    private List<NoteScoreDTO> notes;
+    // 计入本次成绩后的练习进度
+    private TrainingProgressDTO progress;
+
+    @Data
+    public static class NoteScoreDTO implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private Integer index;
+        private Integer targetNote;
+        private Boolean sung;
+        private Double centsError;
+        private Double timingError;
+        private Integer score;
+    }
+}
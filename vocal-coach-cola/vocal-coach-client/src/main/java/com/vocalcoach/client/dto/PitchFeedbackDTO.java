@@ -0,0 +1,21 @@
+package com.vocalcoach.client.dto;
+
+import lombok.Data;
+import java.io.Serializable;
+
+@Data
+public class PitchFeedbackDTO implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // 帧中心对应的演唱时间（秒），从会话开始算起
+    private Double time;
+    // 按练习 bpm 每拍一个音，当前应唱的音在 notes 中的下标和 MIDI 音高
+    private Integer noteIndex;
+    private Integer targetNote;
+    // 无声帧为 null
+    private Double frequency;
+    // 相对目标音的偏差（音分），正数偏高
+    private Double cents;
+    // 已唱完练习的最后一个音
+    private Boolean finished;
+}
@@ -2,6 +2,7 @@ package com.vocalcoach.client.dto.cmd;
 
 import lombok.Data;
 import java.io.Serializable;
+import java.util.List;
 
 @Data
 public class AnalyzeAudioCmd implements Serializable {
@@ -10,4 +11,12 @@ public class AnalyzeAudioCmd implements Serializable {
     private String songName;
     private String audioFilePath;
     private String referenceAudioPath;
+    // 为 true 时分数就绪即保存返回，AI 评价在后台补全；为空时使用服务端默认配置
+    private Boolean deferAi;
+    // 只分析列出的维度（pitch / rhythm / voice / timbre / energy / comparison），为空时全部分析
+    private List<String> features;
+    // 目标速度（通常取歌曲或练习的 bpm），给出时节奏分计入检测速度与它的偏差
+    private Integer targetBpm;
+    // 分析后端（python / jvm / shadow），为空时使用服务端配置的 analysis.backend
+    private String backend;
 }
@@ -2,6 +2,8 @@ package com.vocalcoach.client.dto.cmd;
 
 import lombok.Data;
 
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import java.io.Serializable;
@@ -16,6 +18,9 @@ public class SaveProgressCmd implements Serializable {
     @NotBlank(message = "练习ID不能为空")
     private String exerciseId;
 
+    // 只对没有目标音高的练习生效，有目标音高的练习以 /training/score 的服务端评分为准
     @NotNull(message = "分数不能为空")
+    @Min(value = 0, message = "分数不能小于 0")
+    @Max(value = 100, message = "分数不能大于 100")
     private Integer score;
 }
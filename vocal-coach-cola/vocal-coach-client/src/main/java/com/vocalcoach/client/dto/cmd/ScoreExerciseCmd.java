@@ -0,0 +1,23 @@
+package com.vocalcoach.client.dto.cmd;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotBlank;
+import java.io.Serializable;
+import java.util.List;
+
+@Data
+public class ScoreExerciseCmd implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @NotBlank(message = "课程ID不能为空")
+    private String courseId;
+
+    @NotBlank(message = "练习ID不能为空")
+    private String exerciseId;
+
+    // 二选一：上传后的录音路径，或客户端已提取的逐帧基频（Hz，无声帧为 0）及帧间隔（秒）
+    private String audioFilePath;
+    private List<Double> pitchContour;
+    private Double frameSeconds;
+}
@@ -0,0 +1,18 @@
+package com.vocalcoach.client.dto.query;
+
+import lombok.Data;
+import java.io.Serializable;
+
+@Data
+public class CursorPageQuery implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    // 上一页返回的 nextCursor，为空时取第一页
+    private String cursor;
+    // 每页条数，默认 20，最大 100
+    private Integer limit;
+    // 排序字段：time（默认）、score、id
+    private String sort;
+    // asc / desc（默认）
+    private String order;
+}
@@ -0,0 +1,18 @@
+package com.vocalcoach.client.exception;
+
+/**
+ * 分析任务过多时拒绝新的请求，调用方应在 retryAfterSeconds 秒后重试。
+ */
+public class AnalysisRejectedException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public AnalysisRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -21,6 +21,13 @@ public class Evaluation {
     private List<CourseRecommendation> courseRecommendations;
 
     private String aiEvaluation;
+    private AiStatus aiStatus;
+
+    public enum AiStatus {
+        PENDING,
+        COMPLETED,
+        FAILED
+    }
 
     @Data
     public static class Scores {
@@ -53,6 +60,8 @@ public class Evaluation {
         private Double tempo;
         private Double beatRegularity;
         private Double rhythmScore;
+        private Integer targetBpm;
+        private Double tempoScore;
     }
 
     @Data
@@ -1,15 +1,32 @@
 package com.vocalcoach.domain.evaluation.gateway;
 
 import com.vocalcoach.domain.evaluation.Evaluation;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface EvaluationGateway {
 
     Evaluation save(Evaluation evaluation);
 
+    /**
+     * 记录仍存在时交给 updater 修改并保存，返回保存后的记录；记录已被删除时不写入，返回空。
+     * 读取和写回与 save、deleteById 互斥。
+     */
+    Optional<Evaluation> updateIfPresent(Long id, Consumer<Evaluation> updater);
+
     List<Evaluation> findAll();
 
+    /**
+     * 游标分页：返回排在上一页最后一条（afterId 及其排序键）之后的至多 limit 条，afterId 为 null 时取第一页。
+     */
+    List<Evaluation> findPageById(Long afterId, int limit, boolean descending);
+
+    List<Evaluation> findPageByEvaluatedAt(LocalDateTime afterTime, Long afterId, int limit, boolean descending);
+
+    List<Evaluation> findPageByOverallScore(Integer afterScore, Long afterId, int limit, boolean descending);
+
     Optional<Evaluation> findById(Long id);
 
     void deleteById(Long id);
@@ -1,6 +1,7 @@
 package com.vocalcoach.domain.report.gateway;
 
 import com.vocalcoach.domain.report.Report;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,6 +11,15 @@ public interface ReportGateway {
 
     List<Report> findAll();
 
+    /**
+     * 游标分页：返回排在上一页最后一条（afterId 及其排序键）之后的至多 limit 条，afterId 为 null 时取第一页。
+     */
+    List<Report> findPageById(Long afterId, int limit, boolean descending);
+
+    List<Report> findPageByTimestamp(LocalDateTime afterTime, Long afterId, int limit, boolean descending);
+
+    List<Report> findPageByOverallScore(Integer afterScore, Long afterId, int limit, boolean descending);
+
     Optional<Report> findById(Long id);
 
     void deleteById(Long id);
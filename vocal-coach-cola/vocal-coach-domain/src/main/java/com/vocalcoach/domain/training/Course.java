@@ -2,6 +2,7 @@ package com.vocalcoach.domain.training;
 
 import lombok.Data;
 import java.util.List;
+import java.util.Optional;
 
 @Data
 public class Course {
@@ -11,6 +12,15 @@ public class Course {
     private String description;
     private List<Exercise> exercises;
 
+    public Optional<Exercise> findExercise(String exerciseId) {
+        if (exercises == null) {
+            return Optional.empty();
+        }
+        return exercises.stream()
+            .filter(exercise -> exercise.getId().equals(exerciseId))
+            .findFirst();
+    }
+
     @Data
     public static class Exercise {
         private String id;
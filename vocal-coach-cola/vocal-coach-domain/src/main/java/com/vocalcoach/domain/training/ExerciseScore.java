@@ -0,0 +1,26 @@
+package com.vocalcoach.domain.training;
+
+import lombok.Data;
+import java.util.List;
+
+@Data
+public class ExerciseScore {
+    private Integer score;
+    private Integer passingScore;
+    private Boolean passed;
+    // 检测到的第一个音的开始时间（秒），没有唱时为 null
+    private Double startTime;
+    private List<NoteScore> notes;
+
+    @Data
+    public static class NoteScore {
+        private Integer index;
+        private Integer targetNote;
+        private Boolean sung;
+        // 音高偏差中位数（音分），正数偏高
+        private Double centsError;
+        // 起音相对节拍网格的偏差（秒），正数偏晚；同音重复且没有换气时无法判断，为 null
+        private Double timingError;
+        private Integer score;
+    }
+}
@@ -0,0 +1,245 @@
+package com.vocalcoach.domain.training;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 按练习的目标音序列给一次演唱打分。输入逐帧基频，目标音按 bpm 每拍一个：以第一段持续发声为起点，
+ * 在前后半拍内平移节拍网格，取命中目标音的帧最多的位置；再逐个音统计音高偏差中位数和起音偏差。
+ * 只对基频序列做几次线性扫描，不依赖外部进程。
+ */
+public final class ExerciseScorer {
+
+    public static final int DEFAULT_PASSING_SCORE = 80;
+    // 客户端上传的音高曲线的帧间隔和长度上限，避免异常输入拖住 CPU
+    public static final double MIN_FRAME_SECONDS = 0.001;
+    public static final double MAX_FRAME_SECONDS = 0.1;
+    public static final double MAX_DURATION_SECONDS = 600;
+    // 偏差不超过 FULL 时满分，超过 ZERO 时 0 分，中间线性
+    private static final double FULL_PITCH_CENTS = 15;
+    private static final double ZERO_PITCH_CENTS = 100;
+    private static final double FULL_TIMING_SECONDS = 0.05;
+    // 与目标音相差不超过该值视为唱到了这个音
+    private static final double MATCH_CENTS = 50;
+    // 音头滑音和音尾过渡不计入音准
+    private static final double ATTACK_FRACTION = 0.2;
+    private static final double RELEASE_FRACTION = 0.1;
+    private static final double MIN_VOICED_RATIO = 0.5;
+    private static final double MIN_RUN_SECONDS = 0.05;
+    private static final double PITCH_WEIGHT = 0.7;
+
+    private ExerciseScorer() {
+    }
+
+    public static double midiToHz(int midiNote) {
+        return 440 * Math.pow(2, (midiNote - 69) / 12.0);
+    }
+
+    /**
+     * frequency 相对 MIDI 音 midiNote 的偏差（音分），正数偏高。
+     */
+    public static double cents(double frequency, int midiNote) {
+        return 1200 * Math.log(frequency / midiToHz(midiNote)) / Math.log(2);
+    }
+
+    public static int passingScore(Course.Exercise exercise) {
+        return exercise.getPassingScore() != null ? exercise.getPassingScore() : DEFAULT_PASSING_SCORE;
+    }
+
+    /**
+     * 练习有目标音序列和 bpm，可以由服务端打分。
+     */
+    public static boolean isScorable(Course.Exercise exercise) {
+        return exercise.getNotes() != null && !exercise.getNotes().isEmpty()
+                && exercise.getBpm() != null && exercise.getBpm() > 0;
+    }
+
+    /**
+     * @param f0 逐帧基频（Hz），无声帧为 0，总时长不超过 MAX_DURATION_SECONDS
+     * @param frameSeconds 相邻两帧的时间间隔（秒），在 MIN_FRAME_SECONDS 到 MAX_FRAME_SECONDS 之间
+     */
+    public static ExerciseScore score(Course.Exercise exercise, float[] f0, double frameSeconds) {
+        if (!isScorable(exercise)) {
+            throw new IllegalArgumentException("该练习没有目标音高");
+        }
+        if (!(frameSeconds >= MIN_FRAME_SECONDS && frameSeconds <= MAX_FRAME_SECONDS)) {
+            throw new IllegalArgumentException("帧间隔需在 " + MIN_FRAME_SECONDS + " 到 " + MAX_FRAME_SECONDS + " 秒之间");
+        }
+        if (f0.length * frameSeconds > MAX_DURATION_SECONDS) {
+            throw new IllegalArgumentException("演唱时长不能超过 " + (int) MAX_DURATION_SECONDS + " 秒");
+        }
+        List<Integer> notes = exercise.getNotes();
+        int bpm = exercise.getBpm();
+        int passingScore = passingScore(exercise);
+        double beatFrames = 60.0 / bpm / frameSeconds;
+        int minRun = Math.max(1, (int) Math.round(MIN_RUN_SECONDS / frameSeconds));
+
+        // 换算成 MIDI 音高，无声帧为 NaN，之后的比较都不用再取对数
+        double[] pitch = new double[f0.length];
+        for (int i = 0; i < f0.length; i++) {
+            pitch[i] = f0[i] > 0 ? 69 + 12 * Math.log(f0[i] / 440.0) / Math.log(2) : Double.NaN;
+        }
+
+        ExerciseScore result = new ExerciseScore();
+        result.setPassingScore(passingScore);
+        List<ExerciseScore.NoteScore> noteScores = new ArrayList<>(notes.size());
+        int start = firstVoicedRun(pitch, minRun);
+        double grid = start < 0 ? 0 : alignGrid(pitch, notes, start, beatFrames);
+        int total = 0;
+        for (int k = 0; k < notes.size(); k++) {
+            ExerciseScore.NoteScore note = start < 0
+                    ? unsung(k, notes.get(k))
+                    : scoreNote(pitch, notes, k, grid + k * beatFrames, beatFrames, minRun, frameSeconds);
+            total += note.getScore();
+            noteScores.add(note);
+        }
+
+        int score = (int) Math.round((double) total / notes.size());
+        result.setScore(score);
+        result.setPassed(score >= passingScore);
+        result.setStartTime(start < 0 ? null : round(Math.max(0, grid) * frameSeconds, 1000));
+        result.setNotes(noteScores);
+        return result;
+    }
+
+    private static int firstVoicedRun(double[] pitch, int minRun) {
+        int run = 0;
+        for (int i = 0; i < pitch.length; i++) {
+            run = Double.isNaN(pitch[i]) ? 0 : run + 1;
+            if (run == minRun) {
+                return i - minRun + 1;
+            }
+        }
+        return -1;
+    }
+
+    // 网格起点在 start 前后半拍内逐帧平移，命中帧数相同时取离 start 最近的
+    private static double alignGrid(double[] pitch, List<Integer> notes, int start, double beatFrames) {
+        int reach = (int) (beatFrames / 2);
+        double best = start;
+        int bestMatches = -1;
+        for (int shift = 0; shift <= reach; shift++) {
+            for (int sign = 1; sign >= -1; sign -= 2) {
+                if (shift == 0 && sign < 0) {
+                    continue;
+                }
+                double anchor = start + sign * shift;
+                int matches = countMatches(pitch, notes, anchor, beatFrames);
+                if (matches > bestMatches) {
+                    bestMatches = matches;
+                    best = anchor;
+                }
+            }
+        }
+        return best;
+    }
+
+    private static int countMatches(double[] pitch, List<Integer> notes, double anchor, double beatFrames) {
+        int matches = 0;
+        for (int k = 0; k < notes.size(); k++) {
+            int from = Math.max(0, (int) Math.ceil(anchor + k * beatFrames));
+            int to = Math.min(pitch.length, (int) Math.ceil(anchor + (k + 1) * beatFrames));
+            double target = notes.get(k);
+            for (int i = from; i < to; i++) {
+                if (Math.abs(pitch[i] - target) * 100 <= MATCH_CENTS) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    private static ExerciseScore.NoteScore scoreNote(double[] pitch, List<Integer> notes, int k, double begin,
+                                                     double beatFrames, int minRun, double frameSeconds) {
+        int target = notes.get(k);
+        // 核心段内的有声帧；录音提前结束时缺的部分按无声计
+        int from = (int) Math.ceil(begin + ATTACK_FRACTION * beatFrames);
+        int to = (int) Math.ceil(begin + (1 - RELEASE_FRACTION) * beatFrames);
+        int coreFrames = Math.max(1, to - from);
+        double[] deviations = new double[coreFrames];
+        int voiced = 0;
+        for (int i = Math.max(0, from); i < Math.min(pitch.length, to); i++) {
+            if (!Double.isNaN(pitch[i])) {
+                deviations[voiced++] = (pitch[i] - target) * 100;
+            }
+        }
+        if (voiced < MIN_VOICED_RATIO * coreFrames) {
+            return unsung(k, target);
+        }
+
+        Arrays.sort(deviations, 0, voiced);
+        double cents = voiced % 2 == 1
+                ? deviations[voiced / 2]
+                : (deviations[voiced / 2 - 1] + deviations[voiced / 2]) / 2;
+        double pitchScore = linearScore(Math.abs(cents), FULL_PITCH_CENTS, ZERO_PITCH_CENTS);
+
+        boolean repeated = k > 0 && notes.get(k - 1) == target;
+        int onset = findOnset(pitch, target, begin, beatFrames, minRun, repeated);
+        Double timingError = null;
+        double noteScore = pitchScore;
+        if (onset >= 0) {
+            double error = (onset - begin) * frameSeconds;
+            double timingScore = linearScore(Math.abs(error), FULL_TIMING_SECONDS, beatFrames * frameSeconds / 2);
+            timingError = round(error, 1000);
+            noteScore = PITCH_WEIGHT * pitchScore + (1 - PITCH_WEIGHT) * timingScore;
+        }
+
+        ExerciseScore.NoteScore note = new ExerciseScore.NoteScore();
+        note.setIndex(k);
+        note.setTargetNote(target);
+        note.setSung(true);
+        note.setCentsError(round(cents, 10));
+        note.setTimingError(timingError);
+        note.setScore((int) Math.round(noteScore));
+        return note;
+    }
+
+    /**
+     * 在网格位置前后半拍内找起音：换到新音时是第一段持续命中目标音的位置；
+     * 同音重复时只能靠重新起音（无声之后再发声）判断，找不到返回 -1。
+     */
+    private static int findOnset(double[] pitch, int target, double begin, double beatFrames, int minRun,
+                                 boolean repeated) {
+        int from = Math.max(0, (int) Math.ceil(begin - beatFrames / 2));
+        int to = Math.min(pitch.length - minRun, (int) Math.floor(begin + beatFrames / 2));
+        for (int i = from; i <= to; i++) {
+            if (repeated && (i == 0 || !Double.isNaN(pitch[i - 1]))) {
+                continue;
+            }
+            boolean held = true;
+            for (int j = i; j < i + minRun && held; j++) {
+                held = repeated
+                        ? !Double.isNaN(pitch[j])
+                        : Math.abs(pitch[j] - target) * 100 <= MATCH_CENTS;
+            }
+            if (held) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static ExerciseScore.NoteScore unsung(int index, int target) {
+        ExerciseScore.NoteScore note = new ExerciseScore.NoteScore();
+        note.setIndex(index);
+        note.setTargetNote(target);
+        note.setSung(false);
+        note.setScore(0);
+        return note;
+    }
+
+    private static double linearScore(double error, double full, double zero) {
+        if (error <= full) {
+            return 100;
+        }
+        if (error >= zero) {
+            return 0;
+        }
+        return 100 * (zero - error) / (zero - full);
+    }
+
+    private static double round(double value, int scale) {
+        return Math.round(value * scale) / (double) scale;
+    }
+}
@@ -13,14 +13,21 @@ public class TrainingProgress {
     private Boolean completed;
     private LocalDateTime lastPracticeTime;
 
-    public void updateProgress(Integer newScore) {
-        this.attempts = (this.attempts == null ? 0 : this.attempts) + 1;
+    public void updateProgress(Integer newScore, int passingScore) {
+        recordAttempt();
         if (this.bestScore == null || newScore > this.bestScore) {
             this.bestScore = newScore;
         }
-        if (newScore >= 80) {
+        if (newScore >= passingScore) {
             this.completed = true;
         }
+    }
+
+    /**
+     * 只记一次练习，不改变最好成绩和完成状态。
+     */
+    public void recordAttempt() {
+        this.attempts = (this.attempts == null ? 0 : this.attempts) + 1;
         this.lastPracticeTime = LocalDateTime.now();
     }
 }
@@ -4,6 +4,7 @@ import com.vocalcoach.domain.training.Course;
 import com.vocalcoach.domain.training.TrainingProgress;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface TrainingGateway {
 
@@ -17,6 +18,11 @@ public interface TrainingGateway {
 
     TrainingProgress saveProgress(TrainingProgress progress);
 
+    /**
+     * 原子地修改某个练习的进度：取出已有进度（没有时新建），交给 updater 修改后保存，返回保存后的进度。
+     */
+    TrainingProgress updateProgress(String courseId, String exerciseId, Consumer<TrainingProgress> updater);
+
     int countCompletedExercises();
 
     int countTotalExercises();
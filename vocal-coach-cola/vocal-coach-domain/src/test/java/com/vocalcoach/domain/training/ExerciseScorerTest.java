@@ -0,0 +1,134 @@
+package com.vocalcoach.domain.training;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用合成的音高曲线验证节拍网格对齐、音准与起音打分、同音重复的起音判断以及输入校验。
+ * 帧间隔 10 ms，60 bpm 时每拍 100 帧。
+ */
+class ExerciseScorerTest {
+
+    private static final double FRAME_SECONDS = 0.01;
+    private static final int BEAT_FRAMES = 100;
+
+    @Test
+    void exactSingingScoresFull() {
+        Course.Exercise exercise = exercise(60, 62, 64);
+        float[] f0 = contour(300, 3, 60, 62, 64);
+
+        ExerciseScore score = ExerciseScorer.score(exercise, f0, FRAME_SECONDS);
+        assertEquals(100, score.getScore());
+        assertTrue(score.getPassed());
+        assertEquals(3.0, score.getStartTime());
+        for (ExerciseScore.NoteScore note : score.getNotes()) {
+            assertTrue(note.getSung());
+            assertEquals(0.0, note.getCentsError());
+            assertEquals(0.0, note.getTimingError());
+            assertEquals(100, note.getScore());
+        }
+    }
+
+    @Test
+    void flatNoteLosesPitchPoints() {
+        float[] f0 = contour(300, 3, 60, 62, 64);
+        // 第二个音整体偏低 30 音分
+        float flat = (float) (ExerciseScorer.midiToHz(62) * Math.pow(2, -30 / 1200.0));
+        Arrays.fill(f0, 300 + BEAT_FRAMES, 300 + 2 * BEAT_FRAMES, flat);
+
+        ExerciseScore score = ExerciseScorer.score(exercise(60, 62, 64), f0, FRAME_SECONDS);
+        ExerciseScore.NoteScore second = score.getNotes().get(1);
+        assertEquals(-30.0, second.getCentsError());
+        // 音准 100 × (100 - 30) / 85，按 0.7 / 0.3 与满分的起音分加权
+        assertEquals(88, second.getScore());
+        assertEquals(96, score.getScore());
+    }
+
+    @Test
+    void lateStartShiftsGridWithoutTimingPenalty() {
+        float[] f0 = contour(437, 2, 67, 69);
+        ExerciseScore score = ExerciseScorer.score(exercise(67, 69), f0, FRAME_SECONDS);
+        assertEquals(4.37, score.getStartTime(), 1e-9);
+        assertEquals(100, score.getScore());
+    }
+
+    @Test
+    void repeatedNoteNeedsFreshOnsetForTiming() {
+        Course.Exercise exercise = exercise(60, 60);
+        float[] held = contour(100, 2, 60, 60);
+        assertNull(ExerciseScorer.score(exercise, held, FRAME_SECONDS).getNotes().get(1).getTimingError());
+
+        // 第二拍前换气 50 ms
+        float[] breath = contour(100, 2, 60, 60);
+        Arrays.fill(breath, 100 + BEAT_FRAMES - 5, 100 + BEAT_FRAMES, 0);
+        assertEquals(0.0, ExerciseScorer.score(exercise, breath, FRAME_SECONDS).getNotes().get(1).getTimingError());
+    }
+
+    @Test
+    void silenceIsUnsung() {
+        ExerciseScore score = ExerciseScorer.score(exercise(60, 62), new float[500], FRAME_SECONDS);
+        assertEquals(0, score.getScore());
+        assertFalse(score.getPassed());
+        assertNull(score.getStartTime());
+        assertTrue(score.getNotes().stream().noneMatch(ExerciseScore.NoteScore::getSung));
+    }
+
+    @Test
+    void passingScoreDefaultsWhenUnset() {
+        Course.Exercise exercise = exercise(60);
+        assertEquals(ExerciseScorer.DEFAULT_PASSING_SCORE, ExerciseScorer.passingScore(exercise));
+        exercise.setPassingScore(60);
+        assertEquals(60, ExerciseScorer.passingScore(exercise));
+    }
+
+    @Test
+    void rejectsUnscorableExercisesAndOutOfRangeInput() {
+        Course.Exercise noNotes = exercise();
+        assertFalse(ExerciseScorer.isScorable(noNotes));
+        assertThrows(IllegalArgumentException.class, () -> ExerciseScorer.score(noNotes, new float[10], FRAME_SECONDS));
+
+        Course.Exercise exercise = exercise(60);
+        exercise.setBpm(0);
+        assertFalse(ExerciseScorer.isScorable(exercise));
+
+        Course.Exercise scorable = exercise(60);
+        assertThrows(IllegalArgumentException.class, () -> ExerciseScorer.score(scorable, new float[10], 0));
+        assertThrows(IllegalArgumentException.class, () -> ExerciseScorer.score(scorable, new float[10], Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> ExerciseScorer.score(scorable, new float[10], 0.5));
+        assertThrows(IllegalArgumentException.class,
+                () -> ExerciseScorer.score(scorable, new float[60001], FRAME_SECONDS));
+    }
+
+    @Test
+    void centsAreRelativeToEqualTemperament() {
+        assertEquals(440, ExerciseScorer.midiToHz(69), 1e-9);
+        assertEquals(0, ExerciseScorer.cents(261.6256, 60), 0.01);
+        assertEquals(100, ExerciseScorer.cents(ExerciseScorer.midiToHz(61), 60), 1e-9);
+    }
+
+    private static Course.Exercise exercise(Integer... notes) {
+        Course.Exercise exercise = new Course.Exercise();
+        exercise.setId("test");
+        exercise.setBpm(60);
+        exercise.setNotes(notes.length == 0 ? Collections.emptyList() : Arrays.asList(notes));
+        return exercise;
+    }
+
+    // 从第 startFrame 帧开始每拍唱一个音，之前无声，最后一拍之后再留 1 秒无声
+    private static float[] contour(int startFrame, int beats, int... notes) {
+        float[] f0 = new float[startFrame + beats * BEAT_FRAMES + 100];
+        for (int k = 0; k < notes.length; k++) {
+            int from = startFrame + k * BEAT_FRAMES;
+            Arrays.fill(f0, from, from + BEAT_FRAMES, (float) ExerciseScorer.midiToHz(notes[k]));
+        }
+        return f0;
+    }
+}
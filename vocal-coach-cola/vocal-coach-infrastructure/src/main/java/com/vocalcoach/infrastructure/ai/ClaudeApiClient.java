@@ -8,14 +8,23 @@ import com.vocalcoach.client.dto.EvaluationResultDTO;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.io.BufferedReader;
-import java.io.InputStreamReader;
-import java.io.OutputStream;
-import java.net.HttpURLConnection;
-import java.net.URL;
+import javax.annotation.PostConstruct;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
 
 @Component
 public class ClaudeApiClient {
@@ -29,32 +38,75 @@ public class ClaudeApiClient {
     @Value("${claude.api.model:claude-3-sonnet-20240229}")
     private String model;
 
+    @Value("${claude.api.max-concurrent:8}")
+    private int maxConcurrent;
+
+    @Value("${claude.api.max-pending:100}")
+    private int maxPending;
+
+    @Value("${claude.api.connect-timeout-seconds:30}")
+    private long connectTimeoutSeconds;
+
+    @Value("${claude.api.request-timeout-seconds:60}")
+    private long requestTimeoutSeconds;
+
+    @Value("${claude.api.deadline-seconds:90}")
+    private long deadlineSeconds;
+
+    private HttpClient httpClient;
+    private final Deque<PendingCall<?>> pendingCalls = new ArrayDeque<>();
+    private int inFlight;
+
+    @PostConstruct
+    public void init() {
+        // 共享客户端复用连接（HTTP/2 多路复用，不支持时回落到 HTTP/1.1 keep-alive）
+        httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofSeconds(connectTimeoutSeconds))
+                .build();
+    }
+
     public EvaluationResult generateEvaluation(AudioAnalysisDTO.Scores scores, AudioAnalysisDTO.Features features, String songName) {
+        return generateEvaluationAsync(scores, features, songName).join();
+    }
+
+    public CompletableFuture<EvaluationResult> generateEvaluationAsync(AudioAnalysisDTO.Scores scores,
+                                                                       AudioAnalysisDTO.Features features,
+                                                                       String songName) {
+        // 超时、限流或调用失败都回落到本地评价
+        return requestEvaluationAsync(scores, features, songName)
+                .exceptionally(e -> generateMockEvaluation(scores, features, songName));
+    }
+
+    /**
+     * 与 generateEvaluationAsync 相同，但超时、限流或调用失败时以异常结束，由调用方决定如何处理；
+     * 未配置 API Key 时仍返回本地评价。
+     */
+    public CompletableFuture<EvaluationResult> requestEvaluationAsync(AudioAnalysisDTO.Scores scores,
+                                                                      AudioAnalysisDTO.Features features,
+                                                                      String songName) {
         if (apiKey == null || apiKey.isEmpty()) {
-            return generateMockEvaluation(scores, features, songName);
+            return CompletableFuture.completedFuture(generateMockEvaluation(scores, features, songName));
         }
 
-        try {
-            String prompt = buildEvaluationPrompt(scores, features, songName);
-            String response = callClaudeApi(prompt);
-            return parseEvaluationResponse(response, scores);
-        } catch (Exception e) {
-            return generateMockEvaluation(scores, features, songName);
-        }
+        // 提示词在取得许可后构建，构建失败同样以异常结束
+        return withPermit(() -> callClaudeApi(buildEvaluationPrompt(scores, features, songName)))
+                .thenApply(response -> parseEvaluationResponse(response, scores));
     }
 
-    private String buildEvaluationPrompt(AudioAnalysisDTO.Scores scores, AudioAnalysisDTO.Features features, String songName) {
+    public String buildEvaluationPrompt(AudioAnalysisDTO.Scores scores, AudioAnalysisDTO.Features features, String songName) {
         StringBuilder sb = new StringBuilder();
         sb.append("你是一位专业的声乐教练，请根据以下音频分析数据，为用户的演唱提供专业评价。\n\n");
         sb.append("歌曲名称：").append(songName != null ? songName : "未知").append("\n\n");
 
         sb.append("【评分数据】\n");
         if (scores != null) {
-            sb.append("- 综合得分：").append(scores.getOverall()).append("/100\n");
-            sb.append("- 音准得分：").append(scores.getPitch()).append("/100\n");
-            sb.append("- 节奏得分：").append(scores.getRhythm()).append("/100\n");
-            sb.append("- 嗓音得分：").append(scores.getVoice()).append("/100\n");
-            sb.append("- 气息得分：").append(scores.getBreath()).append("/100\n");
+            // 只分析部分维度时，未分析的维度没有分数
+            appendScore(sb, "综合得分", scores.getOverall());
+            appendScore(sb, "音准得分", scores.getPitch());
+            appendScore(sb, "节奏得分", scores.getRhythm());
+            appendScore(sb, "嗓音得分", scores.getVoice());
+            appendScore(sb, "气息得分", scores.getBreath());
         }
 
         sb.append("\n【详细特征数据】\n");
@@ -92,17 +144,13 @@ public class ClaudeApiClient {
         return sb.toString();
     }
 
-    private String callClaudeApi(String prompt) throws Exception {
-        URL url = new URL(apiUrl);
-        HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-        conn.setRequestMethod("POST");
-        conn.setRequestProperty("Content-Type", "application/json");
-        conn.setRequestProperty("x-api-key", apiKey);
-        conn.setRequestProperty("anthropic-version", "2023-06-01");
-        conn.setDoOutput(true);
-        conn.setConnectTimeout(30000);
-        conn.setReadTimeout(60000);
+    private static void appendScore(StringBuilder sb, String label, Double score) {
+        if (score != null) {
+            sb.append("- ").append(label).append("：").append(score).append("/100\n");
+        }
+    }
 
+    private CompletableFuture<String> callClaudeApi(String prompt) {
         JSONObject requestBody = new JSONObject();
         requestBody.put("model", model);
         requestBody.put("max_tokens", 2000);
@@ -114,36 +162,80 @@ public class ClaudeApiClient {
         messages.add(message);
         requestBody.put("messages", messages);
 
-        try (OutputStream os = conn.getOutputStream()) {
-            byte[] input = requestBody.toJSONString().getBytes(StandardCharsets.UTF_8);
-            os.write(input, 0, input.length);
-        }
-
-        int responseCode = conn.getResponseCode();
-        StringBuilder response = new StringBuilder();
-
-        try (BufferedReader br = new BufferedReader(
-                new InputStreamReader(responseCode >= 400 ? conn.getErrorStream() : conn.getInputStream(), StandardCharsets.UTF_8))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                response.append(line);
+        HttpRequest request = HttpRequest.newBuilder(URI.create(apiUrl))
+                .timeout(Duration.ofSeconds(requestTimeoutSeconds))
+                .header("Content-Type", "application/json")
+                .header("x-api-key", apiKey)
+                .header("anthropic-version", "2023-06-01")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(requestBody.toJSONString().getBytes(StandardCharsets.UTF_8)))
+                .build();
+
+        CompletableFuture<HttpResponse<String>> exchange =
+                httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        CompletableFuture<String> text = exchange.thenApply(response -> {
+            if (response.statusCode() >= 400) {
+                throw new IllegalStateException("Claude API 调用失败: " + response.body());
             }
-        }
+            JSONObject responseJson = JSON.parseObject(response.body());
+            JSONArray content = responseJson.getJSONArray("content");
+            if (content != null && !content.isEmpty()) {
+                return content.getJSONObject(0).getString("text");
+            }
+            return null;
+        });
+        // 取消只作用在依赖的 future 上，需要手动传给底层请求
+        text.whenComplete((value, error) -> {
+            if (error instanceof CancellationException) {
+                exchange.cancel(true);
+            }
+        });
+        return text;
+    }
 
-        if (responseCode >= 400) {
-            throw new RuntimeException("Claude API 调用失败: " + response.toString());
+    /**
+     * 取得许可后发起调用，许可用满时排队。截止时间包含排队时间：到期时结果以 TimeoutException 结束，
+     * 仍在排队的请求移出队列，已发出的请求被取消并立即归还许可。
+     */
+    private <T> CompletableFuture<T> withPermit(Supplier<CompletableFuture<T>> call) {
+        PendingCall<T> pendingCall = new PendingCall<>(call);
+        pendingCall.result.orTimeout(deadlineSeconds, TimeUnit.SECONDS)
+                .whenComplete((value, error) -> {
+                    if (error != null) {
+                        pendingCall.abandon();
+                    }
+                });
+
+        synchronized (pendingCalls) {
+            if (inFlight >= maxConcurrent) {
+                if (pendingCalls.size() >= maxPending) {
+                    pendingCall.result.completeExceptionally(new RejectedExecutionException("Claude API 排队请求过多"));
+                } else {
+                    pendingCalls.addLast(pendingCall);
+                }
+                return pendingCall.result;
+            }
+            inFlight++;
         }
+        pendingCall.start();
+        return pendingCall.result;
+    }
 
-        JSONObject responseJson = JSON.parseObject(response.toString());
-        JSONArray content = responseJson.getJSONArray("content");
-        if (content != null && !content.isEmpty()) {
-            return content.getJSONObject(0).getString("text");
+    private void releasePermit() {
+        PendingCall<?> next;
+        synchronized (pendingCalls) {
+            do {
+                next = pendingCalls.pollFirst();
+            } while (next != null && next.result.isDone());
+            if (next == null) {
+                inFlight--;
+                return;
+            }
         }
-
-        return null;
+        // 许可直接转交给排队中的请求；已超时的排队请求跳过
+        next.start();
     }
 
-    private EvaluationResult parseEvaluationResponse(String response, AudioAnalysisDTO.Scores scores) {
+    public EvaluationResult parseEvaluationResponse(String response, AudioAnalysisDTO.Scores scores) {
         EvaluationResult result = new EvaluationResult();
 
         try {
@@ -359,6 +451,66 @@ public class ClaudeApiClient {
         return result;
     }
 
+    private class PendingCall<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Supplier<CompletableFuture<T>> call;
+        // 许可只归还一次：调用结束和截止时间到期都可能触发
+        private final AtomicBoolean holdsPermit = new AtomicBoolean();
+        private volatile CompletableFuture<T> running;
+
+        PendingCall(Supplier<CompletableFuture<T>> call) {
+            this.call = call;
+        }
+
+        // 调用方已为本次调用取得许可
+        void start() {
+            holdsPermit.set(true);
+            if (result.isDone()) {
+                releaseOnce();
+                return;
+            }
+            CompletableFuture<T> future;
+            try {
+                future = call.get();
+            } catch (RuntimeException e) {
+                future = new CompletableFuture<>();
+                future.completeExceptionally(e);
+            }
+            running = future;
+            future.whenComplete((value, error) -> {
+                releaseOnce();
+                if (error != null) {
+                    result.completeExceptionally(error);
+                } else {
+                    result.complete(value);
+                }
+            });
+            // 发起调用期间截止时间已到
+            if (result.isDone()) {
+                future.cancel(true);
+            }
+        }
+
+        // 结果已以异常结束（超时或被拒绝）
+        void abandon() {
+            CompletableFuture<T> future = running;
+            if (future != null) {
+                future.cancel(true);
+            } else {
+                synchronized (pendingCalls) {
+                    pendingCalls.remove(this);
+                }
+            }
+            releaseOnce();
+        }
+
+        private void releaseOnce() {
+            if (holdsPermit.compareAndSet(true, false)) {
+                releasePermit();
+            }
+        }
+    }
+
     public static class EvaluationResult {
         private List<EvaluationResultDTO.Strength> strengths;
         private List<EvaluationResultDTO.Weakness> weaknesses;
@@ -0,0 +1,52 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * 分析维度名称，与 analyze_audio.py 的 FEATURE_EXTRACTORS 以及 features 下的键一致。
+ */
+public final class AnalysisFeatures {
+
+    public static final String PITCH = "pitch";
+    public static final String RHYTHM = "rhythm";
+    public static final String VOICE = "voice";
+    public static final String TIMBRE = "timbre";
+    public static final String ENERGY = "energy";
+    public static final String COMPARISON = "comparison";
+
+    public static final List<String> NAMES = Collections.unmodifiableList(
+            Arrays.asList(PITCH, RHYTHM, VOICE, TIMBRE, ENERGY, COMPARISON));
+
+    public static final Set<String> ALL = Collections.unmodifiableSet(new LinkedHashSet<>(NAMES));
+
+    private AnalysisFeatures() {
+    }
+
+    /**
+     * 校验并规范化请求的维度，为空时表示全部维度。
+     */
+    public static Set<String> of(Collection<String> names) {
+        if (names == null || names.isEmpty()) {
+            return ALL;
+        }
+        Set<String> selected = new TreeSet<>();
+        for (String name : names) {
+            String trimmed = name == null ? "" : name.trim().toLowerCase();
+            if (!ALL.contains(trimmed)) {
+                throw new IllegalArgumentException("不支持的分析维度: " + name);
+            }
+            selected.add(trimmed);
+        }
+        return selected.size() == ALL.size() ? ALL : Collections.unmodifiableSet(selected);
+    }
+
+    public static boolean isAll(Set<String> features) {
+        return features == null || features.containsAll(ALL);
+    }
+}
@@ -0,0 +1,75 @@
+package com.vocalcoach.infrastructure.audio;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+
+import java.util.Set;
+
+/**
+ * analyze_audio.py 中 calculate_overall_scores 的 Java 实现，JVM 端替换部分特征后用它重新计算评分。
+ */
+public final class AnalysisScoreCalculator {
+
+    private static final double DEFAULT_SCORE = 70;
+    private static final double PITCH_WEIGHT = 0.3;
+    private static final double RHYTHM_WEIGHT = 0.25;
+    private static final double VOICE_WEIGHT = 0.25;
+    private static final double BREATH_WEIGHT = 0.2;
+
+    private AnalysisScoreCalculator() {
+    }
+
+    public static AudioAnalysisDTO.Scores calculate(AudioAnalysisDTO.Features features) {
+        return calculate(features, AnalysisFeatures.ALL);
+    }
+
+    /**
+     * 只对 selected 中的维度评分，未选中的维度分数为空，综合分按剩余权重重新归一化；
+     * 选中但提取失败的维度仍按默认分计入。
+     */
+    public static AudioAnalysisDTO.Scores calculate(AudioAnalysisDTO.Features features, Set<String> selected) {
+        Double pitchScore = selected.contains(AnalysisFeatures.PITCH) ? clamp(features != null && features.getPitch() != null
+                ? features.getPitch().getPitchStability() : null) : null;
+        Double rhythmScore = selected.contains(AnalysisFeatures.RHYTHM) ? clamp(features != null && features.getRhythm() != null
+                ? features.getRhythm().getRhythmScore() : null) : null;
+        Double voiceScore = selected.contains(AnalysisFeatures.VOICE) ? clamp(features != null && features.getVoice() != null
+                ? features.getVoice().getVoiceScore() : null) : null;
+        Double breathScore = selected.contains(AnalysisFeatures.ENERGY) ? clamp(features != null && features.getEnergy() != null
+                ? features.getEnergy().getBreathControlScore() : null) : null;
+
+        double weighted = 0;
+        double totalWeight = 0;
+        if (pitchScore != null) {
+            weighted += pitchScore * PITCH_WEIGHT;
+            totalWeight += PITCH_WEIGHT;
+        }
+        if (rhythmScore != null) {
+            weighted += rhythmScore * RHYTHM_WEIGHT;
+            totalWeight += RHYTHM_WEIGHT;
+        }
+        if (voiceScore != null) {
+            weighted += voiceScore * VOICE_WEIGHT;
+            totalWeight += VOICE_WEIGHT;
+        }
+        if (breathScore != null) {
+            weighted += breathScore * BREATH_WEIGHT;
+            totalWeight += BREATH_WEIGHT;
+        }
+
+        AudioAnalysisDTO.Scores scores = new AudioAnalysisDTO.Scores();
+        scores.setOverall(totalWeight > 0 ? round1(weighted / totalWeight) : null);
+        scores.setPitch(round1(pitchScore));
+        scores.setRhythm(round1(rhythmScore));
+        scores.setVoice(round1(voiceScore));
+        scores.setBreath(round1(breathScore));
+        return scores;
+    }
+
+    private static double clamp(Double score) {
+        double value = score != null ? score : DEFAULT_SCORE;
+        return Math.min(100, Math.max(0, value));
+    }
+
+    private static Double round1(Double value) {
+        return value != null ? Math.round(value * 10) / 10.0 : null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 把音频文件解码为 22050 Hz 单声道 PCM，与 Python 端 librosa.load 的默认采样率一致，所有分析后端都使用这一份数据。
+ * WAV 内存映射后直接解析（{@link WavDecoder}），再经多相重采样（{@link PolyphaseResampler}）到目标采样率；
+ * 其他格式由 {@link FfmpegDecoderPool} 通过管道解码。
+ */
+@Component
+public class AudioPcmLoader {
+
+    public static final int TARGET_SAMPLE_RATE = 22050;
+
+    @Resource
+    private FfmpegDecoderPool ffmpegDecoderPool;
+
+    public PcmAudio load(String audioPath) throws IOException {
+        File file = new File(audioPath);
+        if (!file.isFile()) {
+            throw new IOException("音频文件不存在: " + audioPath);
+        }
+        // 按文件头判断，不依赖扩展名；非 PCM 编码的 WAV 同样交给 ffmpeg
+        PcmAudio wav = WavDecoder.decode(file);
+        if (wav != null) {
+            return new PcmAudio(PolyphaseResampler.of(wav.getSampleRate(), TARGET_SAMPLE_RATE)
+                    .process(wav.getSamples()), TARGET_SAMPLE_RATE);
+        }
+        return new PcmAudio(ffmpegDecoderPool.decode(file), TARGET_SAMPLE_RATE);
+    }
+}
@@ -0,0 +1,306 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 带全局约束的 DTW，步长 (1,1)、(1,0)、(0,1)，帧间代价为欧氏距离，与 librosa.sequence.dtw 的默认设置一致。
+ *
+ * <p>累积代价矩阵按 TILE × TILE 分块、沿反对角线推进：只保留最近一行分块的底行和每个分块的右边界，
+ * 内存为 O(N + M)，不再需要 N × M 的矩阵；同一条反对角线上的分块互不依赖，可以并行计算。
+ * 每完成一行分块就检查该行的最小累积代价，路径一定经过每一行，因此它除以最大路径长度就是最终归一化距离的下界，
+ * 下界已超过阈值时提前放弃。
+ */
+public class DtwAligner {
+
+    private static final int TILE = 256;
+    private static final double INF = Double.POSITIVE_INFINITY;
+
+    public enum Band {
+        NONE, SAKOE_CHIBA, ITAKURA;
+
+        public static Band of(String name) {
+            switch (name.trim().toLowerCase()) {
+                case "none":
+                    return NONE;
+                case "sakoe-chiba":
+                    return SAKOE_CHIBA;
+                case "itakura":
+                    return ITAKURA;
+                default:
+                    throw new IllegalArgumentException("不支持的 DTW 约束: " + name);
+            }
+        }
+    }
+
+    private final Band band;
+    private final double radius;
+    private final double maxSlope;
+    private final boolean subsequence;
+    private final boolean parallel;
+
+    /**
+     * @param radius Sakoe-Chiba 带宽，占对齐跨度的比例
+     * @param maxSlope Itakura 平行四边形的最大斜率
+     * @param subsequence 为 true 时 x 可以从 y 的任意一帧开始匹配（librosa 的 subseq=True）
+     */
+    public DtwAligner(Band band, double radius, double maxSlope, boolean subsequence, boolean parallel) {
+        this.band = band;
+        this.radius = radius;
+        this.maxSlope = maxSlope;
+        this.subsequence = subsequence;
+        this.parallel = parallel;
+    }
+
+    public Result align(double[][] x, double[][] y) {
+        return align(x, y, INF);
+    }
+
+    /**
+     * 对齐 x（N 帧）和 y（M 帧），路径终点为 (N - 1, M - 1)。
+     *
+     * @param abandonAbove 归一化距离（累积代价 / 路径长度）一定超过该值时提前放弃
+     */
+    public Result align(double[][] x, double[][] y, double abandonAbove) {
+        int n = x.length;
+        int m = y.length;
+        if (n == 0 || m == 0) {
+            throw new IllegalArgumentException("空序列无法对齐");
+        }
+
+        int[] lo = new int[n];
+        int[] hi = new int[n];
+        window(n, m, lo, hi);
+
+        Grid grid = new Grid(x, y, lo, hi, subsequence);
+        int maxPathLength = n + m - 1;
+        for (int d = 0; d < grid.tileRows + grid.tileCols - 1; d++) {
+            int first = Math.max(0, d - grid.tileCols + 1);
+            int last = Math.min(grid.tileRows - 1, d);
+            int diagonal = d;
+            if (parallel && last > first) {
+                IntStream.rangeClosed(first, last).parallel().forEach(r -> grid.computeTile(r, diagonal - r, diagonal));
+            } else {
+                for (int r = first; r <= last; r++) {
+                    grid.computeTile(r, d - r, d);
+                }
+            }
+
+            int finishedRow = d - grid.tileCols + 1;
+            if (finishedRow >= 0 && finishedRow < grid.tileRows - 1
+                    && grid.rowMin[finishedRow] / maxPathLength > abandonAbove) {
+                return new Result(grid.rowMin[finishedRow], maxPathLength, true);
+            }
+        }
+        return new Result(grid.cost[m - 1], grid.length[m - 1], false);
+    }
+
+    // 每一行允许的列区间 [lo, hi]，保证单调且相邻两行连通。子序列模式下约束带从 y 的第 m - n 帧画到末尾，
+    // 相当于假定 x 对应 y 的结尾部分；匹配位置未知时应使用 NONE
+    private void window(int n, int m, int[] lo, int[] hi) {
+        int start = subsequence ? Math.max(0, m - n) : 0;
+        int span = m - 1 - start;
+        double slope = n > 1 ? (double) span / (n - 1) : 0;
+        for (int i = 0; i < n; i++) {
+            double from;
+            double to;
+            switch (band) {
+                case SAKOE_CHIBA:
+                    double center = start + i * slope;
+                    double width = Math.max(radius * (span + 1), slope + 1);
+                    from = center - width;
+                    to = center + width;
+                    break;
+                case ITAKURA:
+                    double position = n > 1 ? (double) i / (n - 1) : 1;
+                    double lower = Math.max(position / maxSlope, 1 - (1 - position) * maxSlope);
+                    double upper = Math.min(position * maxSlope, 1 - (1 - position) / maxSlope);
+                    // 离散化后留出一帧余量
+                    from = start + lower * span - 1;
+                    to = start + upper * span + 1;
+                    break;
+                default:
+                    from = 0;
+                    to = m - 1;
+                    break;
+            }
+            lo[i] = (int) Math.max(0, Math.min(m - 1, Math.floor(from)));
+            hi[i] = (int) Math.max(lo[i], Math.min(m - 1, Math.ceil(to)));
+        }
+        for (int i = 1; i < n; i++) {
+            lo[i] = Math.max(lo[i], lo[i - 1]);
+            hi[i] = Math.max(hi[i], hi[i - 1]);
+        }
+        hi[n - 1] = m - 1;
+        for (int i = 1; i < n; i++) {
+            lo[i] = Math.min(lo[i], hi[i - 1] + 1);
+        }
+        if (!subsequence) {
+            lo[0] = 0;
+        }
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int k = 0; k < a.length; k++) {
+            double diff = a[k] - b[k];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+
+    /**
+     * 分块计算的共享状态。cost / length 按列保存最近一行分块的底行（累积代价和路径长度），
+     * edgeCost / edgeLength 按反对角线奇偶双缓冲，保存每个分块的右边界，第 0 个元素是右上角外侧的角点。
+     */
+    private static class Grid {
+        private final double[][] x;
+        private final double[][] y;
+        private final int[] lo;
+        private final int[] hi;
+        private final int n;
+        private final int m;
+        private final int tileRows;
+        private final int tileCols;
+        private final double[] cost;
+        private final int[] length;
+        private final double[][][] edgeCost;
+        private final int[][][] edgeLength;
+        private final double[] rowMin;
+
+        Grid(double[][] x, double[][] y, int[] lo, int[] hi, boolean subsequence) {
+            this.x = x;
+            this.y = y;
+            this.lo = lo;
+            this.hi = hi;
+            this.n = x.length;
+            this.m = y.length;
+            this.tileRows = (n + TILE - 1) / TILE;
+            this.tileCols = (m + TILE - 1) / TILE;
+            // 第 -1 行：subsequence 时起点不计代价，否则只有 (-1, -1) 可达
+            cost = new double[m];
+            Arrays.fill(cost, subsequence ? 0 : INF);
+            length = new int[m];
+            edgeCost = new double[2][tileCols + 1][TILE + 1];
+            edgeLength = new int[2][tileCols + 1][TILE + 1];
+            rowMin = new double[tileRows];
+            Arrays.fill(rowMin, INF);
+        }
+
+        void computeTile(int r, int b, int d) {
+            int i0 = r * TILE;
+            int i1 = Math.min(n, i0 + TILE);
+            int j0 = b * TILE;
+            int j1 = Math.min(m, j0 + TILE);
+            int w = j1 - j0;
+
+            // 左边界由 (r, b - 1) 在上一条反对角线写入；第 0 列左侧除起始角点外都不可达
+            double[] leftCost = b > 0 ? edgeCost[(d - 1) & 1][b] : null;
+            int[] leftLength = b > 0 ? edgeLength[(d - 1) & 1][b] : null;
+            double[] rightCost = edgeCost[d & 1][b + 1];
+            int[] rightLength = edgeLength[d & 1][b + 1];
+
+            rightCost[0] = cost[j1 - 1];
+            rightLength[0] = length[j1 - 1];
+
+            // 整块都在约束带之外：底行和右边界都不可达
+            if (lo[i0] > j1 - 1 || hi[i1 - 1] < j0) {
+                Arrays.fill(cost, j0, j1, INF);
+                Arrays.fill(length, j0, j1, 0);
+                Arrays.fill(rightCost, 1, i1 - i0 + 1, INF);
+                return;
+            }
+
+            double[] prev = new double[w + 1];
+            int[] prevLength = new int[w + 1];
+            double[] cur = new double[w + 1];
+            int[] curLength = new int[w + 1];
+            prev[0] = b > 0 ? leftCost[0] : (i0 == 0 ? 0 : INF);
+            prevLength[0] = b > 0 ? leftLength[0] : 0;
+            System.arraycopy(cost, j0, prev, 1, w);
+            System.arraycopy(length, j0, prevLength, 1, w);
+
+            for (int i = i0; i < i1; i++) {
+                int k = i - i0 + 1;
+                cur[0] = b > 0 ? leftCost[k] : INF;
+                curLength[0] = b > 0 ? leftLength[k] : 0;
+                int from = Math.max(lo[i], j0) - j0 + 1;
+                int to = Math.min(hi[i], j1 - 1) - j0 + 1;
+                if (from > to) {
+                    Arrays.fill(cur, 1, w + 1, INF);
+                } else {
+                    Arrays.fill(cur, 1, from, INF);
+                    Arrays.fill(cur, to + 1, w + 1, INF);
+                    double[] xi = x[i];
+                    for (int jj = from; jj <= to; jj++) {
+                        // 与 librosa 相同的比较顺序：对角、纵向、横向，代价相同时取先出现的
+                        double best = prev[jj - 1];
+                        int steps = prevLength[jj - 1];
+                        if (prev[jj] < best) {
+                            best = prev[jj];
+                            steps = prevLength[jj];
+                        }
+                        if (cur[jj - 1] < best) {
+                            best = cur[jj - 1];
+                            steps = curLength[jj - 1];
+                        }
+                        cur[jj] = best == INF ? INF : best + distance(xi, y[j0 + jj - 1]);
+                        curLength[jj] = steps + 1;
+                    }
+                }
+                rightCost[k] = cur[w];
+                rightLength[k] = curLength[w];
+
+                double[] swapCost = prev;
+                prev = cur;
+                cur = swapCost;
+                int[] swapLength = prevLength;
+                prevLength = curLength;
+                curLength = swapLength;
+            }
+
+            System.arraycopy(prev, 1, cost, j0, w);
+            System.arraycopy(prevLength, 1, length, j0, w);
+            // 同一行分块位于不同的反对角线上，不会并发更新
+            double bottomMin = rowMin[r];
+            for (int jj = 1; jj <= w; jj++) {
+                bottomMin = Math.min(bottomMin, prev[jj]);
+            }
+            rowMin[r] = bottomMin;
+        }
+    }
+
+    public static class Result {
+        private final double cost;
+        private final int pathLength;
+        private final boolean abandoned;
+
+        Result(double cost, int pathLength, boolean abandoned) {
+            this.cost = cost;
+            this.pathLength = pathLength;
+            this.abandoned = abandoned;
+        }
+
+        /**
+         * 终点的累积代价；提前放弃时为已完成行的最小累积代价。
+         */
+        public double getCost() {
+            return cost;
+        }
+
+        public int getPathLength() {
+            return pathLength;
+        }
+
+        public boolean isAbandoned() {
+            return abandoned;
+        }
+
+        /**
+         * 提前放弃时只知道归一化距离的下界，此时返回该下界，调用方应先检查 {@link #isAbandoned()}。
+         */
+        public double getNormalizedDistance() {
+            return cost / pathLength;
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 用 ffmpeg 解码 WAV 以外的格式（浏览器录音的 webm/opus、mp3 等），输出 22050 Hz 单声道 f32le。
+ * 预先启动 ffmpeg.pool.size 个从 stdin 读取输入的进程，解码时把文件写进 stdin、边读 stdout 边转成 float，
+ * 不落临时文件，也省去每次启动进程的开销；用掉的进程在后台补充。需要随机访问的容器
+ * （moov 在末尾的 mp4/m4a）无法从管道读取，失败后改为直接读文件重试一次。
+ * 每次解码从开始读输出起计时，超过 ffmpeg.timeout-seconds 仍未结束时强制结束进程，读取随之返回。
+ */
+@Component
+public class FfmpegDecoderPool {
+
+    private static final int INITIAL_SAMPLES = AudioPcmLoader.TARGET_SAMPLE_RATE * 30;
+
+    @Value("${ffmpeg.path:ffmpeg}")
+    private String ffmpegPath;
+
+    @Value("${ffmpeg.pool.size:2}")
+    private int poolSize;
+
+    // 同时运行的解码进程上限，超出的请求等待
+    @Value("${ffmpeg.pool.max-concurrent:4}")
+    private int maxConcurrent;
+
+    @Value("${ffmpeg.timeout-seconds:60}")
+    private long timeoutSeconds;
+
+    private final BlockingQueue<Process> idleProcesses = new LinkedBlockingQueue<>();
+    private Semaphore permits;
+    private ExecutorService recycler;
+    private ExecutorService feeders;
+    private ScheduledExecutorService watchdog;
+    private volatile boolean shutdown;
+
+    @PostConstruct
+    public void init() {
+        permits = new Semaphore(Math.max(1, maxConcurrent), true);
+        recycler = Executors.newSingleThreadExecutor(namedThreadFactory("ffmpeg-recycler"));
+        feeders = Executors.newCachedThreadPool(namedThreadFactory("ffmpeg-feeder"));
+        watchdog = Executors.newSingleThreadScheduledExecutor(namedThreadFactory("ffmpeg-watchdog"));
+        for (int i = 0; i < poolSize; i++) {
+            try {
+                idleProcesses.offer(start(null));
+            } catch (IOException e) {
+                // 没有安装 ffmpeg，只能解码 WAV
+                break;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        List<Process> processes = new ArrayList<>();
+        idleProcesses.drainTo(processes);
+        processes.forEach(Process::destroyForcibly);
+        recycler.shutdownNow();
+        feeders.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    public float[] decode(File file) throws IOException {
+        try {
+            if (!permits.tryAcquire(timeoutSeconds, TimeUnit.SECONDS)) {
+                throw new IOException("等待 ffmpeg 解码超时");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("等待 ffmpeg 解码被中断", e);
+        }
+        try {
+            float[] samples = decodePiped(file);
+            return samples != null ? samples : decodeFile(file);
+        } finally {
+            permits.release();
+        }
+    }
+
+    // 管道输入解码失败时返回 null
+    private float[] decodePiped(File file) throws IOException {
+        Process process = acquire();
+        feeders.execute(() -> {
+            try (OutputStream stdin = process.getOutputStream()) {
+                Files.copy(file.toPath(), stdin);
+            } catch (IOException e) {
+                // ffmpeg 提前退出（例如无法识别格式）时管道已关闭，结果以退出码为准
+            }
+        });
+        return read(process);
+    }
+
+    private float[] decodeFile(File file) throws IOException {
+        Process process = start(file);
+        process.getOutputStream().close();
+        float[] samples = read(process);
+        if (samples == null) {
+            throw new IOException("ffmpeg 解码失败: " + file.getName());
+        }
+        return samples;
+    }
+
+    // 读取和等待退出共用一个截止时间：卡住的 ffmpeg 被看门狗结束后 stdout 关闭，读取不会一直阻塞
+    private float[] read(Process process) throws IOException {
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> deadline = watchdog.schedule(() -> {
+            timedOut.set(true);
+            process.destroyForcibly();
+        }, timeoutSeconds, TimeUnit.SECONDS);
+        try {
+            float[] samples;
+            try (InputStream stdout = process.getInputStream()) {
+                samples = readFloats(stdout);
+            } catch (IOException e) {
+                process.destroyForcibly();
+                if (timedOut.get()) {
+                    throw new IOException("ffmpeg 解码超时", e);
+                }
+                throw e;
+            }
+            process.waitFor();
+            if (timedOut.get()) {
+                throw new IOException("ffmpeg 解码超时");
+            }
+            return process.exitValue() == 0 ? samples : null;
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+            throw new IOException("ffmpeg 解码被中断", e);
+        } finally {
+            deadline.cancel(false);
+        }
+    }
+
+    // 按 4 字节一个采样直接转换进 float 数组，跨读取边界的余下字节留到下一轮
+    private static float[] readFloats(InputStream in) throws IOException {
+        float[] samples = new float[INITIAL_SAMPLES];
+        int count = 0;
+        byte[] bytes = new byte[64 * 1024];
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        int filled = 0;
+        int read;
+        while ((read = in.read(bytes, filled, bytes.length - filled)) != -1) {
+            filled += read;
+            int whole = filled / 4;
+            if (count + whole > samples.length) {
+                samples = Arrays.copyOf(samples, Math.max(samples.length * 2, count + whole));
+            }
+            buffer.clear().limit(whole * 4);
+            buffer.asFloatBuffer().get(samples, count, whole);
+            count += whole;
+            int rest = filled - whole * 4;
+            System.arraycopy(bytes, whole * 4, bytes, 0, rest);
+            filled = rest;
+        }
+        return Arrays.copyOf(samples, count);
+    }
+
+    private Process acquire() throws IOException {
+        Process process;
+        while ((process = idleProcesses.poll()) != null) {
+            if (process.isAlive()) {
+                replenish();
+                return process;
+            }
+        }
+        return start(null);
+    }
+
+    private void replenish() {
+        if (shutdown) {
+            return;
+        }
+        try {
+            recycler.execute(() -> {
+                try {
+                    idleProcesses.offer(start(null));
+                } catch (IOException ignored) {
+                    // 下次解码时再启动
+                }
+            });
+        } catch (RuntimeException e) {
+            // 已关闭
+        }
+    }
+
+    // input 为空时从 stdin 读取
+    private Process start(File input) throws IOException {
+        ProcessBuilder processBuilder = new ProcessBuilder(ffmpegPath, "-hide_banner", "-nostats", "-v", "error",
+                "-i", input != null ? input.getAbsolutePath() : "pipe:0", "-vn", "-sn", "-dn",
+                "-f", "f32le", "-ac", "1", "-ar", String.valueOf(AudioPcmLoader.TARGET_SAMPLE_RATE), "pipe:1");
+        processBuilder.redirectError(ProcessBuilder.Redirect.DISCARD);
+        return processBuilder.start();
+    }
+
+    private static ThreadFactory namedThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return r -> {
+            Thread thread = new Thread(r, prefix + "-" + counter.getAndIncrement());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,89 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 基 2 原地复数 FFT。位反转表和旋转因子按长度缓存，计划本身只读，可在多个线程间共享，
+ * 缓冲区由调用方提供。
+ */
+public final class Fft {
+
+    private static final ConcurrentMap<Integer, Fft> PLANS = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final int[] bitReverse;
+    private final double[] cos;
+    private final double[] sin;
+
+    private Fft(int size) {
+        this.size = size;
+        int bits = Integer.numberOfTrailingZeros(size);
+        bitReverse = new int[size];
+        for (int i = 0; i < size; i++) {
+            bitReverse[i] = Integer.reverse(i) >>> (32 - bits);
+        }
+        cos = new double[size / 2];
+        sin = new double[size / 2];
+        for (int i = 0; i < size / 2; i++) {
+            double angle = -2 * Math.PI * i / size;
+            cos[i] = Math.cos(angle);
+            sin[i] = Math.sin(angle);
+        }
+    }
+
+    public static Fft of(int size) {
+        if (size < 2 || Integer.bitCount(size) != 1) {
+            throw new IllegalArgumentException("FFT 长度必须是 2 的幂: " + size);
+        }
+        return PLANS.computeIfAbsent(size, Fft::new);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public void transform(double[] re, double[] im) {
+        for (int i = 0; i < size; i++) {
+            int j = bitReverse[i];
+            if (j > i) {
+                double t = re[i];
+                re[i] = re[j];
+                re[j] = t;
+                t = im[i];
+                im[i] = im[j];
+                im[j] = t;
+            }
+        }
+        for (int length = 2; length <= size; length <<= 1) {
+            int half = length >> 1;
+            int stride = size / length;
+            for (int start = 0; start < size; start += length) {
+                for (int k = 0; k < half; k++) {
+                    double wr = cos[k * stride];
+                    double wi = sin[k * stride];
+                    int a = start + k;
+                    int b = a + half;
+                    double tr = re[b] * wr - im[b] * wi;
+                    double ti = re[b] * wi + im[b] * wr;
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+    }
+
+    /**
+     * 实信号 re 的功率谱，写入 power 的前 size / 2 + 1 个元素；im 作为临时缓冲区，re 会被覆盖。
+     */
+    public void powerSpectrum(double[] re, double[] im, double[] power) {
+        Arrays.fill(im, 0, size, 0);
+        transform(re, im);
+        for (int k = 0; k <= size / 2; k++) {
+            power[k] = re[k] * re[k] + im[k] * im[k];
+        }
+    }
+}
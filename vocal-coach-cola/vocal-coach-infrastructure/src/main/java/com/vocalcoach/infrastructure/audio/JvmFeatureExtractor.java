@@ -0,0 +1,371 @@
+package com.vocalcoach.infrastructure.audio;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * 在 JVM 内计算 analysis.jvm-features 中列出的特征（Python 端不再计算这些特征），合并后重新计算评分；
+ * JVM 分析后端也用它计算全部特征。
+ */
+@Component
+public class JvmFeatureExtractor {
+
+    // 算法实现改变结果时（修正、调整常量）加一，使分析缓存中旧版本算出的结果失效
+    private static final int ENGINE_VERSION = 1;
+    // librosa 的默认 STFT / 梅尔参数，音色、能量、节奏和参考对比共用；MFCC 系数数与 compare_with_reference 相同
+    private static final int MFCC_FFT_SIZE = 2048;
+    private static final int MFCC_HOP_LENGTH = 512;
+    private static final int MFCC_MEL_BANDS = 128;
+    private static final int MFCC_COEFFICIENTS = 13;
+    private static final Set<String> SPECTRAL_FEATURES = Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(
+            AnalysisFeatures.RHYTHM, AnalysisFeatures.TIMBRE, AnalysisFeatures.ENERGY, AnalysisFeatures.COMPARISON)));
+    // similarity_score = 100 - dtw_distance * 0.5，距离超过 200 时相似度已经是 0
+    private static final double ZERO_SIMILARITY_DISTANCE = 200;
+    private static final BiConsumer<String, AudioAnalysisDTO.Features> NO_PROGRESS = (name, features) -> {
+    };
+
+    @Value("${analysis.jvm-features:}")
+    private String jvmFeatures;
+
+    @Value("${analysis.pitch.frame-length:2048}")
+    private int pitchFrameLength;
+
+    @Value("${analysis.pitch.hop-length:512}")
+    private int pitchHopLength;
+
+    @Value("${analysis.pitch.fmin:50}")
+    private double pitchFmin;
+
+    @Value("${analysis.pitch.fmax:2000}")
+    private double pitchFmax;
+
+    @Value("${analysis.pitch.threshold:0.1}")
+    private double pitchThreshold;
+
+    @Value("${analysis.pitch.parallel:true}")
+    private boolean pitchParallel;
+
+    @Value("${analysis.spectral.parallel:true}")
+    private boolean spectralParallel;
+
+    @Value("${analysis.rhythm.parallel:true}")
+    private boolean rhythmParallel;
+
+    @Value("${analysis.voice.parallel:true}")
+    private boolean voiceParallel;
+
+    // 子序列对齐时约束带锚定在参考音频末尾，只适合录音与参考结尾对齐的场景，默认不加约束
+    @Value("${analysis.dtw.band:none}")
+    private String dtwBand;
+
+    @Value("${analysis.dtw.radius:0.1}")
+    private double dtwRadius;
+
+    @Value("${analysis.dtw.max-slope:2}")
+    private double dtwMaxSlope;
+
+    @Value("${analysis.dtw.parallel:true}")
+    private boolean dtwParallel;
+
+    @Resource
+    private AudioPcmLoader audioPcmLoader;
+
+    private Set<String> features;
+    private YinPitchTracker pitchTracker;
+    private SpectralAnalyzer spectralAnalyzer;
+    private DtwAligner dtwAligner;
+    private RhythmTracker rhythmTracker;
+    private VoiceQualityAnalyzer voiceQualityAnalyzer;
+    private String configFingerprint;
+
+    @PostConstruct
+    public void init() {
+        Set<String> configured = Arrays.stream(jvmFeatures.split(","))
+                .map(String::trim)
+                .filter(name -> !name.isEmpty())
+                .collect(Collectors.toCollection(TreeSet::new));
+        features = Collections.unmodifiableSet(configured);
+        pitchTracker = new YinPitchTracker(AudioPcmLoader.TARGET_SAMPLE_RATE, pitchFrameLength, pitchHopLength,
+                pitchFmin, pitchFmax, pitchThreshold);
+        spectralAnalyzer = new SpectralAnalyzer(AudioPcmLoader.TARGET_SAMPLE_RATE, MFCC_FFT_SIZE, MFCC_HOP_LENGTH,
+                MFCC_MEL_BANDS, MFCC_COEFFICIENTS);
+        rhythmTracker = new RhythmTracker(spectralAnalyzer);
+        voiceQualityAnalyzer = new VoiceQualityAnalyzer(AudioPcmLoader.TARGET_SAMPLE_RATE);
+        dtwAligner = new DtwAligner(DtwAligner.Band.of(dtwBand), dtwRadius, dtwMaxSlope, true, dtwParallel);
+        configFingerprint = "engine=" + ENGINE_VERSION
+                + "|pitch=" + pitchFrameLength + "," + pitchHopLength + "," + pitchFmin + "," + pitchFmax + ","
+                + pitchThreshold
+                + "|dtw=" + DtwAligner.Band.of(dtwBand) + "," + dtwRadius + "," + dtwMaxSlope
+                + "|parallel=" + pitchParallel + "," + spectralParallel + "," + rhythmParallel + ","
+                + voiceParallel + "," + dtwParallel;
+    }
+
+    public boolean isEnabled() {
+        return !features.isEmpty();
+    }
+
+    public Set<String> getFeatures() {
+        return features;
+    }
+
+    /**
+     * 引擎版本和影响结果的生效配置，配置或实现变化后分析缓存的键随之改变。
+     */
+    public String getConfigFingerprint() {
+        return configFingerprint;
+    }
+
+    /**
+     * selected 中由 JVM 负责的特征是否存在。
+     */
+    public boolean handlesAny(Set<String> selected) {
+        return selected.stream().anyMatch(features::contains);
+    }
+
+    /**
+     * @param audio 已解码的 PCM，解码失败时为 null，此时这些维度按提取失败处理，评分取默认值
+     * @param referenceFeaturesPath 参考音频预先计算的特征文件，为空或失效时解码参考音频
+     */
+    public AudioAnalysisDTO apply(PcmAudio audio, String referenceAudioPath, String referenceFeaturesPath,
+                                  Set<String> selected, AudioAnalysisDTO result) {
+        if (!handlesAny(selected) || !result.isSuccess()) {
+            return result;
+        }
+
+        if (result.getFeatures() == null) {
+            result.setFeatures(new AudioAnalysisDTO.Features());
+        }
+        if (audio != null) {
+            Set<String> jvmSelected = selected.stream().filter(features::contains).collect(Collectors.toSet());
+            extractInto(audio, referenceAudioPath, referenceFeaturesPath, jvmSelected, result.getFeatures(),
+                    NO_PROGRESS);
+        }
+        result.setScores(AnalysisScoreCalculator.calculate(result.getFeatures(), selected));
+        return result;
+    }
+
+    /**
+     * 不论 analysis.jvm-features 如何配置，在 JVM 内计算 selected 中的全部特征，供 JVM 分析后端使用。
+     * 每完成一项特征回调一次 onFeature，传入的是正在填充的同一个对象。
+     */
+    public AudioAnalysisDTO.Features extract(PcmAudio audio, String referenceAudioPath, String referenceFeaturesPath,
+                                             Set<String> selected,
+                                             BiConsumer<String, AudioAnalysisDTO.Features> onFeature) {
+        AudioAnalysisDTO.Features target = new AudioAnalysisDTO.Features();
+        extractInto(audio, referenceAudioPath, referenceFeaturesPath, selected, target, onFeature);
+        return target;
+    }
+
+    private void extractInto(PcmAudio audio, String referenceAudioPath, String referenceFeaturesPath,
+                             Set<String> selected, AudioAnalysisDTO.Features target,
+                             BiConsumer<String, AudioAnalysisDTO.Features> onFeature) {
+        // 需要频谱的维度共用一次 STFT
+        SpectralAnalyzer.Spectrogram spectrogram = selected.stream().anyMatch(SPECTRAL_FEATURES::contains)
+                ? spectralAnalyzer.analyze(audio.getSamples(), spectralParallel) : null;
+        if (selected.contains(AnalysisFeatures.PITCH)) {
+            target.setPitch(extractPitch(audio));
+            onFeature.accept(AnalysisFeatures.PITCH, target);
+        }
+        if (selected.contains(AnalysisFeatures.RHYTHM)) {
+            target.setRhythm(rhythmTracker.track(spectrogram, rhythmParallel).toRhythmFeatures());
+            onFeature.accept(AnalysisFeatures.RHYTHM, target);
+        }
+        if (selected.contains(AnalysisFeatures.VOICE)) {
+            target.setVoice(extractVoice(audio));
+            onFeature.accept(AnalysisFeatures.VOICE, target);
+        }
+        if (selected.contains(AnalysisFeatures.TIMBRE)) {
+            target.setTimbre(toTimbreFeatures(spectrogram));
+            onFeature.accept(AnalysisFeatures.TIMBRE, target);
+        }
+        if (selected.contains(AnalysisFeatures.ENERGY)) {
+            target.setEnergy(toEnergyFeatures(spectrogram));
+            onFeature.accept(AnalysisFeatures.ENERGY, target);
+        }
+        if (selected.contains(AnalysisFeatures.COMPARISON)) {
+            target.setComparison(compare(spectrogram, referenceAudioPath, referenceFeaturesPath));
+            onFeature.accept(AnalysisFeatures.COMPARISON, target);
+        }
+    }
+
+    public AudioAnalysisDTO.PitchFeatures extractPitch(PcmAudio audio) {
+        return toPitchFeatures(trackPitch(audio));
+    }
+
+    /**
+     * 逐帧基频（Hz），无声帧为 0，帧间隔见 {@link #getPitchFrameSeconds()}。
+     */
+    public float[] trackPitch(PcmAudio audio) {
+        return pitchTracker.track(audio.getSamples(), pitchParallel);
+    }
+
+    public double getPitchFrameSeconds() {
+        return (double) pitchHopLength / AudioPcmLoader.TARGET_SAMPLE_RATE;
+    }
+
+    public AudioAnalysisDTO.RhythmFeatures extractRhythm(PcmAudio audio) {
+        return rhythmTracker.track(audio.getSamples(), rhythmParallel).toRhythmFeatures();
+    }
+
+    public AudioAnalysisDTO.VoiceFeatures extractVoice(PcmAudio audio) {
+        return voiceQualityAnalyzer.analyze(audio.getSamples(), voiceParallel);
+    }
+
+    public AudioAnalysisDTO.TimbreFeatures extractTimbre(PcmAudio audio) {
+        return toTimbreFeatures(spectralAnalyzer.analyze(audio.getSamples(), spectralParallel));
+    }
+
+    public AudioAnalysisDTO.EnergyFeatures extractEnergy(PcmAudio audio) {
+        return toEnergyFeatures(spectralAnalyzer.analyze(audio.getSamples(), spectralParallel));
+    }
+
+    public AudioAnalysisDTO.ComparisonFeatures extractComparison(PcmAudio audio, String referenceAudioPath,
+                                                                 String referenceFeaturesPath) {
+        return compare(spectralAnalyzer.analyze(audio.getSamples(), spectralParallel), referenceAudioPath,
+                referenceFeaturesPath);
+    }
+
+    /**
+     * 与 compare_with_reference 相同：MFCC 序列做子序列 DTW，按路径长度归一化得到距离，再换算为相似度。
+     * 距离已确定会使相似度为 0 时提前结束对齐。
+     */
+    private AudioAnalysisDTO.ComparisonFeatures compare(SpectralAnalyzer.Spectrogram spectrogram,
+                                                        String referenceAudioPath, String referenceFeaturesPath) {
+        AudioAnalysisDTO.ComparisonFeatures comparison = new AudioAnalysisDTO.ComparisonFeatures();
+        comparison.setHasReference(false);
+        if (referenceAudioPath == null || referenceAudioPath.isEmpty()) {
+            return comparison;
+        }
+        try {
+            double[][] reference = referenceMfcc(referenceAudioPath, referenceFeaturesPath);
+            double[][] user = spectrogram.mfcc();
+            DtwAligner.Result result = dtwAligner.align(user, reference, ZERO_SIMILARITY_DISTANCE);
+            comparison.setHasReference(true);
+            if (result.isAbandoned()) {
+                // 只知道距离的下界，不冒充实际距离
+                comparison.setDtwAbandoned(true);
+                comparison.setSimilarityScore(0.0);
+            } else {
+                double distance = result.getNormalizedDistance();
+                comparison.setDtwAbandoned(false);
+                comparison.setDtwDistance(distance);
+                comparison.setSimilarityScore(Math.max(0, Math.min(100, 100 - distance * 0.5)));
+            }
+        } catch (IOException | RuntimeException e) {
+            // 与 Python 端一致，对比失败时按没有参考音频处理
+        }
+        return comparison;
+    }
+
+    private double[][] referenceMfcc(String referenceAudioPath, String referenceFeaturesPath) throws IOException {
+        if (referenceFeaturesPath != null) {
+            ReferenceFeatures precomputed = ReferenceFeatures.read(new File(referenceFeaturesPath),
+                    new File(referenceAudioPath));
+            if (precomputed != null && precomputed.getSampleRate() == AudioPcmLoader.TARGET_SAMPLE_RATE
+                    && precomputed.getHopLength() == MFCC_HOP_LENGTH
+                    && precomputed.getMfcc()[0].length == MFCC_COEFFICIENTS) {
+                return precomputed.getMfcc();
+            }
+        }
+        return spectralAnalyzer.mfcc(audioPcmLoader.load(referenceAudioPath).getSamples(), spectralParallel);
+    }
+
+    // 与 extract_timbre_features 相同：MFCC 各系数的平均，亮度为频谱质心平均，温暖度为滚降点平均
+    static AudioAnalysisDTO.TimbreFeatures toTimbreFeatures(SpectralAnalyzer.Spectrogram spectrogram) {
+        double brightness = mean(spectrogram.getCentroid());
+        List<Double> mfcc = new ArrayList<>();
+        for (double value : spectrogram.mfccMean()) {
+            mfcc.add(value);
+        }
+
+        AudioAnalysisDTO.TimbreFeatures timbre = new AudioAnalysisDTO.TimbreFeatures();
+        timbre.setMfcc(mfcc);
+        timbre.setBrightness(brightness);
+        timbre.setWarmth(mean(spectrogram.getRolloff()));
+        timbre.setBrightnessLevel(brightness > 2000 ? "明亮" : brightness > 1500 ? "柔和" : "低沉");
+        return timbre;
+    }
+
+    // 与 extract_energy_features 相同：稳定度为 100 减去 RMS 的变异系数（百分比），标准差为总体标准差
+    static AudioAnalysisDTO.EnergyFeatures toEnergyFeatures(SpectralAnalyzer.Spectrogram spectrogram) {
+        double[] rms = spectrogram.getRms();
+        double mean = mean(rms);
+        double squares = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (double value : rms) {
+            squares += (value - mean) * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+        double std = rms.length > 0 ? Math.sqrt(squares / rms.length) : 0;
+        double stability = mean > 0 ? Math.max(0, Math.min(100, 100 - std / mean * 100)) : 0;
+
+        AudioAnalysisDTO.EnergyFeatures energy = new AudioAnalysisDTO.EnergyFeatures();
+        energy.setEnergyMean(mean);
+        energy.setEnergyStability(stability);
+        energy.setDynamicRange(rms.length > 0 ? max - min : 0);
+        energy.setBreathControlScore(stability);
+        return energy;
+    }
+
+    private static double mean(double[] values) {
+        double sum = 0;
+        for (double value : values) {
+            sum += value;
+        }
+        return values.length > 0 ? sum / values.length : 0;
+    }
+
+    // 与 extract_pitch_features 相同的统计口径：只统计有声帧，标准差为总体标准差
+    static AudioAnalysisDTO.PitchFeatures toPitchFeatures(float[] f0) {
+        int count = 0;
+        double sum = 0;
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (float value : f0) {
+            if (value > 0) {
+                count++;
+                sum += value;
+                min = Math.min(min, value);
+                max = Math.max(max, value);
+            }
+        }
+
+        AudioAnalysisDTO.PitchFeatures pitch = new AudioAnalysisDTO.PitchFeatures();
+        if (count == 0) {
+            pitch.setMeanPitch(0.0);
+            pitch.setPitchRange(0.0);
+            pitch.setPitchStability(0.0);
+            return pitch;
+        }
+
+        double mean = sum / count;
+        double squares = 0;
+        for (float value : f0) {
+            if (value > 0) {
+                squares += (value - mean) * (value - mean);
+            }
+        }
+        double std = Math.sqrt(squares / count);
+
+        pitch.setMeanPitch(mean);
+        pitch.setPitchRange(max - min);
+        pitch.setPitchStability(mean > 0 ? 100 - std / mean * 100 : 0);
+        return pitch;
+    }
+}
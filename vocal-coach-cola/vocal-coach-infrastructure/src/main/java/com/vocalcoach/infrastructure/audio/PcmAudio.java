@@ -0,0 +1,27 @@
+package com.vocalcoach.infrastructure.audio;
+
+/**
+ * 单声道 float PCM，取值范围 [-1, 1]。
+ */
+public class PcmAudio {
+
+    private final float[] samples;
+    private final int sampleRate;
+
+    public PcmAudio(float[] samples, int sampleRate) {
+        this.samples = samples;
+        this.sampleRate = sampleRate;
+    }
+
+    public float[] getSamples() {
+        return samples;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public double getDurationSeconds() {
+        return (double) samples.length / sampleRate;
+    }
+}
@@ -0,0 +1,182 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 有理数倍率的多相重采样：目标率 / 源率约分为 up / down，输出第 n 个采样位于输入的 n·down/up 处，
+ * 用该位置小数部分对应的一组 Kaiser 窗 sinc 系数对附近的输入加权求和。低通截止取两者中较低奈奎斯特频率的 90%，
+ * 升采样和降采样共用同一套做法，降采样时不会混叠。每组系数归一化为直流增益 1。
+ * 滤波器按采样率对缓存（最多 MAX_CACHED_FILTERS 组），只读，可在多个线程间共享；up 很大（采样率互质）时相位量化为 MAX_PHASES 组。
+ * 采样率限制在 1–384 kHz，滤波器长度和输出长度都有上界。
+ */
+public final class PolyphaseResampler {
+
+    private static final ConcurrentMap<Long, PolyphaseResampler> FILTERS = new ConcurrentHashMap<>();
+    private static final int MAX_PHASES = 1024;
+    // 缓存的采样率对上限，超出时清空重建；正常只有少数几种录音采样率
+    private static final int MAX_CACHED_FILTERS = 32;
+    private static final int MIN_RATE = 1000;
+    private static final int MAX_RATE = 384000;
+    private static final int ZERO_CROSSINGS = 16;
+    private static final double KAISER_BETA = 8.6;
+    private static final double ROLLOFF = 0.9;
+    private static final double KAISER_NORM = besselI0(KAISER_BETA);
+
+    private final int sourceRate;
+    private final int targetRate;
+    private final long up;
+    private final long down;
+    private final int phases;
+    private final int halfTaps;
+    private final float[][] filters;
+
+    private PolyphaseResampler(int sourceRate, int targetRate) {
+        this.sourceRate = sourceRate;
+        this.targetRate = targetRate;
+        long gcd = gcd(sourceRate, targetRate);
+        this.up = targetRate / gcd;
+        this.down = sourceRate / gcd;
+        this.phases = (int) Math.min(up, MAX_PHASES);
+
+        double cutoff = cutoff(sourceRate, targetRate);
+        double halfWidth = ZERO_CROSSINGS / (2 * cutoff);
+        this.halfTaps = (int) Math.ceil(halfWidth);
+        this.filters = new float[phases][2 * halfTaps];
+        for (int p = 0; p < phases; p++) {
+            double fraction = (double) p / phases;
+            double[] weights = new double[2 * halfTaps];
+            for (int k = 0; k < weights.length; k++) {
+                // 第 k 个系数对应输入 base - halfTaps + 1 + k
+                weights[k] = kaiserSinc(k - halfTaps + 1 - fraction, cutoff, halfWidth);
+            }
+            filters[p] = normalize(weights);
+        }
+    }
+
+    /**
+     * 与重采样相同设计的抗混叠低通（源采样率下的对称 FIR），截止在两者中较低奈奎斯特频率的 90%，系数和为 1。
+     * 供逐段输入、自行插值的降采样使用。
+     */
+    public static float[] lowPass(int sourceRate, int targetRate) {
+        if (sourceRate < MIN_RATE || sourceRate > MAX_RATE || targetRate < MIN_RATE || targetRate > MAX_RATE) {
+            throw new IllegalArgumentException("采样率超出范围: " + sourceRate + " -> " + targetRate);
+        }
+        double cutoff = cutoff(sourceRate, targetRate);
+        double halfWidth = ZERO_CROSSINGS / (2 * cutoff);
+        int half = (int) Math.floor(halfWidth);
+        double[] weights = new double[2 * half + 1];
+        for (int k = 0; k < weights.length; k++) {
+            weights[k] = kaiserSinc(k - half, cutoff, halfWidth);
+        }
+        return normalize(weights);
+    }
+
+    // 截止频率以输入采样为单位（周期 / 采样）
+    private static double cutoff(int sourceRate, int targetRate) {
+        return 0.5 * ROLLOFF * Math.min(1.0, (double) targetRate / sourceRate);
+    }
+
+    // 距中心 x 个输入采样处的 Kaiser 窗 sinc 系数，窗半宽 halfWidth 之外为 0
+    private static double kaiserSinc(double x, double cutoff, double halfWidth) {
+        double t = x / halfWidth;
+        if (Math.abs(t) >= 1) {
+            return 0;
+        }
+        double argument = 2 * cutoff * x;
+        double sinc = argument == 0 ? 1 : Math.sin(Math.PI * argument) / (Math.PI * argument);
+        return sinc * besselI0(KAISER_BETA * Math.sqrt(1 - t * t)) / KAISER_NORM;
+    }
+
+    private static float[] normalize(double[] weights) {
+        double sum = 0;
+        for (double weight : weights) {
+            sum += weight;
+        }
+        float[] taps = new float[weights.length];
+        for (int k = 0; k < weights.length; k++) {
+            taps[k] = (float) (weights[k] / sum);
+        }
+        return taps;
+    }
+
+    public static PolyphaseResampler of(int sourceRate, int targetRate) {
+        if (sourceRate < MIN_RATE || sourceRate > MAX_RATE || targetRate < MIN_RATE || targetRate > MAX_RATE) {
+            throw new IllegalArgumentException("采样率超出范围: " + sourceRate + " -> " + targetRate);
+        }
+        if (FILTERS.size() >= MAX_CACHED_FILTERS) {
+            FILTERS.clear();
+        }
+        return FILTERS.computeIfAbsent(((long) sourceRate << 32) | targetRate,
+                key -> new PolyphaseResampler(sourceRate, targetRate));
+    }
+
+    public int getSourceRate() {
+        return sourceRate;
+    }
+
+    public int getTargetRate() {
+        return targetRate;
+    }
+
+    /**
+     * 输出长度为 ceil(输入长度 × 目标率 / 源率)，与 librosa.resample 相同；采样率相同时原样返回。
+     */
+    public float[] process(float[] input) {
+        if (up == down || input.length == 0) {
+            return input;
+        }
+        long length = (input.length * up + down - 1) / down;
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("重采样输出过长: " + length);
+        }
+        float[] output = new float[(int) length];
+        int taps = 2 * halfTaps;
+        for (int n = 0; n < length; n++) {
+            long position = n * down;
+            int base = (int) (position / up);
+            int phase = (int) (position % up * phases / up);
+            float[] filter = filters[phase];
+            int first = base - halfTaps + 1;
+            float acc = 0;
+            if (first >= 0 && first + taps <= input.length) {
+                for (int k = 0; k < taps; k++) {
+                    acc += filter[k] * input[first + k];
+                }
+            } else {
+                // 两端按零填充
+                int from = Math.max(0, -first);
+                int to = Math.min(taps, input.length - first);
+                for (int k = from; k < to; k++) {
+                    acc += filter[k] * input[first + k];
+                }
+            }
+            output[n] = acc;
+        }
+        return output;
+    }
+
+    // 第一类零阶修正贝塞尔函数，级数展开
+    private static double besselI0(double x) {
+        double sum = 1;
+        double term = 1;
+        double quarter = x * x / 4;
+        for (int k = 1; k < 50; k++) {
+            term *= quarter / ((double) k * k);
+            sum += term;
+            if (term < 1e-12 * sum) {
+                break;
+            }
+        }
+        return sum;
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
@@ -0,0 +1,154 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * 参考音频（歌曲原唱）预先计算的特征文件 {@code <音频>.features}，由 analyze_audio.py --precompute-reference 生成。
+ *
+ * <p>文件格式（小端）：magic "VCRF"、int32 版本、int32 采样率、int32 hop、int32 MFCC 维数、int32 帧数、
+ * int64 源文件大小、int64 源文件修改时间（毫秒），随后依次是 float32 的 MFCC 矩阵（维数 × 帧数，按行存放）、
+ * 音高曲线（帧数）和起音强度包络（帧数）。源文件大小或修改时间对不上、或文件长度不符时视为失效。
+ */
+public class ReferenceFeatures {
+
+    public static final String SUFFIX = ".features";
+    private static final byte[] MAGIC = "VCRF".getBytes(StandardCharsets.US_ASCII);
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 40;
+
+    private final int sampleRate;
+    private final int hopLength;
+    private final double[][] mfcc;
+    private final float[] pitch;
+    private final float[] onset;
+
+    private ReferenceFeatures(int sampleRate, int hopLength, double[][] mfcc, float[] pitch, float[] onset) {
+        this.sampleRate = sampleRate;
+        this.hopLength = hopLength;
+        this.mfcc = mfcc;
+        this.pitch = pitch;
+        this.onset = onset;
+    }
+
+    public static File featureFile(String audioPath) {
+        return new File(audioPath + SUFFIX);
+    }
+
+    public static boolean isValid(File features, File audio) {
+        try (FileChannel channel = FileChannel.open(features.toPath(), StandardOpenOption.READ)) {
+            return readHeader(channel, features, audio) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 内存映射读取特征文件，不存在或失效时返回 null。
+     */
+    public static ReferenceFeatures read(File features, File audio) throws IOException {
+        if (!features.isFile()) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(features.toPath(), StandardOpenOption.READ)) {
+            Header header = readHeader(channel, features, audio);
+            if (header == null) {
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+                    channel.size() - HEADER_BYTES);
+            FloatBuffer values = mapped.order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer();
+
+            // 文件中按系数存放，转置为按帧存放，与 SpectralAnalyzer 的 MFCC 一致
+            double[][] mfcc = new double[header.frames][header.coefficients];
+            for (int c = 0; c < header.coefficients; c++) {
+                for (int t = 0; t < header.frames; t++) {
+                    mfcc[t][c] = values.get();
+                }
+            }
+            float[] pitch = new float[header.frames];
+            values.get(pitch);
+            float[] onset = new float[header.frames];
+            values.get(onset);
+            return new ReferenceFeatures(header.sampleRate, header.hopLength, mfcc, pitch, onset);
+        }
+    }
+
+    private static Header readHeader(FileChannel channel, File features, File audio) throws IOException {
+        if (channel.size() < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining() && channel.read(buffer) >= 0) {
+            // 读满文件头
+        }
+        buffer.flip();
+        if (buffer.remaining() < HEADER_BYTES) {
+            return null;
+        }
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC) || buffer.getInt() != VERSION) {
+            return null;
+        }
+        Header header = new Header();
+        header.sampleRate = buffer.getInt();
+        header.hopLength = buffer.getInt();
+        header.coefficients = buffer.getInt();
+        header.frames = buffer.getInt();
+        // 写到一半的文件长度对不上
+        long expectedLength = HEADER_BYTES + (long) Float.BYTES * header.frames * (header.coefficients + 2);
+        if (header.frames <= 0 || header.coefficients <= 0 || features.length() != expectedLength) {
+            return null;
+        }
+        if (buffer.getLong() != audio.length() || buffer.getLong() != audio.lastModified()) {
+            return null;
+        }
+        return header;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getHopLength() {
+        return hopLength;
+    }
+
+    public int getFrames() {
+        return mfcc.length;
+    }
+
+    /**
+     * 帧数 × 系数。
+     */
+    public double[][] getMfcc() {
+        return mfcc;
+    }
+
+    /**
+     * 逐帧音高（Hz），无声帧为 0。
+     */
+    public float[] getPitch() {
+        return pitch;
+    }
+
+    public float[] getOnset() {
+        return onset;
+    }
+
+    private static class Header {
+        private int sampleRate;
+        private int hopLength;
+        private int coefficients;
+        private int frames;
+    }
+}
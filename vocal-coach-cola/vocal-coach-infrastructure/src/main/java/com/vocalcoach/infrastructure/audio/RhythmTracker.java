@@ -0,0 +1,410 @@
+package com.vocalcoach.infrastructure.audio;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 与 librosa.beat.beat_track 默认参数一致的节拍跟踪：梅尔谱（dB）逐带正向差分取中位数作为起音强度，
+ * 对起音强度做 8 秒 Hann 窗的局部自相关并按帧平均，乘以 120 bpm 为中心的对数正态先验选出速度，
+ * 再用动态规划找出间隔最接近该速度、起音强度最大的节拍序列。自相关复用同一个 FFT 计划，只使用基本类型数组。
+ */
+public class RhythmTracker {
+
+    private static final double START_BPM = 120;
+    private static final double STD_OCTAVES = 1;
+    private static final double MAX_BPM = 320;
+    private static final double AUTOCORRELATION_SECONDS = 8;
+    private static final double TIGHTNESS = 100;
+    private static final int FRAMES_PER_CHUNK = 256;
+    // 与目标速度相差不超过 FULL 时满分，超过 ZERO 时 0 分，中间线性
+    private static final double FULL_TEMPO_DEVIATION = 0.03;
+    private static final double ZERO_TEMPO_DEVIATION = 0.2;
+    private static final double TEMPO_WEIGHT = 0.5;
+
+    private final SpectralAnalyzer spectralAnalyzer;
+    private final double frameRate;
+    private final int onsetShift;
+    private final int windowLength;
+    private final Fft fft;
+    private final double[] window;
+
+    /**
+     * @param spectralAnalyzer 提供梅尔谱，librosa 的起音强度同样使用 2048 点 FFT、512 点帧移、128 个梅尔带
+     */
+    public RhythmTracker(SpectralAnalyzer spectralAnalyzer) {
+        this.spectralAnalyzer = spectralAnalyzer;
+        int sampleRate = spectralAnalyzer.getSampleRate();
+        int hopLength = spectralAnalyzer.getHopLength();
+        this.frameRate = (double) sampleRate / hopLength;
+        this.onsetShift = 1 + spectralAnalyzer.getFftSize() / (2 * hopLength);
+        this.windowLength = (int) ((long) (AUTOCORRELATION_SECONDS * sampleRate) / hopLength);
+        int size = 1;
+        while (size < 2 * windowLength - 1) {
+            size <<= 1;
+        }
+        this.fft = Fft.of(size);
+        this.window = new double[windowLength];
+        for (int n = 0; n < windowLength; n++) {
+            window[n] = 0.5 - 0.5 * Math.cos(2 * Math.PI * n / windowLength);
+        }
+    }
+
+    public Beats track(float[] samples, boolean parallel) {
+        return track(spectralAnalyzer.analyze(samples, parallel), parallel);
+    }
+
+    /**
+     * @param spectrogram 由构造时传入的 SpectralAnalyzer 计算，可与其他频谱特征共用
+     */
+    public Beats track(SpectralAnalyzer.Spectrogram spectrogram, boolean parallel) {
+        double[] onset = onsetEnvelope(spectrogram.getMelDb());
+        boolean any = false;
+        for (double value : onset) {
+            any |= value != 0;
+        }
+        if (!any) {
+            return new Beats(0, new int[0], frameRate);
+        }
+        double tempo = estimateTempo(onset, parallel);
+        return new Beats(tempo, trackBeats(onset, tempo), frameRate);
+    }
+
+    /**
+     * 相邻帧梅尔谱之差的正部在各梅尔带上的中位数。与 librosa 一样整体后移 1 + n_fft / (2 * hop) 帧，
+     * 使起音强度对齐到居中分帧后的音头位置。
+     */
+    double[] onsetEnvelope(float[] melDb) {
+        int melBands = spectralAnalyzer.getMelBands();
+        int frames = melDb.length / melBands;
+        double[] onset = new double[frames];
+        double[] flux = new double[melBands];
+        for (int t = onsetShift; t < frames; t++) {
+            int current = (t - onsetShift + 1) * melBands;
+            int previous = (t - onsetShift) * melBands;
+            for (int m = 0; m < melBands; m++) {
+                flux[m] = Math.max(0, melDb[current + m] - melDb[previous + m]);
+            }
+            Arrays.sort(flux);
+            onset[t] = melBands % 2 == 1
+                    ? flux[melBands / 2]
+                    : (flux[melBands / 2 - 1] + flux[melBands / 2]) / 2;
+        }
+        return onset;
+    }
+
+    /**
+     * 与 librosa.feature.tempo 相同：各帧局部自相关按最大值归一化后取平均，
+     * 在 log1p(1e6 * 自相关) 加对数正态先验最大的延迟上取速度，结果是 60 * 帧率 / 延迟 的离散值。
+     */
+    double estimateTempo(double[] onset, boolean parallel) {
+        double[] tempogram = meanTempogram(onset, parallel);
+        int best = -1;
+        double bestScore = Double.NEGATIVE_INFINITY;
+        for (int lag = 1; lag < windowLength; lag++) {
+            double bpm = 60 * frameRate / lag;
+            if (bpm >= MAX_BPM) {
+                continue;
+            }
+            double octaves = (Math.log(bpm) - Math.log(START_BPM)) / Math.log(2) / STD_OCTAVES;
+            double score = Math.log1p(1e6 * tempogram[lag]) - 0.5 * octaves * octaves;
+            if (score > bestScore) {
+                bestScore = score;
+                best = lag;
+            }
+        }
+        return best < 0 ? 0 : 60 * frameRate / best;
+    }
+
+    // 起音强度两端各补半个窗长、从 0 线性过渡到端点值，每帧一个窗做补零 FFT 自相关
+    private double[] meanTempogram(double[] onset, boolean parallel) {
+        int frames = onset.length;
+        int half = windowLength / 2;
+        double[] padded = new double[frames + 2 * half];
+        System.arraycopy(onset, 0, padded, half, frames);
+        for (int i = 0; i < half; i++) {
+            padded[i] = onset[0] * i / half;
+            padded[half + frames + i] = onset[frames - 1] * (half - 1 - i) / half;
+        }
+
+        int chunks = (frames + FRAMES_PER_CHUNK - 1) / FRAMES_PER_CHUNK;
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (parallel) {
+            chunkStream = chunkStream.parallel();
+        }
+        double[][] partial = new double[chunks][];
+        chunkStream.forEach(chunk -> {
+            int size = fft.getSize();
+            double[] re = new double[size];
+            double[] im = new double[size];
+            double[] power = new double[size / 2 + 1];
+            double[] sum = new double[windowLength];
+            int end = Math.min(frames, (chunk + 1) * FRAMES_PER_CHUNK);
+            for (int frame = chunk * FRAMES_PER_CHUNK; frame < end; frame++) {
+                for (int n = 0; n < windowLength; n++) {
+                    re[n] = padded[frame + n] * window[n];
+                }
+                Arrays.fill(re, windowLength, size, 0);
+                fft.powerSpectrum(re, im, power);
+                // 功率谱是实偶序列，再做一次正变换除以长度即为逆变换
+                for (int k = 0; k <= size / 2; k++) {
+                    re[k] = power[k];
+                    if (k > 0 && k < size / 2) {
+                        re[size - k] = power[k];
+                    }
+                }
+                Arrays.fill(im, 0);
+                fft.transform(re, im);
+                double zero = re[0];
+                if (zero > 0) {
+                    for (int lag = 0; lag < windowLength; lag++) {
+                        sum[lag] += re[lag] / zero;
+                    }
+                }
+            }
+            partial[chunk] = sum;
+        });
+
+        double[] mean = new double[windowLength];
+        for (double[] sum : partial) {
+            for (int lag = 0; lag < windowLength; lag++) {
+                mean[lag] += sum[lag] / frames;
+            }
+        }
+        return mean;
+    }
+
+    /**
+     * Ellis 动态规划：每帧向前在 [2 个节拍周期, 半个周期] 内找累计得分减去间隔偏离惩罚最大的前一拍，
+     * 从最后一个足够强的局部最大值回溯，再去掉首尾起音较弱的节拍。
+     */
+    int[] trackBeats(double[] onset, double tempo) {
+        int frames = onset.length;
+        int period = (int) Math.round(60 * frameRate / tempo);
+        double[] local = localScore(normalize(onset), period);
+        double maxLocal = Double.NEGATIVE_INFINITY;
+        for (double value : local) {
+            maxLocal = Math.max(maxLocal, value);
+        }
+
+        double[] cumulative = new double[frames];
+        int[] backlink = new int[frames];
+        double logPeriod = Math.log(period);
+        int nearest = (int) Math.rint(period / 2.0);
+        boolean firstBeat = true;
+        for (int i = 0; i < frames; i++) {
+            double best = Double.NEGATIVE_INFINITY;
+            int location = -1;
+            for (int previous = i - nearest; previous >= i - 2 * period && previous >= 0; previous--) {
+                double deviation = Math.log(i - previous) - logPeriod;
+                double score = cumulative[previous] - TIGHTNESS * deviation * deviation;
+                if (score > best) {
+                    best = score;
+                    location = previous;
+                }
+            }
+            cumulative[i] = location >= 0 ? local[i] + best : local[i];
+            if (firstBeat && local[i] < 0.01 * maxLocal) {
+                backlink[i] = -1;
+            } else {
+                backlink[i] = location;
+                firstBeat = false;
+            }
+        }
+
+        int tail = lastBeat(cumulative);
+        int count = 0;
+        for (int beat = tail; beat >= 0; beat = backlink[beat]) {
+            count++;
+        }
+        int[] beats = new int[count];
+        for (int beat = tail, k = count - 1; beat >= 0; beat = backlink[beat], k--) {
+            beats[k] = beat;
+        }
+        return trim(local, beats);
+    }
+
+    private static double[] normalize(double[] onset) {
+        double mean = 0;
+        for (double value : onset) {
+            mean += value;
+        }
+        mean /= onset.length;
+        double squares = 0;
+        for (double value : onset) {
+            squares += (value - mean) * (value - mean);
+        }
+        double std = onset.length > 1 ? Math.sqrt(squares / (onset.length - 1)) : 0;
+        double[] normalized = onset.clone();
+        if (std > 0) {
+            for (int i = 0; i < normalized.length; i++) {
+                normalized[i] /= std;
+            }
+        }
+        return normalized;
+    }
+
+    // 与宽度随节拍周期缩放的高斯窗做 same 卷积
+    private static double[] localScore(double[] onset, int period) {
+        double[] kernel = new double[2 * period + 1];
+        for (int d = -period; d <= period; d++) {
+            double x = d * 32.0 / period;
+            kernel[d + period] = Math.exp(-0.5 * x * x);
+        }
+        double[] local = new double[onset.length];
+        for (int i = 0; i < onset.length; i++) {
+            double sum = 0;
+            int from = Math.max(-period, -i);
+            int to = Math.min(period, onset.length - 1 - i);
+            for (int d = from; d <= to; d++) {
+                sum += onset[i + d] * kernel[d + period];
+            }
+            local[i] = sum;
+        }
+        return local;
+    }
+
+    // 累计得分不低于局部最大值中位数一半的最后一个局部最大值
+    private static int lastBeat(double[] cumulative) {
+        int n = cumulative.length;
+        double[] peaks = new double[n];
+        boolean[] isPeak = new boolean[n];
+        int count = 0;
+        for (int i = 0; i < n; i++) {
+            double previous = i > 0 ? cumulative[i - 1] : cumulative[i];
+            double next = i < n - 1 ? cumulative[i + 1] : cumulative[i];
+            if (cumulative[i] > previous && cumulative[i] >= next) {
+                isPeak[i] = true;
+                peaks[count++] = cumulative[i];
+            }
+        }
+        if (count == 0) {
+            return n - 1;
+        }
+        Arrays.sort(peaks, 0, count);
+        double median = count % 2 == 1 ? peaks[count / 2] : (peaks[count / 2 - 1] + peaks[count / 2]) / 2;
+        double threshold = 0.5 * median;
+        for (int i = n - 1; i >= 0; i--) {
+            if (isPeak[i] && cumulative[i] >= threshold) {
+                return i;
+            }
+        }
+        return n - 1;
+    }
+
+    // 节拍处的局部得分经 5 点 Hann 窗平滑，去掉首尾低于均方根一半的节拍
+    private static int[] trim(double[] local, int[] beats) {
+        double[] hann = {0, 0.5, 1, 0.5, 0};
+        double[] smooth = new double[beats.length];
+        double squares = 0;
+        for (int k = 0; k < beats.length; k++) {
+            double sum = 0;
+            for (int j = -2; j <= 2; j++) {
+                if (k + j >= 0 && k + j < beats.length) {
+                    sum += local[beats[k + j]] * hann[j + 2];
+                }
+            }
+            smooth[k] = sum;
+            squares += sum * sum;
+        }
+        double threshold = beats.length > 0 ? 0.5 * Math.sqrt(squares / beats.length) : 0;
+        int first = 0;
+        int last = beats.length - 1;
+        while (first <= last && smooth[first] <= threshold) {
+            first++;
+        }
+        while (last >= first && smooth[last] <= threshold) {
+            last--;
+        }
+        return Arrays.copyOfRange(beats, first, last + 1);
+    }
+
+    /**
+     * 检测到的速度偏离目标速度的得分。倍速、半速视为同一速度，偏差不超过 3% 时满分，超过 20% 时 0 分。
+     */
+    public static double tempoScore(double tempo, double targetBpm) {
+        if (tempo <= 0 || targetBpm <= 0) {
+            return 0;
+        }
+        double octaves = Math.log(tempo / targetBpm) / Math.log(2);
+        double deviation = Math.pow(2, Math.abs(octaves - Math.rint(octaves))) - 1;
+        if (deviation <= FULL_TEMPO_DEVIATION) {
+            return 100;
+        }
+        if (deviation >= ZERO_TEMPO_DEVIATION) {
+            return 0;
+        }
+        return 100 * (ZERO_TEMPO_DEVIATION - deviation) / (ZERO_TEMPO_DEVIATION - FULL_TEMPO_DEVIATION);
+    }
+
+    /**
+     * 返回带目标速度得分的新对象（原对象可能来自分析缓存，不能修改），节奏分为节拍稳定度和速度得分各占一半。
+     */
+    public static AudioAnalysisDTO.RhythmFeatures withTargetTempo(AudioAnalysisDTO.RhythmFeatures rhythm,
+                                                                  int targetBpm) {
+        AudioAnalysisDTO.RhythmFeatures scored = new AudioAnalysisDTO.RhythmFeatures();
+        scored.setTempo(rhythm.getTempo());
+        scored.setBeatRegularity(rhythm.getBeatRegularity());
+        scored.setTargetBpm(targetBpm);
+        double tempoScore = tempoScore(rhythm.getTempo() != null ? rhythm.getTempo() : 0, targetBpm);
+        scored.setTempoScore(tempoScore);
+        double regularityScore = rhythm.getRhythmScore() != null ? rhythm.getRhythmScore() : 50;
+        scored.setRhythmScore((1 - TEMPO_WEIGHT) * regularityScore + TEMPO_WEIGHT * tempoScore);
+        return scored;
+    }
+
+    public static class Beats {
+        private final double tempo;
+        private final int[] frames;
+        private final double frameRate;
+
+        Beats(double tempo, int[] frames, double frameRate) {
+            this.tempo = tempo;
+            this.frames = frames;
+            this.frameRate = frameRate;
+        }
+
+        public double getTempo() {
+            return tempo;
+        }
+
+        public int[] getFrames() {
+            return frames;
+        }
+
+        public double[] getTimes() {
+            double[] times = new double[frames.length];
+            for (int i = 0; i < frames.length; i++) {
+                times[i] = frames[i] / frameRate;
+            }
+            return times;
+        }
+
+        /**
+         * 与 extract_rhythm_features 相同：节拍规律性为 100 减去节拍间隔的变异系数（百分比），
+         * 节奏分为规律性截断到 0~100；少于两拍时规律性为 0、节奏分为 50。
+         */
+        public AudioAnalysisDTO.RhythmFeatures toRhythmFeatures() {
+            AudioAnalysisDTO.RhythmFeatures rhythm = new AudioAnalysisDTO.RhythmFeatures();
+            rhythm.setTempo(tempo);
+            if (frames.length < 2) {
+                rhythm.setBeatRegularity(0.0);
+                rhythm.setRhythmScore(50.0);
+                return rhythm;
+            }
+            int intervals = frames.length - 1;
+            double mean = (double) (frames[intervals] - frames[0]) / intervals;
+            double squares = 0;
+            for (int i = 1; i < frames.length; i++) {
+                double interval = frames[i] - frames[i - 1];
+                squares += (interval - mean) * (interval - mean);
+            }
+            double std = Math.sqrt(squares / intervals);
+            double regularity = 100 - std / mean * 100;
+            rhythm.setBeatRegularity(regularity);
+            rhythm.setRhythmScore(Math.max(0, Math.min(100, regularity)));
+            return rhythm;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * 把 JVM 解码好的 PCM 写成 f32le 原始文件，交给 analyze_audio.py 用 np.memmap 直接读取，
+ * 一次分析只解码、重采样一次。优先放在内存文件系统 /dev/shm，不可用时退回系统临时目录。
+ */
+@Component
+public class SharedPcmStore {
+
+    private static final String FILE_PREFIX = "vocal-coach-pcm-";
+    private static final int CHUNK_SAMPLES = 64 * 1024;
+    private static final long STALE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    @Value("${analysis.shared-pcm.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analysis.shared-pcm.dir:/dev/shm}")
+    private String dir;
+
+    private Path directory;
+
+    @PostConstruct
+    public void init() {
+        Path preferred = Paths.get(dir);
+        directory = Files.isDirectory(preferred) && Files.isWritable(preferred)
+                ? preferred : Paths.get(System.getProperty("java.io.tmpdir"));
+
+        // 清理异常退出残留的文件；同一台机器上可能还有其他实例，只删除早已过期的
+        long staleBefore = System.currentTimeMillis() - STALE_MILLIS;
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(file -> file.getFileName().toString().startsWith(FILE_PREFIX))
+                    .filter(file -> file.toFile().lastModified() < staleBefore)
+                    .forEach(file -> file.toFile().delete());
+        } catch (IOException ignored) {
+            // 不影响使用
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public SharedPcmFile write(PcmAudio audio) throws IOException {
+        Path file = Files.createTempFile(directory, FILE_PREFIX, ".f32");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            float[] samples = audio.getSamples();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(CHUNK_SAMPLES * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int offset = 0; offset < samples.length; offset += CHUNK_SAMPLES) {
+                int length = Math.min(CHUNK_SAMPLES, samples.length - offset);
+                buffer.clear();
+                buffer.asFloatBuffer().put(samples, offset, length);
+                buffer.limit(length * Float.BYTES);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(file);
+            throw e;
+        }
+        return new SharedPcmFile(file, audio.getSampleRate());
+    }
+
+    /**
+     * 一次分析期间有效，关闭时删除文件。
+     */
+    public static class SharedPcmFile implements Closeable {
+        private final Path path;
+        private final int sampleRate;
+
+        SharedPcmFile(Path path, int sampleRate) {
+            this.path = path;
+            this.sampleRate = sampleRate;
+        }
+
+        public String getPath() {
+            return path.toAbsolutePath().toString();
+        }
+
+        public int getSampleRate() {
+            return sampleRate;
+        }
+
+        @Override
+        public void close() {
+            path.toFile().delete();
+        }
+    }
+}
@@ -0,0 +1,310 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * 一次 STFT 同时得到与 librosa 默认参数一致的频谱特征：梅尔谱（dB，top_db = 80）及 MFCC、频谱质心、
+ * 85% 频谱滚降点和 RMS。STFT 为居中补零的周期 Hann 窗，梅尔滤波器组为 Slaney 刻度，DCT 为正交归一化的 DCT-II。
+ * 窗函数、滤波器组和 DCT 矩阵在构造时算好，FFT 计划全局缓存；每个线程复用一组缓冲区，逐帧计算不分配内存，
+ * 长录音可按帧分块并行。
+ */
+public class SpectralAnalyzer {
+
+    private static final int FRAMES_PER_CHUNK = 64;
+    // 帧数少于该值时分块并行的调度开销大于收益
+    private static final int MIN_PARALLEL_FRAMES = 4 * FRAMES_PER_CHUNK;
+    private static final double AMIN = 1e-10;
+    private static final double TOP_DB = 80;
+    private static final double ROLL_PERCENT = 0.85;
+
+    private final int sampleRate;
+    private final int fftSize;
+    private final int hopLength;
+    private final int melBands;
+    private final int coefficients;
+    private final Fft fft;
+    private final double[] window;
+    private final double[] frequencies;
+    private final int[] melStart;
+    private final double[][] melWeights;
+    private final double[][] dct;
+    private final ThreadLocal<Workspace> workspaces;
+
+    public SpectralAnalyzer(int sampleRate, int fftSize, int hopLength, int melBands, int coefficients) {
+        this.sampleRate = sampleRate;
+        this.fftSize = fftSize;
+        this.hopLength = hopLength;
+        this.melBands = melBands;
+        this.coefficients = coefficients;
+        this.fft = Fft.of(fftSize);
+        this.workspaces = ThreadLocal.withInitial(() -> new Workspace(fftSize));
+
+        // 周期 Hann 窗，与 scipy.signal.get_window("hann", n, fftbins=True) 相同
+        window = new double[fftSize];
+        for (int n = 0; n < fftSize; n++) {
+            window[n] = 0.5 - 0.5 * Math.cos(2 * Math.PI * n / fftSize);
+        }
+
+        int bins = fftSize / 2 + 1;
+        frequencies = new double[bins];
+        for (int k = 0; k < bins; k++) {
+            frequencies[k] = (double) k * sampleRate / fftSize;
+        }
+
+        // 梅尔滤波器只保存非零区间
+        double[] melPoints = new double[melBands + 2];
+        double maxMel = hzToMel(sampleRate / 2.0);
+        for (int i = 0; i < melPoints.length; i++) {
+            melPoints[i] = melToHz(maxMel * i / (melBands + 1));
+        }
+        melStart = new int[melBands];
+        melWeights = new double[melBands][];
+        for (int m = 0; m < melBands; m++) {
+            double lowerWidth = melPoints[m + 1] - melPoints[m];
+            double upperWidth = melPoints[m + 2] - melPoints[m + 1];
+            double norm = 2 / (melPoints[m + 2] - melPoints[m]);
+            double[] weights = new double[bins];
+            int first = -1;
+            int last = -1;
+            for (int k = 0; k < bins; k++) {
+                double lower = (frequencies[k] - melPoints[m]) / lowerWidth;
+                double upper = (melPoints[m + 2] - frequencies[k]) / upperWidth;
+                double weight = Math.max(0, Math.min(lower, upper));
+                if (weight > 0) {
+                    if (first < 0) {
+                        first = k;
+                    }
+                    last = k;
+                    weights[k] = weight * norm;
+                }
+            }
+            melStart[m] = Math.max(first, 0);
+            melWeights[m] = first < 0 ? new double[0] : Arrays.copyOfRange(weights, first, last + 1);
+        }
+
+        dct = new double[coefficients][melBands];
+        for (int k = 0; k < coefficients; k++) {
+            double scale = Math.sqrt((k == 0 ? 1.0 : 2.0) / melBands);
+            for (int n = 0; n < melBands; n++) {
+                dct[k][n] = scale * Math.cos(Math.PI * k * (2 * n + 1) / (2.0 * melBands));
+            }
+        }
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getFftSize() {
+        return fftSize;
+    }
+
+    public int getHopLength() {
+        return hopLength;
+    }
+
+    public int getMelBands() {
+        return melBands;
+    }
+
+    public int getCoefficients() {
+        return coefficients;
+    }
+
+    public int frameCount(int sampleCount) {
+        return sampleCount == 0 ? 0 : 1 + sampleCount / hopLength;
+    }
+
+    /**
+     * 逐帧计算全部频谱特征。top_db 截断依赖整段音频的最大值，先保存各帧的梅尔谱（dB），最后统一截断。
+     */
+    public Spectrogram analyze(float[] samples, boolean parallel) {
+        int frames = frameCount(samples.length);
+        Spectrogram spectrogram = new Spectrogram(frames);
+        int chunks = (frames + FRAMES_PER_CHUNK - 1) / FRAMES_PER_CHUNK;
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (parallel && frames >= MIN_PARALLEL_FRAMES) {
+            chunkStream = chunkStream.parallel();
+        }
+        chunkStream.forEach(chunk -> {
+            Workspace workspace = workspaces.get();
+            int end = Math.min(frames, (chunk + 1) * FRAMES_PER_CHUNK);
+            for (int frame = chunk * FRAMES_PER_CHUNK; frame < end; frame++) {
+                analyzeFrame(samples, frame, workspace, spectrogram);
+            }
+        });
+
+        float[] melDb = spectrogram.melDb;
+        float maxDb = Float.NEGATIVE_INFINITY;
+        for (float value : melDb) {
+            maxDb = Math.max(maxDb, value);
+        }
+        float floor = (float) (maxDb - TOP_DB);
+        for (int i = 0; i < melDb.length; i++) {
+            melDb[i] = Math.max(melDb[i], floor);
+        }
+        return spectrogram;
+    }
+
+    /**
+     * 返回 帧数 × 系数 的 MFCC。
+     */
+    public double[][] mfcc(float[] samples, boolean parallel) {
+        return analyze(samples, parallel).mfcc();
+    }
+
+    private void analyzeFrame(float[] samples, int frame, Workspace workspace, Spectrogram spectrogram) {
+        double[] re = workspace.re;
+        double[] power = workspace.power;
+        int start = frame * hopLength - fftSize / 2;
+        double squares = 0;
+        for (int n = 0; n < fftSize; n++) {
+            int index = start + n;
+            double sample = index >= 0 && index < samples.length ? samples[index] : 0;
+            squares += sample * sample;
+            re[n] = sample * window[n];
+        }
+        fft.powerSpectrum(re, workspace.im, power);
+        spectrogram.rms[frame] = Math.sqrt(squares / fftSize);
+
+        // 质心和滚降点用幅度谱
+        double total = 0;
+        double weighted = 0;
+        double[] magnitude = workspace.magnitude;
+        for (int k = 0; k < power.length; k++) {
+            magnitude[k] = Math.sqrt(power[k]);
+            total += magnitude[k];
+            weighted += magnitude[k] * frequencies[k];
+        }
+        spectrogram.centroid[frame] = total > 0 ? weighted / total : 0;
+        double threshold = ROLL_PERCENT * total;
+        double cumulative = 0;
+        int rolloff = 0;
+        while (rolloff < magnitude.length - 1) {
+            cumulative += magnitude[rolloff];
+            if (cumulative >= threshold) {
+                break;
+            }
+            rolloff++;
+        }
+        spectrogram.rolloff[frame] = frequencies[rolloff];
+
+        int offset = frame * melBands;
+        for (int m = 0; m < melBands; m++) {
+            double[] weights = melWeights[m];
+            int first = melStart[m];
+            double energy = 0;
+            for (int k = 0; k < weights.length; k++) {
+                energy += weights[k] * power[first + k];
+            }
+            spectrogram.melDb[offset + m] = (float) (10 * Math.log10(Math.max(AMIN, energy)));
+        }
+    }
+
+    // Slaney 梅尔刻度：1 kHz 以下线性，以上对数
+    private static double hzToMel(double hz) {
+        return hz < 1000 ? hz * 3 / 200 : 15 + Math.log(hz / 1000) / (Math.log(6.4) / 27);
+    }
+
+    private static double melToHz(double mel) {
+        return mel < 15 ? mel * 200 / 3 : 1000 * Math.exp(Math.log(6.4) / 27 * (mel - 15));
+    }
+
+    /**
+     * 一段音频的逐帧频谱特征，帧移为 hopLength。
+     */
+    public final class Spectrogram {
+        private final int frames;
+        private final float[] melDb;
+        private final double[] centroid;
+        private final double[] rolloff;
+        private final double[] rms;
+
+        private Spectrogram(int frames) {
+            this.frames = frames;
+            this.melDb = new float[frames * melBands];
+            this.centroid = new double[frames];
+            this.rolloff = new double[frames];
+            this.rms = new double[frames];
+        }
+
+        public int getFrames() {
+            return frames;
+        }
+
+        /**
+         * 梅尔谱（dB），按帧连续存放，长度为 帧数 × 梅尔带数。
+         */
+        public float[] getMelDb() {
+            return melDb;
+        }
+
+        public double[] getCentroid() {
+            return centroid;
+        }
+
+        public double[] getRolloff() {
+            return rolloff;
+        }
+
+        public double[] getRms() {
+            return rms;
+        }
+
+        public double[][] mfcc() {
+            double[][] mfcc = new double[frames][coefficients];
+            for (int frame = 0; frame < frames; frame++) {
+                int offset = frame * melBands;
+                for (int k = 0; k < coefficients; k++) {
+                    double sum = 0;
+                    double[] basis = dct[k];
+                    for (int m = 0; m < melBands; m++) {
+                        sum += basis[m] * melDb[offset + m];
+                    }
+                    mfcc[frame][k] = sum;
+                }
+            }
+            return mfcc;
+        }
+
+        /**
+         * 各 MFCC 系数在所有帧上的平均。DCT 是线性的，先对梅尔谱按带求平均再变换，不必展开整个 MFCC 矩阵。
+         */
+        public double[] mfccMean() {
+            double[] meanDb = new double[melBands];
+            for (int frame = 0; frame < frames; frame++) {
+                int offset = frame * melBands;
+                for (int m = 0; m < melBands; m++) {
+                    meanDb[m] += melDb[offset + m];
+                }
+            }
+            double[] mean = new double[coefficients];
+            if (frames == 0) {
+                return mean;
+            }
+            for (int k = 0; k < coefficients; k++) {
+                double sum = 0;
+                for (int m = 0; m < melBands; m++) {
+                    sum += dct[k][m] * meanDb[m] / frames;
+                }
+                mean[k] = sum;
+            }
+            return mean;
+        }
+    }
+
+    private static class Workspace {
+        private final double[] re;
+        private final double[] im;
+        private final double[] power;
+        private final double[] magnitude;
+
+        Workspace(int fftSize) {
+            this.re = new double[fftSize];
+            this.im = new double[fftSize];
+            this.power = new double[fftSize / 2 + 1];
+            this.magnitude = new double[fftSize / 2 + 1];
+        }
+    }
+}
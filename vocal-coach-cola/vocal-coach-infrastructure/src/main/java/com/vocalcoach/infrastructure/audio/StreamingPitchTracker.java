@@ -0,0 +1,104 @@
+package com.vocalcoach.infrastructure.audio;
+
+/**
+ * 实时音高跟踪：逐段输入任意采样率的单声道 PCM，降采样到 {@link #SAMPLE_RATE} 后每凑满一个 hop 做一次 YIN 估计。
+ *
+ * <p>降采样用因果 FIR 低通（与 {@link PolyphaseResampler} 相同的 Kaiser 窗 sinc）加线性插值，
+ * 只保留滤波器历史和一帧采样，每个会话的内存与输入时长无关。
+ * 非线程安全，同一会话同一时间只能有一个线程调用 {@link #feed}。
+ */
+public class StreamingPitchTracker {
+
+    /**
+     * 内部采样率，覆盖人声基频和足够的泛音，YIN 的计算量约为 22050 Hz 时的四分之一。
+     */
+    public static final int SAMPLE_RATE = 11025;
+
+    private final YinPitchTracker yin;
+    private final YinPitchTracker.Workspace workspace;
+    private final int hopLength;
+    private final float[] frame;
+    private int filled;
+    private long frames;
+    private double lastPitch;
+
+    private final float[] taps;
+    private final float[] history;
+    private final double step;
+    private long inputCount;
+    private double position;
+
+    public StreamingPitchTracker(YinPitchTracker yin, int inputSampleRate) {
+        if (yin.getSampleRate() != SAMPLE_RATE) {
+            throw new IllegalArgumentException("实时音高跟踪要求 YIN 采样率为 " + SAMPLE_RATE);
+        }
+        this.yin = yin;
+        this.workspace = yin.newWorkspace();
+        this.hopLength = yin.getHopLength();
+        this.frame = new float[yin.getFrameLength()];
+        this.step = (double) inputSampleRate / SAMPLE_RATE;
+        // 只在降采样时需要抗混叠
+        this.taps = inputSampleRate > SAMPLE_RATE
+                ? PolyphaseResampler.lowPass(inputSampleRate, SAMPLE_RATE)
+                : new float[]{1};
+        this.history = new float[taps.length + 1];
+    }
+
+    /**
+     * 输入 samples 的前 length 个采样，返回其间新完成的帧数；最近一帧的结果见 {@link #getLastPitch()}。
+     */
+    public int feed(float[] samples, int length) {
+        long before = frames;
+        for (int n = 0; n < length; n++) {
+            long k = inputCount++;
+            history[(int) (k % history.length)] = samples[n];
+            // 输出位置落在 [k - 1, k) 内的采样都可以由 f(k - 1)、f(k) 插值得到
+            if (position < k) {
+                double previous = filtered(k - 1);
+                double current = filtered(k);
+                while (position < k) {
+                    double fraction = position - (k - 1);
+                    push((float) (previous + (current - previous) * fraction));
+                    position += step;
+                }
+            }
+        }
+        return (int) (frames - before);
+    }
+
+    /**
+     * 最近一帧的基频（Hz），无声帧为 0。
+     */
+    public double getLastPitch() {
+        return lastPitch;
+    }
+
+    /**
+     * 最近一帧中心对应的输入时间（秒），还没有完成任何一帧时为 -1。
+     */
+    public double getLastFrameTime() {
+        if (frames == 0) {
+            return -1;
+        }
+        return ((frames - 1) * hopLength + frame.length / 2.0) / SAMPLE_RATE;
+    }
+
+    // 滤波后的第 j 个输入采样，j 之前还没输入的部分视为 0
+    private double filtered(long j) {
+        double sum = 0;
+        for (int t = 0; t < taps.length && j - t >= 0; t++) {
+            sum += taps[t] * history[(int) ((j - t) % history.length)];
+        }
+        return sum;
+    }
+
+    private void push(float sample) {
+        frame[filled++] = sample;
+        if (filled == frame.length) {
+            lastPitch = yin.estimate(frame, 0, workspace);
+            frames++;
+            System.arraycopy(frame, hopLength, frame, 0, frame.length - hopLength);
+            filled -= hopLength;
+        }
+    }
+}
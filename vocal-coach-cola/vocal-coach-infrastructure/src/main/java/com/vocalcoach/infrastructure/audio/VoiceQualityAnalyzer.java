@@ -0,0 +1,425 @@
+package com.vocalcoach.infrastructure.audio;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * extract_voice_features 的 Java 实现，参数与脚本中的 Praat 调用相同：
+ * 用 YIN（75~600 Hz）确定有声段和周期，相邻周期做互相关定位声门脉冲，
+ * 再按 Praat 的口径计算 jitter (local)、shimmer (local) 和互相关法的平均谐噪比。只在 PCM 上计算，不启动外部进程。
+ */
+public class VoiceQualityAnalyzer {
+
+    private static final double MIN_PITCH = 75;
+    private static final double MAX_PITCH = 600;
+    private static final double YIN_THRESHOLD = 0.1;
+    // Get jitter / shimmer (local) 的参数：周期范围、相邻周期比和相邻振幅比上限
+    private static final double MIN_PERIOD = 0.0001;
+    private static final double MAX_PERIOD = 0.02;
+    private static final double MAX_PERIOD_FACTOR = 1.3;
+    private static final double MAX_AMPLITUDE_FACTOR = 1.6;
+    // 相邻周期波形的相关系数低于该值时认为脉冲序列中断
+    private static final double MIN_PULSE_CORRELATION = 0.3;
+    // To Harmonicity (cc) 的参数：时间步长、静音阈值，以及 Praat 内部使用的清浊判决阈值
+    private static final double HNR_TIME_STEP = 0.01;
+    private static final double SILENCE_THRESHOLD = 0.1;
+    private static final double VOICING_THRESHOLD = 0.03;
+    private static final int FRAMES_PER_CHUNK = 64;
+    // Praat 调用失败时脚本使用的默认值
+    private static final double DEFAULT_JITTER = 0.02;
+    private static final double DEFAULT_SHIMMER = 0.05;
+    private static final double DEFAULT_HNR = 15;
+
+    private final int sampleRate;
+    private final YinPitchTracker pitchTracker;
+    private final int hnrWindow;
+    private final int hnrMaxLag;
+    private final int hnrStep;
+    private final Fft fft;
+
+    public VoiceQualityAnalyzer(int sampleRate) {
+        this.sampleRate = sampleRate;
+        int frameLength = Integer.highestOneBit((int) Math.ceil(2 * sampleRate / MIN_PITCH)) * 2;
+        // 基频只用来划分有声段和给出周期初值，帧移取半帧即可
+        this.pitchTracker = new YinPitchTracker(sampleRate, frameLength, frameLength / 2,
+                MIN_PITCH, MAX_PITCH, YIN_THRESHOLD);
+        this.hnrWindow = (int) Math.ceil(sampleRate / MIN_PITCH);
+        this.hnrMaxLag = (int) Math.ceil(sampleRate / MIN_PITCH);
+        this.hnrStep = (int) Math.round(sampleRate * HNR_TIME_STEP);
+        int size = 1;
+        while (size < hnrWindow + hnrMaxLag) {
+            size <<= 1;
+        }
+        this.fft = Fft.of(size);
+    }
+
+    public AudioAnalysisDTO.VoiceFeatures analyze(float[] samples, boolean parallel) {
+        // 平方和前缀，任意区间的能量 O(1) 得到
+        double[] energy = new double[samples.length + 1];
+        for (int i = 0; i < samples.length; i++) {
+            energy[i + 1] = energy[i] + (double) samples[i] * samples[i];
+        }
+        double[] pulses = glottalPulses(samples, energy, pitchTracker.track(samples, parallel));
+        double jitter = jitter(pulses);
+        double shimmer = shimmer(samples, pulses);
+        double hnr = harmonicity(samples, energy, parallel);
+        return toVoiceFeatures(Double.isNaN(jitter) ? DEFAULT_JITTER : jitter,
+                Double.isNaN(shimmer) ? DEFAULT_SHIMMER : shimmer,
+                Double.isNaN(hnr) ? DEFAULT_HNR : hnr);
+    }
+
+    /**
+     * 声门脉冲位置（秒）。每个有声段从第一个周期内的正峰值开始，在 0.8~1.25 个周期之后找与当前周期波形相关性最大的位置，
+     * 抛物线插值到亚采样精度。
+     */
+    double[] glottalPulses(float[] samples, double[] energy, float[] f0) {
+        int hop = pitchTracker.getHopLength();
+        int center = pitchTracker.getFrameLength() / 2;
+        double[] pulses = new double[16];
+        double[] correlation = new double[(int) Math.ceil(1.25 * sampleRate / MIN_PITCH) + 3];
+        int count = 0;
+        int frame = 0;
+        while (frame < f0.length) {
+            if (f0[frame] <= 0) {
+                frame++;
+                continue;
+            }
+            int runEnd = frame;
+            while (runEnd + 1 < f0.length && f0[runEnd + 1] > 0) {
+                runEnd++;
+            }
+            int from = Math.max(0, frame * hop + center - hop / 2);
+            int to = Math.min(samples.length, runEnd * hop + center + hop / 2);
+
+            double period = sampleRate / f0[frame];
+            int peak = from;
+            for (int i = from; i < Math.min(to, from + (int) Math.ceil(period)); i++) {
+                if (samples[i] > samples[peak]) {
+                    peak = i;
+                }
+            }
+            double position = peak;
+            while (true) {
+                if (count == pulses.length) {
+                    pulses = Arrays.copyOf(pulses, count * 2);
+                }
+                pulses[count++] = position / sampleRate;
+
+                int current = (int) Math.round(position);
+                int k = Math.min(runEnd, Math.max(frame, (current - center + hop / 2) / hop));
+                period = sampleRate / (f0[k] > 0 ? f0[k] : f0[frame]);
+                int half = (int) (period / 2);
+                int nearest = (int) Math.floor(0.8 * period);
+                int farthest = (int) Math.ceil(1.25 * period);
+                if (current - half < 0 || current + farthest + half + 1 >= to) {
+                    break;
+                }
+                int best = -1;
+                for (int d = nearest - 1; d <= farthest + 1; d++) {
+                    double r = correlation(samples, energy, current - half, current + d - half, 2 * half + 1);
+                    correlation[d - nearest + 1] = r;
+                    if (d >= nearest && d <= farthest && (best < 0 || r > correlation[best - nearest + 1])) {
+                        best = d;
+                    }
+                }
+                double r = correlation[best - nearest + 1];
+                if (r < MIN_PULSE_CORRELATION) {
+                    break;
+                }
+                position = current + best + parabolicOffset(correlation[best - nearest],
+                        r, correlation[best - nearest + 2]);
+            }
+            frame = runEnd + 1;
+        }
+        return Arrays.copyOf(pulses, count);
+    }
+
+    /**
+     * 与 Praat 的 Get jitter (local) 相同：相邻周期之差绝对值的平均除以平均周期，有效周期不足时为 NaN。
+     */
+    static double jitter(double[] pulses) {
+        int periods = pulses.length - 1;
+        if (periods < 2) {
+            return Double.NaN;
+        }
+        double sum = 0;
+        for (int i = 2; i < pulses.length; i++) {
+            double p1 = pulses[i - 1] - pulses[i - 2];
+            double p2 = pulses[i] - pulses[i - 1];
+            if (isPeriod(p1) && isPeriod(p2) && Math.max(p1, p2) / Math.min(p1, p2) <= MAX_PERIOD_FACTOR) {
+                sum += Math.abs(p1 - p2);
+            } else {
+                periods--;
+            }
+        }
+        double meanPeriod = meanPeriod(pulses);
+        if (periods < 2 || Double.isNaN(meanPeriod)) {
+            return Double.NaN;
+        }
+        return sum / (periods - 1) / meanPeriod;
+    }
+
+    /**
+     * 与 Praat 的 Get shimmer (local) 相同：每个有效周期取两个脉冲之间的峰峰值作为振幅，
+     * 相邻振幅之差绝对值的平均除以平均振幅。
+     */
+    double shimmer(float[] samples, double[] pulses) {
+        double[] times = new double[pulses.length];
+        double[] amplitudes = new double[pulses.length];
+        int count = 0;
+        for (int i = 0; i + 1 < pulses.length; i++) {
+            if (!isValidPeriod(pulses, i)) {
+                continue;
+            }
+            int from = (int) Math.ceil(pulses[i] * sampleRate);
+            int to = Math.min(samples.length, (int) Math.ceil(pulses[i + 1] * sampleRate));
+            float max = Float.NEGATIVE_INFINITY;
+            float min = Float.POSITIVE_INFINITY;
+            for (int n = from; n < to; n++) {
+                max = Math.max(max, samples[n]);
+                min = Math.min(min, samples[n]);
+            }
+            if (to > from) {
+                times[count] = pulses[i];
+                amplitudes[count++] = max - min;
+            }
+        }
+
+        double sum = 0;
+        int pairs = 0;
+        double total = 0;
+        for (int i = 0; i < count; i++) {
+            total += amplitudes[i];
+            if (i > 0 && isPeriod(times[i] - times[i - 1])) {
+                double a1 = amplitudes[i - 1];
+                double a2 = amplitudes[i];
+                if (a1 > 0 && a2 > 0 && Math.max(a1, a2) / Math.min(a1, a2) <= MAX_AMPLITUDE_FACTOR) {
+                    sum += Math.abs(a1 - a2);
+                    pairs++;
+                }
+            }
+        }
+        if (pairs < 1 || total <= 0) {
+            return Double.NaN;
+        }
+        return sum / pairs / (total / count);
+    }
+
+    /**
+     * 与 Praat 的 To Harmonicity (cc) + Get mean 相同：每 10 ms 一帧，在 75 Hz 以上的周期内取归一化互相关的最大局部峰值 r，
+     * 谐噪比为 10·log10(r / (1 - r))。按 Praat 的清浊判决，局部峰值相对全局峰值越小，浊音需要的 r 越高，清音帧不计入平均。
+     * 各延迟的互相关由一次复数 FFT 同时变换窗口和延伸段后得到。
+     */
+    double harmonicity(float[] samples, double[] energy, boolean parallel) {
+        float globalPeak = 0;
+        for (float sample : samples) {
+            globalPeak = Math.max(globalPeak, Math.abs(sample));
+        }
+        int span = hnrWindow + hnrMaxLag;
+        int frames = samples.length < span ? 0 : 1 + (samples.length - span) / hnrStep;
+        if (frames == 0 || globalPeak == 0) {
+            return Double.NaN;
+        }
+
+        double[] values = new double[frames];
+        float peakReference = globalPeak;
+        int chunks = (frames + FRAMES_PER_CHUNK - 1) / FRAMES_PER_CHUNK;
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (parallel) {
+            chunkStream = chunkStream.parallel();
+        }
+        chunkStream.forEach(chunk -> {
+            Workspace workspace = new Workspace(fft.getSize(), hnrMaxLag);
+            int end = Math.min(frames, (chunk + 1) * FRAMES_PER_CHUNK);
+            for (int frame = chunk * FRAMES_PER_CHUNK; frame < end; frame++) {
+                values[frame] = frameHarmonicity(samples, frame * hnrStep, energy, peakReference, workspace);
+            }
+        });
+
+        double sum = 0;
+        int voiced = 0;
+        for (double value : values) {
+            if (!Double.isNaN(value)) {
+                sum += value;
+                voiced++;
+            }
+        }
+        return voiced > 0 ? sum / voiced : Double.NaN;
+    }
+
+    private double frameHarmonicity(float[] samples, int start, double[] energy, float globalPeak,
+                                    Workspace workspace) {
+        float localPeak = 0;
+        for (int i = start; i < start + hnrWindow + hnrMaxLag; i++) {
+            localPeak = Math.max(localPeak, Math.abs(samples[i]));
+        }
+        double unvoicedStrength = VOICING_THRESHOLD + Math.max(0,
+                2 - (localPeak / globalPeak) / (SILENCE_THRESHOLD / (1 + VOICING_THRESHOLD)));
+        double base = energy[start + hnrWindow] - energy[start];
+        if (base <= 0) {
+            return Double.NaN;
+        }
+
+        // 实部放窗口、虚部放延伸段，一次变换后拆出两者的频谱，互相关为 conj(A)·B 的逆变换
+        int size = fft.getSize();
+        double[] re = workspace.re;
+        double[] im = workspace.im;
+        for (int n = 0; n < size; n++) {
+            re[n] = n < hnrWindow ? samples[start + n] : 0;
+            im[n] = n < hnrWindow + hnrMaxLag ? samples[start + n] : 0;
+        }
+        fft.transform(re, im);
+        double[] productRe = workspace.productRe;
+        double[] productIm = workspace.productIm;
+        for (int k = 0; k < size; k++) {
+            int mirror = (size - k) & (size - 1);
+            double aRe = (re[k] + re[mirror]) / 2;
+            double aIm = (im[k] - im[mirror]) / 2;
+            double bRe = (im[k] + im[mirror]) / 2;
+            double bIm = (re[mirror] - re[k]) / 2;
+            productRe[k] = aRe * bRe + aIm * bIm;
+            // 取共轭后正变换，实部即逆变换结果
+            productIm[k] = -(aRe * bIm - aIm * bRe);
+        }
+        fft.transform(productRe, productIm);
+
+        double[] correlation = workspace.correlation;
+        for (int lag = 1; lag <= hnrMaxLag; lag++) {
+            double shifted = energy[start + lag + hnrWindow] - energy[start + lag];
+            correlation[lag] = shifted > 0 ? productRe[lag] / size / Math.sqrt(base * shifted) : 0;
+        }
+        double best = 0;
+        for (int lag = 2; lag < hnrMaxLag; lag++) {
+            double r = correlation[lag];
+            if (r > correlation[lag - 1] && r >= correlation[lag + 1] && r > best) {
+                best = Math.min(1, r + 0.25 * (correlation[lag + 1] - correlation[lag - 1])
+                        * parabolicOffset(correlation[lag - 1], r, correlation[lag + 1]));
+            }
+        }
+        if (best <= unvoicedStrength) {
+            return Double.NaN;
+        }
+        if (best > 1 - 1e-15) {
+            return 150;
+        }
+        return 10 * Math.log10(best / (1 - best));
+    }
+
+    /**
+     * 与脚本相同的换算：jitter、shimmer 越小越好，谐噪比越大越好，嗓音分按 0.3 / 0.3 / 0.4 加权。
+     */
+    static AudioAnalysisDTO.VoiceFeatures toVoiceFeatures(double jitter, double shimmer, double hnr) {
+        double jitterScore = Math.max(0, Math.min(100, 100 - jitter * 2000));
+        double shimmerScore = Math.max(0, Math.min(100, 100 - shimmer * 500));
+        double hnrScore = Math.max(0, Math.min(100, hnr * 4));
+        double voiceScore = jitterScore * 0.3 + shimmerScore * 0.3 + hnrScore * 0.4;
+
+        AudioAnalysisDTO.VoiceFeatures voice = new AudioAnalysisDTO.VoiceFeatures();
+        voice.setJitter(jitter);
+        voice.setShimmer(shimmer);
+        voice.setHnr(hnr);
+        voice.setJitterScore(jitterScore);
+        voice.setShimmerScore(shimmerScore);
+        voice.setHnrScore(hnrScore);
+        voice.setVoiceScore(voiceScore);
+        if (voiceScore < 60) {
+            voice.setVoiceQuality("需要改进");
+        } else if (voiceScore < 75) {
+            voice.setVoiceQuality("良好");
+        } else if (voiceScore < 90) {
+            voice.setVoiceQuality("很好");
+        } else {
+            voice.setVoiceQuality("优秀");
+        }
+        return voice;
+    }
+
+    private static boolean isPeriod(double period) {
+        return period >= MIN_PERIOD && period <= MAX_PERIOD;
+    }
+
+    // Praat 的 isPeriod：周期本身在范围内，且与范围内的相邻周期之比不超过上限
+    private static boolean isValidPeriod(double[] pulses, int i) {
+        double period = pulses[i + 1] - pulses[i];
+        if (!isPeriod(period)) {
+            return false;
+        }
+        if (i > 0) {
+            double previous = pulses[i] - pulses[i - 1];
+            if (isPeriod(previous) && Math.max(period, previous) / Math.min(period, previous) > MAX_PERIOD_FACTOR) {
+                return false;
+            }
+        }
+        if (i + 2 < pulses.length) {
+            double next = pulses[i + 2] - pulses[i + 1];
+            if (isPeriod(next) && Math.max(period, next) / Math.min(period, next) > MAX_PERIOD_FACTOR) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static double meanPeriod(double[] pulses) {
+        double sum = 0;
+        int count = 0;
+        for (int i = 0; i + 1 < pulses.length; i++) {
+            if (isValidPeriod(pulses, i)) {
+                sum += pulses[i + 1] - pulses[i];
+                count++;
+            }
+        }
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    private static double correlation(float[] samples, double[] energy, int a, int b, int length) {
+        double aa = energy[a + length] - energy[a];
+        double bb = energy[b + length] - energy[b];
+        return aa > 0 && bb > 0 ? dot(samples, a, b, length) / Math.sqrt(aa * bb) : 0;
+    }
+
+    // 四路累加，打断加法的依赖链
+    private static double dot(float[] samples, int a, int b, int length) {
+        double s0 = 0;
+        double s1 = 0;
+        double s2 = 0;
+        double s3 = 0;
+        int n = 0;
+        for (; n + 3 < length; n += 4) {
+            s0 += samples[a + n] * samples[b + n];
+            s1 += samples[a + n + 1] * samples[b + n + 1];
+            s2 += samples[a + n + 2] * samples[b + n + 2];
+            s3 += samples[a + n + 3] * samples[b + n + 3];
+        }
+        for (; n < length; n++) {
+            s0 += samples[a + n] * samples[b + n];
+        }
+        return s0 + s1 + s2 + s3;
+    }
+
+    // 三点抛物线顶点相对中间点的偏移，范围 [-0.5, 0.5]
+    private static double parabolicOffset(double left, double middle, double right) {
+        double denominator = left - 2 * middle + right;
+        if (denominator >= 0) {
+            return 0;
+        }
+        return Math.max(-0.5, Math.min(0.5, 0.5 * (left - right) / denominator));
+    }
+
+    private static class Workspace {
+        private final double[] re;
+        private final double[] im;
+        private final double[] productRe;
+        private final double[] productIm;
+        private final double[] correlation;
+
+        Workspace(int fftSize, int maxLag) {
+            this.re = new double[fftSize];
+            this.im = new double[fftSize];
+            this.productRe = new double[fftSize];
+            this.productIm = new double[fftSize];
+            this.correlation = new double[maxLag + 2];
+        }
+    }
+}
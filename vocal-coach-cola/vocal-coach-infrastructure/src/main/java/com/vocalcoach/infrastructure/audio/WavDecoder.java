@@ -0,0 +1,143 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 直接解析 RIFF/WAVE 文件：整个文件内存映射后按块查找 fmt 和 data，逐帧把各声道平均为单声道 float，
+ * 不经过 javax.sound 的格式转换，也不把原始字节复制到堆上。支持 8/16/24/32 位整数 PCM 和 32/64 位浮点，
+ * 包括 WAVE_FORMAT_EXTENSIBLE；其他编码（ADPCM、μ-law 等）或 4–384 kHz 以外的采样率返回 null，交给 ffmpeg。
+ */
+public final class WavDecoder {
+
+    private static final int FORMAT_PCM = 1;
+    private static final int FORMAT_IEEE_FLOAT = 3;
+    private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+    private static final int RIFF = 0x46464952;
+    private static final int WAVE = 0x45564157;
+    private static final int FMT = 0x20746d66;
+    private static final int DATA = 0x61746164;
+    // 超出范围的采样率视为异常文件交给 ffmpeg，避免为离谱的采样率设计重采样滤波器
+    private static final int MIN_SAMPLE_RATE = 4000;
+    private static final int MAX_SAMPLE_RATE = 384000;
+
+    private WavDecoder() {
+    }
+
+    /**
+     * 返回原采样率的单声道 PCM；不是 WAV 或编码不受支持时返回 null。
+     */
+    public static PcmAudio decode(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 12 || size > Integer.MAX_VALUE) {
+                return null;
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return decode(buffer, (int) size);
+        }
+    }
+
+    private static PcmAudio decode(MappedByteBuffer buffer, int size) {
+        if (buffer.getInt(0) != RIFF || buffer.getInt(8) != WAVE) {
+            return null;
+        }
+        int format = -1;
+        int channels = 0;
+        int sampleRate = 0;
+        int blockAlign = 0;
+        int bits = 0;
+        int offset = 12;
+        while (offset + 8 <= size) {
+            int id = buffer.getInt(offset);
+            long length = buffer.getInt(offset + 4) & 0xFFFFFFFFL;
+            int body = offset + 8;
+            if (id == FMT && length >= 16 && body + 16 <= size) {
+                format = buffer.getShort(body) & 0xFFFF;
+                channels = buffer.getShort(body + 2) & 0xFFFF;
+                sampleRate = buffer.getInt(body + 4);
+                blockAlign = buffer.getShort(body + 12) & 0xFFFF;
+                bits = buffer.getShort(body + 14) & 0xFFFF;
+                // 扩展格式的真实编码在 SubFormat GUID 的前两个字节
+                if (format == FORMAT_EXTENSIBLE && length >= 40 && body + 26 <= size) {
+                    format = buffer.getShort(body + 24) & 0xFFFF;
+                }
+            } else if (id == DATA) {
+                if (format < 0) {
+                    return null;
+                }
+                // 边录边写的文件 data 长度可能是 0 或超出文件，按文件剩余部分处理
+                int available = size - body;
+                int dataLength = length == 0 || length > available ? available : (int) length;
+                return toMono(buffer, body, dataLength, format, channels, sampleRate, blockAlign, bits);
+            }
+            // 块按偶数字节对齐
+            long next = body + length + (length & 1);
+            if (next > size) {
+                break;
+            }
+            offset = (int) next;
+        }
+        return null;
+    }
+
+    private static PcmAudio toMono(MappedByteBuffer buffer, int data, int dataLength, int format, int channels,
+                                   int sampleRate, int blockAlign, int bits) {
+        int bytes = bits / 8;
+        boolean supported = format == FORMAT_PCM && (bits == 8 || bits == 16 || bits == 24 || bits == 32)
+                || format == FORMAT_IEEE_FLOAT && (bits == 32 || bits == 64);
+        if (!supported || channels < 1 || sampleRate < MIN_SAMPLE_RATE || sampleRate > MAX_SAMPLE_RATE
+                || blockAlign < channels * bytes) {
+            return null;
+        }
+
+        int frames = dataLength / blockAlign;
+        float[] mono = new float[frames];
+        float scale = 1f / channels;
+        if (format == FORMAT_PCM && bits == 16) {
+            // 最常见的 16 位 PCM 单独展开
+            for (int i = 0; i < frames; i++) {
+                int position = data + i * blockAlign;
+                int sum = 0;
+                for (int c = 0; c < channels; c++) {
+                    sum += buffer.getShort(position + 2 * c);
+                }
+                mono[i] = sum * scale / 32768f;
+            }
+        } else {
+            for (int i = 0; i < frames; i++) {
+                int position = data + i * blockAlign;
+                float sum = 0;
+                for (int c = 0; c < channels; c++) {
+                    sum += sample(buffer, position + c * bytes, format, bits);
+                }
+                mono[i] = sum * scale;
+            }
+        }
+        return new PcmAudio(mono, sampleRate);
+    }
+
+    private static float sample(MappedByteBuffer buffer, int position, int format, int bits) {
+        if (format == FORMAT_IEEE_FLOAT) {
+            return bits == 32 ? buffer.getFloat(position) : (float) buffer.getDouble(position);
+        }
+        switch (bits) {
+            case 8:
+                // 8 位 PCM 是无符号的
+                return ((buffer.get(position) & 0xFF) - 128) / 128f;
+            case 24:
+                int value = (buffer.get(position) & 0xFF) | (buffer.get(position + 1) & 0xFF) << 8
+                        | buffer.get(position + 2) << 16;
+                return value / 8388608f;
+            case 32:
+                return buffer.getInt(position) / 2147483648f;
+            default:
+                return buffer.getShort(position) / 32768f;
+        }
+    }
+}
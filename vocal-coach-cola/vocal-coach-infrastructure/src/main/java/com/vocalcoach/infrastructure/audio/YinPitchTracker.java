@@ -0,0 +1,160 @@
+package com.vocalcoach.infrastructure.audio;
+
+import java.util.stream.IntStream;
+
+/**
+ * YIN 基频估计（de Cheveigné & Kawahara, 2002）。
+ * 每个分块复用一组差分缓冲区，帧内不分配内存；分块之间互不依赖，可并行处理。
+ */
+public class YinPitchTracker {
+
+    private static final int FRAMES_PER_CHUNK = 64;
+    // 低于该均方能量的帧视为静音
+    private static final double SILENCE_ENERGY = 1e-7;
+
+    private final int sampleRate;
+    private final int frameLength;
+    private final int hopLength;
+    private final int windowLength;
+    private final int minLag;
+    private final int maxLag;
+    private final double threshold;
+
+    public YinPitchTracker(int sampleRate, int frameLength, int hopLength,
+                           double fmin, double fmax, double threshold) {
+        this.sampleRate = sampleRate;
+        this.frameLength = frameLength;
+        this.hopLength = hopLength;
+        this.windowLength = frameLength / 2;
+        this.minLag = Math.max(2, (int) Math.floor(sampleRate / fmax));
+        this.maxLag = Math.min(frameLength - windowLength - 1, (int) Math.ceil(sampleRate / fmin));
+        this.threshold = threshold;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public int getFrameLength() {
+        return frameLength;
+    }
+
+    public int getHopLength() {
+        return hopLength;
+    }
+
+    public int frameCount(int sampleCount) {
+        return sampleCount < frameLength ? 0 : 1 + (sampleCount - frameLength) / hopLength;
+    }
+
+    /**
+     * 逐帧估计基频（Hz），无声或非周期帧为 0。
+     */
+    public float[] track(float[] samples, boolean parallel) {
+        int frames = frameCount(samples.length);
+        float[] f0 = new float[frames];
+        int chunks = (frames + FRAMES_PER_CHUNK - 1) / FRAMES_PER_CHUNK;
+        IntStream chunkStream = IntStream.range(0, chunks);
+        if (parallel) {
+            chunkStream = chunkStream.parallel();
+        }
+        chunkStream.forEach(chunk -> {
+            Workspace workspace = newWorkspace();
+            int end = Math.min(frames, (chunk + 1) * FRAMES_PER_CHUNK);
+            for (int frame = chunk * FRAMES_PER_CHUNK; frame < end; frame++) {
+                f0[frame] = (float) estimate(samples, frame * hopLength, workspace);
+            }
+        });
+        return f0;
+    }
+
+    /**
+     * 每个线程（或每个实时会话）一份，配合 {@link #estimate} 使用。
+     */
+    public Workspace newWorkspace() {
+        return new Workspace(maxLag + 2);
+    }
+
+    /**
+     * 估计从 offset 开始、长度为 frameLength 的一帧的基频（Hz），无声或非周期帧为 0。
+     */
+    public double estimate(float[] samples, int offset, Workspace workspace) {
+        double energy = 0;
+        for (int j = 0; j < windowLength; j++) {
+            float x = samples[offset + j];
+            energy += x * x;
+        }
+        if (energy < SILENCE_ENERGY * windowLength) {
+            return 0;
+        }
+
+        // 差分函数 d(tau) 与累积均值归一化 d'(tau)，按 tau 递增计算，找到第一个低谷后即停止
+        double[] cmnd = workspace.cmnd;
+        cmnd[0] = 1;
+        double runningSum = 0;
+        int candidate = -1;
+        for (int lag = 1; lag <= maxLag + 1; lag++) {
+            double diff = difference(samples, offset, lag);
+            runningSum += diff;
+            cmnd[lag] = runningSum > 0 ? diff * lag / runningSum : 1;
+
+            if (candidate < 0) {
+                if (lag >= minLag && lag <= maxLag && cmnd[lag] < threshold) {
+                    candidate = lag;
+                }
+            } else if (cmnd[lag] < cmnd[candidate] && lag <= maxLag) {
+                candidate = lag;
+            } else {
+                // cmnd[candidate + 1] 已算出，可以插值
+                return sampleRate / refineLag(cmnd, candidate);
+            }
+        }
+        return candidate > 0 ? sampleRate / refineLag(cmnd, candidate) : 0;
+    }
+
+    // 四路累加打断依赖链，便于 JIT 流水化
+    private double difference(float[] samples, int offset, int lag) {
+        double d0 = 0;
+        double d1 = 0;
+        double d2 = 0;
+        double d3 = 0;
+        int other = offset + lag;
+        int j = 0;
+        for (; j + 3 < windowLength; j += 4) {
+            float e0 = samples[offset + j] - samples[other + j];
+            float e1 = samples[offset + j + 1] - samples[other + j + 1];
+            float e2 = samples[offset + j + 2] - samples[other + j + 2];
+            float e3 = samples[offset + j + 3] - samples[other + j + 3];
+            d0 += e0 * e0;
+            d1 += e1 * e1;
+            d2 += e2 * e2;
+            d3 += e3 * e3;
+        }
+        for (; j < windowLength; j++) {
+            float e = samples[offset + j] - samples[other + j];
+            d0 += e * e;
+        }
+        return d0 + d1 + d2 + d3;
+    }
+
+    // 抛物线插值得到亚采样精度的周期
+    private static double refineLag(double[] cmnd, int lag) {
+        double left = cmnd[lag - 1];
+        double center = cmnd[lag];
+        double right = cmnd[lag + 1];
+        double denominator = left - 2 * center + right;
+        if (denominator <= 0) {
+            return lag;
+        }
+        double shift = 0.5 * (left - right) / denominator;
+        return lag + Math.max(-1, Math.min(1, shift));
+    }
+
+    public static final class Workspace {
+        private final double[] cmnd;
+
+        private Workspace(int size) {
+            this.cmnd = new double[size + 1];
+        }
+    }
+}
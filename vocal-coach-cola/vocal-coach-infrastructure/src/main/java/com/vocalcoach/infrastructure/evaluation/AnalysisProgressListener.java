@@ -0,0 +1,19 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+
+/**
+ * 分析过程中每完成一项特征回调一次，用于把部分结果提前推送给客户端。
+ */
+@FunctionalInterface
+public interface AnalysisProgressListener {
+
+    AnalysisProgressListener NONE = (featureName, features) -> {
+    };
+
+    /**
+     * @param featureName 刚完成的特征，例如 pitch
+     * @param features    目前已完成的全部特征，每次回调都是新的对象
+     */
+    void onFeature(String featureName, AudioAnalysisDTO.Features features);
+}
@@ -0,0 +1,318 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.alibaba.fastjson.JSON;
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.audio.AnalysisFeatures;
+import com.vocalcoach.infrastructure.audio.JvmFeatureExtractor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class AnalysisResultCache {
+
+    private static final String CACHE_DIR = "analysis-cache";
+    private static final int MAX_FILE_DIGESTS = 10000;
+
+    @Value("${analysis.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analysis.cache.max-entries:1000}")
+    private int maxEntries;
+
+    @Value("${analysis.cache.disk-max-entries:20000}")
+    private int diskMaxEntries;
+
+    @Value("${data.path:data}")
+    private String dataPath;
+
+    @Value("${scripts.path:scripts}")
+    private String scriptsPath;
+
+    @Resource
+    private JvmFeatureExtractor jvmFeatureExtractor;
+
+    // 内存中保存序列化后的结果，每次命中反序列化出独立的副本，调用方修改返回值不会影响缓存
+    private Map<String, byte[]> memoryCache;
+    private Map<String, FileDigest> fileDigests;
+    private final Map<String, CompletableFuture<byte[]>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicInteger diskEntries = new AtomicInteger();
+    private Path cacheDir;
+    private String scriptVersion;
+    private String jvmVersion;
+
+    @PostConstruct
+    public void init() {
+        memoryCache = lruMap(maxEntries);
+        fileDigests = lruMap(MAX_FILE_DIGESTS);
+        cacheDir = Paths.get(dataPath, CACHE_DIR);
+        // JVM 端接管的特征不同，结果也不同；接管时结果还取决于 JVM 引擎的版本和配置
+        jvmVersion = "backend=" + JvmAudioAnalyzer.NAME + "|" + jvmFeatureExtractor.getConfigFingerprint();
+        scriptVersion = computeScriptVersion() + "|jvm=" + String.join(",", jvmFeatureExtractor.getFeatures())
+                + (jvmFeatureExtractor.isEnabled() ? "|" + jvmFeatureExtractor.getConfigFingerprint() : "");
+
+        try {
+            Files.createDirectories(cacheDir);
+            try (Stream<Path> files = Files.walk(cacheDir)) {
+                diskEntries.set((int) files.filter(Files::isRegularFile).count());
+            }
+        } catch (IOException e) {
+            enabled = false;
+        }
+    }
+
+    /**
+     * 每次返回独立的副本，调用方可以自由修改。
+     *
+     * @param backend 产生结果的分析后端（{@link AudioAnalyzer#getName()}），不同后端的结果分开缓存
+     */
+    public AudioAnalysisDTO get(String audioFilePath, String referenceAudioPath, Set<String> features, String backend,
+                                Supplier<AudioAnalysisDTO> loader) {
+        if (!enabled) {
+            return loader.get();
+        }
+
+        String key;
+        try {
+            key = cacheKey(audioFilePath, referenceAudioPath, features, backend);
+        } catch (IOException e) {
+            return loader.get();
+        }
+
+        byte[] cached = getFromMemory(key);
+        if (cached != null) {
+            return parse(cached);
+        }
+
+        // 同一个 key 的并发请求共享一次计算
+        CompletableFuture<byte[]> future = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            try {
+                return parse(existing.join());
+            } catch (CompletionException e) {
+                // 与首个请求抛出相同的异常（例如分析被拒绝）
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            byte[] snapshot = getFromMemory(key);
+            if (snapshot != null) {
+                future.complete(snapshot);
+                return parse(snapshot);
+            }
+            AudioAnalysisDTO result = readFromDisk(key);
+            boolean loaded = result == null;
+            if (loaded) {
+                result = loader.get();
+            }
+            // 先序列化再返回，之后本次调用方对 result 的修改不会进入缓存
+            snapshot = JSON.toJSONBytes(result);
+            if (result.isSuccess()) {
+                if (loaded) {
+                    writeToDisk(key, snapshot);
+                }
+                putToMemory(key, snapshot);
+            }
+            future.complete(snapshot);
+            return result;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    private String cacheKey(String audioFilePath, String referenceAudioPath, Set<String> features, String backend)
+            throws IOException {
+        String audioHash = digestFile(audioFilePath);
+        String referenceHash = referenceAudioPath != null && !referenceAudioPath.isEmpty()
+                ? digestFile(referenceAudioPath) : "-";
+        // 只分析部分维度的结果单独缓存
+        String selection = AnalysisFeatures.isAll(features) ? "" : "|features=" + String.join(",", new TreeSet<>(features));
+        // JVM 后端的结果与脚本无关，只取决于引擎版本和配置；没有 JVM 特征时 Python 后端沿用原来的键
+        String version;
+        if (PythonAudioAnalyzer.NAME.equals(backend)) {
+            version = scriptVersion;
+        } else if (JvmAudioAnalyzer.NAME.equals(backend)) {
+            version = jvmVersion;
+        } else {
+            version = "backend=" + backend;
+        }
+        return sha256Hex((audioHash + "|" + referenceHash + "|" + version + selection)
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String digestFile(String filePath) throws IOException {
+        File file = new File(filePath);
+        long size = file.length();
+        long lastModified = file.lastModified();
+        if (lastModified == 0L) {
+            throw new IOException("音频文件不存在: " + filePath);
+        }
+
+        String path = file.getAbsolutePath();
+        FileDigest digest;
+        synchronized (fileDigests) {
+            digest = fileDigests.get(path);
+        }
+        if (digest != null && digest.size == size && digest.lastModified == lastModified) {
+            return digest.sha256;
+        }
+
+        MessageDigest messageDigest = newSha256();
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                messageDigest.update(buffer, 0, read);
+            }
+        }
+        String sha256 = toHex(messageDigest.digest());
+        synchronized (fileDigests) {
+            fileDigests.put(path, new FileDigest(size, lastModified, sha256));
+        }
+        return sha256;
+    }
+
+    private byte[] getFromMemory(String key) {
+        synchronized (memoryCache) {
+            return memoryCache.get(key);
+        }
+    }
+
+    private void putToMemory(String key, byte[] snapshot) {
+        synchronized (memoryCache) {
+            memoryCache.put(key, snapshot);
+        }
+    }
+
+    private static AudioAnalysisDTO parse(byte[] snapshot) {
+        return JSON.parseObject(snapshot, AudioAnalysisDTO.class);
+    }
+
+    private AudioAnalysisDTO readFromDisk(String key) {
+        Path file = diskPath(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            AudioAnalysisDTO result = JSON.parseObject(Files.readAllBytes(file), AudioAnalysisDTO.class);
+            file.toFile().setLastModified(System.currentTimeMillis());
+            return result;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    private void writeToDisk(String key, byte[] snapshot) {
+        Path file = diskPath(key);
+        try {
+            Files.createDirectories(file.getParent());
+            Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+            Files.write(temp, snapshot);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskEntries.incrementAndGet() > diskMaxEntries) {
+                trimDisk();
+            }
+        } catch (IOException e) {
+            // 磁盘缓存写入失败不影响本次分析结果
+        }
+    }
+
+    private synchronized void trimDisk() {
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            List<Path> sorted = files.filter(Files::isRegularFile)
+                    .sorted(Comparator.comparingLong(p -> p.toFile().lastModified()))
+                    .collect(Collectors.toList());
+            int toDelete = sorted.size() - diskMaxEntries * 9 / 10;
+            for (int i = 0; i < toDelete; i++) {
+                Files.deleteIfExists(sorted.get(i));
+            }
+            diskEntries.set(Math.max(0, sorted.size() - Math.max(0, toDelete)));
+        } catch (IOException ignored) {
+            // 下次写入时重试
+        }
+    }
+
+    private Path diskPath(String key) {
+        return cacheDir.resolve(key.substring(0, 2)).resolve(key + ".json");
+    }
+
+    private String computeScriptVersion() {
+        try {
+            byte[] script = Files.readAllBytes(Paths.get(scriptsPath, "analyze_audio.py"));
+            return sha256Hex(script).substring(0, 16);
+        } catch (IOException e) {
+            return "unknown";
+        }
+    }
+
+    private static <V> Map<String, V> lruMap(int capacity) {
+        return new LinkedHashMap<String, V>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    private static String sha256Hex(byte[] data) {
+        return toHex(newSha256().digest(data));
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder sb = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return sb.toString();
+    }
+
+    private static class FileDigest {
+        private final long size;
+        private final long lastModified;
+        private final String sha256;
+
+        FileDigest(long size, long lastModified, String sha256) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.sha256 = sha256;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.exception.AnalysisRejectedException;
+import com.vocalcoach.infrastructure.evaluation.limit.ConcurrencyLimit;
+import com.vocalcoach.infrastructure.evaluation.limit.FixedConcurrencyLimit;
+import com.vocalcoach.infrastructure.evaluation.limit.GradientConcurrencyLimit;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * 音频分析的准入控制：同时运行的分析数有上限，超出的请求按到达顺序排队，
+ * 队列满或等待超时时立即拒绝，避免大量 librosa 进程同时占用内存。
+ * 上限可以固定，也可以按观测到的分析耗时自适应调整（analysis.scheduler.limit-algorithm=gradient）。
+ */
+@Component
+public class AnalysisScheduler {
+
+    // 还没有耗时样本时，按一次分析 15 秒估算 Retry-After
+    private static final double INITIAL_RUN_SECONDS = 15;
+    private static final double RUN_SECONDS_SMOOTHING = 0.2;
+
+    public static final String LIMIT_FIXED = "fixed";
+    public static final String LIMIT_GRADIENT = "gradient";
+
+    @Value("${analysis.scheduler.limit-algorithm:fixed}")
+    private String limitAlgorithm;
+
+    // 固定模式下的上限，自适应模式下的初始上限
+    @Value("${analysis.scheduler.max-concurrent:${python.pool.size:2}}")
+    private int maxConcurrent;
+
+    @Value("${analysis.scheduler.min-limit:1}")
+    private int minLimit;
+
+    @Value("${analysis.scheduler.max-limit:${python.pool.max-size:${python.pool.size:2}}}")
+    private int maxLimit;
+
+    @Value("${analysis.scheduler.latency-tolerance:1.5}")
+    private double latencyTolerance;
+
+    @Value("${analysis.scheduler.limit-smoothing:0.2}")
+    private double limitSmoothing;
+
+    @Value("${analysis.scheduler.queue-capacity:10}")
+    private int queueCapacity;
+
+    @Value("${analysis.scheduler.max-wait-seconds:120}")
+    private long maxWaitSeconds;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final Condition slotAvailable = lock.newCondition();
+    private int running;
+    private int waiting;
+    private double averageRunSeconds = INITIAL_RUN_SECONDS;
+    private ConcurrencyLimit limit;
+
+    private Timer waitTimer;
+    private Timer runTimer;
+    private Counter queueFullRejections;
+    private Counter waitTimeoutRejections;
+
+    @PostConstruct
+    public void init() {
+        if (LIMIT_GRADIENT.equalsIgnoreCase(limitAlgorithm)) {
+            limit = new GradientConcurrencyLimit(maxConcurrent, minLimit, Math.max(minLimit, maxLimit),
+                    latencyTolerance, limitSmoothing);
+        } else if (LIMIT_FIXED.equalsIgnoreCase(limitAlgorithm)) {
+            limit = new FixedConcurrencyLimit(maxConcurrent);
+        } else {
+            throw new IllegalArgumentException("未知的并发上限算法: " + limitAlgorithm);
+        }
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        Gauge.builder("analysis.queue.depth", this, AnalysisScheduler::getQueueDepth)
+                .description("排队等待分析的请求数")
+                .register(registry);
+        Gauge.builder("analysis.running", this, AnalysisScheduler::getRunning)
+                .description("正在运行的分析数")
+                .register(registry);
+        Gauge.builder("analysis.limit", this, AnalysisScheduler::getLimit)
+                .description("当前允许同时运行的分析数")
+                .register(registry);
+        waitTimer = Timer.builder("analysis.queue.wait")
+                .description("分析请求的排队时间")
+                .register(registry);
+        runTimer = Timer.builder("analysis.duration")
+                .description("分析耗时（不含排队）")
+                .register(registry);
+        queueFullRejections = Counter.builder("analysis.rejected")
+                .tag("reason", "queue_full")
+                .register(registry);
+        waitTimeoutRejections = Counter.builder("analysis.rejected")
+                .tag("reason", "wait_timeout")
+                .register(registry);
+    }
+
+    public <T> T execute(Supplier<T> task) {
+        long enqueuedAt = System.nanoTime();
+        acquire();
+        long startedAt = System.nanoTime();
+        waitTimer.record(startedAt - enqueuedAt, TimeUnit.NANOSECONDS);
+        boolean dropped = true;
+        try {
+            T result = task.get();
+            dropped = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - startedAt;
+            runTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            release(elapsed, dropped);
+        }
+    }
+
+    public int getLimit() {
+        return limit.getLimit();
+    }
+
+    public int getQueueDepth() {
+        lock.lock();
+        try {
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getRunning() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquire() {
+        lock.lock();
+        try {
+            // 有人排队时新请求不插队
+            if (running < limit.getLimit() && waiting == 0) {
+                running++;
+                return;
+            }
+            if (waiting >= queueCapacity) {
+                queueFullRejections.increment();
+                throw new AnalysisRejectedException("分析任务过多，请稍后再试", retryAfterSeconds());
+            }
+
+            waiting++;
+            try {
+                long remainingNanos = TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+                while (running >= limit.getLimit()) {
+                    if (remainingNanos <= 0) {
+                        waitTimeoutRejections.increment();
+                        throw new AnalysisRejectedException("等待分析超时，请稍后再试", retryAfterSeconds());
+                    }
+                    remainingNanos = slotAvailable.awaitNanos(remainingNanos);
+                }
+                running++;
+            } catch (InterruptedException e) {
+                // 被唤醒后又中断时把名额转给下一个等待者
+                slotAvailable.signal();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("等待分析被中断", e);
+            } finally {
+                waiting--;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void release(long elapsedNanos, boolean dropped) {
+        lock.lock();
+        try {
+            limit.onSample(elapsedNanos, running, dropped);
+            running--;
+            double seconds = elapsedNanos / 1e9;
+            averageRunSeconds += RUN_SECONDS_SMOOTHING * (seconds - averageRunSeconds);
+            // 上限可能刚被调高，按空出的名额唤醒等待者
+            int available = Math.min(waiting, limit.getLimit() - running);
+            for (int i = 0; i < available; i++) {
+                slotAvailable.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 按当前排队长度和平均分析耗时估算多久后会有空位，调用时已持有锁
+    private long retryAfterSeconds() {
+        double seconds = averageRunSeconds * (waiting + 1) / Math.max(1, limit.getLimit());
+        return Math.max(1, (long) Math.ceil(seconds));
+    }
+}
@@ -0,0 +1,33 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.audio.AnalysisFeatures;
+
+import java.util.Set;
+
+/**
+ * 音频分析后端。各实现的结果结构、特征口径和评分权重相同，可以按部署配置或按请求切换（见 {@link AudioAnalyzerRouter}）。
+ */
+public interface AudioAnalyzer {
+
+    /**
+     * 后端名称，即 analysis.backend 和请求中 backend 的取值。
+     */
+    String getName();
+
+    /**
+     * 只分析 features 中的维度（见 {@link AnalysisFeatures#of}），每完成一项特征时回调 listener。
+     * 命中缓存时直接返回完整结果，不会回调。返回的结果可能被缓存共享，调用方不能修改。
+     */
+    AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                             AnalysisProgressListener listener);
+
+    default AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath) {
+        return analyze(audioFilePath, referenceAudioPath, AnalysisFeatures.ALL, AnalysisProgressListener.NONE);
+    }
+
+    default AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath,
+                                     AnalysisProgressListener listener) {
+        return analyze(audioFilePath, referenceAudioPath, AnalysisFeatures.ALL, listener);
+    }
+}
@@ -0,0 +1,58 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 按名称选择分析后端：python（默认）、jvm 或 shadow。部署默认值由 analysis.backend 指定，单个请求可以覆盖。
+ */
+@Component
+public class AudioAnalyzerRouter {
+
+    @Value("${analysis.backend:python}")
+    private String defaultBackend;
+
+    @Autowired
+    private List<AudioAnalyzer> analyzers;
+
+    private Map<String, AudioAnalyzer> byName;
+    private AudioAnalyzer defaultAnalyzer;
+
+    @PostConstruct
+    public void init() {
+        Map<String, AudioAnalyzer> map = new TreeMap<>();
+        for (AudioAnalyzer analyzer : analyzers) {
+            map.put(analyzer.getName(), analyzer);
+        }
+        byName = Collections.unmodifiableMap(map);
+        defaultAnalyzer = byName.get(defaultBackend.trim().toLowerCase());
+        if (defaultAnalyzer == null) {
+            throw new IllegalArgumentException("未知的分析后端: " + defaultBackend);
+        }
+    }
+
+    public AudioAnalyzer getDefault() {
+        return defaultAnalyzer;
+    }
+
+    /**
+     * 为空时返回部署默认的后端；名称不存在时抛出 IllegalArgumentException，消息可直接返回给客户端。
+     */
+    public AudioAnalyzer select(String backend) {
+        if (backend == null || backend.trim().isEmpty()) {
+            return defaultAnalyzer;
+        }
+        AudioAnalyzer analyzer = byName.get(backend.trim().toLowerCase());
+        if (analyzer == null) {
+            throw new IllegalArgumentException("不支持的分析后端: " + backend);
+        }
+        return analyzer;
+    }
+}
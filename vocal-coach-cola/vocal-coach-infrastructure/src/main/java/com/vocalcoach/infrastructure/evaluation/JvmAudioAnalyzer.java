@@ -0,0 +1,103 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.audio.AnalysisFeatures;
+import com.vocalcoach.infrastructure.audio.AnalysisScoreCalculator;
+import com.vocalcoach.infrastructure.audio.AudioPcmLoader;
+import com.vocalcoach.infrastructure.audio.JvmFeatureExtractor;
+import com.vocalcoach.infrastructure.audio.PcmAudio;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * 完全在 JVM 内分析，不启动 Python：解码后由 {@link JvmFeatureExtractor} 计算全部所选特征，
+ * 评分与 Python 端的 calculate_overall_scores 相同。与 Python 后端共用分析名额和结果缓存（按后端分开存放）。
+ */
+@Component
+public class JvmAudioAnalyzer implements AudioAnalyzer {
+
+    public static final String NAME = "jvm";
+
+    @Resource
+    private JvmFeatureExtractor jvmFeatureExtractor;
+
+    @Resource
+    private AnalysisResultCache analysisResultCache;
+
+    @Resource
+    private AnalysisScheduler analysisScheduler;
+
+    @Resource
+    private AudioPcmLoader audioPcmLoader;
+
+    @Resource
+    private ReferenceFeatureStore referenceFeatureStore;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                    AnalysisProgressListener listener) {
+        return analysisResultCache.get(audioFilePath, referenceAudioPath, features, NAME,
+                () -> analysisScheduler.execute(
+                        () -> analyzeUncached(audioFilePath, referenceAudioPath, features, listener)));
+    }
+
+    /**
+     * 影子对比用：经过结果缓存但不占用 {@link AnalysisScheduler} 的分析名额，由调用方自行限制并发。
+     */
+    AudioAnalysisDTO analyzeUnscheduled(String audioFilePath, String referenceAudioPath, Set<String> features) {
+        return analysisResultCache.get(audioFilePath, referenceAudioPath, features, NAME,
+                () -> analyzeUncached(audioFilePath, referenceAudioPath, features, AnalysisProgressListener.NONE));
+    }
+
+    private AudioAnalysisDTO analyzeUncached(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                             AnalysisProgressListener listener) {
+        PcmAudio audio;
+        try {
+            audio = audioPcmLoader.load(audioFilePath);
+        } catch (IOException e) {
+            return createErrorResult();
+        }
+        String referenceFeaturesPath = features.contains(AnalysisFeatures.COMPARISON)
+                ? referenceFeatureStore.find(referenceAudioPath) : null;
+
+        AudioAnalysisDTO.Features extracted;
+        try {
+            extracted = jvmFeatureExtractor.extract(audio, referenceAudioPath, referenceFeaturesPath, features,
+                    (name, current) -> notify(listener, name, current));
+        } catch (RuntimeException e) {
+            return createErrorResult();
+        }
+
+        AudioAnalysisDTO result = new AudioAnalysisDTO();
+        result.setSuccess(true);
+        result.setAudioPath(audioFilePath);
+        result.setFeatures(extracted);
+        result.setScores(AnalysisScoreCalculator.calculate(extracted, features));
+        return result;
+    }
+
+    private static void notify(AnalysisProgressListener listener, String name, AudioAnalysisDTO.Features current) {
+        if (listener == AnalysisProgressListener.NONE) {
+            return;
+        }
+        try {
+            listener.onFeature(name, PythonAudioAnalyzer.copyOf(current));
+        } catch (RuntimeException e) {
+            // 推送失败不影响分析本身
+        }
+    }
+
+    private static AudioAnalysisDTO createErrorResult() {
+        AudioAnalysisDTO result = new AudioAnalysisDTO();
+        result.setSuccess(false);
+        return result;
+    }
+}
@@ -0,0 +1,73 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.alibaba.fastjson.JSONObject;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 一次 analyze_audio.py 调用的参数，常驻进程模式序列化为 JSON 请求，单次进程模式转换为命令行参数。
+ */
+@Data
+public class PythonAnalysisRequest {
+
+    private String audioPath;
+    private String referencePath;
+    // 已解码的 22050 Hz 单声道 f32le 文件，为空时由脚本自己解码
+    private String pcmPath;
+    // 参考音频预先计算的特征文件，为空或失效时脚本重新解码参考音频
+    private String referenceFeaturesPath;
+    // 只计算这些特征，为空时计算全部
+    private List<String> features;
+
+    public JSONObject toJson(long requestId, boolean stream) {
+        JSONObject request = new JSONObject();
+        request.put("request_id", requestId);
+        request.put("audio_path", audioPath);
+        if (hasReference()) {
+            request.put("reference_path", referencePath);
+        }
+        if (pcmPath != null) {
+            request.put("pcm_path", pcmPath);
+        }
+        if (referenceFeaturesPath != null) {
+            request.put("reference_features_path", referenceFeaturesPath);
+        }
+        if (features != null) {
+            request.put("features", features);
+        }
+        if (stream) {
+            request.put("stream", true);
+        }
+        return request;
+    }
+
+    public List<String> toArguments(boolean stream) {
+        List<String> arguments = new ArrayList<>();
+        if (stream) {
+            arguments.add("--stream");
+        }
+        if (pcmPath != null) {
+            arguments.add("--pcm");
+            arguments.add(pcmPath);
+        }
+        if (referenceFeaturesPath != null) {
+            arguments.add("--reference-features");
+            arguments.add(referenceFeaturesPath);
+        }
+        if (features != null) {
+            arguments.add("--features");
+            arguments.add(String.join(",", features));
+        }
+        arguments.add(audioPath);
+        if (hasReference()) {
+            arguments.add(referencePath);
+        }
+        return arguments;
+    }
+
+    public boolean hasReference() {
+        return referencePath != null && !referencePath.isEmpty();
+    }
+}
@@ -0,0 +1,224 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.alibaba.fastjson.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+@Component
+public class PythonAnalyzerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(PythonAnalyzerPool.class);
+
+    @Value("${python.path:python3}")
+    private String pythonPath;
+
+    @Value("${scripts.path:scripts}")
+    private String scriptsPath;
+
+    @Value("${python.pool.enabled:true}")
+    private boolean enabled;
+
+    @Value("${python.pool.size:2}")
+    private int poolSize;
+
+    // 自适应并发时允许按需增加的进程数上限，多出的进程在首次需要时启动
+    @Value("${python.pool.max-size:${python.pool.size:2}}")
+    private int maxPoolSize;
+
+    // 超出 size 的进程空闲这么久后回收，池子缩回常驻数量
+    @Value("${python.pool.idle-timeout-seconds:300}")
+    private long idleTimeoutSeconds;
+
+    @Value("${python.pool.max-jobs-per-worker:200}")
+    private int maxJobsPerWorker;
+
+    @Value("${python.pool.startup-timeout-seconds:60}")
+    private long startupTimeoutSeconds;
+
+    @Value("${python.pool.job-timeout-seconds:120}")
+    private long jobTimeoutSeconds;
+
+    private final BlockingQueue<PythonAnalyzerWorker> idleWorkers = new LinkedBlockingQueue<>();
+    private final AtomicLong requestIdGenerator = new AtomicLong(1);
+    // 已启动且尚未回收的进程数（含正在启动的），不超过 max-size
+    private final AtomicInteger liveWorkers = new AtomicInteger();
+    private Semaphore permits;
+    private ScheduledExecutorService recycler;
+    private volatile boolean shutdown;
+
+    @PostConstruct
+    public void init() {
+        if (!enabled) {
+            return;
+        }
+        permits = new Semaphore(Math.max(poolSize, maxPoolSize), true);
+        recycler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "python-analyzer-recycler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (maxPoolSize > poolSize) {
+            long period = Math.max(1, idleTimeoutSeconds / 2);
+            recycler.scheduleWithFixedDelay(this::trimIdleWorkers, period, period, TimeUnit.SECONDS);
+        }
+
+        // 启动时预热：进程并行启动并加载 librosa，就绪后才会接收请求
+        for (int i = 0; i < poolSize; i++) {
+            if (!reserve(poolSize)) {
+                break;
+            }
+            try {
+                idleWorkers.offer(startWorker());
+            } catch (IOException e) {
+                liveWorkers.decrementAndGet();
+                log.warn("Python 分析进程启动失败，请求到来时再重试: {}", e.getMessage());
+                break;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        shutdown = true;
+        List<PythonAnalyzerWorker> workers = new ArrayList<>();
+        idleWorkers.drainTo(workers);
+        workers.forEach(PythonAnalyzerWorker::destroy);
+        if (recycler != null) {
+            recycler.shutdownNow();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public String analyze(PythonAnalysisRequest request, Consumer<JSONObject> onEvent) throws Exception {
+        if (!permits.tryAcquire(startupTimeoutSeconds + jobTimeoutSeconds, TimeUnit.SECONDS)) {
+            throw new TimeoutException("等待 Python 分析进程超时");
+        }
+        try {
+            PythonAnalyzerWorker worker = acquireWorker();
+            boolean healthy = false;
+            try {
+                String output = worker.analyze(requestIdGenerator.getAndIncrement(), request, onEvent,
+                        startupTimeoutSeconds, jobTimeoutSeconds);
+                healthy = true;
+                return output;
+            } finally {
+                releaseWorker(worker, healthy);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    private PythonAnalyzerWorker acquireWorker() throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(startupTimeoutSeconds);
+        while (true) {
+            PythonAnalyzerWorker worker = idleWorkers.poll();
+            if (worker == null) {
+                // 没有空闲进程时在上限内启动新进程，否则等待其他请求归还或补充的进程
+                if (reserve(Math.max(poolSize, maxPoolSize))) {
+                    try {
+                        return startWorker();
+                    } catch (IOException e) {
+                        liveWorkers.decrementAndGet();
+                        throw e;
+                    }
+                }
+                worker = idleWorkers.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (worker == null) {
+                    throw new TimeoutException("等待 Python 分析进程超时");
+                }
+            }
+            if (worker.isAlive()) {
+                return worker;
+            }
+            retire(worker);
+        }
+    }
+
+    private void releaseWorker(PythonAnalyzerWorker worker, boolean healthy) {
+        if (!shutdown && healthy && worker.isAlive() && worker.getCompletedJobs() < maxJobsPerWorker) {
+            worker.markIdle();
+            idleWorkers.offer(worker);
+            return;
+        }
+
+        // 崩溃、超时或达到任务上限的进程异步回收；只在低于常驻数量时补充，补充名额先占住，避免并发请求重复启动
+        retire(worker);
+        if (!shutdown && reserve(poolSize)) {
+            recycler.execute(() -> {
+                try {
+                    idleWorkers.offer(startWorker());
+                } catch (IOException e) {
+                    liveWorkers.decrementAndGet();
+                    log.warn("补充 Python 分析进程失败: {}", e.getMessage());
+                }
+            });
+        }
+    }
+
+    // 进程数超过 size 时回收空闲超时的进程；remove 成功说明该进程没有被请求取走
+    private void trimIdleWorkers() {
+        long cutoff = System.nanoTime() - TimeUnit.SECONDS.toNanos(idleTimeoutSeconds);
+        for (PythonAnalyzerWorker worker : idleWorkers) {
+            if (liveWorkers.get() <= poolSize) {
+                return;
+            }
+            if (worker.getIdleSince() - cutoff < 0 && idleWorkers.remove(worker)) {
+                retire(worker);
+            }
+        }
+    }
+
+    private void retire(PythonAnalyzerWorker worker) {
+        liveWorkers.decrementAndGet();
+        recycler.execute(worker::destroy);
+    }
+
+    // 进程数小于 limit 时占用一个名额
+    private boolean reserve(int limit) {
+        while (true) {
+            int current = liveWorkers.get();
+            if (current >= limit) {
+                return false;
+            }
+            if (liveWorkers.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    private PythonAnalyzerWorker startWorker() throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(pythonPath);
+        command.add(new File(scriptsPath, "analyze_audio.py").getAbsolutePath());
+        command.add("--server");
+
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        processBuilder.directory(new File(System.getProperty("user.dir")));
+
+        return new PythonAnalyzerWorker(processBuilder.start());
+    }
+}
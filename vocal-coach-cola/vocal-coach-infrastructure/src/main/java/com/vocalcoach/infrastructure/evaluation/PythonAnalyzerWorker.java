@@ -0,0 +1,131 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+
+public class PythonAnalyzerWorker {
+
+    private static final String END_OF_STREAM = "\u0000EOF";
+    static final String EVENT_FEATURE = "feature";
+
+    private final Process process;
+    private final BufferedWriter writer;
+    private final BlockingQueue<String> responses = new LinkedBlockingQueue<>();
+    private final CountDownLatch ready = new CountDownLatch(1);
+    private int completedJobs;
+    private volatile long idleSince = System.nanoTime();
+
+    public PythonAnalyzerWorker(Process process) {
+        this.process = process;
+        this.writer = new BufferedWriter(new OutputStreamWriter(process.getOutputStream(), StandardCharsets.UTF_8));
+
+        Thread pump = new Thread(this::pumpStdout, "python-analyzer-" + process.pid());
+        pump.setDaemon(true);
+        pump.start();
+    }
+
+    private void pumpStdout() {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.startsWith("{")) {
+                    continue;
+                }
+                if (ready.getCount() > 0 && line.contains("\"ready\"")) {
+                    ready.countDown();
+                    continue;
+                }
+                responses.offer(line);
+            }
+        } catch (IOException ignored) {
+            // 进程被销毁时读取会中断
+        } finally {
+            responses.offer(END_OF_STREAM);
+        }
+    }
+
+    /**
+     * @param onEvent 非空时请求脚本增量输出，每个特征事件（event=feature）到达时回调
+     */
+    public String analyze(long requestId, PythonAnalysisRequest analysisRequest, Consumer<JSONObject> onEvent,
+                          long startupTimeoutSeconds, long jobTimeoutSeconds) throws Exception {
+        if (!ready.await(startupTimeoutSeconds, TimeUnit.SECONDS)) {
+            throw new TimeoutException("Python 分析进程启动超时");
+        }
+
+        JSONObject request = analysisRequest.toJson(requestId, onEvent != null);
+        writer.write(request.toJSONString());
+        writer.newLine();
+        writer.flush();
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(jobTimeoutSeconds);
+        while (true) {
+            String line = responses.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (line == null) {
+                throw new TimeoutException("Python 脚本执行超时");
+            }
+            if (END_OF_STREAM.equals(line)) {
+                throw new IOException("Python 分析进程已退出");
+            }
+            JSONObject response = JSON.parseObject(line);
+            if (response.getLongValue("request_id") != requestId) {
+                continue;
+            }
+            if (EVENT_FEATURE.equals(response.getString("event"))) {
+                if (onEvent != null) {
+                    onEvent.accept(response);
+                }
+                continue;
+            }
+            completedJobs++;
+            return line;
+        }
+    }
+
+    public boolean isAlive() {
+        return process.isAlive();
+    }
+
+    public int getCompletedJobs() {
+        return completedJobs;
+    }
+
+    public void markIdle() {
+        idleSince = System.nanoTime();
+    }
+
+    public long getIdleSince() {
+        return idleSince;
+    }
+
+    public void destroy() {
+        try {
+            writer.close();
+        } catch (IOException ignored) {
+            // 进程可能已退出
+        }
+        process.destroy();
+        try {
+            if (!process.waitFor(5, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
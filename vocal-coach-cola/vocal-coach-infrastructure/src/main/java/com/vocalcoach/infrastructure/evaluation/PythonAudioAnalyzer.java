@@ -1,21 +1,34 @@
 package com.vocalcoach.infrastructure.evaluation;
 
 import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONException;
 import com.alibaba.fastjson.JSONObject;
 import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import com.vocalcoach.infrastructure.audio.AnalysisFeatures;
+import com.vocalcoach.infrastructure.audio.AudioPcmLoader;
+import com.vocalcoach.infrastructure.audio.JvmFeatureExtractor;
+import com.vocalcoach.infrastructure.audio.PcmAudio;
+import com.vocalcoach.infrastructure.audio.SharedPcmStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.Resource;
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Component
-public class PythonAudioAnalyzer {
+public class PythonAudioAnalyzer implements AudioAnalyzer {
+
+    public static final String NAME = "python";
 
     @Value("${python.path:python3}")
     private String pythonPath;
@@ -23,15 +36,129 @@ public class PythonAudioAnalyzer {
     @Value("${scripts.path:scripts}")
     private String scriptsPath;
 
-    public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath) {
+    @Resource
+    private PythonAnalyzerPool pythonAnalyzerPool;
+
+    @Resource
+    private AnalysisResultCache analysisResultCache;
+
+    @Resource
+    private JvmFeatureExtractor jvmFeatureExtractor;
+
+    @Resource
+    private AnalysisScheduler analysisScheduler;
+
+    @Resource
+    private AudioPcmLoader audioPcmLoader;
+
+    @Resource
+    private SharedPcmStore sharedPcmStore;
+
+    @Resource
+    private ReferenceFeatureStore referenceFeatureStore;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * 只分析 features 中的维度，另外在 Python 每完成一项特征时回调 listener。命中缓存时直接返回完整结果，不会回调。
+     */
+    @Override
+    public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                    AnalysisProgressListener listener) {
+        return analysisResultCache.get(audioFilePath, referenceAudioPath, features, NAME,
+                () -> analyzeUncached(audioFilePath, referenceAudioPath, features, listener));
+    }
+
+    /**
+     * 影子对比用：经过结果缓存但不占用 {@link AnalysisScheduler} 的分析名额，由调用方自行限制并发。
+     */
+    AudioAnalysisDTO analyzeUnscheduled(String audioFilePath, String referenceAudioPath, Set<String> features) {
+        return analysisResultCache.get(audioFilePath, referenceAudioPath, features, NAME,
+                () -> compute(audioFilePath, referenceAudioPath, features, AnalysisProgressListener.NONE));
+    }
+
+    // 缓存命中不占用分析名额，只有真正需要计算时才排队
+    private AudioAnalysisDTO analyzeUncached(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                             AnalysisProgressListener listener) {
+        return analysisScheduler.execute(() -> compute(audioFilePath, referenceAudioPath, features, listener));
+    }
+
+    private AudioAnalysisDTO compute(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                     AnalysisProgressListener listener) {
+        // JVM 负责的特征不再交给 Python；全部由 JVM 负责时不启动 Python
+        Set<String> pythonFeatures = new TreeSet<>(features);
+        pythonFeatures.removeAll(jvmFeatureExtractor.getFeatures());
+        boolean sharePcm = sharedPcmStore.isEnabled() && !pythonFeatures.isEmpty();
+        // 参考音频特征已预先计算时，无论对比由哪一端负责都不再解码参考音频
+        String referenceFeaturesPath = features.contains(AnalysisFeatures.COMPARISON)
+                ? referenceFeatureStore.find(referenceAudioPath) : null;
+
+        // 整个分析只解码一次，JVM 特征和 Python 端共用同一份 PCM
+        PcmAudio audio = sharePcm || jvmFeatureExtractor.handlesAny(features) ? decode(audioFilePath) : null;
+        try (SharedPcmStore.SharedPcmFile pcm = sharePcm && audio != null ? share(audio) : null) {
+            AudioAnalysisDTO result = analyzeWithPython(audioFilePath, referenceAudioPath, referenceFeaturesPath,
+                    pythonFeatures, pcm != null ? pcm.getPath() : null, listener);
+            return jvmFeatureExtractor.apply(audio, referenceAudioPath, referenceFeaturesPath, features, result);
+        }
+    }
+
+    private PcmAudio decode(String audioFilePath) {
+        try {
+            return audioPcmLoader.load(audioFilePath);
+        } catch (IOException e) {
+            // 交给 Python 自己解码
+            return null;
+        }
+    }
+
+    private SharedPcmStore.SharedPcmFile share(PcmAudio audio) {
+        try {
+            return sharedPcmStore.write(audio);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private AudioAnalysisDTO analyzeWithPython(String audioFilePath, String referenceAudioPath,
+                                               String referenceFeaturesPath, Set<String> pythonFeatures, String pcmPath,
+                                               AnalysisProgressListener listener) {
+        if (pythonFeatures.isEmpty()) {
+            AudioAnalysisDTO result = new AudioAnalysisDTO();
+            result.setSuccess(true);
+            result.setAudioPath(audioFilePath);
+            result.setFeatures(new AudioAnalysisDTO.Features());
+            return result;
+        }
+        PythonAnalysisRequest request = new PythonAnalysisRequest();
+        request.setAudioPath(audioFilePath);
+        request.setReferencePath(referenceAudioPath);
+        request.setPcmPath(pcmPath);
+        request.setFeatures(AnalysisFeatures.isAll(pythonFeatures) ? null : new ArrayList<>(pythonFeatures));
+        if (pythonFeatures.contains(AnalysisFeatures.COMPARISON)) {
+            request.setReferenceFeaturesPath(referenceFeaturesPath);
+        }
+
+        Consumer<JSONObject> onEvent = listener == AnalysisProgressListener.NONE
+                ? null : new FeatureEventHandler(listener);
+        if (pythonAnalyzerPool.isEnabled()) {
+            try {
+                return parseAnalysisResult(pythonAnalyzerPool.analyze(request, onEvent));
+            } catch (Exception e) {
+                return createErrorResult("音频分析失败: " + e.getMessage());
+            }
+        }
+        return runScript(request, onEvent);
+    }
+
+    private AudioAnalysisDTO runScript(PythonAnalysisRequest request, Consumer<JSONObject> onEvent) {
         try {
             List<String> command = new ArrayList<>();
             command.add(pythonPath);
             command.add(new File(scriptsPath, "analyze_audio.py").getAbsolutePath());
-            command.add(audioFilePath);
-            if (referenceAudioPath != null && !referenceAudioPath.isEmpty()) {
-                command.add(referenceAudioPath);
-            }
+            command.addAll(request.toArguments(onEvent != null));
 
             ProcessBuilder processBuilder = new ProcessBuilder(command);
             processBuilder.redirectErrorStream(true);
@@ -39,12 +166,31 @@ public class PythonAudioAnalyzer {
 
             Process process = processBuilder.start();
 
+            // 特征事件边读边处理，最后一行完整结果留待解析
             StringBuilder output = new StringBuilder();
+            String resultLine = null;
             try (BufferedReader reader = new BufferedReader(
                     new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
                 String line;
                 while ((line = reader.readLine()) != null) {
                     output.append(line);
+                    if (!line.startsWith("{")) {
+                        continue;
+                    }
+                    JSONObject json;
+                    try {
+                        json = JSON.parseObject(line);
+                    } catch (JSONException e) {
+                        // 第三方库混入 stdout 的输出
+                        continue;
+                    }
+                    if (PythonAnalyzerWorker.EVENT_FEATURE.equals(json.getString("event"))) {
+                        if (onEvent != null) {
+                            onEvent.accept(json);
+                        }
+                    } else {
+                        resultLine = line;
+                    }
                 }
             }
 
@@ -59,14 +205,14 @@ public class PythonAudioAnalyzer {
                 return createErrorResult("Python 脚本执行失败: " + output.toString());
             }
 
-            return parseAnalysisResult(output.toString());
+            return parseAnalysisResult(resultLine != null ? resultLine : output.toString());
 
         } catch (Exception e) {
             return createErrorResult("音频分析失败: " + e.getMessage());
         }
     }
 
-    private AudioAnalysisDTO parseAnalysisResult(String jsonOutput) {
+    public AudioAnalysisDTO parseAnalysisResult(String jsonOutput) {
         try {
             JSONObject json = JSON.parseObject(jsonOutput);
 
@@ -77,69 +223,9 @@ public class PythonAudioAnalyzer {
             JSONObject featuresJson = json.getJSONObject("features");
             if (featuresJson != null) {
                 AudioAnalysisDTO.Features features = new AudioAnalysisDTO.Features();
-
-                JSONObject pitchJson = featuresJson.getJSONObject("pitch");
-                if (pitchJson != null && !pitchJson.containsKey("error")) {
-                    AudioAnalysisDTO.PitchFeatures pitch = new AudioAnalysisDTO.PitchFeatures();
-                    pitch.setMeanPitch(pitchJson.getDouble("mean_pitch"));
-                    pitch.setPitchRange(pitchJson.getDouble("pitch_range"));
-                    pitch.setPitchStability(pitchJson.getDouble("pitch_stability"));
-                    features.setPitch(pitch);
-                }
-
-                JSONObject rhythmJson = featuresJson.getJSONObject("rhythm");
-                if (rhythmJson != null && !rhythmJson.containsKey("error")) {
-                    AudioAnalysisDTO.RhythmFeatures rhythm = new AudioAnalysisDTO.RhythmFeatures();
-                    rhythm.setTempo(rhythmJson.getDouble("tempo"));
-                    rhythm.setBeatRegularity(rhythmJson.getDouble("beat_regularity"));
-                    rhythm.setRhythmScore(rhythmJson.getDouble("rhythm_score"));
-                    features.setRhythm(rhythm);
-                }
-
-                JSONObject voiceJson = featuresJson.getJSONObject("voice");
-                if (voiceJson != null && !voiceJson.containsKey("error")) {
-                    AudioAnalysisDTO.VoiceFeatures voice = new AudioAnalysisDTO.VoiceFeatures();
-                    voice.setJitter(voiceJson.getDouble("jitter"));
-                    voice.setShimmer(voiceJson.getDouble("shimmer"));
-                    voice.setHnr(voiceJson.getDouble("hnr"));
-                    voice.setJitterScore(voiceJson.getDouble("jitter_score"));
-                    voice.setShimmerScore(voiceJson.getDouble("shimmer_score"));
-                    voice.setHnrScore(voiceJson.getDouble("hnr_score"));
-                    voice.setVoiceScore(voiceJson.getDouble("voice_score"));
-                    voice.setVoiceQuality(voiceJson.getString("voice_quality"));
-                    features.setVoice(voice);
-                }
-
-                JSONObject timbreJson = featuresJson.getJSONObject("timbre");
-                if (timbreJson != null && !timbreJson.containsKey("error")) {
-                    AudioAnalysisDTO.TimbreFeatures timbre = new AudioAnalysisDTO.TimbreFeatures();
-                    timbre.setBrightness(timbreJson.getDouble("brightness"));
-                    timbre.setWarmth(timbreJson.getDouble("warmth"));
-                    timbre.setBrightnessLevel(timbreJson.getString("brightness_level"));
-                    features.setTimbre(timbre);
-                }
-
-                JSONObject energyJson = featuresJson.getJSONObject("energy");
-                if (energyJson != null && !energyJson.containsKey("error")) {
-                    AudioAnalysisDTO.EnergyFeatures energy = new AudioAnalysisDTO.EnergyFeatures();
-                    energy.setEnergyMean(energyJson.getDouble("energy_mean"));
-                    energy.setEnergyStability(energyJson.getDouble("energy_stability"));
-                    energy.setDynamicRange(energyJson.getDouble("dynamic_range"));
-                    energy.setBreathControlScore(energyJson.getDouble("breath_control_score"));
-                    features.setEnergy(energy);
-                }
-
-                JSONObject comparisonJson = featuresJson.getJSONObject("comparison");
-                if (comparisonJson != null) {
-                    AudioAnalysisDTO.ComparisonFeatures comparison = new AudioAnalysisDTO.ComparisonFeatures();
-                    comparison.setHasReference(comparisonJson.getBooleanValue("has_reference"));
-                    if (comparison.getHasReference()) {
-                        comparison.setDtwDistance(comparisonJson.getDouble("dtw_distance"));
-                        comparison.setSimilarityScore(comparisonJson.getDouble("similarity_score"));
-                    }
-                    features.setComparison(comparison);
+                for (String name : AnalysisFeatures.NAMES) {
+                    parseFeature(name, featuresJson.getJSONObject(name), features);
                 }
-
                 result.setFeatures(features);
             }
 
@@ -161,6 +247,105 @@ public class PythonAudioAnalyzer {
         }
     }
 
+    private static void parseFeature(String name, JSONObject json, AudioAnalysisDTO.Features features) {
+        if (json == null || (json.containsKey("error") && !AnalysisFeatures.COMPARISON.equals(name))) {
+            return;
+        }
+        switch (name) {
+            case AnalysisFeatures.PITCH:
+                AudioAnalysisDTO.PitchFeatures pitch = new AudioAnalysisDTO.PitchFeatures();
+                pitch.setMeanPitch(json.getDouble("mean_pitch"));
+                pitch.setPitchRange(json.getDouble("pitch_range"));
+                pitch.setPitchStability(json.getDouble("pitch_stability"));
+                features.setPitch(pitch);
+                break;
+            case AnalysisFeatures.RHYTHM:
+                AudioAnalysisDTO.RhythmFeatures rhythm = new AudioAnalysisDTO.RhythmFeatures();
+                rhythm.setTempo(json.getDouble("tempo"));
+                rhythm.setBeatRegularity(json.getDouble("beat_regularity"));
+                rhythm.setRhythmScore(json.getDouble("rhythm_score"));
+                features.setRhythm(rhythm);
+                break;
+            case AnalysisFeatures.VOICE:
+                AudioAnalysisDTO.VoiceFeatures voice = new AudioAnalysisDTO.VoiceFeatures();
+                voice.setJitter(json.getDouble("jitter"));
+                voice.setShimmer(json.getDouble("shimmer"));
+                voice.setHnr(json.getDouble("hnr"));
+                voice.setJitterScore(json.getDouble("jitter_score"));
+                voice.setShimmerScore(json.getDouble("shimmer_score"));
+                voice.setHnrScore(json.getDouble("hnr_score"));
+                voice.setVoiceScore(json.getDouble("voice_score"));
+                voice.setVoiceQuality(json.getString("voice_quality"));
+                features.setVoice(voice);
+                break;
+            case AnalysisFeatures.TIMBRE:
+                AudioAnalysisDTO.TimbreFeatures timbre = new AudioAnalysisDTO.TimbreFeatures();
+                timbre.setBrightness(json.getDouble("brightness"));
+                timbre.setWarmth(json.getDouble("warmth"));
+                timbre.setBrightnessLevel(json.getString("brightness_level"));
+                features.setTimbre(timbre);
+                break;
+            case AnalysisFeatures.ENERGY:
+                AudioAnalysisDTO.EnergyFeatures energy = new AudioAnalysisDTO.EnergyFeatures();
+                energy.setEnergyMean(json.getDouble("energy_mean"));
+                energy.setEnergyStability(json.getDouble("energy_stability"));
+                energy.setDynamicRange(json.getDouble("dynamic_range"));
+                energy.setBreathControlScore(json.getDouble("breath_control_score"));
+                features.setEnergy(energy);
+                break;
+            case AnalysisFeatures.COMPARISON:
+                AudioAnalysisDTO.ComparisonFeatures comparison = new AudioAnalysisDTO.ComparisonFeatures();
+                comparison.setHasReference(json.getBooleanValue("has_reference"));
+                if (comparison.getHasReference()) {
+                    comparison.setDtwDistance(json.getDouble("dtw_distance"));
+                    comparison.setSimilarityScore(json.getDouble("similarity_score"));
+                }
+                features.setComparison(comparison);
+                break;
+            default:
+                break;
+        }
+    }
+
+    static AudioAnalysisDTO.Features copyOf(AudioAnalysisDTO.Features source) {
+        AudioAnalysisDTO.Features copy = new AudioAnalysisDTO.Features();
+        copy.setPitch(source.getPitch());
+        copy.setRhythm(source.getRhythm());
+        copy.setVoice(source.getVoice());
+        copy.setTimbre(source.getTimbre());
+        copy.setEnergy(source.getEnergy());
+        copy.setComparison(source.getComparison());
+        return copy;
+    }
+
+    /**
+     * 把脚本输出的特征事件累积成部分结果交给 listener。由 JVM 计算的特征以最终结果为准，不提前推送。
+     */
+    private class FeatureEventHandler implements Consumer<JSONObject> {
+        private final AnalysisProgressListener listener;
+        private AudioAnalysisDTO.Features features = new AudioAnalysisDTO.Features();
+
+        FeatureEventHandler(AnalysisProgressListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void accept(JSONObject event) {
+            String name = event.getString("name");
+            if (name == null || jvmFeatureExtractor.getFeatures().contains(name)) {
+                return;
+            }
+            AudioAnalysisDTO.Features next = copyOf(features);
+            parseFeature(name, event.getJSONObject("value"), next);
+            features = next;
+            try {
+                listener.onFeature(name, copyOf(next));
+            } catch (RuntimeException e) {
+                // 推送失败不影响分析本身
+            }
+        }
+    }
+
     private AudioAnalysisDTO createErrorResult(String errorMessage) {
         AudioAnalysisDTO result = new AudioAnalysisDTO();
         result.setSuccess(false);
@@ -0,0 +1,177 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.infrastructure.audio.AudioPcmLoader;
+import com.vocalcoach.infrastructure.audio.ReferenceFeatures;
+import com.vocalcoach.infrastructure.audio.SharedPcmStore;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 参考音频（歌曲原唱）的预计算特征：MFCC、音高曲线和起音强度包络。由 analyze_audio.py 计算一次，
+ * 存放在音频旁边的 {@code <音频>.features} 中（格式见 {@link ReferenceFeatures}），
+ * 对比时直接读取，不再重新解码参考音频。
+ */
+@Component
+public class ReferenceFeatureStore {
+
+    // 计算失败的文件（无法解码、Python 不可用）过一段时间再重试，避免每次对比都启动进程
+    private static final long RETRY_AFTER_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    @Value("${python.path:python3}")
+    private String pythonPath;
+
+    @Value("${scripts.path:scripts}")
+    private String scriptsPath;
+
+    @Value("${analysis.reference-features.enabled:true}")
+    private boolean enabled;
+
+    @Value("${analysis.reference-features.timeout-seconds:300}")
+    private long timeoutSeconds;
+
+    @Resource
+    private AudioPcmLoader audioPcmLoader;
+
+    @Resource
+    private SharedPcmStore sharedPcmStore;
+
+    private final Set<String> pending = ConcurrentHashMap.newKeySet();
+    private final Map<String, Long> failedAt = new ConcurrentHashMap<>();
+    private ExecutorService executor;
+
+    @PostConstruct
+    public void init() {
+        // 预计算占一个核，放在单独的后台线程里逐个处理
+        executor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "reference-features");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 返回参考音频有效的特征文件路径；不存在或已失效时返回 null，并在后台补算，之后的对比即可使用。
+     */
+    public String find(String audioPath) {
+        if (!enabled || audioPath == null || audioPath.isEmpty()) {
+            return null;
+        }
+        File audio = new File(audioPath);
+        if (!audio.isFile()) {
+            return null;
+        }
+        File features = ReferenceFeatures.featureFile(audioPath);
+        if (isValid(features, audio)) {
+            return features.getAbsolutePath();
+        }
+        precomputeAsync(audioPath);
+        return null;
+    }
+
+    /**
+     * 歌曲上传后调用，在后台计算参考特征；同一个文件同时只计算一次。
+     */
+    public void precomputeAsync(String audioPath) {
+        if (!enabled || audioPath == null || audioPath.isEmpty()) {
+            return;
+        }
+        Long failed = failedAt.get(audioPath);
+        if (failed != null && System.currentTimeMillis() - failed < RETRY_AFTER_MILLIS) {
+            return;
+        }
+        if (!pending.add(audioPath)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    precompute(audioPath);
+                } finally {
+                    pending.remove(audioPath);
+                }
+            });
+        } catch (RuntimeException e) {
+            // 已关闭
+            pending.remove(audioPath);
+        }
+    }
+
+    private void precompute(String audioPath) {
+        File audio = new File(audioPath);
+        File features = ReferenceFeatures.featureFile(audioPath);
+        if (!audio.isFile() || isValid(features, audio)) {
+            return;
+        }
+
+        // 与分析共用 Java 端解码的 PCM，脚本不再用 librosa.load 解码参考音频
+        SharedPcmStore.SharedPcmFile pcm = sharePcm(audioPath);
+        List<String> command = new ArrayList<>(Arrays.asList(pythonPath,
+                new File(scriptsPath, "analyze_audio.py").getAbsolutePath(),
+                "--precompute-reference", audio.getAbsolutePath(), features.getAbsolutePath()));
+        if (pcm != null) {
+            command.add("--pcm");
+            command.add(pcm.getPath());
+        }
+        ProcessBuilder processBuilder = new ProcessBuilder(command);
+        processBuilder.redirectErrorStream(true);
+        processBuilder.redirectOutput(ProcessBuilder.Redirect.DISCARD);
+        Process process = null;
+        try {
+            process = processBuilder.start();
+            if (!process.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        } catch (IOException e) {
+            // Python 不可用时对比仍然会解码参考音频
+        } catch (InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        } finally {
+            if (pcm != null) {
+                pcm.close();
+            }
+        }
+
+        if (isValid(features, audio)) {
+            failedAt.remove(audioPath);
+        } else {
+            failedAt.put(audioPath, System.currentTimeMillis());
+        }
+    }
+
+    private SharedPcmStore.SharedPcmFile sharePcm(String audioPath) {
+        if (!sharedPcmStore.isEnabled()) {
+            return null;
+        }
+        try {
+            return sharedPcmStore.write(audioPcmLoader.load(audioPath));
+        } catch (IOException e) {
+            // 交给脚本自己解码
+            return null;
+        }
+    }
+
+    private static boolean isValid(File features, File audio) {
+        return features.isFile() && ReferenceFeatures.isValid(features, audio);
+    }
+}
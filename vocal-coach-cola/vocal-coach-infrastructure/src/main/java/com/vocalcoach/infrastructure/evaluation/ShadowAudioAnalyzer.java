@@ -0,0 +1,174 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * 影子模式：请求由主后端（analysis.shadow.primary）分析并返回，同时在后台用另一个后端分析同一段录音，
+ * 按维度记录两边分数之差（analysis.shadow.divergence），用于在切换后端前确认评分一致。
+ * 只对主后端成功的请求按 sample-rate 抽样对比。影子分析在单独的线程里逐个执行，不占用 {@link AnalysisScheduler}
+ * 的分析名额，积压超过 queue-capacity 时直接丢弃，不拖慢正常请求。
+ */
+@Component
+public class ShadowAudioAnalyzer implements AudioAnalyzer {
+
+    public static final String NAME = "shadow";
+
+    @Value("${analysis.shadow.primary:python}")
+    private String primaryName;
+
+    // 进入影子对比的请求比例，0~1
+    @Value("${analysis.shadow.sample-rate:0.05}")
+    private double sampleRate;
+
+    @Value("${analysis.shadow.queue-capacity:4}")
+    private int queueCapacity;
+
+    @Resource
+    private PythonAudioAnalyzer pythonAudioAnalyzer;
+
+    @Resource
+    private JvmAudioAnalyzer jvmAudioAnalyzer;
+
+    @Autowired
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    private AudioAnalyzer primary;
+    private AudioAnalyzer shadow;
+    private ThreadPoolExecutor executor;
+    private final Map<String, DistributionSummary> divergence = new LinkedHashMap<>();
+    private Counter compared;
+    private Counter primaryFailed;
+    private Counter shadowFailed;
+    private Counter dropped;
+
+    @PostConstruct
+    public void init() {
+        if (PythonAudioAnalyzer.NAME.equalsIgnoreCase(primaryName)) {
+            primary = pythonAudioAnalyzer;
+            shadow = jvmAudioAnalyzer;
+        } else if (JvmAudioAnalyzer.NAME.equalsIgnoreCase(primaryName)) {
+            primary = jvmAudioAnalyzer;
+            shadow = pythonAudioAnalyzer;
+        } else {
+            throw new IllegalArgumentException("未知的影子模式主后端: " + primaryName);
+        }
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)), r -> {
+            Thread thread = new Thread(r, "analysis-shadow");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        MeterRegistry registry = meterRegistry.getIfAvailable(SimpleMeterRegistry::new);
+        for (String dimension : new String[]{"overall", "pitch", "rhythm", "voice", "breath"}) {
+            divergence.put(dimension, DistributionSummary.builder("analysis.shadow.divergence")
+                    .description("影子后端与主后端同一维度分数之差的绝对值")
+                    .tag("dimension", dimension)
+                    .tag("primary", primary.getName())
+                    .tag("shadow", shadow.getName())
+                    .register(registry));
+        }
+        compared = shadowRuns(registry, "compared");
+        primaryFailed = shadowRuns(registry, "primary_failed");
+        shadowFailed = shadowRuns(registry, "shadow_failed");
+        dropped = shadowRuns(registry, "dropped");
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    /**
+     * 主后端被拒绝或抛出异常时不做影子对比，异常原样抛给调用方。
+     */
+    @Override
+    public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                    AnalysisProgressListener listener) {
+        AudioAnalysisDTO result = primary.analyze(audioFilePath, referenceAudioPath, features, listener);
+        if (!result.isSuccess() || result.getScores() == null) {
+            primaryFailed.increment();
+            return result;
+        }
+        if (ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            try {
+                executor.execute(() -> compare(audioFilePath, referenceAudioPath, features, result));
+            } catch (RejectedExecutionException e) {
+                dropped.increment();
+            }
+        }
+        return result;
+    }
+
+    private void compare(String audioFilePath, String referenceAudioPath, Set<String> features,
+                         AudioAnalysisDTO primaryResult) {
+        AudioAnalysisDTO shadowResult;
+        try {
+            shadowResult = shadow == jvmAudioAnalyzer
+                    ? jvmAudioAnalyzer.analyzeUnscheduled(audioFilePath, referenceAudioPath, features)
+                    : pythonAudioAnalyzer.analyzeUnscheduled(audioFilePath, referenceAudioPath, features);
+        } catch (RuntimeException e) {
+            // 影子分析只做记录
+            shadowFailed.increment();
+            return;
+        }
+        if (!shadowResult.isSuccess() || shadowResult.getScores() == null) {
+            shadowFailed.increment();
+            return;
+        }
+
+        AudioAnalysisDTO.Scores expected = primaryResult.getScores();
+        AudioAnalysisDTO.Scores actual = shadowResult.getScores();
+        record("overall", expected, actual, AudioAnalysisDTO.Scores::getOverall);
+        record("pitch", expected, actual, AudioAnalysisDTO.Scores::getPitch);
+        record("rhythm", expected, actual, AudioAnalysisDTO.Scores::getRhythm);
+        record("voice", expected, actual, AudioAnalysisDTO.Scores::getVoice);
+        record("breath", expected, actual, AudioAnalysisDTO.Scores::getBreath);
+        compared.increment();
+    }
+
+    // 未选中的维度两边都为空，不计入
+    private void record(String dimension, AudioAnalysisDTO.Scores expected, AudioAnalysisDTO.Scores actual,
+                        Function<AudioAnalysisDTO.Scores, Double> score) {
+        Double a = score.apply(expected);
+        Double b = score.apply(actual);
+        if (a != null && b != null) {
+            divergence.get(dimension).record(Math.abs(a - b));
+        }
+    }
+
+    private Counter shadowRuns(MeterRegistry registry, String outcome) {
+        return Counter.builder("analysis.shadow.runs")
+                .description("影子对比次数")
+                .tag("outcome", outcome)
+                .tag("primary", primary.getName())
+                .tag("shadow", shadow.getName())
+                .register(registry);
+    }
+}
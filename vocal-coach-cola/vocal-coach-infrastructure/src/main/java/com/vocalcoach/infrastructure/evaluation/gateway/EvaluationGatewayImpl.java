@@ -3,26 +3,40 @@ package com.vocalcoach.infrastructure.evaluation.gateway;
 import com.alibaba.fastjson.JSON;
 import com.vocalcoach.domain.evaluation.Evaluation;
 import com.vocalcoach.domain.evaluation.gateway.EvaluationGateway;
+import com.vocalcoach.infrastructure.store.IndexedStore;
+import com.vocalcoach.infrastructure.store.RecordJournal;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Paths;
-import java.util.ArrayList;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
 
 @Component
 public class EvaluationGatewayImpl implements EvaluationGateway {
 
-    private static final String DATA_DIR = "data";
-    private static final String EVALUATIONS_FILE = "evaluations.json";
+    private static final String EVALUATIONS_NAME = "evaluations";
+    private static final String INDEX_EVALUATED_AT = "evaluatedAt";
+    private static final String INDEX_OVERALL_SCORE = "overallScore";
 
-    private List<Evaluation> evaluationsCache = new ArrayList<>();
-    private AtomicLong idGenerator = new AtomicLong(1);
+    @Value("${data.path:data}")
+    private String dataPath;
+
+    @Value("${evaluation.journal.compact-threshold:1000}")
+    private int compactThreshold;
+
+    private final IndexedStore<Evaluation> evaluationStore = new IndexedStore<>(Evaluation::getId, Evaluation::setId)
+            .withSortedIndex(INDEX_EVALUATED_AT, Evaluation::getEvaluatedAt)
+            .withSortedIndex(INDEX_OVERALL_SCORE,
+                    evaluation -> evaluation.getScores() == null ? null : evaluation.getScores().getOverall());
+    private RecordJournal<Evaluation> journal;
 
     @PostConstruct
     public void init() {
@@ -30,79 +44,97 @@ public class EvaluationGatewayImpl implements EvaluationGateway {
         loadFromFile();
     }
 
+    @PreDestroy
+    public void destroy() {
+        journal.close();
+    }
+
     private void ensureDataDir() {
-        File dir = new File(DATA_DIR);
+        File dir = new File(dataPath);
         if (!dir.exists()) {
             dir.mkdirs();
         }
-        File audiosDir = new File(DATA_DIR, "audios");
+        File audiosDir = new File(dataPath, "audios");
         if (!audiosDir.exists()) {
             audiosDir.mkdirs();
         }
     }
 
     private void loadFromFile() {
-        File file = new File(DATA_DIR, EVALUATIONS_FILE);
-        if (file.exists()) {
-            try {
-                String content = new String(Files.readAllBytes(file.toPath()));
-                evaluationsCache = JSON.parseArray(content, Evaluation.class);
-                if (evaluationsCache == null) {
-                    evaluationsCache = new ArrayList<>();
-                }
-                long maxId = evaluationsCache.stream()
-                        .mapToLong(e -> e.getId() != null ? e.getId() : 0)
-                        .max()
-                        .orElse(0);
-                idGenerator.set(maxId + 1);
-            } catch (IOException e) {
-                evaluationsCache = new ArrayList<>();
-            }
+        journal = new RecordJournal<>(Paths.get(dataPath), EVALUATIONS_NAME, Evaluation.class,
+                Evaluation::getId, compactThreshold);
+        try {
+            evaluationStore.loadAll(journal.load());
+        } catch (IOException e) {
+            throw new UncheckedIOException("加载评测记录失败", e);
         }
     }
 
-    private void saveToFile() {
+    // 写入与追加日志需保持同一顺序，读操作直接走内存索引不加锁
+    @Override
+    public synchronized Evaluation save(Evaluation evaluation) {
+        evaluationStore.save(evaluation);
         try {
-            String content = JSON.toJSONString(evaluationsCache);
-            Files.write(Paths.get(DATA_DIR, EVALUATIONS_FILE), content.getBytes());
+            journal.appendPut(evaluation, evaluationStore::findAll);
         } catch (IOException e) {
             e.printStackTrace();
         }
+        return evaluation;
     }
 
+    // 修改作用在副本上，存储中可能正被其他请求读取的对象保持不变
     @Override
-    public Evaluation save(Evaluation evaluation) {
-        if (evaluation.getId() == null) {
-            evaluation.setId(idGenerator.getAndIncrement());
-            evaluationsCache.add(evaluation);
-        } else {
-            evaluationsCache.removeIf(e -> evaluation.getId().equals(e.getId()));
-            evaluationsCache.add(evaluation);
+    public synchronized Optional<Evaluation> updateIfPresent(Long id, Consumer<Evaluation> updater) {
+        Optional<Evaluation> stored = evaluationStore.findById(id);
+        if (!stored.isPresent()) {
+            return Optional.empty();
         }
-        saveToFile();
-        return evaluation;
+        Evaluation evaluation = JSON.parseObject(JSON.toJSONString(stored.get()), Evaluation.class);
+        updater.accept(evaluation);
+        return Optional.of(save(evaluation));
     }
 
     @Override
     public List<Evaluation> findAll() {
-        return new ArrayList<>(evaluationsCache);
+        return evaluationStore.findAll();
+    }
+
+    @Override
+    public List<Evaluation> findPageById(Long afterId, int limit, boolean descending) {
+        return evaluationStore.findPageById(afterId, limit, descending);
+    }
+
+    @Override
+    public List<Evaluation> findPageByEvaluatedAt(LocalDateTime afterTime, Long afterId, int limit,
+                                                  boolean descending) {
+        return evaluationStore.findPageBySortedIndex(INDEX_EVALUATED_AT, afterTime, afterId, limit, descending);
+    }
+
+    @Override
+    public List<Evaluation> findPageByOverallScore(Integer afterScore, Long afterId, int limit,
+                                                   boolean descending) {
+        return evaluationStore.findPageBySortedIndex(INDEX_OVERALL_SCORE, afterScore, afterId, limit, descending);
     }
 
     @Override
     public Optional<Evaluation> findById(Long id) {
-        return evaluationsCache.stream()
-                .filter(e -> id.equals(e.getId()))
-                .findFirst();
+        return evaluationStore.findById(id);
     }
 
     @Override
-    public void deleteById(Long id) {
-        evaluationsCache.removeIf(e -> id.equals(e.getId()));
-        saveToFile();
+    public synchronized void deleteById(Long id) {
+        if (!evaluationStore.deleteById(id).isPresent()) {
+            return;
+        }
+        try {
+            journal.appendDelete(id, evaluationStore::findAll);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
     }
 
     @Override
     public long count() {
-        return evaluationsCache.size();
+        return evaluationStore.size();
     }
 }
@@ -0,0 +1,16 @@
+package com.vocalcoach.infrastructure.evaluation.limit;
+
+/**
+ * 分析并发上限的计算策略，由 AnalysisScheduler 在每次分析结束时反馈耗时。
+ */
+public interface ConcurrencyLimit {
+
+    int getLimit();
+
+    /**
+     * @param rttNanos 本次分析耗时（不含排队）
+     * @param inFlight 本次分析结束前正在运行的分析数
+     * @param dropped  分析是否异常结束
+     */
+    void onSample(long rttNanos, int inFlight, boolean dropped);
+}
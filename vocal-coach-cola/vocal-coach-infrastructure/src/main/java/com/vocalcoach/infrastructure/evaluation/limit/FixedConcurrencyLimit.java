@@ -0,0 +1,20 @@
+package com.vocalcoach.infrastructure.evaluation.limit;
+
+public class FixedConcurrencyLimit implements ConcurrencyLimit {
+
+    private final int limit;
+
+    public FixedConcurrencyLimit(int limit) {
+        this.limit = limit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public void onSample(long rttNanos, int inFlight, boolean dropped) {
+        // 固定上限不随耗时变化
+    }
+}
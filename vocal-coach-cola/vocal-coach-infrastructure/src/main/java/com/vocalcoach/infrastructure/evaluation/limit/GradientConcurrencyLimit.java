@@ -0,0 +1,111 @@
+package com.vocalcoach.infrastructure.evaluation.limit;
+
+/**
+ * 按延迟梯度调整并发上限：维护一个无排队时的耗时基线，与近期耗时比较。
+ * 近期耗时不超过基线的 tolerance 倍时上限加一，超过后按比例收缩；分析异常结束时乘性减小（AIMD）。
+ * 稳定后并发停在耗时开始明显变长的位置附近，即机器的实际处理能力。
+ * <p>
+ * 持续满载时观测不到无排队耗时，因此每隔一段样本把上限临时减半，
+ * 用探测期间开始并完成的一次分析重新校准基线（音频变长、机器变慢时基线随之上调）。
+ */
+public class GradientConcurrencyLimit implements ConcurrencyLimit {
+
+    private static final int SHORT_WINDOW = 10;
+    private static final int BASELINE_FALL_WINDOW = 10;
+    private static final int PROBE_INTERVAL = 100;
+    private static final double DROP_BACKOFF = 0.9;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final double smoothing;
+
+    private double estimatedLimit;
+    private double shortRtt;
+    private double baselineRtt;
+    private long samples;
+    private long nextProbeAt = PROBE_INTERVAL;
+    private int probeLimit;
+    private long probeStartedAt;
+    private volatile boolean probing;
+    private volatile int limit;
+
+    /**
+     * @param tolerance 近期耗时超过基线多少倍才开始收缩，例如 1.5
+     * @param smoothing 每次调整向新估计值靠拢的比例，取值 (0, 1]
+     */
+    public GradientConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, double smoothing) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.smoothing = smoothing;
+        this.estimatedLimit = clamp(initialLimit);
+        this.limit = (int) estimatedLimit;
+    }
+
+    @Override
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public synchronized void onSample(long rttNanos, int inFlight, boolean dropped) {
+        if (dropped) {
+            estimatedLimit = clamp(estimatedLimit * DROP_BACKOFF);
+            publishLimit();
+            return;
+        }
+
+        samples++;
+        if (probing) {
+            // 只有探测开始后才进入、且运行时并发不超过探测上限的样本能代表无排队耗时
+            long startedAt = System.nanoTime() - rttNanos;
+            if (startedAt >= probeStartedAt && inFlight <= probeLimit) {
+                baselineRtt = rttNanos;
+                shortRtt = rttNanos;
+                probing = false;
+                nextProbeAt = samples + PROBE_INTERVAL;
+                publishLimit();
+            }
+            return;
+        }
+
+        if (samples == 1) {
+            shortRtt = rttNanos;
+            baselineRtt = rttNanos;
+        } else {
+            shortRtt += (rttNanos - shortRtt) / Math.min(samples, SHORT_WINDOW);
+            if (rttNanos < baselineRtt) {
+                baselineRtt += (rttNanos - baselineRtt) / BASELINE_FALL_WINDOW;
+            }
+        }
+
+        // 并发没有用到一半时，耗时不能反映容量，不据此调整上限
+        if (inFlight >= estimatedLimit / 2) {
+            double gradient = Math.max(0.5, Math.min(1.0, tolerance * baselineRtt / shortRtt));
+            double target = estimatedLimit * gradient + 1;
+            estimatedLimit = clamp(estimatedLimit * (1 - smoothing) + target * smoothing);
+        }
+
+        if (samples >= nextProbeAt) {
+            probing = true;
+            probeLimit = Math.max(minLimit, (int) (estimatedLimit / 2));
+            probeStartedAt = System.nanoTime();
+            limit = probeLimit;
+        } else {
+            publishLimit();
+        }
+    }
+
+    public boolean isProbing() {
+        return probing;
+    }
+
+    private void publishLimit() {
+        limit = (int) estimatedLimit;
+    }
+
+    private double clamp(double value) {
+        return Math.max(minLimit, Math.min(maxLimit, value));
+    }
+}
@@ -3,6 +3,8 @@ package com.vocalcoach.infrastructure.report.gateway;
 import com.alibaba.fastjson.JSON;
 import com.vocalcoach.domain.report.Report;
 import com.vocalcoach.domain.report.gateway.ReportGateway;
+import com.vocalcoach.infrastructure.store.IndexedStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -10,21 +12,24 @@ import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.Comparator;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
 
 @Component
 public class ReportGatewayImpl implements ReportGateway {
 
-    private static final String DATA_DIR = "data";
     private static final String REPORTS_FILE = "reports.json";
+    private static final String INDEX_TIMESTAMP = "timestamp";
+    private static final String INDEX_OVERALL_SCORE = "overallScore";
 
-    private List<Report> reportsCache = new ArrayList<>();
-    private AtomicLong idGenerator = new AtomicLong(1);
+    @Value("${data.path:data}")
+    private String dataPath;
+
+    private final IndexedStore<Report> reportStore = new IndexedStore<>(Report::getId, Report::setId)
+            .withSortedIndex(INDEX_TIMESTAMP, Report::getTimestamp)
+            .withSortedIndex(INDEX_OVERALL_SCORE, Report::getOverallScore);
+    private final ReportStatistics statistics = new ReportStatistics();
 
     @PostConstruct
     public void init() {
@@ -33,33 +38,32 @@ public class ReportGatewayImpl implements ReportGateway {
     }
 
     private void ensureDataDir() {
-        File dir = new File(DATA_DIR);
+        File dir = new File(dataPath);
         if (!dir.exists()) {
             dir.mkdirs();
         }
     }
 
     private void loadFromFile() {
-        File file = new File(DATA_DIR, REPORTS_FILE);
+        File file = new File(dataPath, REPORTS_FILE);
         if (file.exists()) {
             try {
                 String content = new String(Files.readAllBytes(file.toPath()));
-                reportsCache = JSON.parseArray(content, Report.class);
-                if (reportsCache == null) {
-                    reportsCache = new ArrayList<>();
+                List<Report> reports = JSON.parseArray(content, Report.class);
+                if (reports != null) {
+                    reportStore.loadAll(reports);
+                    reportStore.findAll().forEach(statistics::put);
                 }
-                long maxId = reportsCache.stream().mapToLong(r -> r.getId() != null ? r.getId() : 0).max().orElse(0);
-                idGenerator.set(maxId + 1);
             } catch (IOException e) {
-                reportsCache = new ArrayList<>();
+                // 文件损坏时按空数据启动
             }
         }
     }
 
-    private void saveToFile() {
+    private synchronized void saveToFile() {
         try {
-            String content = JSON.toJSONString(reportsCache);
-            Files.write(Paths.get(DATA_DIR, REPORTS_FILE), content.getBytes());
+            String content = JSON.toJSONString(reportStore.findAll());
+            Files.write(Paths.get(dataPath, REPORTS_FILE), content.getBytes());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -67,12 +71,10 @@ public class ReportGatewayImpl implements ReportGateway {
 
     @Override
     public Report save(Report report) {
-        if (report.getId() == null) {
-            report.setId(idGenerator.getAndIncrement());
-            reportsCache.add(report);
-        } else {
-            reportsCache.removeIf(r -> report.getId().equals(r.getId()));
-            reportsCache.add(report);
+        // 存储与统计必须按同一顺序更新，否则并发覆盖同一报告时统计会偏离
+        synchronized (statistics) {
+            reportStore.save(report);
+            statistics.put(report);
         }
         saveToFile();
         return report;
@@ -80,103 +82,90 @@ public class ReportGatewayImpl implements ReportGateway {
 
     @Override
     public List<Report> findAll() {
-        return new ArrayList<>(reportsCache);
+        return reportStore.findAll();
+    }
+
+    @Override
+    public List<Report> findPageById(Long afterId, int limit, boolean descending) {
+        return reportStore.findPageById(afterId, limit, descending);
+    }
+
+    @Override
+    public List<Report> findPageByTimestamp(LocalDateTime afterTime, Long afterId, int limit, boolean descending) {
+        return reportStore.findPageBySortedIndex(INDEX_TIMESTAMP, afterTime, afterId, limit, descending);
+    }
+
+    @Override
+    public List<Report> findPageByOverallScore(Integer afterScore, Long afterId, int limit, boolean descending) {
+        return reportStore.findPageBySortedIndex(INDEX_OVERALL_SCORE, afterScore, afterId, limit, descending);
     }
 
     @Override
     public Optional<Report> findById(Long id) {
-        return reportsCache.stream()
-                .filter(r -> id.equals(r.getId()))
-                .findFirst();
+        return reportStore.findById(id);
     }
 
     @Override
     public void deleteById(Long id) {
-        reportsCache.removeIf(r -> id.equals(r.getId()));
-        saveToFile();
+        boolean removed;
+        synchronized (statistics) {
+            removed = reportStore.deleteById(id).isPresent();
+            statistics.remove(id);
+        }
+        if (removed) {
+            saveToFile();
+        }
     }
 
     @Override
     public boolean existsById(Long id) {
-        return reportsCache.stream().anyMatch(r -> id.equals(r.getId()));
+        return reportStore.existsById(id);
     }
 
     @Override
     public long count() {
-        return reportsCache.size();
+        return reportStore.size();
     }
 
     @Override
     public Double getAverageScore() {
-        if (reportsCache.isEmpty()) return null;
-        return reportsCache.stream()
-                .mapToInt(r -> r.getOverallScore() != null ? r.getOverallScore() : 0)
-                .average()
-                .orElse(0);
+        return statistics.getAverageScore();
     }
 
     @Override
     public Integer getBestScore() {
-        return reportsCache.stream()
-                .mapToInt(r -> r.getOverallScore() != null ? r.getOverallScore() : 0)
-                .max()
-                .orElse(0);
+        return statistics.getBestScore();
     }
 
     @Override
     public Integer getWorstScore() {
-        return reportsCache.stream()
-                .mapToInt(r -> r.getOverallScore() != null ? r.getOverallScore() : 0)
-                .min()
-                .orElse(0);
+        return statistics.getWorstScore();
     }
 
     @Override
     public Double getAveragePitchScore() {
-        if (reportsCache.isEmpty()) return null;
-        return reportsCache.stream()
-                .filter(r -> r.getDimensions() != null && r.getDimensions().getPitch() != null)
-                .mapToInt(r -> r.getDimensions().getPitch())
-                .average()
-                .orElse(0);
+        return statistics.getAveragePitchScore();
     }
 
     @Override
     public Double getAverageRhythmScore() {
-        if (reportsCache.isEmpty()) return null;
-        return reportsCache.stream()
-                .filter(r -> r.getDimensions() != null && r.getDimensions().getRhythm() != null)
-                .mapToInt(r -> r.getDimensions().getRhythm())
-                .average()
-                .orElse(0);
+        return statistics.getAverageRhythmScore();
     }
 
     @Override
     public Double getAverageBreathScore() {
-        if (reportsCache.isEmpty()) return null;
-        return reportsCache.stream()
-                .filter(r -> r.getDimensions() != null && r.getDimensions().getBreath() != null)
-                .mapToInt(r -> r.getDimensions().getBreath())
-                .average()
-                .orElse(0);
+        return statistics.getAverageBreathScore();
     }
 
     @Override
     public Double getAverageVoiceScore() {
-        if (reportsCache.isEmpty()) return null;
-        return reportsCache.stream()
-                .filter(r -> r.getDimensions() != null && r.getDimensions().getVoice() != null)
-                .mapToInt(r -> r.getDimensions().getVoice())
-                .average()
-                .orElse(0);
+        return statistics.getAverageVoiceScore();
     }
 
+    // 时间倒序，没有时间的排最后；时间相同时 ID 大（后保存）的在前
     @Override
     public List<Report> findTop10ByOrderByTimestampDesc() {
-        return reportsCache.stream()
-                .sorted(Comparator.comparing(Report::getTimestamp, Comparator.nullsLast(Comparator.reverseOrder())))
-                .limit(10)
-                .collect(Collectors.toList());
+        return reportStore.findTopBySortedIndex(INDEX_TIMESTAMP, 10, true);
     }
 
     // ==================== 以下为数据库实现代码，待数据库就绪后启用 ====================
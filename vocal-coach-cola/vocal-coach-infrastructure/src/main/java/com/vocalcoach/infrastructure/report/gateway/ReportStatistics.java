@@ -0,0 +1,120 @@
+package com.vocalcoach.infrastructure.report.gateway;
+
+import com.vocalcoach.domain.report.Report;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 报告统计的增量聚合：保存/删除时按报告 ID 扣除旧值、计入新值，查询不再遍历全部报告。
+ * 取值口径与原先的全量 stream 计算保持一致。
+ */
+class ReportStatistics {
+
+    private final Map<Long, Contribution> contributions = new HashMap<>();
+    // 总分 -> 出现次数，删除后仍能取到最高/最低分
+    private final TreeMap<Integer, Integer> overallScores = new TreeMap<>();
+    private long overallSum;
+
+    private final DimensionStat pitch = new DimensionStat();
+    private final DimensionStat rhythm = new DimensionStat();
+    private final DimensionStat breath = new DimensionStat();
+    private final DimensionStat voice = new DimensionStat();
+
+    synchronized void put(Report report) {
+        remove(report.getId());
+        Contribution contribution = new Contribution(report);
+        contributions.put(report.getId(), contribution);
+
+        overallSum += contribution.overall;
+        overallScores.merge(contribution.overall, 1, Integer::sum);
+        pitch.add(contribution.pitch);
+        rhythm.add(contribution.rhythm);
+        breath.add(contribution.breath);
+        voice.add(contribution.voice);
+    }
+
+    synchronized void remove(Long id) {
+        Contribution contribution = contributions.remove(id);
+        if (contribution == null) {
+            return;
+        }
+        overallSum -= contribution.overall;
+        overallScores.computeIfPresent(contribution.overall, (score, count) -> count > 1 ? count - 1 : null);
+        pitch.remove(contribution.pitch);
+        rhythm.remove(contribution.rhythm);
+        breath.remove(contribution.breath);
+        voice.remove(contribution.voice);
+    }
+
+    synchronized Double getAverageScore() {
+        if (contributions.isEmpty()) return null;
+        return (double) overallSum / contributions.size();
+    }
+
+    synchronized Integer getBestScore() {
+        return overallScores.isEmpty() ? 0 : overallScores.lastKey();
+    }
+
+    synchronized Integer getWorstScore() {
+        return overallScores.isEmpty() ? 0 : overallScores.firstKey();
+    }
+
+    synchronized Double getAveragePitchScore() {
+        return contributions.isEmpty() ? null : pitch.average();
+    }
+
+    synchronized Double getAverageRhythmScore() {
+        return contributions.isEmpty() ? null : rhythm.average();
+    }
+
+    synchronized Double getAverageBreathScore() {
+        return contributions.isEmpty() ? null : breath.average();
+    }
+
+    synchronized Double getAverageVoiceScore() {
+        return contributions.isEmpty() ? null : voice.average();
+    }
+
+    private static class Contribution {
+        private final int overall;
+        private final Integer pitch;
+        private final Integer rhythm;
+        private final Integer breath;
+        private final Integer voice;
+
+        Contribution(Report report) {
+            // 调用方可能原地修改报告对象，这里记录保存时的取值，删除/覆盖时据此扣除
+            this.overall = report.getOverallScore() != null ? report.getOverallScore() : 0;
+            Report.Dimensions dimensions = report.getDimensions();
+            this.pitch = dimensions != null ? dimensions.getPitch() : null;
+            this.rhythm = dimensions != null ? dimensions.getRhythm() : null;
+            this.breath = dimensions != null ? dimensions.getBreath() : null;
+            this.voice = dimensions != null ? dimensions.getVoice() : null;
+        }
+    }
+
+    private static class DimensionStat {
+        private long sum;
+        private int count;
+
+        void add(Integer value) {
+            if (value != null) {
+                sum += value;
+                count++;
+            }
+        }
+
+        void remove(Integer value) {
+            if (value != null) {
+                sum -= value;
+                count--;
+            }
+        }
+
+        double average() {
+            return count == 0 ? 0 : (double) sum / count;
+        }
+    }
+}
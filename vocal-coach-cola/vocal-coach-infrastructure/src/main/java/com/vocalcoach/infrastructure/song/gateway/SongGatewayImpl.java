@@ -3,6 +3,7 @@ package com.vocalcoach.infrastructure.song.gateway;
 import com.alibaba.fastjson.JSON;
 import com.vocalcoach.domain.song.Song;
 import com.vocalcoach.domain.song.gateway.SongGateway;
+import com.vocalcoach.infrastructure.store.IndexedStore;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -14,55 +15,55 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Component
 public class SongGatewayImpl implements SongGateway {
 
-    private static final String DATA_DIR = "data";
     private static final String SONGS_FILE = "songs.json";
+    private static final String INDEX_CATEGORY = "category";
 
-    private List<Song> songsCache = new ArrayList<>();
-    private AtomicLong idGenerator = new AtomicLong(1);
+    @Value("${data.path:data}")
+    private String dataPath;
+
+    private final IndexedStore<Song> songStore = new IndexedStore<>(Song::getId, Song::setId)
+            .withHashIndex(INDEX_CATEGORY, Song::getCategory);
 
     @PostConstruct
     public void init() {
         ensureDataDir();
         loadFromFile();
-        if (songsCache.isEmpty()) {
+        if (songStore.size() == 0) {
             initDefaultSongs();
         }
     }
 
     private void ensureDataDir() {
-        File dir = new File(DATA_DIR);
+        File dir = new File(dataPath);
         if (!dir.exists()) {
             dir.mkdirs();
         }
     }
 
     private void loadFromFile() {
-        File file = new File(DATA_DIR, SONGS_FILE);
+        File file = new File(dataPath, SONGS_FILE);
         if (file.exists()) {
             try {
                 String content = new String(Files.readAllBytes(file.toPath()));
-                songsCache = JSON.parseArray(content, Song.class);
-                if (songsCache == null) {
-                    songsCache = new ArrayList<>();
+                List<Song> songs = JSON.parseArray(content, Song.class);
+                if (songs != null) {
+                    songStore.loadAll(songs);
                 }
-                long maxId = songsCache.stream().mapToLong(s -> s.getId() != null ? s.getId() : 0).max().orElse(0);
-                idGenerator.set(maxId + 1);
             } catch (IOException e) {
-                songsCache = new ArrayList<>();
+                // 文件损坏时按空数据启动
             }
         }
     }
 
-    private void saveToFile() {
+    private synchronized void saveToFile() {
         try {
-            String content = JSON.toJSONString(songsCache);
-            Files.write(Paths.get(DATA_DIR, SONGS_FILE), content.getBytes());
+            String content = JSON.toJSONString(songStore.findAll());
+            Files.write(Paths.get(dataPath, SONGS_FILE), content.getBytes());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -123,27 +124,23 @@ public class SongGatewayImpl implements SongGateway {
 
     @Override
     public List<Song> findAll() {
-        return new ArrayList<>(songsCache);
+        return songStore.findAll();
     }
 
     @Override
     public List<Song> findByCategory(String category) {
-        return songsCache.stream()
-                .filter(s -> category.equals(s.getCategory()))
-                .collect(Collectors.toList());
+        return songStore.findByIndex(INDEX_CATEGORY, category);
     }
 
     @Override
     public Optional<Song> findById(Long id) {
-        return songsCache.stream()
-                .filter(s -> id.equals(s.getId()))
-                .findFirst();
+        return songStore.findById(id);
     }
 
     @Override
     public List<Song> search(String keyword) {
         String lowerKeyword = keyword.toLowerCase();
-        return songsCache.stream()
+        return songStore.findAll().stream()
                 .filter(s -> (s.getName() != null && s.getName().toLowerCase().contains(lowerKeyword))
                         || (s.getArtist() != null && s.getArtist().toLowerCase().contains(lowerKeyword)))
                 .collect(Collectors.toList());
@@ -151,20 +148,14 @@ public class SongGatewayImpl implements SongGateway {
 
     @Override
     public Song save(Song song) {
-        if (song.getId() == null) {
-            song.setId(idGenerator.getAndIncrement());
-            songsCache.add(song);
-        } else {
-            songsCache.removeIf(s -> song.getId().equals(s.getId()));
-            songsCache.add(song);
-        }
+        songStore.save(song);
         saveToFile();
         return song;
     }
 
     @Override
     public long count() {
-        return songsCache.size();
+        return songStore.size();
     }
 
     // ==================== 以下为数据库实现代码，待数据库就绪后启用 ====================
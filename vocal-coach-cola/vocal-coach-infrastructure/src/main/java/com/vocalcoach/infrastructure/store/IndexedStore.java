@@ -0,0 +1,328 @@
+package com.vocalcoach.infrastructure.store;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 线程安全的内存存储：按 ID 的主索引（ConcurrentHashMap，点查无锁）加声明式二级索引。
+ * 写操作持有写锁，保证主索引与二级索引一致；索引键按 ID 记录，实体被调用方原地修改后再次保存也能正确迁移。
+ */
+public class IndexedStore<T> {
+
+    private final Function<T, Long> idGetter;
+    private final BiConsumer<T, Long> idSetter;
+    private final Map<Long, T> primary = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<Long, T> orderedById = new ConcurrentSkipListMap<>();
+    private final Map<String, HashIndex<T>> hashIndexes = new HashMap<>();
+    private final Map<String, SortedIndex<T, ?>> sortedIndexes = new HashMap<>();
+    private final AtomicLong idGenerator = new AtomicLong(1);
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public IndexedStore(Function<T, Long> idGetter, BiConsumer<T, Long> idSetter) {
+        this.idGetter = idGetter;
+        this.idSetter = idSetter;
+    }
+
+    public IndexedStore<T> withHashIndex(String name, Function<T, ?> keyExtractor) {
+        hashIndexes.put(name, new HashIndex<>(keyExtractor));
+        return this;
+    }
+
+    public <K extends Comparable<? super K>> IndexedStore<T> withSortedIndex(String name, Function<T, K> keyExtractor) {
+        sortedIndexes.put(name, new SortedIndex<>(keyExtractor));
+        return this;
+    }
+
+    public void loadAll(Collection<T> records) {
+        lock.writeLock().lock();
+        try {
+            long maxId = 0;
+            for (T record : records) {
+                Long id = idGetter.apply(record);
+                if (id == null) {
+                    continue;
+                }
+                put(id, record);
+                maxId = Math.max(maxId, id);
+            }
+            idGenerator.set(maxId + 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public T save(T record) {
+        lock.writeLock().lock();
+        try {
+            Long id = idGetter.apply(record);
+            if (id == null) {
+                id = idGenerator.getAndIncrement();
+                idSetter.accept(record, id);
+            } else {
+                idGenerator.accumulateAndGet(id + 1, Math::max);
+            }
+            put(id, record);
+            return record;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 读取-修改-保存的原子版本：在写锁内按哈希索引取第一条记录（没有时由 factory 新建），交给 updater 修改后保存。
+     * 同一键上的并发更新依次执行，不会建出重复记录，也不会丢失修改。
+     */
+    public T upsertFirstByIndex(String indexName, Object key, Supplier<T> factory, Consumer<T> updater) {
+        lock.writeLock().lock();
+        try {
+            Iterator<Long> ids = hashIndex(indexName).ids(key).iterator();
+            T record = ids.hasNext() ? primary.get(ids.next()) : null;
+            if (record == null) {
+                record = factory.get();
+            }
+            updater.accept(record);
+            return save(record);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<T> deleteById(Long id) {
+        lock.writeLock().lock();
+        try {
+            T removed = primary.remove(id);
+            if (removed != null) {
+                orderedById.remove(id);
+                hashIndexes.values().forEach(index -> index.remove(id));
+                sortedIndexes.values().forEach(index -> index.remove(id));
+            }
+            return Optional.ofNullable(removed);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<T> findById(Long id) {
+        return id == null ? Optional.empty() : Optional.ofNullable(primary.get(id));
+    }
+
+    public boolean existsById(Long id) {
+        return id != null && primary.containsKey(id);
+    }
+
+    public List<T> findAll() {
+        return new ArrayList<>(orderedById.values());
+    }
+
+    public int size() {
+        return primary.size();
+    }
+
+    public List<T> findByIndex(String indexName, Object key) {
+        lock.readLock().lock();
+        try {
+            return resolve(hashIndex(indexName).ids(key));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public Optional<T> findFirstByIndex(String indexName, Object key) {
+        lock.readLock().lock();
+        try {
+            Iterator<Long> ids = hashIndex(indexName).ids(key).iterator();
+            return ids.hasNext() ? Optional.ofNullable(primary.get(ids.next())) : Optional.empty();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int countByIndex(String indexName, Object key) {
+        lock.readLock().lock();
+        try {
+            return hashIndex(indexName).ids(key).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<T> findTopBySortedIndex(String indexName, int limit, boolean descending) {
+        SortedIndex<T, ?> index = sortedIndex(indexName);
+        return take(descending ? index.entries.descendingMap().values() : index.entries.values(), limit);
+    }
+
+    /**
+     * 按 ID 顺序取 afterId 之后（不含）的至多 limit 条，afterId 为 null 时从头开始。跳表定位后顺序读取，
+     * 耗时只与 limit 有关。
+     */
+    public List<T> findPageById(Long afterId, int limit, boolean descending) {
+        NavigableMap<Long, T> view = descending ? orderedById.descendingMap() : orderedById;
+        if (afterId != null) {
+            view = view.tailMap(afterId, false);
+        }
+        return take(view.values(), limit);
+    }
+
+    /**
+     * 按排序索引取 (afterKey, afterId) 之后（不含）的至多 limit 条，键相同时按 ID 排序；afterId 为 null 时从头开始。
+     * afterKey 的类型必须与声明索引时的键类型一致。
+     */
+    @SuppressWarnings("unchecked")
+    public <K extends Comparable<? super K>> List<T> findPageBySortedIndex(String indexName, K afterKey, Long afterId,
+                                                                           int limit, boolean descending) {
+        SortedIndex<T, K> index = (SortedIndex<T, K>) sortedIndex(indexName);
+        NavigableMap<IndexKey<K>, T> view = descending ? index.entries.descendingMap() : index.entries;
+        if (afterId != null) {
+            view = view.tailMap(new IndexKey<>(afterKey, afterId), false);
+        }
+        return take(view.values(), limit);
+    }
+
+    // 跳表视图的 size() 需要遍历全表，这里不用它预估容量
+    private static <T> List<T> take(Collection<T> values, int limit) {
+        List<T> result = new ArrayList<>(Math.min(limit, 16));
+        for (T value : values) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(value);
+        }
+        return result;
+    }
+
+    private void put(Long id, T record) {
+        primary.put(id, record);
+        orderedById.put(id, record);
+        hashIndexes.values().forEach(index -> index.put(id, record));
+        sortedIndexes.values().forEach(index -> index.put(id, record));
+    }
+
+    private SortedIndex<T, ?> sortedIndex(String indexName) {
+        SortedIndex<T, ?> index = sortedIndexes.get(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("未定义的排序索引: " + indexName);
+        }
+        return index;
+    }
+
+    private HashIndex<T> hashIndex(String indexName) {
+        HashIndex<T> index = hashIndexes.get(indexName);
+        if (index == null) {
+            throw new IllegalArgumentException("未定义的索引: " + indexName);
+        }
+        return index;
+    }
+
+    private List<T> resolve(Collection<Long> ids) {
+        List<T> result = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T record = primary.get(id);
+            if (record != null) {
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    private static class HashIndex<T> {
+        private final Function<T, ?> keyExtractor;
+        private final Map<Object, Set<Long>> buckets = new HashMap<>();
+        private final Map<Long, Object> keysById = new HashMap<>();
+
+        HashIndex(Function<T, ?> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+        }
+
+        void put(Long id, T record) {
+            Object key = keyExtractor.apply(record);
+            if (keysById.containsKey(id)) {
+                Object oldKey = keysById.get(id);
+                if (Objects.equals(oldKey, key)) {
+                    return;
+                }
+                remove(id);
+            }
+            keysById.put(id, key);
+            buckets.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+        }
+
+        void remove(Long id) {
+            if (!keysById.containsKey(id)) {
+                return;
+            }
+            Object key = keysById.remove(id);
+            Set<Long> bucket = buckets.get(key);
+            if (bucket != null) {
+                bucket.remove(id);
+                if (bucket.isEmpty()) {
+                    buckets.remove(key);
+                }
+            }
+        }
+
+        Set<Long> ids(Object key) {
+            return buckets.getOrDefault(key, Collections.emptySet());
+        }
+    }
+
+    private static class SortedIndex<T, K extends Comparable<? super K>> {
+        private final Function<T, K> keyExtractor;
+        private final ConcurrentSkipListMap<IndexKey<K>, T> entries = new ConcurrentSkipListMap<>();
+        private final Map<Long, IndexKey<K>> keysById = new HashMap<>();
+
+        SortedIndex(Function<T, K> keyExtractor) {
+            this.keyExtractor = keyExtractor;
+        }
+
+        void put(Long id, T record) {
+            IndexKey<K> key = new IndexKey<>(keyExtractor.apply(record), id);
+            IndexKey<K> oldKey = keysById.put(id, key);
+            if (oldKey != null && oldKey.compareTo(key) != 0) {
+                entries.remove(oldKey);
+            }
+            entries.put(key, record);
+        }
+
+        void remove(Long id) {
+            IndexKey<K> oldKey = keysById.remove(id);
+            if (oldKey != null) {
+                entries.remove(oldKey);
+            }
+        }
+    }
+
+    private static class IndexKey<K extends Comparable<? super K>> implements Comparable<IndexKey<K>> {
+        private final K key;
+        private final Long id;
+
+        IndexKey(K key, Long id) {
+            this.key = key;
+            this.id = id;
+        }
+
+        @Override
+        public int compareTo(IndexKey<K> other) {
+            int result = Objects.compare(key, other.key, Comparator.nullsFirst(Comparator.naturalOrder()));
+            return result != 0 ? result : id.compareTo(other.id);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.vocalcoach.infrastructure.store;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 快照 + 追加日志的文件存储。
+ * 每次保存/删除只向 {name}.journal 追加一行记录，日志行数达到阈值后在后台把当前全量数据
+ * 写成 {name}.json 快照并清空日志；启动时按 快照 -> 压缩中日志 -> 当前日志 的顺序回放。
+ */
+public class RecordJournal<T> {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordJournal.class);
+
+    private static final String OP_PUT = "put";
+    private static final String OP_DELETE = "delete";
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private final Path compactingFile;
+    private final Class<T> type;
+    private final Function<T, Long> idExtractor;
+    private final int compactThreshold;
+    private final ExecutorService compactor;
+
+    private BufferedWriter writer;
+    private int journalRecords;
+    private boolean compacting;
+
+    public RecordJournal(Path dataDir, String name, Class<T> type, Function<T, Long> idExtractor, int compactThreshold) {
+        this.snapshotFile = dataDir.resolve(name + ".json");
+        this.journalFile = dataDir.resolve(name + ".journal");
+        this.compactingFile = dataDir.resolve(name + ".journal.compacting");
+        this.type = type;
+        this.idExtractor = idExtractor;
+        this.compactThreshold = compactThreshold;
+        this.compactor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "journal-compactor-" + name);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public synchronized List<T> load() throws IOException {
+        Map<Long, T> records = new LinkedHashMap<>();
+        if (Files.exists(snapshotFile)) {
+            List<T> snapshot = JSON.parseArray(new String(Files.readAllBytes(snapshotFile), StandardCharsets.UTF_8), type);
+            if (snapshot != null) {
+                for (T record : snapshot) {
+                    records.put(idExtractor.apply(record), record);
+                }
+            }
+        }
+        replay(compactingFile, records);
+        journalRecords = replay(journalFile, records);
+
+        boolean tornTail = endsWithoutNewline(journalFile);
+        writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (tornTail) {
+            // 崩溃留下的半行没有换行结尾，先补一个换行，之后追加的记录才不会和它连成一行
+            writer.newLine();
+            writer.flush();
+        }
+        return new ArrayList<>(records.values());
+    }
+
+    public synchronized void appendPut(T record, Supplier<Collection<T>> state) throws IOException {
+        JSONObject line = new JSONObject();
+        line.put("op", OP_PUT);
+        line.put("id", idExtractor.apply(record));
+        line.put("record", record);
+        append(line, state);
+    }
+
+    public synchronized void appendDelete(Long id, Supplier<Collection<T>> state) throws IOException {
+        JSONObject line = new JSONObject();
+        line.put("op", OP_DELETE);
+        line.put("id", id);
+        append(line, state);
+    }
+
+    public void close() {
+        compactor.shutdown();
+        synchronized (this) {
+            try {
+                if (writer != null) {
+                    writer.close();
+                }
+            } catch (IOException ignored) {
+                // 关闭阶段忽略
+            }
+        }
+    }
+
+    private void append(JSONObject line, Supplier<Collection<T>> state) throws IOException {
+        writer.write(line.toJSONString());
+        writer.newLine();
+        writer.flush();
+
+        if (++journalRecords >= compactThreshold && !compacting) {
+            startCompaction(state);
+        }
+    }
+
+    private void startCompaction(Supplier<Collection<T>> state) throws IOException {
+        // 先切换日志文件，之后的写入进入新日志；快照只需覆盖切换前的状态
+        writer.close();
+        if (Files.exists(compactingFile)) {
+            // 上次压缩失败留下的日志还没有写进快照，把当前日志接在后面，回放顺序不变；
+            // 先补一个换行，避免旧文件末尾的半行记录和新记录连在一起
+            try (OutputStream out = Files.newOutputStream(compactingFile, StandardOpenOption.APPEND)) {
+                out.write('\n');
+                Files.copy(journalFile, out);
+            }
+            Files.delete(journalFile);
+        } else {
+            Files.move(journalFile, compactingFile);
+        }
+        writer = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        journalRecords = 0;
+        compacting = true;
+
+        List<T> snapshot = new ArrayList<>(state.get());
+        compactor.execute(() -> writeSnapshot(snapshot));
+    }
+
+    private void writeSnapshot(List<T> snapshot) {
+        try {
+            Path temp = snapshotFile.resolveSibling(snapshotFile.getFileName() + ".tmp");
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                JSON.writeJSONString(out, snapshot);
+            }
+            Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Files.deleteIfExists(compactingFile);
+        } catch (IOException e) {
+            // 压缩失败时保留压缩中日志，下次启动仍可完整回放
+            log.error("写入快照失败: {}", snapshotFile, e);
+        } finally {
+            synchronized (this) {
+                compacting = false;
+            }
+        }
+    }
+
+    private static boolean endsWithoutNewline(Path file) throws IOException {
+        if (!Files.exists(file) || Files.size(file) == 0) {
+            return false;
+        }
+        try (SeekableByteChannel channel = Files.newByteChannel(file)) {
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.position(channel.size() - 1).read(last);
+            return last.get(0) != '\n';
+        }
+    }
+
+    private int replay(Path file, Map<Long, T> records) throws IOException {
+        if (!Files.exists(file)) {
+            return 0;
+        }
+        int count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                JSONObject entry;
+                try {
+                    entry = JSON.parseObject(line);
+                } catch (Exception e) {
+                    // 进程崩溃可能留下半行记录
+                    continue;
+                }
+                if (entry == null) {
+                    continue;
+                }
+                Long id = entry.getLong("id");
+                if (OP_DELETE.equals(entry.getString("op"))) {
+                    records.remove(id);
+                } else {
+                    records.remove(id);
+                    records.put(id, entry.getObject("record", type));
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -4,6 +4,8 @@ import com.alibaba.fastjson.JSON;
 import com.vocalcoach.domain.training.Course;
 import com.vocalcoach.domain.training.TrainingProgress;
 import com.vocalcoach.domain.training.gateway.TrainingGateway;
+import com.vocalcoach.infrastructure.store.IndexedStore;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import javax.annotation.PostConstruct;
@@ -15,18 +17,23 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 @Component
 public class TrainingGatewayImpl implements TrainingGateway {
 
-    private static final String DATA_DIR = "data";
     private static final String PROGRESS_FILE = "training_progress.json";
+    private static final String INDEX_EXERCISE = "exercise";
+    private static final String INDEX_COMPLETED = "completed";
 
     private static final List<Course> DEFAULT_COURSES = new ArrayList<>();
-    private List<TrainingProgress> progressCache = new ArrayList<>();
-    private AtomicLong idGenerator = new AtomicLong(1);
+
+    @Value("${data.path:data}")
+    private String dataPath;
+    private final IndexedStore<TrainingProgress> progressStore =
+            new IndexedStore<>(TrainingProgress::getId, TrainingProgress::setId)
+                    .withHashIndex(INDEX_EXERCISE, p -> Arrays.asList(p.getCourseId(), p.getExerciseId()))
+                    .withHashIndex(INDEX_COMPLETED, p -> Boolean.TRUE.equals(p.getCompleted()));
 
     @PostConstruct
     public void init() {
@@ -38,33 +45,31 @@ public class TrainingGatewayImpl implements TrainingGateway {
     }
 
     private void ensureDataDir() {
-        File dir = new File(DATA_DIR);
+        File dir = new File(dataPath);
         if (!dir.exists()) {
             dir.mkdirs();
         }
     }
 
     private void loadFromFile() {
-        File file = new File(DATA_DIR, PROGRESS_FILE);
+        File file = new File(dataPath, PROGRESS_FILE);
         if (file.exists()) {
             try {
                 String content = new String(Files.readAllBytes(file.toPath()));
-                progressCache = JSON.parseArray(content, TrainingProgress.class);
-                if (progressCache == null) {
-                    progressCache = new ArrayList<>();
+                List<TrainingProgress> progressList = JSON.parseArray(content, TrainingProgress.class);
+                if (progressList != null) {
+                    progressStore.loadAll(progressList);
                 }
-                long maxId = progressCache.stream().mapToLong(p -> p.getId() != null ? p.getId() : 0).max().orElse(0);
-                idGenerator.set(maxId + 1);
             } catch (IOException e) {
-                progressCache = new ArrayList<>();
+                // 文件损坏时按空数据启动
             }
         }
     }
 
-    private void saveToFile() {
+    private synchronized void saveToFile() {
         try {
-            String content = JSON.toJSONString(progressCache);
-            Files.write(Paths.get(DATA_DIR, PROGRESS_FILE), content.getBytes());
+            String content = JSON.toJSONString(progressStore.findAll());
+            Files.write(Paths.get(dataPath, PROGRESS_FILE), content.getBytes());
         } catch (IOException e) {
             e.printStackTrace();
         }
@@ -193,34 +198,39 @@ public class TrainingGatewayImpl implements TrainingGateway {
 
     @Override
     public List<TrainingProgress> findAllProgress() {
-        return new ArrayList<>(progressCache);
+        return progressStore.findAll();
     }
 
     @Override
     public Optional<TrainingProgress> findProgress(String courseId, String exerciseId) {
-        return progressCache.stream()
-                .filter(p -> courseId.equals(p.getCourseId()) && exerciseId.equals(p.getExerciseId()))
-                .findFirst();
+        return progressStore.findFirstByIndex(INDEX_EXERCISE, Arrays.asList(courseId, exerciseId));
     }
 
     @Override
     public TrainingProgress saveProgress(TrainingProgress progress) {
-        if (progress.getId() == null) {
-            progress.setId(idGenerator.getAndIncrement());
-            progressCache.add(progress);
-        } else {
-            progressCache.removeIf(p -> progress.getId().equals(p.getId()));
-            progressCache.add(progress);
-        }
+        progressStore.save(progress);
+        saveToFile();
+        return progress;
+    }
+
+    @Override
+    public TrainingProgress updateProgress(String courseId, String exerciseId, Consumer<TrainingProgress> updater) {
+        TrainingProgress progress = progressStore.upsertFirstByIndex(INDEX_EXERCISE, Arrays.asList(courseId, exerciseId),
+                () -> {
+                    TrainingProgress newProgress = new TrainingProgress();
+                    newProgress.setCourseId(courseId);
+                    newProgress.setExerciseId(exerciseId);
+                    newProgress.setAttempts(0);
+                    newProgress.setCompleted(false);
+                    return newProgress;
+                }, updater);
         saveToFile();
         return progress;
     }
 
     @Override
     public int countCompletedExercises() {
-        return (int) progressCache.stream()
-                .filter(p -> Boolean.TRUE.equals(p.getCompleted()))
-                .count();
+        return progressStore.countByIndex(INDEX_COMPLETED, true);
     }
 
     @Override
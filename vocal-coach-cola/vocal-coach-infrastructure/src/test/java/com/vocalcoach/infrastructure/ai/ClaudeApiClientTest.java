@@ -0,0 +1,174 @@
+package com.vocalcoach.infrastructure.ai;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONArray;
+import com.alibaba.fastjson.JSONObject;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用本地 HTTP 服务模拟 Claude API，验证请求内容、响应解析、失败回落、排队上限和截止时间。
+ */
+class ClaudeApiClientTest {
+
+    private static final String EVALUATION_JSON = "{\"overallComment\":\"音准稳定\",\"styleScore\":82,"
+            + "\"strengths\":[{\"dimension\":\"音准\",\"title\":\"音准好\",\"description\":\"偏差小\",\"icon\":\"🎯\"}]}";
+
+    private HttpServer server;
+    private ClaudeApiClient client;
+    private volatile int status = 200;
+    private volatile CountDownLatch release;
+    private final AtomicReference<String> lastApiKey = new AtomicReference<>();
+    private final AtomicReference<String> lastPrompt = new AtomicReference<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/v1/messages", this::handle);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        client = new ClaudeApiClient();
+        ReflectionTestUtils.setField(client, "apiKey", "test-key");
+        ReflectionTestUtils.setField(client, "apiUrl",
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/v1/messages");
+        ReflectionTestUtils.setField(client, "model", "test-model");
+        ReflectionTestUtils.setField(client, "maxConcurrent", 1);
+        ReflectionTestUtils.setField(client, "maxPending", 0);
+        ReflectionTestUtils.setField(client, "connectTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(client, "requestTimeoutSeconds", 5L);
+        ReflectionTestUtils.setField(client, "deadlineSeconds", 10L);
+        client.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (release != null) {
+            release.countDown();
+        }
+        server.stop(0);
+    }
+
+    @Test
+    void parsesEvaluationFromApiResponse() {
+        ClaudeApiClient.EvaluationResult result = client.requestEvaluationAsync(scores(), null, "月亮代表我的心").join();
+
+        assertEquals("音准稳定", result.getOverallComment());
+        assertEquals(Integer.valueOf(82), result.getStyleScore());
+        assertEquals(1, result.getStrengths().size());
+        assertEquals("音准好", result.getStrengths().get(0).getTitle());
+        assertEquals("test-key", lastApiKey.get());
+        assertTrue(lastPrompt.get().contains("月亮代表我的心"));
+        assertTrue(lastPrompt.get().contains("音准得分：75.0/100"));
+    }
+
+    @Test
+    void apiErrorFailsRequestButFallsBackForGenerate() {
+        status = 500;
+
+        CompletionException error = assertThrows(CompletionException.class,
+                () -> client.requestEvaluationAsync(scores(), null, "测试").join());
+        assertTrue(error.getCause() instanceof IllegalStateException);
+
+        ClaudeApiClient.EvaluationResult fallback = client.generateEvaluationAsync(scores(), null, "测试").join();
+        assertNotNull(fallback);
+        assertNotNull(fallback.getOverallComment());
+    }
+
+    @Test
+    void rejectsCallsBeyondPendingLimit() throws Exception {
+        release = new CountDownLatch(1);
+        CompletableFuture<ClaudeApiClient.EvaluationResult> first = client.requestEvaluationAsync(scores(), null, "1");
+        CompletableFuture<ClaudeApiClient.EvaluationResult> second = client.requestEvaluationAsync(scores(), null, "2");
+
+        CompletionException error = assertThrows(CompletionException.class, second::join);
+        assertTrue(error.getCause() instanceof RejectedExecutionException);
+
+        release.countDown();
+        assertEquals("音准稳定", first.get(5, TimeUnit.SECONDS).getOverallComment());
+    }
+
+    @Test
+    void deadlineReleasesPermitAndDropsQueuedCalls() throws Exception {
+        ReflectionTestUtils.setField(client, "maxPending", 1);
+        ReflectionTestUtils.setField(client, "deadlineSeconds", 1L);
+        release = new CountDownLatch(1);
+        CompletableFuture<ClaudeApiClient.EvaluationResult> hung = client.requestEvaluationAsync(scores(), null, "1");
+        CompletableFuture<ClaudeApiClient.EvaluationResult> queued = client.requestEvaluationAsync(scores(), null, "2");
+
+        CompletionException hungError = assertThrows(CompletionException.class, hung::join);
+        assertTrue(hungError.getCause() instanceof TimeoutException);
+        CompletionException queuedError = assertThrows(CompletionException.class, queued::join);
+        assertTrue(queuedError.getCause() instanceof TimeoutException);
+
+        // 服务端仍卡在第一个请求上，但许可已归还、超时的排队请求已移出队列，新请求既不被拒绝也不用等待
+        CountDownLatch stillHung = release;
+        release = null;
+        ClaudeApiClient.EvaluationResult result = client.requestEvaluationAsync(scores(), null, "3")
+                .get(3, TimeUnit.SECONDS);
+        assertEquals("音准稳定", result.getOverallComment());
+        assertEquals(1, stillHung.getCount());
+        assertTrue(lastPrompt.get().contains("歌曲名称：3"));
+        stillHung.countDown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        JSONObject request = JSON.parseObject(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+        lastApiKey.set(exchange.getRequestHeaders().getFirst("x-api-key"));
+        lastPrompt.set(request.getJSONArray("messages").getJSONObject(0).getString("content"));
+        CountDownLatch latch = release;
+        if (latch != null) {
+            try {
+                latch.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        JSONObject text = new JSONObject();
+        text.put("type", "text");
+        text.put("text", EVALUATION_JSON);
+        JSONArray content = new JSONArray();
+        content.add(text);
+        JSONObject response = new JSONObject();
+        response.put("content", content);
+        byte[] body = (status == 200 ? response.toJSONString() : "{\"error\":\"overloaded\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static AudioAnalysisDTO.Scores scores() {
+        AudioAnalysisDTO.Scores scores = new AudioAnalysisDTO.Scores();
+        scores.setOverall(72.0);
+        scores.setPitch(75.0);
+        scores.setRhythm(68.0);
+        return scores;
+    }
+}
@@ -0,0 +1,142 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 与朴素 O(N × M) 动态规划对照分块 DTW 的累积代价，并验证子序列匹配、约束带和提前放弃。
+ * 序列长度超过一个分块（256 帧），覆盖分块边界。
+ */
+class DtwAlignerTest {
+
+    private final Random random = new Random(7);
+
+    @Test
+    void matchesNaiveDtw() {
+        double[][] x = randomSequence(300, 3);
+        double[][] y = randomSequence(420, 3);
+        for (boolean subsequence : new boolean[]{false, true}) {
+            for (boolean parallel : new boolean[]{false, true}) {
+                DtwAligner aligner = new DtwAligner(DtwAligner.Band.NONE, 0.1, 2, subsequence, parallel);
+                DtwAligner.Result result = aligner.align(x, y);
+                assertFalse(result.isAbandoned());
+                assertEquals(naiveCost(x, y, subsequence), result.getCost(), 1e-6);
+            }
+        }
+    }
+
+    @Test
+    void identicalSequencesCostNothing() {
+        double[][] x = randomSequence(500, 2);
+        for (DtwAligner.Band band : DtwAligner.Band.values()) {
+            DtwAligner.Result result = new DtwAligner(band, 0.1, 2, false, false).align(x, x);
+            assertEquals(0, result.getCost(), 1e-9, band.name());
+            assertEquals(x.length, result.getPathLength(), band.name());
+        }
+    }
+
+    @Test
+    void subsequenceFindsQueryAnywhereInReference() {
+        double[][] y = randomSequence(600, 2);
+        // 查询取自参考的中段，结尾不对齐，只有不加约束带时才能完整匹配
+        double[][] x = Arrays.copyOfRange(y, 100, 400);
+        double[][] tail = Arrays.copyOfRange(y, 0, 400);
+        DtwAligner aligner = new DtwAligner(DtwAligner.Band.NONE, 0.1, 2, true, false);
+        assertEquals(0, aligner.align(x, tail).getCost(), 1e-9);
+        assertTrue(aligner.align(x, y).getCost() > 0);
+    }
+
+    @Test
+    void bandNeverBeatsUnconstrained() {
+        double[][] x = randomSequence(300, 3);
+        double[][] y = randomSequence(360, 3);
+        double unconstrained = new DtwAligner(DtwAligner.Band.NONE, 0.1, 2, false, false).align(x, y).getCost();
+        for (DtwAligner.Band band : new DtwAligner.Band[]{DtwAligner.Band.SAKOE_CHIBA, DtwAligner.Band.ITAKURA}) {
+            double constrained = new DtwAligner(band, 0.1, 2, false, false).align(x, y).getCost();
+            assertTrue(constrained >= unconstrained - 1e-9, band.name());
+            assertTrue(Double.isFinite(constrained), band.name());
+        }
+    }
+
+    @Test
+    void abandonsWhenLowerBoundExceedsThreshold() {
+        double[][] x = randomSequence(600, 2);
+        double[][] y = randomSequence(600, 2);
+        for (double[] frame : y) {
+            frame[0] += 100;
+        }
+        DtwAligner aligner = new DtwAligner(DtwAligner.Band.NONE, 0.1, 2, true, false);
+        DtwAligner.Result full = aligner.align(x, y);
+        DtwAligner.Result abandoned = aligner.align(x, y, 1);
+        assertFalse(full.isAbandoned());
+        assertTrue(abandoned.isAbandoned());
+        assertTrue(abandoned.getNormalizedDistance() > 1);
+        assertTrue(abandoned.getNormalizedDistance() <= full.getNormalizedDistance());
+
+        // 阈值高于实际距离时不会放弃
+        DtwAligner.Result kept = aligner.align(x, y, full.getNormalizedDistance() + 1);
+        assertFalse(kept.isAbandoned());
+        assertEquals(full.getCost(), kept.getCost(), 1e-9);
+    }
+
+    @Test
+    void rejectsEmptySequencesAndUnknownBands() {
+        DtwAligner aligner = new DtwAligner(DtwAligner.Band.NONE, 0.1, 2, false, false);
+        assertThrows(IllegalArgumentException.class, () -> aligner.align(new double[0][], randomSequence(5, 2)));
+        assertThrows(IllegalArgumentException.class, () -> DtwAligner.Band.of("diagonal"));
+        assertEquals(DtwAligner.Band.SAKOE_CHIBA, DtwAligner.Band.of(" Sakoe-Chiba "));
+    }
+
+    private double[][] randomSequence(int frames, int dimensions) {
+        double[][] sequence = new double[frames][dimensions];
+        for (double[] frame : sequence) {
+            for (int d = 0; d < dimensions; d++) {
+                frame[d] = random.nextGaussian();
+            }
+        }
+        return sequence;
+    }
+
+    private static double naiveCost(double[][] x, double[][] y, boolean subsequence) {
+        int n = x.length;
+        int m = y.length;
+        double[][] cost = new double[n][m];
+        for (int i = 0; i < n; i++) {
+            for (int j = 0; j < m; j++) {
+                double local = distance(x[i], y[j]);
+                if (i == 0 && (j == 0 || subsequence)) {
+                    cost[i][j] = local;
+                } else {
+                    double best = Double.POSITIVE_INFINITY;
+                    if (i > 0) {
+                        best = Math.min(best, cost[i - 1][j]);
+                    }
+                    if (j > 0) {
+                        best = Math.min(best, cost[i][j - 1]);
+                    }
+                    if (i > 0 && j > 0) {
+                        best = Math.min(best, cost[i - 1][j - 1]);
+                    }
+                    cost[i][j] = local + best;
+                }
+            }
+        }
+        return cost[n - 1][m - 1];
+    }
+
+    private static double distance(double[] a, double[] b) {
+        double sum = 0;
+        for (int d = 0; d < a.length; d++) {
+            double diff = a[d] - b[d];
+            sum += diff * diff;
+        }
+        return Math.sqrt(sum);
+    }
+}
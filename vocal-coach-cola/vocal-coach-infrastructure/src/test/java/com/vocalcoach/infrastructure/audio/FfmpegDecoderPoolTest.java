@@ -0,0 +1,122 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用 shell 脚本代替 ffmpeg：输入文件本身就是 f32le 采样，脚本按参数从 stdin 或文件原样输出，
+ * 覆盖管道解码、退回读文件、解码失败和看门狗超时。
+ */
+class FfmpegDecoderPoolTest {
+
+    @TempDir
+    Path tempDir;
+
+    private FfmpegDecoderPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void decodesThroughStdin() throws IOException {
+        // 超过一次读取的 64 KB 且不是整块，覆盖跨读取边界的拼接
+        float[] expected = ramp(50_000);
+        pool = pool(script("cat"), 60);
+        assertArrayEquals(expected, pool.decode(samplesFile(expected)));
+        // 池里的进程用掉后补充，连续解码都能成功
+        assertArrayEquals(expected, pool.decode(samplesFile(expected)));
+    }
+
+    @Test
+    void fallsBackToFileInputWhenPipeFails() throws IOException {
+        float[] expected = ramp(1000);
+        pool = pool(script("cat > /dev/null; exit 1"), 60);
+        assertArrayEquals(expected, pool.decode(samplesFile(expected)));
+    }
+
+    @Test
+    void failsWhenBothAttemptsFail() throws IOException {
+        pool = pool(script("cat > /dev/null; exit 1", "exit 1"), 60);
+        IOException e = assertThrows(IOException.class, () -> pool.decode(samplesFile(ramp(10))));
+        assertTrue(e.getMessage().startsWith("ffmpeg 解码失败"), e.getMessage());
+    }
+
+    @Test
+    void watchdogKillsDecoderStuckWhileWriting() throws IOException {
+        // 先输出两个采样再卡住，读取阻塞在 stdout 上，只能靠看门狗结束
+        pool = pool(script("head -c 8; exec sleep 30"), 1);
+        long startedAt = System.nanoTime();
+        IOException e = assertThrows(IOException.class, () -> pool.decode(samplesFile(ramp(100))));
+        long elapsed = System.nanoTime() - startedAt;
+
+        assertEquals("ffmpeg 解码超时", e.getMessage());
+        assertTrue(elapsed >= TimeUnit.MILLISECONDS.toNanos(900), "elapsed " + elapsed);
+        assertTrue(elapsed < TimeUnit.SECONDS.toNanos(10), "elapsed " + elapsed);
+    }
+
+    private FfmpegDecoderPool pool(File ffmpeg, long timeoutSeconds) {
+        FfmpegDecoderPool decoderPool = new FfmpegDecoderPool();
+        ReflectionTestUtils.setField(decoderPool, "ffmpegPath", ffmpeg.getAbsolutePath());
+        ReflectionTestUtils.setField(decoderPool, "poolSize", 1);
+        ReflectionTestUtils.setField(decoderPool, "maxConcurrent", 2);
+        ReflectionTestUtils.setField(decoderPool, "timeoutSeconds", timeoutSeconds);
+        decoderPool.init();
+        return decoderPool;
+    }
+
+    private File script(String piped) throws IOException {
+        return script(piped, "cat \"$input\"");
+    }
+
+    // 按 -i 后的参数区分从 stdin 读取（pipe:0）和直接读文件
+    private File script(String piped, String fromFile) throws IOException {
+        String body = "#!/bin/sh\n"
+                + "while [ \"$1\" != \"-i\" ]; do shift; done\n"
+                + "input=\"$2\"\n"
+                + "if [ \"$input\" = \"pipe:0\" ]; then\n"
+                + "  " + piped + "\n"
+                + "else\n"
+                + "  " + fromFile + "\n"
+                + "fi\n";
+        Path path = tempDir.resolve("ffmpeg.sh");
+        Files.write(path, body.getBytes(StandardCharsets.UTF_8));
+        assertTrue(path.toFile().setExecutable(true));
+        return path.toFile();
+    }
+
+    private File samplesFile(float[] samples) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(samples.length * 4).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(samples);
+        Path path = Files.createTempFile(tempDir, "input", ".webm");
+        Files.write(path, buffer.array());
+        return path.toFile();
+    }
+
+    private static float[] ramp(int length) {
+        float[] samples = new float[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = (i % 2000) / 1000f - 1;
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,92 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证重采样的输出长度、通带保真、阻带抑制和直流增益，以及共用设计的低通滤波器。
+ */
+class PolyphaseResamplerTest {
+
+    @Test
+    void outputLengthRoundsUp() {
+        assertEquals(501, PolyphaseResampler.of(44100, 22050).process(new float[1001]).length);
+        assertEquals(2177, PolyphaseResampler.of(22050, 48000).process(new float[1000]).length);
+        float[] input = new float[10];
+        assertSame(input, PolyphaseResampler.of(22050, 22050).process(input));
+    }
+
+    @Test
+    void preservesPassbandSine() {
+        int[][] pairs = {{48000, 22050}, {44100, 22050}, {22050, 16000}, {8000, 22050}};
+        for (int[] pair : pairs) {
+            int source = pair[0];
+            int target = pair[1];
+            float[] output = PolyphaseResampler.of(source, target).process(sine(1000, source, 1.0));
+            double maxError = 0;
+            // 跳过两端补零的过渡区
+            for (int n = target / 20; n < output.length - target / 20; n++) {
+                double expected = 0.5 * Math.sin(2 * Math.PI * 1000 * n / target);
+                maxError = Math.max(maxError, Math.abs(output[n] - expected));
+            }
+            assertTrue(maxError < 2e-3, source + " -> " + target + ": " + maxError);
+        }
+    }
+
+    @Test
+    void suppressesAliasesWhenDownsampling() {
+        // 15 kHz 高于 22050 Hz 的奈奎斯特频率，应被滤除而不是折叠到 7050 Hz
+        float[] output = PolyphaseResampler.of(48000, 22050).process(sine(15000, 48000, 1.0));
+        double squares = 0;
+        int count = 0;
+        for (int n = 1000; n < output.length - 1000; n++) {
+            squares += output[n] * output[n];
+            count++;
+        }
+        assertTrue(Math.sqrt(squares / count) < 5e-4);
+    }
+
+    @Test
+    void keepsUnitDcGain() {
+        float[] input = new float[4800];
+        Arrays.fill(input, 1);
+        float[] output = PolyphaseResampler.of(48000, 22050).process(input);
+        for (int n = 100; n < output.length - 100; n++) {
+            assertEquals(1, output[n], 1e-5);
+        }
+    }
+
+    @Test
+    void lowPassIsSymmetricWithUnitGain() {
+        float[] taps = PolyphaseResampler.lowPass(48000, 8000);
+        assertEquals(1, taps.length % 2);
+        double sum = 0;
+        for (int k = 0; k < taps.length; k++) {
+            assertEquals(taps[k], taps[taps.length - 1 - k], 1e-7);
+            sum += taps[k];
+        }
+        assertEquals(1, sum, 1e-5);
+    }
+
+    @Test
+    void cachesFiltersAndRejectsUnreasonableRates() {
+        assertSame(PolyphaseResampler.of(44100, 22050), PolyphaseResampler.of(44100, 22050));
+        assertThrows(IllegalArgumentException.class, () -> PolyphaseResampler.of(0, 22050));
+        assertThrows(IllegalArgumentException.class, () -> PolyphaseResampler.of(22050, 1_000_000));
+        assertThrows(IllegalArgumentException.class, () -> PolyphaseResampler.lowPass(500, 8000));
+    }
+
+    private static float[] sine(double frequency, int sampleRate, double seconds) {
+        float[] samples = new float[(int) (seconds * sampleRate)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return samples;
+    }
+}
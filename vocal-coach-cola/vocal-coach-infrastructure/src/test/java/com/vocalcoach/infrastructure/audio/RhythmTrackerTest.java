@@ -0,0 +1,100 @@
+package com.vocalcoach.infrastructure.audio;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用合成节拍器验证速度估计和节拍规律性，并覆盖静音输入和目标速度打分。
+ */
+class RhythmTrackerTest {
+
+    private static final int SAMPLE_RATE = 22050;
+
+    private final RhythmTracker tracker = new RhythmTracker(new SpectralAnalyzer(SAMPLE_RATE, 2048, 512, 128, 13));
+
+    @Test
+    void detectsClickTrackTempo() {
+        for (double bpm : new double[]{90, 120, 150}) {
+            RhythmTracker.Beats beats = tracker.track(clicks(bpm, 20), false);
+            // 速度取 60 * 帧率 / 整数延迟，约 43 帧/秒时离散误差在 3% 以内
+            assertEquals(bpm, beats.getTempo(), bpm * 0.03, "bpm " + bpm);
+
+            double[] times = beats.getTimes();
+            assertTrue(times.length >= 20 * bpm / 60 - 3, "bpm " + bpm);
+            double interval = (times[times.length - 1] - times[0]) / (times.length - 1);
+            assertEquals(60 / bpm, interval, 60 / bpm * 0.03, "bpm " + bpm);
+
+            AudioAnalysisDTO.RhythmFeatures rhythm = beats.toRhythmFeatures();
+            assertTrue(rhythm.getBeatRegularity() > 90, "bpm " + bpm);
+        }
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        float[] samples = clicks(110, 30);
+        RhythmTracker.Beats sequential = tracker.track(samples, false);
+        RhythmTracker.Beats parallel = tracker.track(samples, true);
+        assertEquals(sequential.getTempo(), parallel.getTempo());
+        assertArrayEquals(sequential.getFrames(), parallel.getFrames());
+    }
+
+    @Test
+    void silenceHasNoBeats() {
+        RhythmTracker.Beats beats = tracker.track(new float[SAMPLE_RATE * 5], false);
+        assertEquals(0, beats.getTempo());
+        assertEquals(0, beats.getFrames().length);
+        AudioAnalysisDTO.RhythmFeatures rhythm = beats.toRhythmFeatures();
+        assertEquals(0.0, rhythm.getBeatRegularity());
+        assertEquals(50.0, rhythm.getRhythmScore());
+    }
+
+    @Test
+    void tempoScoreToleratesOctaveErrors() {
+        assertEquals(100, RhythmTracker.tempoScore(120, 120));
+        assertEquals(100, RhythmTracker.tempoScore(241, 120));
+        assertEquals(100, RhythmTracker.tempoScore(59, 120));
+        assertEquals(0, RhythmTracker.tempoScore(150, 120));
+        assertEquals(0, RhythmTracker.tempoScore(0, 120));
+        double partial = RhythmTracker.tempoScore(132, 120);
+        assertTrue(partial > 0 && partial < 100);
+    }
+
+    @Test
+    void withTargetTempoLeavesCachedFeaturesUntouched() {
+        AudioAnalysisDTO.RhythmFeatures cached = new AudioAnalysisDTO.RhythmFeatures();
+        cached.setTempo(120.0);
+        cached.setBeatRegularity(80.0);
+        cached.setRhythmScore(80.0);
+
+        AudioAnalysisDTO.RhythmFeatures scored = RhythmTracker.withTargetTempo(cached, 120);
+        assertEquals(120, scored.getTargetBpm());
+        assertEquals(100.0, scored.getTempoScore());
+        assertEquals(90.0, scored.getRhythmScore(), 1e-9);
+        assertNull(cached.getTargetBpm());
+        assertEquals(80.0, cached.getRhythmScore());
+    }
+
+    // 每拍一个 30 ms 指数衰减的噪声脉冲，叠加很弱的底噪
+    private static float[] clicks(double bpm, int seconds) {
+        Random random = new Random(3);
+        float[] samples = new float[seconds * SAMPLE_RATE];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (0.001 * random.nextGaussian());
+        }
+        int click = (int) (0.03 * SAMPLE_RATE);
+        for (double t = 0.5; t < seconds - 0.1; t += 60 / bpm) {
+            int start = (int) Math.round(t * SAMPLE_RATE);
+            for (int k = 0; k < click && start + k < samples.length; k++) {
+                samples[start + k] += (float) (0.8 * Math.exp(-k / (0.005 * SAMPLE_RATE)) * random.nextGaussian());
+            }
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,121 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用正弦和静音验证质心、滚降点、RMS、梅尔谱的 top_db 截断以及 MFCC 的正交 DCT 归一化。
+ */
+class SpectralAnalyzerTest {
+
+    private static final int SAMPLE_RATE = 22050;
+    private static final int MEL_BANDS = 128;
+
+    private final SpectralAnalyzer analyzer = new SpectralAnalyzer(SAMPLE_RATE, 2048, 512, MEL_BANDS, 13);
+
+    @Test
+    void frameCountIsCentered() {
+        assertEquals(0, analyzer.frameCount(0));
+        assertEquals(1, analyzer.frameCount(511));
+        assertEquals(2, analyzer.frameCount(512));
+        assertEquals(analyzer.frameCount(SAMPLE_RATE), analyzer.analyze(new float[SAMPLE_RATE], false).getFrames());
+    }
+
+    @Test
+    void sineConcentratesAtItsFrequency() {
+        SpectralAnalyzer.Spectrogram spectrogram = analyzer.analyze(sine(1000, 0.5, 2), false);
+        // 跳过两端补零的帧
+        for (int frame = 4; frame < spectrogram.getFrames() - 4; frame++) {
+            assertEquals(1000, spectrogram.getCentroid()[frame], 15);
+            assertEquals(1000, spectrogram.getRolloff()[frame], 25);
+            assertEquals(0.5 / Math.sqrt(2), spectrogram.getRms()[frame], 0.005);
+        }
+        assertTrue(peakBand(analyzer.analyze(sine(1000, 0.5, 1), false), 10)
+                < peakBand(analyzer.analyze(sine(4000, 0.5, 1), false), 10));
+    }
+
+    @Test
+    void melSpectrogramIsClippedToTopDb() {
+        float[] samples = sine(440, 0.8, 2);
+        for (int i = 0; i < SAMPLE_RATE / 2; i++) {
+            samples[i] = 0;
+        }
+        float[] melDb = analyzer.analyze(samples, false).getMelDb();
+        float max = Float.NEGATIVE_INFINITY;
+        float min = Float.POSITIVE_INFINITY;
+        for (float value : melDb) {
+            max = Math.max(max, value);
+            min = Math.min(min, value);
+        }
+        assertEquals(max - 80, min, 1e-3);
+    }
+
+    @Test
+    void mfccUsesOrthonormalDct() {
+        // 静音时每个梅尔带都是 10·log10(amin) = -100 dB，只有第 0 个系数非零
+        double[][] mfcc = analyzer.mfcc(new float[SAMPLE_RATE], false);
+        for (double[] frame : mfcc) {
+            assertEquals(-100 * Math.sqrt(MEL_BANDS), frame[0], 1e-3);
+            for (int k = 1; k < frame.length; k++) {
+                assertEquals(0, frame[k], 1e-3);
+            }
+        }
+    }
+
+    @Test
+    void mfccMeanAveragesFrames() {
+        SpectralAnalyzer.Spectrogram spectrogram = analyzer.analyze(noisySine(3), false);
+        double[][] mfcc = spectrogram.mfcc();
+        double[] expected = new double[mfcc[0].length];
+        for (double[] frame : mfcc) {
+            for (int k = 0; k < frame.length; k++) {
+                expected[k] += frame[k] / mfcc.length;
+            }
+        }
+        assertArrayEquals(expected, spectrogram.mfccMean(), 1e-6);
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        float[] samples = noisySine(8);
+        SpectralAnalyzer.Spectrogram sequential = analyzer.analyze(samples, false);
+        SpectralAnalyzer.Spectrogram parallel = analyzer.analyze(samples, true);
+        assertArrayEquals(sequential.getMelDb(), parallel.getMelDb());
+        assertArrayEquals(sequential.getCentroid(), parallel.getCentroid());
+        assertArrayEquals(sequential.getRolloff(), parallel.getRolloff());
+        assertArrayEquals(sequential.getRms(), parallel.getRms());
+    }
+
+    private static int peakBand(SpectralAnalyzer.Spectrogram spectrogram, int frame) {
+        float[] melDb = spectrogram.getMelDb();
+        int best = 0;
+        for (int m = 1; m < MEL_BANDS; m++) {
+            if (melDb[frame * MEL_BANDS + m] > melDb[frame * MEL_BANDS + best]) {
+                best = m;
+            }
+        }
+        return best;
+    }
+
+    private static float[] sine(double frequency, double amplitude, double seconds) {
+        float[] samples = new float[(int) (seconds * SAMPLE_RATE)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (amplitude * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return samples;
+    }
+
+    private static float[] noisySine(double seconds) {
+        Random random = new Random(5);
+        float[] samples = sine(330, 0.3, seconds);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] += (float) (0.05 * random.nextGaussian());
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,143 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 逐段输入时的帧时刻、与整段 YIN 的一致性，以及 48 kHz 输入经流式降采样后的基频精度和抗混叠。
+ */
+class StreamingPitchTrackerTest {
+
+    private static final int FRAME_LENGTH = 512;
+    private static final int HOP_LENGTH = 256;
+
+    private final YinPitchTracker yin = new YinPitchTracker(StreamingPitchTracker.SAMPLE_RATE,
+            FRAME_LENGTH, HOP_LENGTH, 65, 1500, 0.15);
+
+    @Test
+    void rejectsTrackerAtOtherSampleRate() {
+        YinPitchTracker other = new YinPitchTracker(22050, FRAME_LENGTH, HOP_LENGTH, 65, 1500, 0.15);
+        assertThrows(IllegalArgumentException.class, () -> new StreamingPitchTracker(other, 48000));
+    }
+
+    @Test
+    void framesCompleteEveryHop() {
+        StreamingPitchTracker tracker = new StreamingPitchTracker(yin, StreamingPitchTracker.SAMPLE_RATE);
+        float[] samples = sine(220, StreamingPitchTracker.SAMPLE_RATE, 1.0);
+        assertEquals(-1, tracker.getLastFrameTime());
+
+        // 第 k 个输出采样要等第 k + 1 个输入采样到达后才插值得出，所以第一帧需要 frameLength + 1 个输入
+        assertEquals(0, tracker.feed(samples, FRAME_LENGTH));
+        assertEquals(1, tracker.feed(slice(samples, FRAME_LENGTH, 1), 1));
+        assertEquals(FRAME_LENGTH / 2.0 / StreamingPitchTracker.SAMPLE_RATE, tracker.getLastFrameTime(), 1e-12);
+
+        int offset = FRAME_LENGTH + 1;
+        for (int frame = 2; frame <= 10; frame++) {
+            assertEquals(0, tracker.feed(slice(samples, offset, HOP_LENGTH - 1), HOP_LENGTH - 1));
+            assertEquals(1, tracker.feed(slice(samples, offset + HOP_LENGTH - 1, 1), 1));
+            offset += HOP_LENGTH;
+            double expected = ((frame - 1) * HOP_LENGTH + FRAME_LENGTH / 2.0) / StreamingPitchTracker.SAMPLE_RATE;
+            assertEquals(expected, tracker.getLastFrameTime(), 1e-12);
+        }
+
+        // 一次输入跨过多帧时返回完成的帧数
+        assertEquals(3, tracker.feed(slice(samples, offset, 3 * HOP_LENGTH), 3 * HOP_LENGTH));
+    }
+
+    @Test
+    void matchesWholeSignalYinAtInternalRate() {
+        Random random = new Random(7);
+        float[] samples = sine(330, StreamingPitchTracker.SAMPLE_RATE, 2.0);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] += (float) (0.05 * random.nextGaussian());
+        }
+        StreamingPitchTracker tracker = new StreamingPitchTracker(yin, StreamingPitchTracker.SAMPLE_RATE);
+        List<Double> streamed = feedInChunks(tracker, samples, random);
+
+        // 输入已是内部采样率时不滤波也不插值，最后一个输入采样还没有输出
+        float[] expected = yin.track(Arrays.copyOf(samples, samples.length - 1), false);
+        assertEquals(expected.length, streamed.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i], streamed.get(i), 1e-3, "第 " + i + " 帧");
+        }
+    }
+
+    @Test
+    void chunkBoundariesDoNotChangeResult() {
+        float[] samples = sine(196, 44100, 1.5);
+        StreamingPitchTracker whole = new StreamingPitchTracker(yin, 44100);
+        List<Double> expected = new ArrayList<>();
+        for (int i = 0; i < samples.length; i++) {
+            if (whole.feed(slice(samples, i, 1), 1) > 0) {
+                expected.add(whole.getLastPitch());
+            }
+        }
+        List<Double> chunked = feedInChunks(new StreamingPitchTracker(yin, 44100), samples, new Random(11));
+        assertEquals(expected, chunked);
+    }
+
+    @Test
+    void tracksSineAt48kHz() {
+        for (double frequency : new double[]{98, 220, 440, 880}) {
+            StreamingPitchTracker tracker = new StreamingPitchTracker(yin, 48000);
+            List<Double> pitches = feedInChunks(tracker, sine(frequency, 48000, 1.0), new Random(3));
+            // 降采样后 1 秒约 43 帧
+            assertEquals(yin.frameCount(StreamingPitchTracker.SAMPLE_RATE), pitches.size(), 1);
+            // 跳过开头滤波器尚未填满的几帧
+            for (int i = 3; i < pitches.size(); i++) {
+                double cents = 1200 * Math.log(pitches.get(i) / frequency) / Math.log(2);
+                assertEquals(0, cents, 5, "频率 " + frequency + " 第 " + i + " 帧");
+            }
+        }
+    }
+
+    @Test
+    void filtersToneAboveInternalNyquist() {
+        // 10 kHz 不经低通直接抽取会混叠成 11025 - 10000 = 1025 Hz，落在人声范围内
+        StreamingPitchTracker tracker = new StreamingPitchTracker(yin, 48000);
+        List<Double> pitches = feedInChunks(tracker, sine(10000, 48000, 0.5), new Random(5));
+        for (int i = 3; i < pitches.size(); i++) {
+            assertEquals(0, pitches.get(i), "第 " + i + " 帧");
+        }
+    }
+
+    // 随机长度分段输入，每段不超过一个 hop 对应的输入采样，因此每帧都能取到结果
+    private static List<Double> feedInChunks(StreamingPitchTracker tracker, float[] samples, Random random) {
+        List<Double> pitches = new ArrayList<>();
+        int offset = 0;
+        while (offset < samples.length) {
+            int length = Math.min(samples.length - offset, 1 + random.nextInt(HOP_LENGTH));
+            int frames = tracker.feed(slice(samples, offset, length), length);
+            assertTrue(frames <= 1);
+            if (frames == 1) {
+                pitches.add(tracker.getLastPitch());
+            }
+            offset += length;
+        }
+        return pitches;
+    }
+
+    // 每次拷贝到新数组并在末尾留出多余空间，确认只读取前 length 个采样
+    private static float[] slice(float[] samples, int offset, int length) {
+        float[] chunk = new float[length + 16];
+        System.arraycopy(samples, offset, chunk, 0, length);
+        Arrays.fill(chunk, length, chunk.length, 1f);
+        return chunk;
+    }
+
+    private static float[] sine(double frequency, int sampleRate, double seconds) {
+        float[] samples = new float[(int) (seconds * sampleRate)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / sampleRate));
+        }
+        return samples;
+    }
+}
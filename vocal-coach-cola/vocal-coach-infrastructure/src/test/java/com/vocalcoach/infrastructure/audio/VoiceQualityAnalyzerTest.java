@@ -0,0 +1,85 @@
+package com.vocalcoach.infrastructure.audio;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用合成的谐波嗓音验证 jitter、shimmer、谐噪比的量级和随噪声的变化，并覆盖静音时的默认值与得分换算。
+ */
+class VoiceQualityAnalyzerTest {
+
+    private static final int SAMPLE_RATE = 22050;
+
+    private final VoiceQualityAnalyzer analyzer = new VoiceQualityAnalyzer(SAMPLE_RATE);
+
+    @Test
+    void steadyToneIsPeriodicAndClean() {
+        AudioAnalysisDTO.VoiceFeatures voice = analyzer.analyze(voice(150, 2, 0), false);
+        assertTrue(voice.getJitter() < 0.005, "jitter " + voice.getJitter());
+        assertTrue(voice.getShimmer() < 0.02, "shimmer " + voice.getShimmer());
+        assertTrue(voice.getHnr() > 25, "hnr " + voice.getHnr());
+        assertEquals("优秀", voice.getVoiceQuality());
+    }
+
+    @Test
+    void noiseLowersHarmonicity() {
+        double clean = analyzer.analyze(voice(200, 2, 0.01), false).getHnr();
+        double noisy = analyzer.analyze(voice(200, 2, 0.1), false).getHnr();
+        assertTrue(noisy < clean - 6, "clean " + clean + ", noisy " + noisy);
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        float[] samples = voice(180, 3, 0.05);
+        assertEquals(analyzer.analyze(samples, false), analyzer.analyze(samples, true));
+    }
+
+    @Test
+    void silenceFallsBackToDefaults() {
+        AudioAnalysisDTO.VoiceFeatures voice = analyzer.analyze(new float[SAMPLE_RATE], false);
+        assertEquals(0.02, voice.getJitter());
+        assertEquals(0.05, voice.getShimmer());
+        assertEquals(15.0, voice.getHnr());
+    }
+
+    @Test
+    void jitterIsMeanPeriodDifferenceOverMeanPeriod() {
+        // 周期在 10 ms 和 11 ms 之间交替，相邻周期差恒为 1 ms
+        double[] pulses = new double[41];
+        for (int i = 1; i < pulses.length; i++) {
+            pulses[i] = pulses[i - 1] + (i % 2 == 1 ? 0.010 : 0.011);
+        }
+        assertEquals(0.001 / 0.0105, VoiceQualityAnalyzer.jitter(pulses), 1e-4);
+        assertTrue(Double.isNaN(VoiceQualityAnalyzer.jitter(new double[]{0, 0.01})));
+    }
+
+    @Test
+    void scoresFollowScriptWeights() {
+        AudioAnalysisDTO.VoiceFeatures voice = VoiceQualityAnalyzer.toVoiceFeatures(0.01, 0.05, 20);
+        assertEquals(80, voice.getJitterScore(), 1e-9);
+        assertEquals(75, voice.getShimmerScore(), 1e-9);
+        assertEquals(80, voice.getHnrScore(), 1e-9);
+        assertEquals(78.5, voice.getVoiceScore(), 1e-9);
+        assertEquals("很好", voice.getVoiceQuality());
+        assertEquals("需要改进", VoiceQualityAnalyzer.toVoiceFeatures(0.1, 0.5, 0).getVoiceQuality());
+    }
+
+    // 前 8 次谐波、幅度按 1/k 衰减的稳定嗓音，noise 为叠加白噪声的标准差
+    private static float[] voice(double f0, double seconds, double noise) {
+        Random random = new Random(11);
+        float[] samples = new float[(int) (seconds * SAMPLE_RATE)];
+        for (int i = 0; i < samples.length; i++) {
+            double value = 0;
+            for (int k = 1; k <= 8; k++) {
+                value += Math.sin(2 * Math.PI * k * f0 * i / SAMPLE_RATE) / k;
+            }
+            samples[i] = (float) (0.2 * value + noise * random.nextGaussian());
+        }
+        return samples;
+    }
+}
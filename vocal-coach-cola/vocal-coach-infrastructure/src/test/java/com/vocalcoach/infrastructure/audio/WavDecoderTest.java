@@ -0,0 +1,129 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 覆盖各种位深和编码的解析、声道平均、块对齐和 data 长度异常，以及应交给 ffmpeg 的文件返回 null。
+ */
+class WavDecoderTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void averagesStereo16BitToMono() throws IOException {
+        ByteBuffer data = little(8);
+        data.putShort((short) 16384).putShort((short) -16384);
+        data.putShort((short) 32767).putShort((short) 32767);
+        PcmAudio audio = decode(wav(1, 2, 44100, 16, data.array(), 16));
+        assertEquals(44100, audio.getSampleRate());
+        assertArrayEquals(new float[]{0, 32767 / 32768f}, audio.getSamples(), 1e-6f);
+    }
+
+    @Test
+    void decodesIntegerBitDepths() throws IOException {
+        assertArrayEquals(new float[]{-1, 0, 0.5f},
+                decode(wav(1, 1, 8000, 8, new byte[]{0, (byte) 128, (byte) 192}, 16)).getSamples(), 1e-6f);
+
+        ByteBuffer pcm24 = little(6);
+        pcm24.put((byte) 0).put((byte) 0).put((byte) 0x40);
+        pcm24.put((byte) 0).put((byte) 0).put((byte) 0x80);
+        assertArrayEquals(new float[]{0.5f, -1}, decode(wav(1, 1, 48000, 24, pcm24.array(), 16)).getSamples(), 1e-6f);
+
+        ByteBuffer pcm32 = little(8);
+        pcm32.putInt(Integer.MIN_VALUE).putInt(1 << 29);
+        assertArrayEquals(new float[]{-1, 0.25f}, decode(wav(1, 1, 48000, 32, pcm32.array(), 16)).getSamples(), 1e-6f);
+    }
+
+    @Test
+    void decodesFloatAndExtensibleFormats() throws IOException {
+        ByteBuffer float32 = little(8);
+        float32.putFloat(0.75f).putFloat(-0.125f);
+        assertArrayEquals(new float[]{0.75f, -0.125f},
+                decode(wav(3, 1, 22050, 32, float32.array(), 16)).getSamples());
+
+        ByteBuffer float64 = little(16);
+        float64.putDouble(0.5).putDouble(-0.5);
+        assertArrayEquals(new float[]{0.5f, -0.5f}, decode(wav(3, 1, 22050, 64, float64.array(), 16)).getSamples());
+
+        // WAVE_FORMAT_EXTENSIBLE，SubFormat 为 PCM
+        ByteBuffer pcm16 = little(4);
+        pcm16.putShort((short) 8192).putShort((short) -8192);
+        assertArrayEquals(new float[]{0.25f, -0.25f},
+                decode(wav(0xFFFE, 1, 16000, 16, pcm16.array(), 40)).getSamples(), 1e-6f);
+    }
+
+    @Test
+    void skipsOddLengthChunksAndToleratesUnfinishedDataLength() throws IOException {
+        ByteBuffer samples = little(4);
+        samples.putShort((short) 16384).putShort((short) 16384);
+        byte[] file = wav(1, 1, 16000, 16, samples.array(), 16);
+
+        // 在 fmt 和 data 之间插入一个奇数长度的 LIST 块（含 1 字节填充）
+        ByteBuffer withList = little(file.length + 12);
+        withList.put(file, 0, 36);
+        withList.putInt(0x5453494c).putInt(3).put(new byte[]{'a', 'b', 'c', 0});
+        withList.put(file, 36, file.length - 36);
+        assertArrayEquals(new float[]{0.5f, 0.5f}, decode(withList.array()).getSamples(), 1e-6f);
+
+        // 边录边写时 data 长度为 0，按文件剩余部分读取
+        ByteBuffer.wrap(file).order(ByteOrder.LITTLE_ENDIAN).putInt(40, 0);
+        assertEquals(2, decode(file).getSamples().length);
+    }
+
+    @Test
+    void returnsNullForFilesLeftToFfmpeg() throws IOException {
+        byte[] samples = new byte[4];
+        assertNull(WavDecoder.decode(write("webm".getBytes())));
+        assertNull(WavDecoder.decode(write(new byte[64])));
+        // IMA ADPCM
+        assertNull(WavDecoder.decode(write(wav(0x11, 1, 16000, 4, samples, 16))));
+        assertNull(WavDecoder.decode(write(wav(1, 1, 1000, 16, samples, 16))));
+        assertNull(WavDecoder.decode(write(wav(1, 1, 500000, 16, samples, 16))));
+        assertNull(WavDecoder.decode(write(wav(1, 0, 16000, 16, samples, 16))));
+    }
+
+    private PcmAudio decode(byte[] wav) throws IOException {
+        PcmAudio audio = WavDecoder.decode(write(wav));
+        assertNotNull(audio);
+        return audio;
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        Path file = Files.createTempFile(dir, "audio", ".wav");
+        Files.write(file, bytes);
+        return file.toFile();
+    }
+
+    // fmtLength 为 40 时写成 WAVE_FORMAT_EXTENSIBLE 的 fmt 块
+    private static byte[] wav(int format, int channels, int sampleRate, int bits, byte[] data, int fmtLength) {
+        int blockAlign = channels * Math.max(1, bits / 8);
+        ByteBuffer wav = little(12 + 8 + fmtLength + 8 + data.length);
+        wav.putInt(0x46464952).putInt(wav.capacity() - 8).putInt(0x45564157);
+        wav.putInt(0x20746d66).putInt(fmtLength);
+        wav.putShort((short) format).putShort((short) channels).putInt(sampleRate)
+                .putInt(sampleRate * blockAlign).putShort((short) blockAlign).putShort((short) bits);
+        if (fmtLength == 40) {
+            wav.putShort((short) 22).putShort((short) bits).putInt(0).putShort((short) 1).put(new byte[14]);
+        }
+        wav.putInt(0x61746164).putInt(data.length).put(data);
+        return wav.array();
+    }
+
+    private static ByteBuffer little(int capacity) {
+        return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+    }
+}
@@ -0,0 +1,62 @@
+package com.vocalcoach.infrastructure.audio;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 用合成正弦和噪声验证 YIN 的基频精度、静音判定以及并行与串行结果一致。
+ */
+class YinPitchTrackerTest {
+
+    private static final int SAMPLE_RATE = 22050;
+
+    private final YinPitchTracker tracker = new YinPitchTracker(SAMPLE_RATE, 2048, 512, 50, 2000, 0.1);
+
+    @Test
+    void tracksSineFrequency() {
+        for (double frequency : new double[]{82.4, 220, 440, 1046.5}) {
+            float[] f0 = tracker.track(sine(frequency, 1.0), false);
+            for (float value : f0) {
+                assertEquals(frequency, value, frequency * 0.01, "频率 " + frequency);
+            }
+        }
+    }
+
+    @Test
+    void silenceIsUnvoiced() {
+        float[] f0 = tracker.track(new float[SAMPLE_RATE], false);
+        for (float value : f0) {
+            assertEquals(0, value);
+        }
+    }
+
+    @Test
+    void frameCountMatchesHopLength() {
+        assertEquals(0, tracker.frameCount(2047));
+        assertEquals(1, tracker.frameCount(2048));
+        assertEquals(3, tracker.frameCount(2048 + 2 * 512 + 511));
+        assertEquals(tracker.frameCount(SAMPLE_RATE), tracker.track(new float[SAMPLE_RATE], false).length);
+    }
+
+    @Test
+    void parallelMatchesSequential() {
+        Random random = new Random(42);
+        float[] samples = sine(330, 10.0);
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] += (float) (0.05 * random.nextGaussian());
+        }
+        assertArrayEquals(tracker.track(samples, false), tracker.track(samples, true));
+    }
+
+    private static float[] sine(double frequency, double seconds) {
+        float[] samples = new float[(int) (seconds * SAMPLE_RATE)];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = (float) (0.5 * Math.sin(2 * Math.PI * frequency * i / SAMPLE_RATE));
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,183 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.exception.AnalysisRejectedException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用阻塞的桩任务占满名额，验证队列满拒绝、等待超时、Retry-After 估算和按到达顺序放行。
+ */
+class AnalysisSchedulerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<Thread> threads = new ArrayList<>();
+    private AnalysisScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = scheduler(1, 2, 120);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        startBlocking();
+        awaitValue(scheduler::getRunning, 1);
+        startBlocking();
+        startBlocking();
+        awaitValue(scheduler::getQueueDepth, 2);
+
+        AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class,
+                () -> scheduler.execute(() -> "rejected"));
+        assertEquals("分析任务过多，请稍后再试", e.getMessage());
+        assertEquals(1, rejections("queue_full"));
+        assertEquals(2, scheduler.getQueueDepth());
+    }
+
+    @Test
+    void retryAfterScalesWithQueueAndLimit() throws InterruptedException {
+        // 还没有耗时样本时按一次 15 秒估算：前面排着 2 个、自己 1 个，上限 1
+        startBlocking();
+        awaitValue(scheduler::getRunning, 1);
+        startBlocking();
+        startBlocking();
+        awaitValue(scheduler::getQueueDepth, 2);
+        assertEquals(45, assertThrows(AnalysisRejectedException.class,
+                () -> scheduler.execute(() -> "rejected")).getRetryAfterSeconds());
+
+        // 上限 2 时同样的排队长度只需一半时间
+        AnalysisScheduler wider = scheduler(2, 1, 120);
+        startBlocking(wider);
+        startBlocking(wider);
+        awaitValue(wider::getRunning, 2);
+        startBlocking(wider);
+        awaitValue(wider::getQueueDepth, 1);
+        assertEquals(15, assertThrows(AnalysisRejectedException.class,
+                () -> wider.execute(() -> "rejected")).getRetryAfterSeconds());
+    }
+
+    @Test
+    void retryAfterFollowsObservedRunTime() throws InterruptedException {
+        AnalysisScheduler idle = scheduler(1, 0, 120);
+        // 一次几乎不耗时的分析把平均耗时从 15 秒拉到略高于 12 秒
+        idle.execute(() -> "done");
+        startBlocking(idle);
+        awaitValue(idle::getRunning, 1);
+        assertEquals(13, assertThrows(AnalysisRejectedException.class,
+                () -> idle.execute(() -> "rejected")).getRetryAfterSeconds());
+    }
+
+    @Test
+    void rejectsAfterWaitTimeout() throws InterruptedException {
+        AnalysisScheduler shortWait = scheduler(1, 2, 1);
+        startBlocking(shortWait);
+        awaitValue(shortWait::getRunning, 1);
+
+        long startedAt = System.nanoTime();
+        AnalysisRejectedException e = assertThrows(AnalysisRejectedException.class,
+                () -> shortWait.execute(() -> "timeout"));
+        long waited = System.nanoTime() - startedAt;
+
+        assertEquals("等待分析超时，请稍后再试", e.getMessage());
+        assertTrue(waited >= TimeUnit.MILLISECONDS.toNanos(900), "waited " + waited);
+        // 超时时自己仍算在队列里
+        assertEquals(30, e.getRetryAfterSeconds());
+        assertEquals(1, rejections("wait_timeout"));
+        assertEquals(0, shortWait.getQueueDepth());
+        assertEquals(1, shortWait.getRunning());
+    }
+
+    @Test
+    void runsQueuedRequestsInArrivalOrderWithoutBarging() throws InterruptedException {
+        AnalysisScheduler fifo = scheduler(1, 10, 120);
+        List<String> order = new CopyOnWriteArrayList<>();
+        startBlocking(fifo);
+        awaitValue(fifo::getRunning, 1);
+        for (String name : Arrays.asList("b", "c", "d")) {
+            start(() -> fifo.execute(() -> order.add(name)));
+            awaitValue(fifo::getQueueDepth, threads.size() - 1);
+        }
+
+        // 放行后立即到达的请求排在已有等待者之后
+        release.countDown();
+        fifo.execute(() -> order.add("e"));
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        assertEquals(Arrays.asList("b", "c", "d", "e"), order);
+        assertEquals(0, fifo.getRunning());
+        assertEquals(0, fifo.getQueueDepth());
+    }
+
+    private AnalysisScheduler scheduler(int maxConcurrent, int queueCapacity, long maxWaitSeconds) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        AnalysisScheduler scheduler = new AnalysisScheduler();
+        ReflectionTestUtils.setField(scheduler, "limitAlgorithm", AnalysisScheduler.LIMIT_FIXED);
+        ReflectionTestUtils.setField(scheduler, "maxConcurrent", maxConcurrent);
+        ReflectionTestUtils.setField(scheduler, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(scheduler, "maxWaitSeconds", maxWaitSeconds);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", beanFactory.getBeanProvider(MeterRegistry.class));
+        scheduler.init();
+        return scheduler;
+    }
+
+    private void startBlocking() {
+        startBlocking(scheduler);
+    }
+
+    private void startBlocking(AnalysisScheduler target) {
+        start(() -> target.execute(() -> {
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }));
+    }
+
+    private void start(Runnable runnable) {
+        Thread thread = new Thread(runnable);
+        thread.setDaemon(true);
+        thread.start();
+        threads.add(thread);
+    }
+
+    private double rejections(String reason) {
+        return registry.get("analysis.rejected").tag("reason", reason).counter().count();
+    }
+
+    private static void awaitValue(IntSupplier value, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (value.getAsInt() != expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, value.getAsInt());
+    }
+}
@@ -0,0 +1,76 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 按部署默认值和请求中的 backend 选择分析后端。
+ */
+class AudioAnalyzerRouterTest {
+
+    private final AudioAnalyzer python = new NamedAnalyzer(PythonAudioAnalyzer.NAME);
+    private final AudioAnalyzer jvm = new NamedAnalyzer(JvmAudioAnalyzer.NAME);
+    private final AudioAnalyzer shadow = new NamedAnalyzer(ShadowAudioAnalyzer.NAME);
+
+    @Test
+    void selectsDefaultWhenRequestHasNoBackend() {
+        AudioAnalyzerRouter router = router(" JVM ");
+        assertSame(jvm, router.getDefault());
+        assertSame(jvm, router.select(null));
+        assertSame(jvm, router.select(""));
+        assertSame(jvm, router.select("  "));
+    }
+
+    @Test
+    void requestOverridesDefaultIgnoringCaseAndSpaces() {
+        AudioAnalyzerRouter router = router("python");
+        assertSame(python, router.getDefault());
+        assertSame(jvm, router.select("jvm"));
+        assertSame(shadow, router.select(" Shadow "));
+        assertSame(python, router.select("PYTHON"));
+    }
+
+    @Test
+    void rejectsUnknownBackend() {
+        AudioAnalyzerRouter router = router("python");
+        assertEquals("不支持的分析后端: rust", assertThrows(IllegalArgumentException.class,
+                () -> router.select("rust")).getMessage());
+        assertEquals("未知的分析后端: rust", assertThrows(IllegalArgumentException.class,
+                () -> router("rust")).getMessage());
+    }
+
+    private AudioAnalyzerRouter router(String defaultBackend) {
+        AudioAnalyzerRouter router = new AudioAnalyzerRouter();
+        ReflectionTestUtils.setField(router, "defaultBackend", defaultBackend);
+        ReflectionTestUtils.setField(router, "analyzers", Arrays.asList(python, jvm, shadow));
+        router.init();
+        return router;
+    }
+
+    private static class NamedAnalyzer implements AudioAnalyzer {
+        private final String name;
+
+        NamedAnalyzer(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                        AnalysisProgressListener listener) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.alibaba.fastjson.JSON;
+import com.alibaba.fastjson.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用 shell 脚本代替 analyze_audio.py 常驻进程：按 audio_path 里的关键字输出过期响应、卡住或退出，
+ * 响应里带上进程号，覆盖 request_id 匹配、进程回收与补充、进程数上限和空闲回收。
+ */
+class PythonAnalyzerPoolTest {
+
+    private static final String FAKE_WORKER = String.join("\n",
+            "echo 'loading'",
+            "echo '{\"ready\": true}'",
+            "while IFS= read -r line; do",
+            "  id=$(printf '%s\\n' \"$line\" | sed 's/.*\"request_id\":\\([0-9]*\\).*/\\1/')",
+            "  case \"$line\" in",
+            "    *crash*) exit 1 ;;",
+            "    *hang*) sleep 30 ;;",
+            "    *slow*) sleep 1 ;;",
+            "    *stale*) echo \"{\\\"request_id\\\":$((id + 1000)),\\\"pid\\\":0}\" ;;",
+            "  esac",
+            "  case \"$line\" in",
+            "    *'\"stream\":true'*) echo \"{\\\"request_id\\\":$id,\\\"event\\\":\\\"feature\\\",\\\"name\\\":\\\"pitch\\\"}\" ;;",
+            "  esac",
+            "  echo \"{\\\"request_id\\\":$id,\\\"pid\\\":$$}\"",
+            "done",
+            "");
+
+    @TempDir
+    Path tempDir;
+
+    private PythonAnalyzerPool pool;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Files.write(tempDir.resolve("analyze_audio.py"), FAKE_WORKER.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void skipsResponsesForOtherRequests() throws Exception {
+        pool = pool(1, 1, 200, 300, 10);
+        List<JSONObject> events = new ArrayList<>();
+        JSONObject response = JSON.parseObject(pool.analyze(request("stale"), events::add));
+
+        assertNotEquals(0, response.getLongValue("pid"));
+        assertEquals(1, events.size());
+        assertEquals("pitch", events.get(0).getString("name"));
+        assertEquals(response.getLongValue("request_id"), events.get(0).getLongValue("request_id"));
+    }
+
+    @Test
+    void retiresWorkerAfterMaxJobsAndReplenishes() throws Exception {
+        pool = pool(1, 1, 2, 300, 10);
+        long first = pid(pool.analyze(request("a"), null));
+        assertEquals(first, pid(pool.analyze(request("b"), null)));
+        // 第二次任务后达到上限，换成补充的新进程
+        long second = pid(pool.analyze(request("c"), null));
+        assertNotEquals(first, second);
+        assertEquals(1, liveWorkers());
+    }
+
+    @Test
+    void replacesCrashedAndTimedOutWorkers() throws Exception {
+        pool = pool(1, 1, 200, 300, 1);
+        long first = pid(pool.analyze(request("a"), null));
+
+        assertThrows(IOException.class, () -> pool.analyze(request("crash"), null));
+        long second = pid(pool.analyze(request("b"), null));
+        assertNotEquals(first, second);
+
+        assertThrows(TimeoutException.class, () -> pool.analyze(request("hang"), null));
+        long third = pid(pool.analyze(request("c"), null));
+        assertNotEquals(second, third);
+        assertEquals(1, liveWorkers());
+    }
+
+    @Test
+    void liveWorkersStayWithinMaxSize() throws Exception {
+        // 每个进程只做一次任务，回收、补充和按需启动交错发生
+        pool = pool(1, 2, 1, 300, 10);
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicInteger maxLive = new AtomicInteger();
+        Thread monitor = new Thread(() -> {
+            while (running.get()) {
+                maxLive.accumulateAndGet(liveWorkers(), Math::max);
+            }
+        });
+        monitor.start();
+
+        ExecutorService clients = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 12; i++) {
+                String name = "job" + i;
+                results.add(clients.submit(() -> pool.analyze(request(name), null)));
+            }
+            Set<Long> pids = new HashSet<>();
+            for (Future<String> result : results) {
+                pids.add(pid(result.get(30, TimeUnit.SECONDS)));
+            }
+            assertEquals(12, pids.size());
+        } finally {
+            clients.shutdownNow();
+            running.set(false);
+            monitor.join();
+        }
+        assertTrue(maxLive.get() <= 2, "max live " + maxLive.get());
+        // 按需启动的进程回收后只补充到常驻数量
+        awaitTrue(() -> liveWorkers() == 1);
+    }
+
+    @Test
+    void trimsIdleWorkersDownToSize() throws Exception {
+        pool = pool(1, 2, 200, 1, 10);
+        ExecutorService clients = Executors.newFixedThreadPool(2);
+        Set<Long> pids = new HashSet<>();
+        try {
+            Future<String> a = clients.submit(() -> pool.analyze(request("slow-a"), null));
+            Future<String> b = clients.submit(() -> pool.analyze(request("slow-b"), null));
+            pids.add(pid(a.get(30, TimeUnit.SECONDS)));
+            pids.add(pid(b.get(30, TimeUnit.SECONDS)));
+        } finally {
+            clients.shutdownNow();
+        }
+        assertEquals(2, pids.size());
+        assertEquals(2, liveWorkers());
+
+        awaitTrue(() -> liveWorkers() == 1);
+        // 不会回收到常驻数量以下，留下的进程继续可用
+        Thread.sleep(1500);
+        assertEquals(1, liveWorkers());
+        assertTrue(pids.contains(pid(pool.analyze(request("after"), null))));
+    }
+
+    private PythonAnalyzerPool pool(int size, int maxSize, int maxJobsPerWorker, long idleTimeoutSeconds,
+                                    long jobTimeoutSeconds) {
+        PythonAnalyzerPool analyzerPool = new PythonAnalyzerPool();
+        ReflectionTestUtils.setField(analyzerPool, "pythonPath", "/bin/sh");
+        ReflectionTestUtils.setField(analyzerPool, "scriptsPath", tempDir.toString());
+        ReflectionTestUtils.setField(analyzerPool, "enabled", true);
+        ReflectionTestUtils.setField(analyzerPool, "poolSize", size);
+        ReflectionTestUtils.setField(analyzerPool, "maxPoolSize", maxSize);
+        ReflectionTestUtils.setField(analyzerPool, "idleTimeoutSeconds", idleTimeoutSeconds);
+        ReflectionTestUtils.setField(analyzerPool, "maxJobsPerWorker", maxJobsPerWorker);
+        ReflectionTestUtils.setField(analyzerPool, "startupTimeoutSeconds", 10L);
+        ReflectionTestUtils.setField(analyzerPool, "jobTimeoutSeconds", jobTimeoutSeconds);
+        analyzerPool.init();
+        return analyzerPool;
+    }
+
+    private int liveWorkers() {
+        return ((AtomicInteger) ReflectionTestUtils.getField(pool, "liveWorkers")).get();
+    }
+
+    private static PythonAnalysisRequest request(String audioPath) {
+        PythonAnalysisRequest request = new PythonAnalysisRequest();
+        request.setAudioPath(audioPath);
+        return request;
+    }
+
+    private static long pid(String response) {
+        return JSON.parseObject(response).getLongValue("pid");
+    }
+
+    private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+}
@@ -0,0 +1,222 @@
+package com.vocalcoach.infrastructure.evaluation;
+
+import com.vocalcoach.client.dto.AudioAnalysisDTO;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * 影子模式返回主后端的结果，在后台比较两边分数并按维度记录差值；主后端失败、影子失败、积压丢弃分别计数。
+ */
+class ShadowAudioAnalyzerTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final StubPythonAnalyzer python = new StubPythonAnalyzer();
+    private final StubJvmAnalyzer jvm = new StubJvmAnalyzer();
+    private ShadowAudioAnalyzer analyzer;
+
+    @AfterEach
+    void tearDown() {
+        jvm.release.countDown();
+        if (analyzer != null) {
+            analyzer.shutdown();
+        }
+    }
+
+    @Test
+    void recordsDivergencePerDimension() throws InterruptedException {
+        analyzer = shadow("python", 1.0, 4);
+        python.result = result(80.0, 70.0, null);
+        jvm.result = result(75.0, 72.5, 60.0);
+
+        assertSame(python.result, analyzer.analyze("a.wav", null));
+        awaitCount("compared", 1);
+
+        assertEquals(1, divergence("overall").count());
+        assertEquals(5.0, divergence("overall").totalAmount(), 1e-9);
+        assertEquals(2.5, divergence("pitch").totalAmount(), 1e-9);
+        // 只有一边有分数的维度不计入
+        assertEquals(0, divergence("rhythm").count());
+        assertEquals(0, python.unscheduledCalls.get());
+        assertEquals(1, jvm.unscheduledCalls.get());
+        assertEquals(0, jvm.scheduledCalls.get());
+    }
+
+    @Test
+    void jvmPrimaryComparesAgainstPython() throws InterruptedException {
+        analyzer = shadow("jvm", 1.0, 4);
+        jvm.result = result(90.0, null, null);
+        python.result = result(84.0, null, null);
+
+        assertSame(jvm.result, analyzer.analyze("a.wav", null));
+        awaitCount("compared", 1);
+        assertEquals(6.0, registry.get("analysis.shadow.divergence").tag("dimension", "overall")
+                .tag("primary", "jvm").tag("shadow", "python").summary().totalAmount(), 1e-9);
+        assertEquals(1, python.unscheduledCalls.get());
+    }
+
+    @Test
+    void skipsComparisonWhenPrimaryFailsOrNotSampled() throws InterruptedException {
+        analyzer = shadow("python", 1.0, 4);
+        python.result = new AudioAnalysisDTO();
+        python.result.setSuccess(false);
+        assertSame(python.result, analyzer.analyze("a.wav", null));
+        assertEquals(1, count("primary_failed"));
+
+        ShadowAudioAnalyzer unsampled = shadow("python", 0.0, 4);
+        python.result = result(80.0, null, null);
+        try {
+            unsampled.analyze("a.wav", null);
+        } finally {
+            unsampled.shutdown();
+        }
+        Thread.sleep(100);
+        assertEquals(0, jvm.unscheduledCalls.get());
+        assertEquals(0, count("compared"));
+    }
+
+    @Test
+    void countsShadowFailures() throws InterruptedException {
+        analyzer = shadow("python", 1.0, 4);
+        python.result = result(80.0, null, null);
+        jvm.failure = new IllegalStateException("解码失败");
+        analyzer.analyze("a.wav", null);
+        awaitCount("shadow_failed", 1);
+
+        jvm.failure = null;
+        jvm.result = new AudioAnalysisDTO();
+        jvm.result.setSuccess(false);
+        analyzer.analyze("b.wav", null);
+        awaitCount("shadow_failed", 2);
+        assertEquals(0, count("compared"));
+    }
+
+    @Test
+    void dropsComparisonsBeyondQueueCapacity() throws InterruptedException {
+        analyzer = shadow("python", 1.0, 1);
+        python.result = result(80.0, null, null);
+        jvm.result = result(80.0, null, null);
+        jvm.blocking = true;
+
+        // 第一条在影子线程上阻塞，第二条排队，第三条被丢弃
+        analyzer.analyze("1.wav", null);
+        awaitStarted(1);
+        analyzer.analyze("2.wav", null);
+        analyzer.analyze("3.wav", null);
+        assertEquals(1, count("dropped"));
+
+        jvm.release.countDown();
+        awaitCount("compared", 2);
+        assertEquals(0, divergence("overall").totalAmount(), 1e-9);
+    }
+
+    private ShadowAudioAnalyzer shadow(String primary, double sampleRate, int queueCapacity) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("meterRegistry", registry);
+        ShadowAudioAnalyzer shadow = new ShadowAudioAnalyzer();
+        ReflectionTestUtils.setField(shadow, "primaryName", primary);
+        ReflectionTestUtils.setField(shadow, "sampleRate", sampleRate);
+        ReflectionTestUtils.setField(shadow, "queueCapacity", queueCapacity);
+        ReflectionTestUtils.setField(shadow, "pythonAudioAnalyzer", python);
+        ReflectionTestUtils.setField(shadow, "jvmAudioAnalyzer", jvm);
+        ReflectionTestUtils.setField(shadow, "meterRegistry", beanFactory.getBeanProvider(MeterRegistry.class));
+        shadow.init();
+        return shadow;
+    }
+
+    private DistributionSummary divergence(String dimension) {
+        return registry.get("analysis.shadow.divergence").tag("dimension", dimension).summary();
+    }
+
+    private double count(String outcome) {
+        return registry.get("analysis.shadow.runs").tag("outcome", outcome).counter().count();
+    }
+
+    private void awaitCount(String outcome, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count(outcome) < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, count(outcome), outcome);
+    }
+
+    private void awaitStarted(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (jvm.unscheduledCalls.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, jvm.unscheduledCalls.get());
+    }
+
+    private static AudioAnalysisDTO result(Double overall, Double pitch, Double rhythm) {
+        AudioAnalysisDTO result = new AudioAnalysisDTO();
+        result.setSuccess(true);
+        AudioAnalysisDTO.Scores scores = new AudioAnalysisDTO.Scores();
+        scores.setOverall(overall);
+        scores.setPitch(pitch);
+        scores.setRhythm(rhythm);
+        result.setScores(scores);
+        return result;
+    }
+
+    private static class StubPythonAnalyzer extends PythonAudioAnalyzer {
+        private volatile AudioAnalysisDTO result;
+        private final AtomicInteger unscheduledCalls = new AtomicInteger();
+
+        @Override
+        public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                        AnalysisProgressListener listener) {
+            return result;
+        }
+
+        @Override
+        AudioAnalysisDTO analyzeUnscheduled(String audioFilePath, String referenceAudioPath, Set<String> features) {
+            unscheduledCalls.incrementAndGet();
+            return result;
+        }
+    }
+
+    private static class StubJvmAnalyzer extends JvmAudioAnalyzer {
+        private volatile AudioAnalysisDTO result;
+        private volatile RuntimeException failure;
+        private volatile boolean blocking;
+        private final CountDownLatch release = new CountDownLatch(1);
+        private final AtomicInteger scheduledCalls = new AtomicInteger();
+        private final AtomicInteger unscheduledCalls = new AtomicInteger();
+
+        @Override
+        public AudioAnalysisDTO analyze(String audioFilePath, String referenceAudioPath, Set<String> features,
+                                        AnalysisProgressListener listener) {
+            scheduledCalls.incrementAndGet();
+            return result;
+        }
+
+        @Override
+        AudioAnalysisDTO analyzeUnscheduled(String audioFilePath, String referenceAudioPath, Set<String> features) {
+            unscheduledCalls.incrementAndGet();
+            if (blocking) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+            return result;
+        }
+    }
+}
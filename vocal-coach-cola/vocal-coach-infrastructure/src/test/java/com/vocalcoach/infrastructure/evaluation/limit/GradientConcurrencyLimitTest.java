@@ -0,0 +1,120 @@
+package com.vocalcoach.infrastructure.evaluation.limit;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用确定的耗时样本驱动 onSample，验证上限的增长、收缩、丢弃回退和探测期重新校准基线。
+ */
+class GradientConcurrencyLimitTest {
+
+    private static final long FAST = TimeUnit.MILLISECONDS.toNanos(10);
+    private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(40);
+
+    @Test
+    void growsWhileLatencyStaysAtBaseline() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(4, 1, 20, 1.5, 0.5);
+        int previous = limit.getLimit();
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, limit.getLimit(), false);
+            assertTrue(limit.getLimit() >= previous, "sample " + i);
+            previous = limit.getLimit();
+        }
+        assertEquals(20, limit.getLimit());
+    }
+
+    @Test
+    void ignoresSamplesWhenMostlyIdle() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 1, 20, 1.5, 0.5);
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(FAST, 1, false);
+        }
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    void shrinksWhenLatencyExceedsTolerance() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(16, 1, 20, 1.5, 0.5);
+        // 并发很低时记录的耗时作为基线，不调整上限
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(FAST, 0, false);
+        }
+        assertEquals(16, limit.getLimit());
+
+        // 耗时达到基线 4 倍，梯度取下限 0.5，上限收敛到 est * 0.5 + 1 的不动点 2 附近
+        int previous = limit.getLimit();
+        for (int i = 0; i < 40; i++) {
+            limit.onSample(SLOW, 16, false);
+            assertTrue(limit.getLimit() <= previous, "sample " + i);
+            previous = limit.getLimit();
+        }
+        assertTrue(limit.getLimit() <= 3, "limit " + limit.getLimit());
+        assertTrue(limit.getLimit() >= 1);
+    }
+
+    @Test
+    void toleratesLatencyWithinTolerance() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(8, 1, 20, 1.5, 0.5);
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(FAST, 0, false);
+        }
+        // 耗时为基线的 1.4 倍，仍在 1.5 倍容忍范围内，继续增长
+        for (int i = 0; i < 20; i++) {
+            limit.onSample(FAST * 14 / 10, limit.getLimit(), false);
+        }
+        assertEquals(18, limit.getLimit());
+    }
+
+    @Test
+    void backsOffMultiplicativelyOnDrops() {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(10, 2, 20, 1.5, 0.5);
+        limit.onSample(0, 0, true);
+        assertEquals(9, limit.getLimit());
+        limit.onSample(0, 0, true);
+        assertEquals(8, limit.getLimit());
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(0, 0, true);
+        }
+        assertEquals(2, limit.getLimit());
+    }
+
+    @Test
+    void probeRecalibratesBaseline() throws InterruptedException {
+        GradientConcurrencyLimit limit = new GradientConcurrencyLimit(16, 1, 16, 1.5, 0.5);
+        for (int i = 0; i < 5; i++) {
+            limit.onSample(FAST, 0, false);
+        }
+        // 机器变慢后耗时稳定在 SLOW，基线仍是旧的 FAST，上限被压到最低附近
+        for (int i = 5; i < 99; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false);
+        }
+        int squeezed = limit.getLimit();
+        assertTrue(squeezed <= 3, "limit " + squeezed);
+        assertFalse(limit.isProbing());
+
+        // 第 100 个样本触发探测，上限临时减半
+        limit.onSample(SLOW, squeezed, false);
+        assertTrue(limit.isProbing());
+        assertTrue(limit.getLimit() <= Math.max(1, squeezed / 2 + 1));
+
+        // 探测开始前就已进入的分析不能代表无排队耗时
+        limit.onSample(TimeUnit.SECONDS.toNanos(60), 1, false);
+        assertTrue(limit.isProbing());
+
+        // 探测开始后进入并完成的一次分析把基线重置为 SLOW
+        TimeUnit.MILLISECONDS.sleep(60);
+        limit.onSample(SLOW, 1, false);
+        assertFalse(limit.isProbing());
+
+        // 基线校准后 SLOW 不再算作变慢，上限重新增长
+        for (int i = 0; i < 50; i++) {
+            limit.onSample(SLOW, limit.getLimit(), false);
+        }
+        assertEquals(16, limit.getLimit());
+    }
+}
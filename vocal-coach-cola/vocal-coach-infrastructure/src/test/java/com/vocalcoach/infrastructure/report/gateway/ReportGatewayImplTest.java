@@ -0,0 +1,207 @@
+package com.vocalcoach.infrastructure.report.gateway;
+
+import com.vocalcoach.domain.report.Report;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 增量统计与最近报告列表和全量 stream 计算（原实现）逐次比对：随机保存、覆盖、原地修改后保存和删除，
+ * 包括删掉当前最高/最低分。
+ */
+class ReportGatewayImplTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @TempDir
+    Path dataDir;
+
+    private ReportGatewayImpl gateway;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new ReportGatewayImpl();
+        ReflectionTestUtils.setField(gateway, "dataPath", dataDir.toString());
+        gateway.init();
+    }
+
+    @Test
+    void emptyStatisticsMatchBaseline() {
+        assertMatchesBaseline();
+        assertNull(gateway.getAverageScore());
+        assertEquals(Integer.valueOf(0), gateway.getBestScore());
+        assertEquals(Integer.valueOf(0), gateway.getWorstScore());
+    }
+
+    @Test
+    void deletingCurrentBestAndWorstFallsBackToNextScore() {
+        gateway.save(report(60, BASE_TIME));
+        gateway.save(report(90, BASE_TIME));
+        Report best = gateway.save(report(95, BASE_TIME));
+        Report secondBest = gateway.save(report(95, BASE_TIME));
+        Report worst = gateway.save(report(40, BASE_TIME));
+
+        gateway.deleteById(best.getId());
+        // 同分的另一条仍在
+        assertEquals(Integer.valueOf(95), gateway.getBestScore());
+        gateway.deleteById(secondBest.getId());
+        assertEquals(Integer.valueOf(90), gateway.getBestScore());
+        gateway.deleteById(worst.getId());
+        assertEquals(Integer.valueOf(60), gateway.getWorstScore());
+        assertMatchesBaseline();
+    }
+
+    @Test
+    void recentReportsBreakTimestampTiesByNewestId() {
+        List<Report> saved = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            // 每个时间点三条，另有两条没有时间
+            saved.add(gateway.save(report(50 + i, i < 12 ? BASE_TIME.plusMinutes(i / 3) : null)));
+        }
+        List<Long> ids = gateway.findTop10ByOrderByTimestampDesc().stream()
+                .map(Report::getId)
+                .collect(Collectors.toList());
+        List<Long> expected = new ArrayList<>();
+        for (int minute = 3; expected.size() < 10; minute--) {
+            for (int i = minute * 3 + 2; i >= minute * 3 && expected.size() < 10; i--) {
+                expected.add(saved.get(i).getId());
+            }
+        }
+        assertEquals(expected, ids);
+        assertMatchesBaseline();
+    }
+
+    @Test
+    void randomOperationsMatchBaseline() {
+        Random random = new Random(42);
+        List<Long> ids = new ArrayList<>();
+        for (int step = 0; step < 2000; step++) {
+            int operation = random.nextInt(10);
+            if (ids.isEmpty() || operation < 5) {
+                ids.add(gateway.save(randomReport(random)).getId());
+            } else if (operation < 6) {
+                // 覆盖保存：新对象沿用旧 ID
+                Report replacement = randomReport(random);
+                replacement.setId(ids.get(random.nextInt(ids.size())));
+                gateway.save(replacement);
+            } else if (operation < 7) {
+                // 原地修改存储中的对象后再保存
+                Report stored = gateway.findById(ids.get(random.nextInt(ids.size()))).get();
+                stored.setOverallScore(randomScore(random));
+                stored.setTimestamp(randomTime(random));
+                gateway.save(stored);
+            } else if (operation < 8) {
+                deleteExtreme(ids, random.nextBoolean());
+            } else {
+                gateway.deleteById(ids.remove(random.nextInt(ids.size())));
+            }
+            assertMatchesBaseline();
+        }
+        while (!ids.isEmpty()) {
+            deleteExtreme(ids, ids.size() % 2 == 0);
+            assertMatchesBaseline();
+        }
+    }
+
+    // 删除当前最高分或最低分的一条
+    private void deleteExtreme(List<Long> ids, boolean best) {
+        Comparator<Report> byScore = Comparator.comparingInt(ReportGatewayImplTest::overall);
+        Report extreme = gateway.findAll().stream()
+                .max(best ? byScore : byScore.reversed())
+                .get();
+        gateway.deleteById(extreme.getId());
+        ids.remove(extreme.getId());
+    }
+
+    private void assertMatchesBaseline() {
+        List<Report> reports = gateway.findAll();
+        assertEquals(reports.size(), gateway.count());
+        if (reports.isEmpty()) {
+            assertNull(gateway.getAverageScore());
+            assertNull(gateway.getAveragePitchScore());
+        } else {
+            assertEquals(reports.stream().mapToInt(ReportGatewayImplTest::overall).average().orElse(0),
+                    gateway.getAverageScore(), 1e-9);
+            assertEquals(dimensionAverage(reports, Report.Dimensions::getPitch), gateway.getAveragePitchScore(), 1e-9);
+            assertEquals(dimensionAverage(reports, Report.Dimensions::getRhythm), gateway.getAverageRhythmScore(), 1e-9);
+            assertEquals(dimensionAverage(reports, Report.Dimensions::getBreath), gateway.getAverageBreathScore(), 1e-9);
+            assertEquals(dimensionAverage(reports, Report.Dimensions::getVoice), gateway.getAverageVoiceScore(), 1e-9);
+        }
+        assertEquals(reports.stream().mapToInt(ReportGatewayImplTest::overall).max().orElse(0),
+                gateway.getBestScore().intValue());
+        assertEquals(reports.stream().mapToInt(ReportGatewayImplTest::overall).min().orElse(0),
+                gateway.getWorstScore().intValue());
+
+        // 原实现按时间倒序、空时间排最后；时间相同时现在按 ID 倒序（后保存的在前）
+        List<Long> expectedRecent = reports.stream()
+                .sorted(Comparator.comparing(Report::getTimestamp, Comparator.nullsLast(Comparator.<LocalDateTime>reverseOrder()))
+                        .thenComparing(Report::getId, Comparator.reverseOrder()))
+                .limit(10)
+                .map(Report::getId)
+                .collect(Collectors.toList());
+        assertEquals(expectedRecent, gateway.findTop10ByOrderByTimestampDesc().stream()
+                .map(Report::getId)
+                .collect(Collectors.toList()));
+    }
+
+    private static double dimensionAverage(List<Report> reports, Function<Report.Dimensions, Integer> dimension) {
+        return reports.stream()
+                .map(Report::getDimensions)
+                .filter(Objects::nonNull)
+                .map(dimension)
+                .filter(Objects::nonNull)
+                .mapToInt(Integer::intValue)
+                .average()
+                .orElse(0);
+    }
+
+    private static int overall(Report report) {
+        return report.getOverallScore() != null ? report.getOverallScore() : 0;
+    }
+
+    private static Report randomReport(Random random) {
+        Report report = report(randomScore(random), randomTime(random));
+        if (random.nextInt(5) == 0) {
+            report.setDimensions(null);
+        } else {
+            Report.Dimensions dimensions = report.getDimensions();
+            dimensions.setPitch(randomScore(random));
+            dimensions.setRhythm(randomScore(random));
+            dimensions.setBreath(randomScore(random));
+            dimensions.setVoice(randomScore(random));
+        }
+        return report;
+    }
+
+    // 分数集中在少数取值上，制造大量同分；偶尔为空
+    private static Integer randomScore(Random random) {
+        return random.nextInt(8) == 0 ? null : 40 + random.nextInt(12) * 5;
+    }
+
+    private static LocalDateTime randomTime(Random random) {
+        return random.nextInt(10) == 0 ? null : BASE_TIME.plusMinutes(random.nextInt(20));
+    }
+
+    private static Report report(Integer overall, LocalDateTime timestamp) {
+        Report report = new Report();
+        report.setSongName("测试歌曲");
+        report.setOverallScore(overall);
+        report.setDimensions(new Report.Dimensions());
+        report.setTimestamp(timestamp);
+        return report;
+    }
+}
@@ -0,0 +1,246 @@
+package com.vocalcoach.infrastructure.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证 ID 分配、原地修改后索引迁移、排序索引分页（空键、同键、倒序）、upsertFirstByIndex，
+ * 以及并发保存/删除后主索引与各二级索引保持一致。
+ */
+class IndexedStoreTest {
+
+    private static final String INDEX_CATEGORY = "category";
+    private static final String INDEX_SCORE = "score";
+    private static final Comparator<Item> ASCENDING = Comparator
+            .comparing(Item::getScore, Comparator.nullsFirst(Comparator.<Integer>naturalOrder()))
+            .thenComparing(Item::getId);
+
+    private final IndexedStore<Item> store = new IndexedStore<>(Item::getId, Item::setId)
+            .withHashIndex(INDEX_CATEGORY, Item::getCategory)
+            .withSortedIndex(INDEX_SCORE, Item::getScore);
+
+    @Test
+    void assignsIdsAfterLoadedAndExplicitIds() {
+        store.loadAll(Arrays.asList(item(3L, "a", 1), item(7L, "a", 2)));
+        assertEquals(Long.valueOf(8), store.save(item(null, "a", 3)).getId());
+        store.save(item(20L, "b", 4));
+        assertEquals(Long.valueOf(21), store.save(item(null, "b", 5)).getId());
+        assertEquals(Arrays.asList(3L, 7L, 8L, 20L, 21L), ids(store.findAll()));
+    }
+
+    @Test
+    void reKeysIndexesWhenRecordChangesInPlace() {
+        Item item = store.save(item(null, "a", 5));
+        store.save(item(null, "a", 6));
+
+        item.setCategory("b");
+        item.setScore(9);
+        store.save(item);
+        assertEquals(1, store.countByIndex(INDEX_CATEGORY, "a"));
+        assertEquals(Arrays.asList(item), store.findByIndex(INDEX_CATEGORY, "b"));
+        assertEquals(Arrays.asList(2L, 1L), ids(store.findTopBySortedIndex(INDEX_SCORE, 10, false)));
+
+        // 键变为空后排在最前，旧键不残留
+        item.setCategory(null);
+        item.setScore(null);
+        store.save(item);
+        assertEquals(0, store.countByIndex(INDEX_CATEGORY, "b"));
+        assertEquals(Arrays.asList(item), store.findByIndex(INDEX_CATEGORY, null));
+        assertEquals(Arrays.asList(1L, 2L), ids(store.findTopBySortedIndex(INDEX_SCORE, 10, false)));
+
+        store.deleteById(item.getId());
+        assertEquals(0, store.countByIndex(INDEX_CATEGORY, null));
+        assertEquals(Arrays.asList(2L), ids(store.findTopBySortedIndex(INDEX_SCORE, 10, false)));
+    }
+
+    @Test
+    void pagesSortedIndexWithNullKeysAndTies() {
+        Integer[] scores = {7, null, 3, 5, 3, null, 7, 3, 9, null, 5, 7, 3};
+        for (Integer score : scores) {
+            store.save(item(null, "a", score));
+        }
+        List<Item> ascending = store.findAll().stream().sorted(ASCENDING).collect(Collectors.toList());
+        List<Item> descending = store.findAll().stream().sorted(ASCENDING.reversed()).collect(Collectors.toList());
+
+        for (int limit : new int[]{1, 2, 3, 5, 13, 20}) {
+            assertEquals(ids(ascending), ids(pageThrough(limit, false)), "limit " + limit);
+            assertEquals(ids(descending), ids(pageThrough(limit, true)), "limit " + limit);
+        }
+        assertEquals(ids(descending.subList(0, 4)), ids(store.findTopBySortedIndex(INDEX_SCORE, 4, true)));
+    }
+
+    @Test
+    void upsertCreatesOnceAndSerializesUpdates() throws Exception {
+        int threads = 8;
+        int updates = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < updates; i++) {
+                    store.upsertFirstByIndex(INDEX_CATEGORY, "shared", () -> item(null, "shared", 0),
+                            item -> item.setScore(item.getScore() + 1));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(1, store.size());
+        Item shared = store.findFirstByIndex(INDEX_CATEGORY, "shared").get();
+        assertEquals(Integer.valueOf(threads * updates), shared.getScore());
+        assertEquals(Arrays.asList(shared), store.findTopBySortedIndex(INDEX_SCORE, 10, false));
+    }
+
+    @Test
+    void concurrentSavesAndDeletesKeepIndexesConsistent() throws Exception {
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean writing = new AtomicBoolean(true);
+        Map<Long, Item> expected = new ConcurrentHashMap<>();
+        List<Future<?>> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int seed = t;
+            writers.add(executor.submit(() -> {
+                Random random = new Random(seed);
+                List<Long> own = new ArrayList<>();
+                start.await();
+                for (int i = 0; i < 2000; i++) {
+                    int operation = random.nextInt(4);
+                    if (own.isEmpty() || operation < 2) {
+                        Item saved = store.save(randomItem(null, random));
+                        own.add(saved.getId());
+                        expected.put(saved.getId(), saved);
+                    } else if (operation == 2) {
+                        // 用新对象覆盖自己的一条记录，分类和分数都可能变化
+                        Item replacement = randomItem(own.get(random.nextInt(own.size())), random);
+                        store.save(replacement);
+                        expected.put(replacement.getId(), replacement);
+                    } else {
+                        Long id = own.remove(random.nextInt(own.size()));
+                        assertTrue(store.deleteById(id).isPresent());
+                        expected.remove(id);
+                    }
+                }
+                return null;
+            }));
+        }
+        // 写入期间无锁读取排序索引：每条记录都挂在与自身分数一致的键下，结果严格有序
+        Future<?> reader = executor.submit(() -> {
+            start.await();
+            while (writing.get()) {
+                List<Item> page = store.findPageBySortedIndex(INDEX_SCORE, 50, 0L, 100, false);
+                for (int i = 0; i < page.size(); i++) {
+                    assertTrue(page.get(i).getScore() != null && page.get(i).getScore() >= 50);
+                    if (i > 0) {
+                        assertTrue(ASCENDING.compare(page.get(i - 1), page.get(i)) < 0);
+                    }
+                }
+            }
+            return null;
+        });
+        start.countDown();
+        for (Future<?> future : writers) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        writing.set(false);
+        reader.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+
+        List<Long> expectedIds = expected.keySet().stream().sorted().collect(Collectors.toList());
+        assertEquals(expectedIds.size(), store.size());
+        assertEquals(expectedIds, ids(store.findAll()));
+        assertEquals(expectedIds, ids(store.findPageById(null, Integer.MAX_VALUE, false)));
+        assertEquals(ids(expected.values().stream().sorted(ASCENDING).collect(Collectors.toList())),
+                ids(store.findTopBySortedIndex(INDEX_SCORE, Integer.MAX_VALUE, false)));
+
+        Map<String, Set<Long>> byCategory = new HashMap<>();
+        expected.values().forEach(item ->
+                byCategory.computeIfAbsent(item.getCategory(), k -> new HashSet<>()).add(item.getId()));
+        for (String category : Arrays.asList("a", "b", "c", "d")) {
+            Set<Long> ids = byCategory.getOrDefault(category, new HashSet<>());
+            assertEquals(ids, new HashSet<>(ids(store.findByIndex(INDEX_CATEGORY, category))), category);
+        }
+        expected.values().forEach(item -> assertEquals(item, store.findById(item.getId()).get()));
+    }
+
+    // 按上一页最后一条的 (score, id) 作游标逐页读取
+    private List<Item> pageThrough(int limit, boolean descending) {
+        List<Item> all = new ArrayList<>();
+        Set<Long> seen = new HashSet<>();
+        Integer afterScore = null;
+        Long afterId = null;
+        while (true) {
+            List<Item> page = store.findPageBySortedIndex(INDEX_SCORE, afterScore, afterId, limit, descending);
+            assertTrue(page.size() <= limit);
+            for (Item item : page) {
+                assertTrue(seen.add(item.getId()), "重复的记录 " + item.getId());
+            }
+            all.addAll(page);
+            if (page.size() < limit) {
+                return all;
+            }
+            Item last = page.get(page.size() - 1);
+            afterScore = last.getScore();
+            afterId = last.getId();
+        }
+    }
+
+    private static Item randomItem(Long id, Random random) {
+        String category = String.valueOf((char) ('a' + random.nextInt(4)));
+        Integer score = random.nextInt(10) == 0 ? null : random.nextInt(100);
+        return item(id, category, score);
+    }
+
+    private static Item item(Long id, String category, Integer score) {
+        Item item = new Item();
+        item.setId(id);
+        item.setCategory(category);
+        item.setScore(score);
+        return item;
+    }
+
+    private static List<Long> ids(List<Item> items) {
+        return items.stream().map(Item::getId).collect(Collectors.toList());
+    }
+
+    static class Item {
+        private Long id;
+        private String category;
+        private Integer score;
+
+        Long getId() { return id; }
+        void setId(Long id) { this.id = id; }
+        String getCategory() { return category; }
+        void setCategory(String category) { this.category = category; }
+        Integer getScore() { return score; }
+        void setScore(Integer score) { this.score = score; }
+    }
+}
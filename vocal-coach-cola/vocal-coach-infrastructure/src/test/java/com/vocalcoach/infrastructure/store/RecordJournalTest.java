@@ -0,0 +1,197 @@
+package com.vocalcoach.infrastructure.store;
+
+import com.vocalcoach.domain.report.Report;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * 验证回放顺序（快照 -> 压缩中日志 -> 当前日志）、半行记录、删除标记，以及启动时遗留压缩中日志的处理。
+ */
+class RecordJournalTest {
+
+    private static final String NAME = "reports";
+
+    @TempDir
+    Path dataDir;
+
+    private final List<RecordJournal<Report>> journals = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        journals.forEach(RecordJournal::close);
+    }
+
+    @Test
+    void replaysSnapshotThenCompactingThenJournal() throws IOException {
+        write(NAME + ".json", "[" + record(1, "快照") + "," + record(2, "快照") + "," + record(5, "快照") + "]");
+        write(NAME + ".journal.compacting", lines(put(1, "压缩中"), delete(2), put(3, "压缩中")));
+        write(NAME + ".journal", lines(put(3, "日志"), put(4, "日志"), delete(5)));
+
+        Map<Long, String> loaded = songNames(open(100).load());
+
+        Map<Long, String> expected = new LinkedHashMap<>();
+        expected.put(1L, "压缩中");
+        expected.put(3L, "日志");
+        expected.put(4L, "日志");
+        assertEquals(expected, loaded);
+    }
+
+    @Test
+    void skipsTornTrailingLineAndKeepsLaterAppends() throws IOException {
+        write(NAME + ".journal", lines(put(1, "完整"), put(2, "完整"))
+                + "{\"op\":\"put\",\"id\":3,\"record\":{\"id\":3,\"songNa");
+
+        RecordJournal<Report> journal = open(100);
+        assertEquals(Arrays.asList(1L, 2L), ids(journal.load()));
+
+        // 追加在半行之后的记录不能和它连成一行
+        journal.appendPut(report(4, "崩溃后"), ArrayList::new);
+        journal.close();
+
+        Map<Long, String> reloaded = songNames(open(100).load());
+        assertEquals(Arrays.asList(1L, 2L, 4L), new ArrayList<>(reloaded.keySet()));
+        assertEquals("崩溃后", reloaded.get(4L));
+    }
+
+    @Test
+    void deleteTombstonesSurviveRestart() throws IOException {
+        write(NAME + ".json", "[" + record(1, "快照") + "," + record(2, "快照") + "]");
+        RecordJournal<Report> journal = open(100);
+        journal.load();
+        journal.appendDelete(1L, ArrayList::new);
+        journal.appendPut(report(3, "新增"), ArrayList::new);
+        journal.appendDelete(3L, ArrayList::new);
+        // 删除不存在的记录不影响回放
+        journal.appendDelete(99L, ArrayList::new);
+        journal.appendPut(report(3, "重新添加"), ArrayList::new);
+        journal.close();
+
+        Map<Long, String> reloaded = songNames(open(100).load());
+        Map<Long, String> expected = new LinkedHashMap<>();
+        expected.put(2L, "快照");
+        expected.put(3L, "重新添加");
+        assertEquals(expected, reloaded);
+    }
+
+    @Test
+    void leftoverCompactingJournalIsMergedIntoNextSnapshot() throws Exception {
+        // 上次压缩写快照前进程退出：压缩中日志里的记录不在快照里，且末尾是半行
+        write(NAME + ".json", "[" + record(1, "快照") + "]");
+        write(NAME + ".journal.compacting", lines(put(2, "遗留"), delete(1))
+                + "{\"op\":\"put\",\"id\":9");
+        write(NAME + ".journal", lines(put(3, "日志")));
+
+        Map<Long, Report> state = new LinkedHashMap<>();
+        RecordJournal<Report> journal = open(3);
+        journal.load().forEach(report -> state.put(report.getId(), report));
+        assertEquals(Arrays.asList(2L, 3L), new ArrayList<>(state.keySet()));
+
+        // 当前日志已有 1 条，再追加 2 条达到阈值，触发压缩：当前日志接到遗留日志之后，再写出快照
+        for (long id = 4; id <= 5; id++) {
+            Report report = report(id, "压缩前");
+            state.put(id, report);
+            journal.appendPut(report, () -> new ArrayList<>(state.values()));
+        }
+        awaitDeleted(dataDir.resolve(NAME + ".journal.compacting"));
+
+        Report after = report(6, "压缩后");
+        state.put(6L, after);
+        journal.appendPut(after, () -> new ArrayList<>(state.values()));
+        journal.close();
+
+        assertFalse(Files.exists(dataDir.resolve(NAME + ".journal.compacting")));
+        assertEquals(Arrays.asList(2L, 3L, 4L, 5L, 6L), ids(open(100).load()));
+    }
+
+    @Test
+    void compactionKeepsStateAcrossManyCycles() throws Exception {
+        Map<Long, Report> state = new LinkedHashMap<>();
+        RecordJournal<Report> journal = open(5);
+        journal.load();
+        for (long step = 1; step <= 60; step++) {
+            if (step % 4 == 0) {
+                Long id = state.keySet().iterator().next();
+                state.remove(id);
+                journal.appendDelete(id, () -> new ArrayList<>(state.values()));
+            } else {
+                Report report = report(step, "第" + step + "次");
+                state.put(step, report);
+                journal.appendPut(report, () -> new ArrayList<>(state.values()));
+            }
+        }
+        awaitDeleted(dataDir.resolve(NAME + ".journal.compacting"));
+        journal.close();
+
+        assertEquals(new ArrayList<>(state.keySet()),
+                open(5).load().stream().map(Report::getId).sorted().collect(Collectors.toList()));
+    }
+
+    private RecordJournal<Report> open(int compactThreshold) {
+        RecordJournal<Report> journal = new RecordJournal<>(dataDir, NAME, Report.class, Report::getId,
+                compactThreshold);
+        journals.add(journal);
+        return journal;
+    }
+
+    private void write(String fileName, String content) throws IOException {
+        Files.write(dataDir.resolve(fileName), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void awaitDeleted(Path file) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (Files.exists(file) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(Files.exists(file));
+    }
+
+    private static String lines(String... lines) {
+        return String.join("\n", lines) + "\n";
+    }
+
+    private static String put(long id, String songName) {
+        return "{\"op\":\"put\",\"id\":" + id + ",\"record\":" + record(id, songName) + "}";
+    }
+
+    private static String delete(long id) {
+        return "{\"op\":\"delete\",\"id\":" + id + "}";
+    }
+
+    private static String record(long id, String songName) {
+        return "{\"id\":" + id + ",\"songName\":\"" + songName + "\"}";
+    }
+
+    private static Report report(long id, String songName) {
+        Report report = new Report();
+        report.setId(id);
+        report.setSongName(songName);
+        return report;
+    }
+
+    private static List<Long> ids(List<Report> reports) {
+        return reports.stream().map(Report::getId).collect(Collectors.toList());
+    }
+
+    private static Map<Long, String> songNames(List<Report> reports) {
+        Map<Long, String> names = new LinkedHashMap<>();
+        reports.forEach(report -> names.put(report.getId(), report.getSongName()));
+        assertEquals(reports.size(), names.size());
+        return names;
+    }
+}
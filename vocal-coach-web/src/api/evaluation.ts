@@ -6,7 +6,7 @@ import type {
   UploadAudioResponse,
   EvaluationListItem,
 } from '../types/evaluation'
-import type { ApiResponse, MultiResponse } from '../types'
+import type { ApiResponse, CursorPageQuery, CursorPageResponse } from '../types'
 
 export const evaluationApi = {
   uploadAudio: (file: File): Promise<ApiResponse<UploadAudioResponse>> => {
@@ -24,8 +24,8 @@ export const evaluationApi = {
     return request.post('/evaluation/analyze', cmd)
   },
 
-  listEvaluations: (): Promise<MultiResponse<EvaluationListItem>> => {
-    return request.get('/evaluation/list')
+  listEvaluations: (query?: CursorPageQuery): Promise<CursorPageResponse<EvaluationListItem>> => {
+    return request.get('/evaluation/list', { params: query })
   },
 
   getEvaluation: (id: number): Promise<ApiResponse<EvaluationResult>> => {
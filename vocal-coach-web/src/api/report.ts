@@ -1,13 +1,13 @@
 import request from './request'
-import type { Report, Statistics, SaveReportCmd, MultiResponse, ApiResponse } from '../types'
+import type { Report, Statistics, SaveReportCmd, ApiResponse, CursorPageQuery, CursorPageResponse } from '../types'
 
 export const reportApi = {
   save: (data: SaveReportCmd): Promise<ApiResponse<Report>> => {
     return request.post('/reports', data)
   },
 
-  getAll: (): Promise<MultiResponse<Report>> => {
-    return request.get('/reports')
+  getAll: (query?: CursorPageQuery): Promise<CursorPageResponse<Report>> => {
+    return request.get('/reports', { params: query })
   },
 
   getById: (id: number): Promise<ApiResponse<Report>> => {
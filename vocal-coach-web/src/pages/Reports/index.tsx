@@ -90,17 +90,23 @@ export default function ReportsPage() {
   const navigate = useNavigate()
   const [evaluations, setEvaluations] = useState<EvaluationResult[]>([])
   const [loading, setLoading] = useState(true)
+  const [nextCursor, setNextCursor] = useState<string>()
+  const [totalCount, setTotalCount] = useState(0)
 
   useEffect(() => {
     fetchEvaluations()
   }, [])
 
-  const fetchEvaluations = async () => {
+  // 不传 cursor 时重新加载第一页，否则追加下一页
+  const fetchEvaluations = async (cursor?: string) => {
     setLoading(true)
     try {
-      const response = await evaluationApi.listEvaluations()
+      const response = await evaluationApi.listEvaluations({ cursor })
       if (response.success && response.data) {
-        setEvaluations(response.data as unknown as EvaluationResult[])
+        const page = response.data as unknown as EvaluationResult[]
+        setEvaluations((prev) => (cursor ? [...prev, ...page] : page))
+        setNextCursor(response.hasMore ? response.nextCursor : undefined)
+        setTotalCount(response.totalCount)
       }
     } catch (error) {
       console.error('Failed to fetch evaluations:', error)
@@ -146,7 +152,7 @@ export default function ReportsPage() {
     <div className="reports-page">
       <header className="page-header">
         <Title level={4}>评测报告</Title>
-        <Text type="secondary" className="report-count">{evaluations.length} 条记录</Text>
+        <Text type="secondary" className="report-count">{totalCount} 条记录</Text>
       </header>
 
       <Spin spinning={loading} tip="加载中...">
@@ -212,6 +218,11 @@ export default function ReportsPage() {
               </div>
             ))
           )}
+          {nextCursor && (
+            <Button block type="link" onClick={() => fetchEvaluations(nextCursor)}>
+              加载更多
+            </Button>
+          )}
         </div>
       </Spin>
     </div>
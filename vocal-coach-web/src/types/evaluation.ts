@@ -2,6 +2,8 @@ export interface AnalyzeAudioCmd {
   songName: string
   audioFilePath: string
   referenceAudioPath?: string
+  targetBpm?: number
+  backend?: 'python' | 'jvm' | 'shadow'
 }
 
 export interface EvaluationScores {
@@ -46,6 +48,8 @@ export interface EvaluationFeatures {
     tempo?: number
     beatRegularity?: number
     rhythmScore?: number
+    targetBpm?: number
+    tempoScore?: number
   }
   voice?: {
     jitter?: number
@@ -73,6 +77,7 @@ export interface EvaluationFeatures {
     hasReference?: boolean
     dtwDistance?: number
     similarityScore?: number
+    dtwAbandoned?: boolean
   } | null
 }
 
@@ -101,6 +101,19 @@ export interface MultiResponse<T> {
   data?: T[]
 }
 
+export interface CursorPageResponse<T> extends MultiResponse<T> {
+  nextCursor?: string
+  hasMore: boolean
+  totalCount: number
+}
+
+export interface CursorPageQuery {
+  cursor?: string
+  limit?: number
+  sort?: 'time' | 'score' | 'id'
+  order?: 'asc' | 'desc'
+}
+
 export interface SaveReportCmd {
   songName: string
   overallScore: number